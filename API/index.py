@@ -1,10 +1,11 @@
 from flask import Flask, jsonify, request
 from functools import wraps
 from datetime import datetime, timedelta
-import os, jwt, requests
+import os, jwt, requests, json, base64
 import openrouteservice
 from math import radians, cos, sin, asin, sqrt
 import uuid
+import hashlib
 import requests
 
 #The SQL query is automatically built and executed by Supabase based on:
@@ -40,6 +41,9 @@ USER_URL = f"{SUPABASE_REST_URL}/user"
 PRO_INFO_URL = f"{SUPABASE_REST_URL}/pro_info"
 SERVICE_URL = f"{SUPABASE_REST_URL}/service"
 
+# Lifetime of the JWT returned by /login
+TOKEN_LIFETIME = timedelta(days=7)
+
 # HTTP Status Codes
 OK_CODE = 200
 CREATED_CODE = 201
@@ -58,6 +62,45 @@ def supabase_headers():
         "Content-Type": "application/json"
     }
 
+##################################### Conditional GET (ETag) #########################################
+@app.after_request
+def add_etag(response):
+    """ Adds an ETag to successful JSON GET responses.
+        When the client's If-None-Match matches, the body is dropped and a 304 is sent instead,
+        so the app only pays one small round trip to revalidate its cached copy."""
+    if request.method == "GET" and response.status_code == OK_CODE and response.mimetype == "application/json":
+        response.add_etag()
+        response.make_conditional(request)
+    return response
+
+##################################### Cursor pagination ##############################################
+MAX_PAGE_SIZE = 100
+
+def paginate(rows, sort_key):
+    """ Returns a sorted list endpoint result, one page at a time when the client asks for it.
+        Without a "limit" parameter the whole list is returned, as before.
+        With it, the response is {"items": [...], "nextCursor": ...}: the cursor holds the sort key
+        of the last row sent, so the next page starts right after it even if rows were added or
+        removed in between. rows must be sorted by sort_key, which must be unique per row."""
+    limit = request.args.get("limit", type=int)
+    if not limit:
+        return jsonify(rows), OK_CODE
+    limit = max(1, min(limit, MAX_PAGE_SIZE))
+
+    cursor = request.args.get("cursor")
+    if cursor:
+        try:
+            after = tuple(json.loads(base64.urlsafe_b64decode(cursor.encode()).decode()))
+        except (ValueError, TypeError):
+            return jsonify({"message": "Invalid cursor"}), BAD_REQUEST_CODE
+        rows = [r for r in rows if sort_key(r) > after]
+
+    page = rows[:limit]
+    next_cursor = None
+    if len(rows) > limit:
+        next_cursor = base64.urlsafe_b64encode(json.dumps(list(sort_key(page[-1]))).encode()).decode()
+    return jsonify({"items": page, "nextCursor": next_cursor}), OK_CODE
+
 @app.route('/', methods=['GET'])
 def home():
     return jsonify({"message": "Welcome to the QuickFix API!"})
@@ -183,8 +226,10 @@ def login():
     if user["user_password"] != content["password"]:
         return jsonify({"message": "Invalid credentials"}), UNAUTHORIZED_CODE
 
+    # Expiring tokens: the app reads "exp" and asks the user to log in again before it is reached
     token = jwt.encode({
         "id": user["user_id"],
+        "exp": datetime.utcnow() + TOKEN_LIFETIME
     }, app.config["SECRET_KEY"], algorithm="HS256")
 
     return jsonify({"token": token, "userId": user["user_id"]}), OK_CODE
@@ -405,9 +450,11 @@ def get_providers():
         )
 
         filtered = [r for r in filtered if r.get("distanceKm", 1e9) <= max_distance_km]
-        filtered.sort(key=lambda r: r.get("distanceKm", 1e9))
+        # Sort by distance; provider and role make the key unique for pagination
+        sort_key = lambda r: (r.get("distanceKm", 1e9), r["id"], r["role"])
+        filtered.sort(key=sort_key)
 
-        return jsonify(filtered), OK_CODE
+        return paginate(filtered, sort_key)
 
     except Exception as e:
         return jsonify({"message": f"Error: {str(e)}"}), SERVER_ERROR
@@ -652,9 +699,10 @@ def get_service_requests():
         filtered = [r for r in filtered if r.get("distanceKm", 1e9) <= max_distance_km]
 
         # Sort by distance then deadline
-        filtered.sort(key=lambda r: (r.get("distanceKm", float('inf')), r.get("service_deadline", "")))
+        sort_key = lambda r: (r.get("distanceKm", float('inf')), r.get("service_deadline") or "", r["request_id"])
+        filtered.sort(key=sort_key)
 
-        return jsonify(filtered), OK_CODE
+        return paginate(filtered, sort_key)
 
     except Exception as e:
         return jsonify({"message": f"Error: {str(e)}"}), SERVER_ERROR
@@ -822,18 +870,45 @@ def get_client_requests():
         )
 
         # Sort by deadline then distance
-        filtered.sort(key=lambda r: (r.get("service_deadline", ""), r.get("distanceKm", float('inf'))))
+        sort_key = lambda r: (r.get("service_deadline") or "", r.get("distanceKm", float('inf')), r["request_id"])
+        filtered.sort(key=sort_key)
 
-        return jsonify(filtered), OK_CODE
+        return paginate(filtered, sort_key)
 
     except Exception as e:
         return jsonify({"message": f"Error: {str(e)}"}), SERVER_ERROR
 
 ####################################### ADD REQUEST
+def notify_matching_providers(request_id, service_type, headers):
+    """ Adds every provider with a matching role to the requested_providers of a request.
+        Providers already there are skipped, so it can be run again for the same request."""
+    notified_res = requests.get(f"{SUPABASE_REST_URL}/requested_providers?request_id=eq.{request_id}&select=sp_id", headers=headers)
+    notified = {row["sp_id"] for row in notified_res.json()}
+
+    pro_res = requests.get(f"{PRO_INFO_URL}?pro_role=eq.{service_type}", headers=headers)
+    for sp in pro_res.json():
+        if sp["pro_id"] in notified:
+            continue
+        notified.add(sp["pro_id"])
+        requests.post(f"{SUPABASE_REST_URL}/requested_providers", headers=headers, json={
+            "request_id": request_id,
+            "sp_id": sp["pro_id"],
+            "sp_status": "pending"
+        })
+
+def find_request_by_idempotency_key(user_id, key, headers):
+    """ Returns the request a user already created with an idempotency key, or None."""
+    res = requests.get(f"{SUPABASE_REST_URL}/service_request", headers=headers,
+                       params={"requester": f"eq.{user_id}", "idempotency_key": f"eq.{key}"})
+    rows = res.json() if res.status_code == OK_CODE else []
+    return rows[0] if rows else None
+
 @app.route("/request", methods=["POST"])
 @auth_user
 def add_service_request():
-    """Creates a new service request and optionally notifies matching providers."""
+    """Creates a new service request and optionally notifies matching providers.
+       With an Idempotency-Key header, a request sent again with the same key (e.g. after its
+       response was lost) is created only once and gets the same answer."""
 
     content = request.get_json()
     required_fields = ["service_title", "service_type", "service_description", "service_location", "service_price", "service_deadline"]
@@ -841,42 +916,46 @@ def add_service_request():
     if not all(field in content for field in required_fields):
         return jsonify({"message": "Missing required fields"}), BAD_REQUEST_CODE
 
+    idempotency_key = request.headers.get("Idempotency-Key")
+
     try:
         headers = supabase_headers()
         headers["Prefer"] = "return=representation"
-        
-        request_body = {
-            "service_title": content["service_title"],
-            "service_type": content["service_type"],
-            "service_description": content["service_description"],
-            "service_location": content["service_location"],
-            "service_price": content["service_price"],
-            "service_deadline": content["service_deadline"],
-            "requester": request.user_id,
-            "request_status": "pending"
-        }
 
-        if "requested_provider" in content:
-            request_body["requested_provider"] = content["requested_provider"]
+        created_request = None
+        if idempotency_key:
+            created_request = find_request_by_idempotency_key(request.user_id, idempotency_key, headers)
+
+        if created_request is None:
+            request_body = {
+                "service_title": content["service_title"],
+                "service_type": content["service_type"],
+                "service_description": content["service_description"],
+                "service_location": content["service_location"],
+                "service_price": content["service_price"],
+                "service_deadline": content["service_deadline"],
+                "requester": request.user_id,
+                "request_status": "pending"
+            }
 
-        res = requests.post(f"{SUPABASE_REST_URL}/service_request", headers=headers, json=request_body)
-        if res.status_code not in [OK_CODE, CREATED_CODE]:
-            return jsonify({"message": res.text}), res.status_code
+            if "requested_provider" in content:
+                request_body["requested_provider"] = content["requested_provider"]
+            if idempotency_key:
+                request_body["idempotency_key"] = idempotency_key
 
-        created_request = res.json()[0]
-        request_id = created_request["request_id"]
+            res = requests.post(f"{SUPABASE_REST_URL}/service_request", headers=headers, json=request_body)
+            if res.status_code == CONFLICT_CODE and idempotency_key:
+                # The same request arrived twice at once: the other one created it
+                created_request = find_request_by_idempotency_key(request.user_id, idempotency_key, headers)
+            elif res.status_code in [OK_CODE, CREATED_CODE]:
+                created_request = res.json()[0]
+            if created_request is None:
+                return jsonify({"message": res.text}), res.status_code
 
         # Notify all providers with matching roles via the requested_providers table
+        # (again on a repeated request, in case the first one stopped halfway)
         if "requested_provider" not in content:
-            pro_res = requests.get(
-                f"{PRO_INFO_URL}?pro_role=eq.{content['service_type']}", headers=headers
-            )
-            for sp in pro_res.json():
-                requests.post(f"{SUPABASE_REST_URL}/requested_providers", headers=headers, json={
-                    "request_id": request_id,
-                    "sp_id": sp["pro_id"],
-                    "sp_status": "pending"
-                })
+            notify_matching_providers(created_request["request_id"], content["service_type"], headers)
 
         return jsonify({"message": "Service request created"}), CREATED_CODE
 
@@ -981,6 +1060,9 @@ def handle_service_request():
         original = request_data[0]
 
         if decision is True:
+            if original.get("request_status") == "accepted" and original.get("requested_provider") == provider_id:
+                # A repeated accept, e.g. sent again after its answer was lost: same result as the first
+                return jsonify({"message": "Service request accepted"}), OK_CODE
             if original.get("request_status") != "pending":
                 return jsonify({"message": "Service request has already been accepted or closed"}), CONFLICT_CODE
             
@@ -1177,9 +1259,10 @@ def get_services_by_provider(provider_id):
         )
 
         # Sort by deadline then distance
-        filtered.sort(key=lambda s: (s.get("service_deadline", ""), s.get("distanceKm", float('inf'))))
+        sort_key = lambda s: (s.get("service_deadline") or "", s.get("distanceKm", float('inf')), s["service_id"])
+        filtered.sort(key=sort_key)
 
-        return jsonify(filtered), OK_CODE
+        return paginate(filtered, sort_key)
 
     except Exception as e:
         return jsonify({"message": f"Error fetching provider's services: {str(e)}"}), SERVER_ERROR
@@ -1302,39 +1385,234 @@ def upload_profile_picture():
         return jsonify({"message": "No selected file"}), BAD_REQUEST_CODE
 
     try:
-        filename = f"{uuid.uuid4()}.png"
-        upload_url = f"{SUPABASE_URL}/storage/v1/object/pfps/{filename}"
-        public_url = f"{SUPABASE_URL}/storage/v1/object/public/pfps/{filename}"
-
-        # Supabase requires the file to be uploaded using a separate service role key for public buckets
-        storage_headers = {
-            "Authorization": f"Bearer {SUPABASE_SERVICE_ROLE_KEY}",
-            "Content-Type": file.content_type,
-            "x-upsert": "true"
-        }
+        return store_profile_picture(request.user_id, file.read(), file.content_type)
+    except Exception as e:
+        return jsonify({"message": f"Error: {str(e)}"}), SERVER_ERROR
+
+def store_profile_picture(user_id, file_bytes, content_type):
+    """ Stores a picture in Supabase Storage and points the user's pfp row to it.
+        Returns the Flask response of the upload endpoints."""
+
+    # Content-addressed name: the URL changes only when the picture does, so clients can cache it forever
+    version = hashlib.sha256(file_bytes).hexdigest()[:32]
+    filename = f"{user_id}-{version}.png"
+    upload_url = f"{SUPABASE_URL}/storage/v1/object/pfps/{filename}"
+    public_url = f"{SUPABASE_URL}/storage/v1/object/public/pfps/{filename}"
+
+    # Supabase requires the file to be uploaded using a separate service role key for public buckets
+    storage_headers = {
+        "Authorization": f"Bearer {SUPABASE_SERVICE_ROLE_KEY}",
+        "Content-Type": content_type,
+        "x-upsert": "true"
+    }
+
+    res = requests.put(upload_url, headers=storage_headers, data=file_bytes)
+    if not res.ok:
+        return jsonify({"message": "Failed to upload", "details": res.text}), SERVER_ERROR
+
+    # DB update
+    db_headers = supabase_headers()
+    check = requests.get(f"{SUPABASE_REST_URL}/pfp?pfp_user_id=eq.{user_id}", headers=db_headers).json()
+
+    if check:
+        requests.patch(f"{SUPABASE_REST_URL}/pfp?pfp_user_id=eq.{user_id}", headers=db_headers, json={"user_pfp": public_url})
+    else:
+        requests.post(f"{SUPABASE_REST_URL}/pfp", headers=db_headers, json={
+            "pfp_user_id": user_id,
+            "user_pfp": public_url
+        })
+
+    return jsonify({"message": "Profile picture updated", "url": public_url, "version": version}), OK_CODE
+
+####################################### RESUMABLE (CHUNKED) PROFILE PICTURE UPLOAD
+# Protocol, for clients on unreliable links:
+#   POST /profilePicture/uploads                 {"size": N}  -> {"uploadId", "size", "received": 0, "chunkSize"}
+#   GET  /profilePicture/uploads/<id>                          -> {"uploadId", "size", "received"}
+#   PUT  /profilePicture/uploads/<id>?offset=O   raw bytes    -> {"uploadId", "size", "received"}
+#        (409 with the current "received" if O is not where the upload stands)
+#   POST /profilePicture/uploads/<id>/complete                -> same as PUT /profilePicture
+# Each chunk is its own storage object named after its offset, so the state survives
+# across serverless instances and a client can always ask where to resume.
+# Once complete, the chunks are replaced by a "completed" marker holding the answer: asking for
+# the status then reports every byte received, and completing again returns the same picture,
+# so a client whose "complete" response was lost does not upload it again.
+UPLOAD_CHUNK_SIZE = 256 * 1024
+MAX_UPLOAD_SIZE = 10 * 1024 * 1024
+
+def storage_service_headers(content_type=None):
+    headers = {"Authorization": f"Bearer {SUPABASE_SERVICE_ROLE_KEY}"}
+    if content_type:
+        headers["Content-Type"] = content_type
+    return headers
+
+def upload_prefix(user_id, upload_id):
+    return f"uploads/{user_id}/{upload_id}"
+
+def list_upload_chunks(user_id, upload_id):
+    """ Returns the (offset, size) of the stored chunks of an upload, sorted by offset,
+        or None if the upload does not exist."""
+    res = requests.post(f"{SUPABASE_URL}/storage/v1/object/list/pfps",
+                        headers=storage_service_headers("application/json"),
+                        json={"prefix": upload_prefix(user_id, upload_id) + "/", "limit": 1000})
+    if not res.ok:
+        raise Exception(res.text)
+
+    chunks = []
+    for entry in res.json():
+        name = entry.get("name", "")
+        if not name.isdigit():
+            continue
+        chunks.append((int(name), int((entry.get("metadata") or {}).get("size", 0))))
+    chunks.sort()
+    return chunks
+
+def read_upload_session(user_id, upload_id):
+    """ Returns the declared size of an upload, or None if it does not exist."""
+    res = requests.get(f"{SUPABASE_URL}/storage/v1/object/pfps/{upload_prefix(user_id, upload_id)}/session",
+                       headers=storage_service_headers())
+    if not res.ok:
+        return None
+    return int(res.json()["size"])
+
+def read_completed_upload(user_id, upload_id):
+    """ Returns the marker of a completed upload ({"size", "url", "version"}), or None."""
+    res = requests.get(f"{SUPABASE_URL}/storage/v1/object/pfps/{upload_prefix(user_id, upload_id)}/completed",
+                       headers=storage_service_headers())
+    if not res.ok:
+        return None
+    return res.json()
+
+def completed_response(completed):
+    return jsonify({"message": "Profile picture updated", "url": completed["url"], "version": completed["version"]}), OK_CODE
 
-        file_bytes = file.read()
-        res = requests.put(upload_url, headers=storage_headers, data=file_bytes)
+def received_bytes(chunks):
+    """ Bytes received without gaps from offset 0."""
+    received = 0
+    for offset, size in chunks:
+        if offset != received:
+            break
+        received += size
+    return received
+
+def upload_status(upload_id, size, received, code=OK_CODE):
+    return jsonify({"uploadId": upload_id, "size": size, "received": received, "chunkSize": UPLOAD_CHUNK_SIZE}), code
+
+@app.route("/profilePicture/uploads", methods=["POST"])
+@auth_with_token_forwarding
+def start_profile_picture_upload():
+    """Opens a resumable upload of a profile picture of the given size."""
+
+    data = request.get_json(silent=True) or {}
+    size = data.get("size")
+    if not isinstance(size, int) or size <= 0 or size > MAX_UPLOAD_SIZE:
+        return jsonify({"message": f"Size must be between 1 and {MAX_UPLOAD_SIZE} bytes"}), BAD_REQUEST_CODE
+
+    try:
+        upload_id = uuid.uuid4().hex
+        res = requests.post(f"{SUPABASE_URL}/storage/v1/object/pfps/{upload_prefix(request.user_id, upload_id)}/session",
+                            headers=storage_service_headers("application/json"),
+                            data=json.dumps({"size": size}))
         if not res.ok:
-            return jsonify({"message": "Failed to upload", "details": res.text}), SERVER_ERROR
+            return jsonify({"message": "Failed to start upload", "details": res.text}), SERVER_ERROR
+        return upload_status(upload_id, size, 0, CREATED_CODE)
+    except Exception as e:
+        return jsonify({"message": f"Error: {str(e)}"}), SERVER_ERROR
 
-        # DB update
-        db_headers = supabase_headers()
-        check = requests.get(f"{SUPABASE_REST_URL}/pfp?pfp_user_id=eq.{request.user_id}", headers=db_headers).json()
+@app.route("/profilePicture/uploads/<upload_id>", methods=["GET"])
+@auth_with_token_forwarding
+def get_profile_picture_upload(upload_id):
+    """Tells how many bytes of an upload were received, i.e. where the client must resume."""
 
-        if check:
-            requests.patch(f"{SUPABASE_REST_URL}/pfp?pfp_user_id=eq.{request.user_id}", headers=db_headers, json={"user_pfp": public_url})
-        else:
-            requests.post(f"{SUPABASE_REST_URL}/pfp", headers=db_headers, json={
-                "pfp_user_id": request.user_id,
-                "user_pfp": public_url
-            })
+    try:
+        completed = read_completed_upload(request.user_id, upload_id)
+        if completed is not None:
+            return upload_status(upload_id, completed["size"], completed["size"])
+        size = read_upload_session(request.user_id, upload_id)
+        if size is None:
+            return jsonify({"message": "Upload not found"}), NOT_FOUND_CODE
+        return upload_status(upload_id, size, received_bytes(list_upload_chunks(request.user_id, upload_id)))
+    except Exception as e:
+        return jsonify({"message": f"Error: {str(e)}"}), SERVER_ERROR
+
+@app.route("/profilePicture/uploads/<upload_id>", methods=["PUT"])
+@auth_with_token_forwarding
+def upload_profile_picture_chunk(upload_id):
+    """Stores the chunk starting at ?offset=. Only the next expected offset is accepted."""
 
-        return jsonify({"message": "Profile picture updated", "url": public_url}), OK_CODE
+    offset = request.args.get("offset", type=int)
+    chunk = request.get_data()
+    if offset is None or not chunk or len(chunk) > UPLOAD_CHUNK_SIZE:
+        return jsonify({"message": f"An offset and 1 to {UPLOAD_CHUNK_SIZE} bytes are required"}), BAD_REQUEST_CODE
 
+    try:
+        size = read_upload_session(request.user_id, upload_id)
+        if size is None:
+            completed = read_completed_upload(request.user_id, upload_id)
+            if completed is not None:
+                # Everything was received already: the client moves on to completing
+                return upload_status(upload_id, completed["size"], completed["size"], CONFLICT_CODE)
+            return jsonify({"message": "Upload not found"}), NOT_FOUND_CODE
+
+        received = received_bytes(list_upload_chunks(request.user_id, upload_id))
+        if offset != received or offset + len(chunk) > size:
+            # Also answers a chunk sent again because its response was lost: the client moves on
+            return upload_status(upload_id, size, received, CONFLICT_CODE)
+
+        res = requests.put(f"{SUPABASE_URL}/storage/v1/object/pfps/{upload_prefix(request.user_id, upload_id)}/{offset:010d}",
+                           headers={**storage_service_headers("application/octet-stream"), "x-upsert": "true"},
+                           data=chunk)
+        if not res.ok:
+            return jsonify({"message": "Failed to store chunk", "details": res.text}), SERVER_ERROR
+        return upload_status(upload_id, size, received + len(chunk))
     except Exception as e:
         return jsonify({"message": f"Error: {str(e)}"}), SERVER_ERROR
-        
+
+@app.route("/profilePicture/uploads/<upload_id>/complete", methods=["POST"])
+@auth_with_token_forwarding
+def complete_profile_picture_upload(upload_id):
+    """Assembles a fully received upload into the user's profile picture.
+       Completing an upload again returns the same answer."""
+
+    try:
+        completed = read_completed_upload(request.user_id, upload_id)
+        if completed is not None:
+            return completed_response(completed)
+
+        size = read_upload_session(request.user_id, upload_id)
+        if size is None:
+            return jsonify({"message": "Upload not found"}), NOT_FOUND_CODE
+
+        chunks = list_upload_chunks(request.user_id, upload_id)
+        if received_bytes(chunks) != size:
+            return upload_status(upload_id, size, received_bytes(chunks), CONFLICT_CODE)
+
+        prefix = upload_prefix(request.user_id, upload_id)
+        parts = []
+        for offset, _ in chunks:
+            res = requests.get(f"{SUPABASE_URL}/storage/v1/object/pfps/{prefix}/{offset:010d}", headers=storage_service_headers())
+            if not res.ok:
+                return jsonify({"message": "Failed to read chunk", "details": res.text}), SERVER_ERROR
+            parts.append(res.content)
+
+        response, code = store_profile_picture(request.user_id, b"".join(parts), "image/jpeg")
+        if code != OK_CODE:
+            return response, code
+
+        # Remembered before the chunks go, so a repeated "complete" still gets this answer
+        stored = response.get_json()
+        completed = {"size": size, "url": stored["url"], "version": stored["version"]}
+        res = requests.post(f"{SUPABASE_URL}/storage/v1/object/pfps/{prefix}/completed",
+                            headers={**storage_service_headers("application/json"), "x-upsert": "true"},
+                            data=json.dumps(completed))
+        if res.ok:
+            # The picture is stored; leftover chunks only cost space, so a failed cleanup is ignored
+            names = [f"{prefix}/{offset:010d}" for offset, _ in chunks] + [f"{prefix}/session"]
+            requests.delete(f"{SUPABASE_URL}/storage/v1/object/pfps",
+                            headers=storage_service_headers("application/json"), json={"prefixes": names})
+        return completed_response(completed)
+    except Exception as e:
+        return jsonify({"message": f"Error: {str(e)}"}), SERVER_ERROR
+
 #|---------------------------------------------------------------------------------------------------|
 #|                              LOCATION AND DISTANCE LOGIC                                          |
 #| Handles user and destination geocoding using OpenRouteService.                                    |
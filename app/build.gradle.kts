@@ -16,7 +16,16 @@ android {
     }
 
     buildTypes {
+        debug {
+            // HTTP logging: level (NONE, BASIC, HEADERS, BODY), most body bytes logged, fraction of calls logged
+            buildConfigField("String", "HTTP_LOG_LEVEL", "\"BODY\"")
+            buildConfigField("long", "HTTP_LOG_MAX_BODY_BYTES", "4096L")
+            buildConfigField("double", "HTTP_LOG_SAMPLE_RATE", "1.0")
+        }
         release {
+            buildConfigField("String", "HTTP_LOG_LEVEL", "\"NONE\"")
+            buildConfigField("long", "HTTP_LOG_MAX_BODY_BYTES", "0L")
+            buildConfigField("double", "HTTP_LOG_SAMPLE_RATE", "0.0")
             isMinifyEnabled = false
             proguardFiles(
                 getDefaultProguardFile("proguard-android-optimize.txt"),
@@ -24,6 +33,12 @@ android {
             )
         }
     }
+    buildFeatures {
+        buildConfig = true
+    }
+    testOptions {
+        unitTests.isIncludeAndroidResources = true
+    }
     compileOptions {
         sourceCompatibility = JavaVersion.VERSION_1_8
         targetCompatibility = JavaVersion.VERSION_1_8
@@ -36,11 +51,14 @@ dependencies {
     implementation(libs.material)
     implementation(libs.activity)
     implementation(libs.constraintlayout)
+    implementation(libs.recyclerview)
     /*implementation(fileTree(mapOf(
         "dir" to "C:\\Users\\gabri\\AppData\\Local\\Android\\Sdk\\platforms\\android-34",
         "include" to listOf("*.aar", "*.jar")
     )))*/
     testImplementation(libs.junit)
+    testImplementation(libs.robolectric)
+    testImplementation(libs.mockwebserver)
     androidTestImplementation(libs.ext.junit)
     androidTestImplementation(libs.espresso.core)
 
@@ -3,15 +3,18 @@ package gabrielLopes.project2425.DevPackage.QuickFixApp.ProviderPackage;
 import android.content.Intent;
 import android.os.Bundle;
 import android.widget.Button;
-import android.widget.ListView;
 import android.widget.Toast;
 
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.recyclerview.widget.DividerItemDecoration;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
 import java.util.List;
 
 import gabrielLopes.project2425.DevPackage.QuickFixApp.R;
 import gabrielLopes.project2425.DevPackage.QuickFixApp.ServerInterfacePackage.ApiManager;
+import gabrielLopes.project2425.DevPackage.QuickFixApp.ServerInterfacePackage.RequestScope;
 import gabrielLopes.project2425.DevPackage.QuickFixApp.ServerInterfacePackage.ApiModels;
 
 /**
@@ -19,9 +22,8 @@ import gabrielLopes.project2425.DevPackage.QuickFixApp.ServerInterfacePackage.Ap
  */
 public class MyProviderRolesActivity extends AppCompatActivity {
 
-    private ListView roleListView;
+    private RecyclerView roleListView;
     private Button addRoleButton;
-    private List<ApiModels.ServiceProviderResponse> roles;
     private ProvidersListAdapter adapter;
 
     /**
@@ -38,11 +40,14 @@ public class MyProviderRolesActivity extends AppCompatActivity {
         roleListView = findViewById(R.id.roleListView);
         addRoleButton = findViewById(R.id.addRoleButton);
 
-        getRoles();
+        adapter = new ProvidersListAdapter(this);
+        roleListView.setLayoutManager(new LinearLayoutManager(this));
+        roleListView.addItemDecoration(new DividerItemDecoration(this, DividerItemDecoration.VERTICAL));
+        roleListView.setAdapter(adapter);
 
-        roleListView.setOnItemClickListener((adapterView, view, position, id) -> {
-            ApiModels.ServiceProviderResponse provider = roles.get(position);
+        getRoles();
 
+        adapter.setOnItemClickListener(provider -> {
             Intent intent = new Intent(MyProviderRolesActivity.this, ModifyProviderRoleActivity.class);
             intent.putExtra("mode", "edit");
             intent.putExtra("role", provider.role);
@@ -63,19 +68,17 @@ public class MyProviderRolesActivity extends AppCompatActivity {
      * Gets the list of provider roles from the API and updates the list view adapter.
      */
     private void getRoles() {
-        ApiManager.getProviderRoles(new ApiManager.ServiceProviderRolesCallback() {
+        RequestScope.of(this).replace("roles", ApiManager.getProviderRoles(new ApiManager.ServiceProviderRolesCallback() {
             @Override
             public void onSuccess(List<ApiModels.ServiceProviderResponse> rolesList) {
-                roles = rolesList;
-                adapter = new ProvidersListAdapter(MyProviderRolesActivity.this, roles);
-                roleListView.setAdapter(adapter);
+                adapter.submitList(rolesList);
             }
 
             @Override
             public void onFailure(String errorMessage) {
                 Toast.makeText(MyProviderRolesActivity.this, errorMessage, Toast.LENGTH_SHORT).show();
             }
-        });
+        }));
     }
 
     /**
@@ -14,6 +14,7 @@ import android.util.TypedValue;
 import gabrielLopes.project2425.DevPackage.QuickFixApp.R;
 import gabrielLopes.project2425.DevPackage.QuickFixApp.ServerInterfacePackage.ApiManager;
 import gabrielLopes.project2425.DevPackage.QuickFixApp.ServerInterfacePackage.ApiModels;
+import gabrielLopes.project2425.DevPackage.QuickFixApp.ServerInterfacePackage.RequestScope;
 import gabrielLopes.project2425.DevPackage.QuickFixApp.Utils.ProfilePicHandler;
 import gabrielLopes.project2425.DevPackage.QuickFixApp.Utils.SharedPrefHelper;
 import gabrielLopes.project2425.DevPackage.QuickFixApp.navBar.NavBarHandler;
@@ -107,7 +108,7 @@ public class ProviderDetailsActivity extends AppCompatActivity {
      * Calls the API to retrieve detailed information about the selected provider
      */
     private void getProviderDetails() {
-        ApiManager.getServiceProviderById(providerId, roleName, new ApiManager.ServiceProviderCallback() {
+        RequestScope.of(this).track(ApiManager.getServiceProviderById(providerId, roleName, new ApiManager.ServiceProviderCallback() {
             @Override
             public void onSuccess(ApiModels.ServiceProviderResponse providerResponse) {
                 runOnUiThread(() -> {
@@ -120,7 +121,7 @@ public class ProviderDetailsActivity extends AppCompatActivity {
             public void onFailure(String errorMessage) {
                 runOnUiThread(() -> showToast("Failed to load details: " + errorMessage));
             }
-        });
+        }));
     }
 
     /**
@@ -1,90 +1,124 @@
 package gabrielLopes.project2425.DevPackage.QuickFixApp.ProviderPackage;
 
 import android.app.Activity;
-import android.content.Context;
-import android.view.LayoutInflater;
 import android.view.View;
-import android.view.ViewGroup;
-import android.widget.ArrayAdapter;
 import android.widget.ImageView;
 import android.widget.TextView;
 
-import java.util.List;
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+
+import java.util.Objects;
 
 import gabrielLopes.project2425.DevPackage.QuickFixApp.R;
+import gabrielLopes.project2425.DevPackage.QuickFixApp.ServerInterfacePackage.ApiCall;
 import gabrielLopes.project2425.DevPackage.QuickFixApp.ServerInterfacePackage.ApiModels;
+import gabrielLopes.project2425.DevPackage.QuickFixApp.Utils.DiffingListAdapter;
 import gabrielLopes.project2425.DevPackage.QuickFixApp.Utils.ProfilePicHandler;
+import gabrielLopes.project2425.DevPackage.QuickFixApp.Utils.RowHolder;
 
 /**
- * Custom ArrayAdapter for displaying service providers in a list view.
+ * RecyclerView adapter for displaying service providers.
  * <p>
  * Inflates each list item with the provider info.
  */
-public class ProvidersListAdapter extends ArrayAdapter<ApiModels.ServiceProviderResponse> {
+public class ProvidersListAdapter extends DiffingListAdapter<ApiModels.ServiceProviderResponse, ProvidersListAdapter.ViewHolder> {
 
-    private final Context context;
-    private final List<ApiModels.ServiceProviderResponse> providerList;
+    /**
+     * A provider row is one role of one user, so rows are identified by user id and role.
+     */
+    private static final DiffUtil.ItemCallback<ApiModels.ServiceProviderResponse> DIFF = new DiffUtil.ItemCallback<ApiModels.ServiceProviderResponse>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull ApiModels.ServiceProviderResponse oldItem, @NonNull ApiModels.ServiceProviderResponse newItem) {
+            return oldItem.id == newItem.id && Objects.equals(oldItem.role, newItem.role);
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull ApiModels.ServiceProviderResponse oldItem, @NonNull ApiModels.ServiceProviderResponse newItem) {
+            return Objects.equals(oldItem.name, newItem.name)
+                    && oldItem.distanceKm == newItem.distanceKm
+                    && Objects.equals(oldItem.description, newItem.description)
+                    && oldItem.rating == newItem.rating
+                    && oldItem.pricePerHour == newItem.pricePerHour;
+        }
+    };
+
+    private final Activity activity;
 
     /**
-     * Initializes a new ProvidersListAdapter.
+     * Initializes a new ProvidersListAdapter. Rows are given with {@link #submitList}.
      *
-     * @param context Activity context used to load the layout for each list item.
-     * @param providerList The list of service providers to display.
+     * @param activity Activity used to load the profile pictures.
      */
-    public ProvidersListAdapter(Context context, List<ApiModels.ServiceProviderResponse> providerList) {
-        super(context, R.layout.provider_item_layout, providerList);
-        this.context = context;
-        this.providerList = providerList;
+    public ProvidersListAdapter(Activity activity) {
+        super(R.layout.provider_item_layout, DIFF);
+        this.activity = activity;
+    }
+
+    @Override
+    protected ViewHolder createHolder(View itemView) {
+        return new ViewHolder(itemView, activity);
     }
 
     /**
-     * Returns the view for a specific position in the list, populating it with provider data.
-     *
-     * @param position     The position of the item within the adapter's data set.
-     * @param convertView  The old view to reuse, if possible.
-     * @param parent       The parent that this view will eventually be attached to.
-     * @return The populated view corresponding to the data at the specified position.
+     * Views of a provider row, looked up once per inflated row.
+     * The location, rating and price icons come from the layout and are never set again.
      */
-    @Override
-    public View getView(int position, View convertView, ViewGroup parent) {
-        ApiModels.ServiceProviderResponse provider = providerList.get(position);
+    static class ViewHolder extends RowHolder<ApiModels.ServiceProviderResponse> {
+        private final Activity activity;
+        private final ImageView profileImage;
+        private final TextView providerName;
+        private final TextView providerRoles;
+        private final TextView providerLocation;
+        private final TextView providerDescription;
+        private final TextView providerRating;
+        private final TextView providerPrice;
+        private int pictureUserId = -1;
+        private ApiCall pictureCall;
 
-        if (convertView == null) {
-            LayoutInflater inflater = (LayoutInflater) context.getSystemService(Context.LAYOUT_INFLATER_SERVICE);
-            convertView = inflater.inflate(R.layout.provider_item_layout, parent, false);
+        ViewHolder(View itemView, Activity activity) {
+            super(itemView);
+            this.activity = activity;
+            profileImage = itemView.findViewById(R.id.profilePic);
+            providerName = itemView.findViewById(R.id.providerName);
+            providerRoles = itemView.findViewById(R.id.providerRole);
+            providerLocation = itemView.findViewById(R.id.providerLocation);
+            providerDescription = itemView.findViewById(R.id.providerDescription);
+            providerRating = itemView.findViewById(R.id.spRatingText);
+            providerPrice = itemView.findViewById(R.id.spPriceText);
         }
 
-        // UI Components
-        ImageView profileImage = convertView.findViewById(R.id.profilePic);
-        ImageView priceIcon = convertView.findViewById(R.id.spPriceIcon);
-        ImageView ratingIcon = convertView.findViewById(R.id.spRatingIcon);
-        TextView providerName = convertView.findViewById(R.id.providerName);
-        TextView providerRoles = convertView.findViewById(R.id.providerRole);
-        ImageView locationIcon = convertView.findViewById(R.id.locationIcon);
-        TextView providerLocation = convertView.findViewById(R.id.providerLocation);
-        TextView providerDescription = convertView.findViewById(R.id.providerDescription);
-        TextView providerRating = convertView.findViewById(R.id.spRatingText);
-        TextView providerPrice = convertView.findViewById(R.id.spPriceText);
-
-        // Load provider profile image or set default
-        profileImage.setImageDrawable(null);
-        ProfilePicHandler.getProfilePicture((Activity) context, provider.id, profileImage);
-
-        // Set details
-        providerName.setText(provider.name);
-        providerRoles.setText(provider.role);
+        @Override
+        protected void onBind(ApiModels.ServiceProviderResponse provider) {
+            // Load the profile image only when the row now shows another user,
+            // dropping the lookup still running for the previous one
+            if (pictureUserId != provider.id) {
+                pictureUserId = provider.id;
+                if (pictureCall != null)
+                    pictureCall.cancel();
+                ProfilePicHandler.clear(activity, profileImage);
+                pictureCall = ProfilePicHandler.getProfilePicture(activity, provider.id, profileImage);
+            }
 
-        providerLocation.setText(provider.distanceKm + " km");
-
-        providerDescription.setText(provider.description);
-        providerRating.setText(String.valueOf(provider.rating));
-        providerPrice.setText(provider.pricePerHour+" €/h");
-
-        // Icons
-        locationIcon.setImageResource(R.drawable.ic_location);
-        ratingIcon.setImageResource(R.drawable.ic_rating);
-        priceIcon.setImageResource(R.drawable.ic_price);
+            setText(providerName, provider.name);
+            setText(providerRoles, provider.role);
+            setText(providerLocation, provider.distanceKm + " km");
+            setText(providerDescription, provider.description);
+            setText(providerRating, String.valueOf(provider.rating));
+            setText(providerPrice, provider.pricePerHour + " €/h");
+        }
 
-        return convertView;
+        /**
+         * Gives the avatar bitmap back to Glide's shared pool while the row is off screen,
+         * so it can be reused by other rows and screens.
+         */
+        @Override
+        protected void onRecycled() {
+            if (pictureCall != null)
+                pictureCall.cancel();
+            pictureCall = null;
+            pictureUserId = -1;
+            ProfilePicHandler.clear(activity, profileImage);
+        }
     }
 }
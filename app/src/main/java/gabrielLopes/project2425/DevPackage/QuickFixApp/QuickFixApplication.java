@@ -0,0 +1,25 @@
+package gabrielLopes.project2425.DevPackage.QuickFixApp;
+
+import android.app.Application;
+
+import gabrielLopes.project2425.DevPackage.QuickFixApp.ServerInterfacePackage.ApiManager;
+import gabrielLopes.project2425.DevPackage.QuickFixApp.UserPackage.LoginActivity;
+import gabrielLopes.project2425.DevPackage.QuickFixApp.Utils.SharedPrefHelper;
+
+/**
+ * Application entry point: starts reading the saved preferences in the background as soon as
+ * the process starts, so the first activity finds the session and theme already in memory.
+ * It sets up {@link ApiManager} before any activity, including one restored after the process
+ * was killed, so pending changes and uploads resume whatever screen opens first.
+ * It also brings back the login screen whenever the session expires.
+ */
+public class QuickFixApplication extends Application {
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        SharedPrefHelper.preload(this);
+        ApiManager.initialize(this);
+        ApiManager.setReauthListener(() -> LoginActivity.startReauth(this));
+    }
+}
@@ -0,0 +1,48 @@
+package gabrielLopes.project2425.DevPackage.QuickFixApp.ServerInterfacePackage;
+
+/**
+ * Handle to an API call started by {@link ApiManager}.
+ * <p>
+ * Cancelling it guarantees its callback will not run. If other callers share the same
+ * underlying request, only this caller is detached and the request keeps running for them.
+ */
+public interface ApiCall {
+
+    /**
+     * Stops the call and drops its callback.
+     */
+    void cancel();
+
+    /**
+     * @return true if {@link #cancel()} was called.
+     */
+    boolean isCanceled();
+
+    /**
+     * @return true while the callback is still waiting to be delivered.
+     */
+    boolean isActive();
+
+    /**
+     * Returns a handle for a call that was answered right away (e.g. from memory).
+     *
+     * @return Handle that is already finished; cancelling it does nothing.
+     */
+    static ApiCall completed() {
+        return new ApiCall() {
+            @Override
+            public void cancel() {
+            }
+
+            @Override
+            public boolean isCanceled() {
+                return false;
+            }
+
+            @Override
+            public boolean isActive() {
+                return false;
+            }
+        };
+    }
+}
@@ -0,0 +1,72 @@
+package gabrielLopes.project2425.DevPackage.QuickFixApp.ServerInterfacePackage;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * The Gson instance shared by Retrofit, the {@link LocalStore} reader and the {@link MutationQueue}.
+ * <p>
+ * {@link ApiModels} are read and written by the streaming adapters of {@link ApiModelAdapters},
+ * not by reflection.
+ * <p>
+ * Models implementing {@link Deserialized} are completed right after being read, on the thread
+ * that parses the response, so derived values (e.g. {@link Deadline}) are never computed while
+ * binding rows.
+ */
+public final class ApiGson {
+
+    /**
+     * A model that derives values from its fields once they are read.
+     */
+    public interface Deserialized {
+        void afterDeserialize();
+    }
+
+    // Factories registered last are asked first: post-processing wraps the model adapters
+    private static final Gson GSON = new GsonBuilder()
+            .registerTypeAdapterFactory(ApiModelAdapters.FACTORY)
+            .registerTypeAdapterFactory(new PostProcessingFactory())
+            .create();
+
+    private ApiGson() {}
+
+    /**
+     * @return Shared Gson instance (thread safe).
+     */
+    public static Gson get() {
+        return GSON;
+    }
+
+    /**
+     * Calls {@link Deserialized#afterDeserialize()} on every model that implements it.
+     */
+    private static class PostProcessingFactory implements TypeAdapterFactory {
+        @Override
+        public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+            if (!Deserialized.class.isAssignableFrom(type.getRawType()))
+                return null;
+            TypeAdapter<T> delegate = gson.getDelegateAdapter(this, type);
+            return new TypeAdapter<T>() {
+                @Override
+                public void write(JsonWriter out, T value) throws IOException {
+                    delegate.write(out, value);
+                }
+
+                @Override
+                public T read(JsonReader in) throws IOException {
+                    T value = delegate.read(in);
+                    if (value != null)
+                        ((Deserialized) value).afterDeserialize();
+                    return value;
+                }
+            };
+        }
+    }
+}
@@ -7,14 +7,30 @@ import java.util.Map;
 import retrofit2.Call;
 import retrofit2.http.*;
 import okhttp3.MultipartBody;
-import retrofit2.http.Header;
+import okhttp3.RequestBody;
 import retrofit2.http.Multipart;
 import retrofit2.http.PUT;
 import retrofit2.http.Part;
 
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
 
+/**
+ * QuickFix API endpoints.
+ * The Authorization header is added by {@link AuthInterceptor} to every call not marked {@link Public}.
+ */
 public interface ApiInterface {
 
+    /**
+     * Marks an endpoint that works without a logged-in user, so it is never held back
+     * while the user logs in again.
+     */
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target(ElementType.METHOD)
+    @interface Public {}
+
     // ---------------- User ----------------
     /**
      * Logs in an user.
@@ -22,6 +38,7 @@ public interface ApiInterface {
      * @param request Object containing login credentials.
      * @return Call returning a token and user ID.
      */
+    @Public
     @POST("login")
     Call<ApiModels.LoginResponse> login(
             @Body ApiModels.LoginRequest request);
@@ -29,23 +46,19 @@ public interface ApiInterface {
     /**
      * Retrieves the profile of the currently authenticated user.
      *
-     * @param authToken Bearer token.
      * @return Call with user profile data.
      */
     @GET("/user/me")
-    Call<ApiModels.UserProfileResponse> getUser(
-            @Header("Authorization") String authToken);
+    Call<ApiModels.UserProfileResponse> getUser();
 
     /**
      * Retrieves the profile of any user by ID.
      *
-     * @param token Bearer token.
      * @param userId Target user ID.
      * @return Call with user profile data.
      */
     @GET("/user/{userId}")
     Call<ApiModels.UserProfileResponse> getUserById(
-            @Header("Authorization") String token,
             @Path("userId") int userId
     );
 
@@ -55,6 +68,7 @@ public interface ApiInterface {
      * @param request User data.
      * @return Call with success or failure.
      */
+    @Public
     @POST("/user")
     Call<ApiModels.ApiResponse> addUser(
             @Body ApiModels.addUserRequest request);
@@ -62,24 +76,20 @@ public interface ApiInterface {
     /**
      * Updates fields in the current user's profile.
      *
-     * @param token Bearer token.
      * @param request Updated data.
      * @return Call with result.
      */
     @PATCH("/user")
     Call<ApiModels.ApiResponse> updateUser(
-            @Header("Authorization") String token,
             @Body ApiModels.UpdateUserRequest request);
 
     /**
      * Removes the current user's account.
      *
-     * @param token Bearer token.
      * @return Call with deletion result.
      */
     @DELETE("/user")
-    Call<ApiModels.ApiResponse> removeUserAccount(
-            @Header("Authorization") String token);
+    Call<ApiModels.ApiResponse> removeUserAccount();
 
     /**
      * Gets the profile picture for a given user ID.
@@ -87,6 +97,7 @@ public interface ApiInterface {
      * @param userId Target user ID.
      * @return Call with image data (base64 string).
      */
+    @Public
     @GET("/profilePicture/{user_id}")
     Call<ApiModels.ProfilePictureResponse> getProfilePicture(
             @Path("user_id") int userId);
@@ -95,48 +106,97 @@ public interface ApiInterface {
      * Uploads a new profile picture for the current user.
      * Uses @Multipart due to image files needing be sent as binary data, not JSON.
      *
-     * @param token Bearer token.
      * @param file Multipart image file.
      * @return Call with result.
      */
     @Multipart
     @PUT("/profilePicture")
-    Call<ApiModels.ApiResponse> uploadProfilePicture(
-            @Header("Authorization") String token,
+    Call<ApiModels.ProfilePictureUploadResponse> uploadProfilePicture(
             @Part MultipartBody.Part file
     );
 
+    /**
+     * Opens a resumable (chunked) profile picture upload.
+     *
+     * @param body Size of the picture.
+     * @return Call with the new upload session.
+     */
+    @POST("/profilePicture/uploads")
+    Call<ApiModels.UploadSession> startProfilePictureUpload(
+            @Body ApiModels.UploadSessionRequest body
+    );
+
+    /**
+     * Returns how much of a resumable upload the backend received.
+     *
+     * @param uploadId Upload session ID.
+     * @return Call with the upload session.
+     */
+    @GET("/profilePicture/uploads/{uploadId}")
+    Call<ApiModels.UploadSession> getProfilePictureUpload(
+            @Path("uploadId") String uploadId
+    );
+
+    /**
+     * Sends one chunk of a resumable upload. Answers 409 with the current state if the
+     * offset is not where the upload stands.
+     *
+     * @param uploadId Upload session ID.
+     * @param offset Position of the chunk in the picture.
+     * @param chunk Raw bytes of the chunk.
+     * @return Call with the updated upload session.
+     */
+    @PUT("/profilePicture/uploads/{uploadId}")
+    Call<ApiModels.UploadSession> uploadProfilePictureChunk(
+            @Path("uploadId") String uploadId,
+            @Query("offset") long offset,
+            @Body RequestBody chunk
+    );
+
+    /**
+     * Turns a fully received upload into the user's profile picture.
+     *
+     * @param uploadId Upload session ID.
+     * @return Call with the URL of the new picture.
+     */
+    @POST("/profilePicture/uploads/{uploadId}/complete")
+    Call<ApiModels.ProfilePictureUploadResponse> completeProfilePictureUpload(
+            @Path("uploadId") String uploadId
+    );
+
     // ---------------- Service Providers ----------------
     /**
-     * Retrieves a list of providers filtered by role, budget, search text, and distance.
+     * Retrieves one page of providers filtered by role, budget, search text, and distance.
      *
-     * @param token Bearer token.
      * @param serviceType Filter by role.
      * @param maxBudget Filter by price.
      * @param query Free-text search.
      * @param maxDistance Distance limit in km.
-     * @return Call with list of providers.
+     * @param limit Page size.
+     * @param cursor Cursor returned with the previous page, or null for the first one.
+     * @param stream Receives the providers of the page as they are parsed, or null.
+     * @return Call with a page of providers.
      */
     @GET("/providers")
-    Call<List<ApiModels.ServiceProviderResponse>> getSPs(
-            @Header("Authorization") String token,
+    Call<ApiModels.Page<ApiModels.ServiceProviderResponse>> getSPsPage(
             @Query("serviceType") String serviceType,
             @Query("maxBudget") int maxBudget,
             @Query("query") String query,
-            @Query("maxDistance") int maxDistance
+            @Query("maxDistance") int maxDistance,
+            @Query("limit") int limit,
+            @Query("cursor") String cursor,
+            @Tag ListStream<ApiModels.ServiceProviderResponse> stream
     );
 
     /**
      * Gets details for a provider’s specific role.
      *
-     * @param token Bearer token.
      * @param providerId Provider's user ID.
      * @param role Role to view.
      * @return Call with provider role details.
      */
     @GET("/providers/details/{providerId}")
     Call<ApiModels.ServiceProviderResponse> getServiceProviderById(
-            @Header("Authorization") String token,
             @Path("providerId") int providerId,
             @Query("role") String role
     );
@@ -144,136 +204,121 @@ public interface ApiInterface {
     /**
      * Gets all roles created by the logged-in provider.
      *
-     * @param token Bearer token.
      * @return Call with list of provider roles.
      */
     @GET("provider/roles")
-    Call<List<ApiModels.ServiceProviderResponse>> getProviderRoles(
-            @Header("Authorization") String token);
+    Call<List<ApiModels.ServiceProviderResponse>> getProviderRoles();
 
     /**
      * Adds a new provider role.
      *
-     * @param token Bearer token.
      * @param request Role information.
      * @return Call with result.
      */
     @POST("/provider")
     Call<ApiModels.ApiResponse> addProviderRole(
-            @Header("Authorization") String token,
             @Body ApiModels.ProviderRoleRequest request);
 
     /**
      * Updates an existing provider role.
      *
-     * @param token Bearer token.
      * @param request Updated role info.
      * @return Call with result.
      */
     @PATCH("/provider")
     Call<ApiModels.ApiResponse> updateProviderInfo(
-            @Header("Authorization") String token,
             @Body ApiModels.UpdateProviderRoleRequest request
     );
 
     /**
      * Removes a role from the current provider.
      *
-     * @param token Bearer token.
      * @param role Role name to delete.
      * @return Call with result.
      */
     @DELETE("/provider")
     Call<ApiModels.ApiResponse> removeProviderRole(
-            @Header("Authorization") String token,
             @Query("role") String role
     );
 
     // ---------------- Requests ----------------
     /**
-     * Gets all public service requests filtered by type, budget, search text, and distance.
+     * Gets one page of public service requests filtered by type, budget, search text, and distance.
      *
-     * @param token Bearer token.
      * @param spinner Request type filter.
      * @param budget Max budget.
      * @param query Free-text search.
      * @param maxDistance Distance in km.
-     * @return Call with list of requests.
+     * @param limit Page size.
+     * @param cursor Cursor returned with the previous page, or null for the first one.
+     * @param stream Receives the requests of the page as they are parsed, or null.
+     * @return Call with a page of requests.
      */
     @GET("/requests")
-    Call<List<ApiModels.RequestResponse>> getRequests(
-            @Header("Authorization") String token,
+    Call<ApiModels.Page<ApiModels.RequestResponse>> getRequestsPage(
             @Query("spinner") String spinner,
             @Query("budget") int budget,
             @Query("query") String query,
-            @Query("maxDistance") int maxDistance
+            @Query("maxDistance") int maxDistance,
+            @Query("limit") int limit,
+            @Query("cursor") String cursor,
+            @Tag ListStream<ApiModels.RequestResponse> stream
     );
 
     /**
      * Gets a specific service request by ID.
      *
-     * @param token Bearer token.
      * @param requestId Target request ID.
      * @return Call with request data.
      */
     @GET("/request/{requestId}")
     Call<ApiModels.RequestResponse> getRequestById(
-            @Header("Authorization") String token,
             @Path("requestId") int requestId
     );
 
     /**
-     * Checks if the current user owns a specific request.
-     *
-     * @param token Bearer token.
-     * @param requestId Target request ID.
-     * @return Call with ownership boolean.
-     */
-    @GET("/request/check-ownership/{requestId}")
-    Call<ApiModels.OwnershipResponse> checkOwnership(
-            @Header("Authorization") String token,
-            @Path("requestId") int requestId);
-
-    /**
-     * Gets all requests created by the current client.
+     * Gets one page of the requests created by the current client.
      *
-     * @param token Bearer token.
      * @param status Optional request status.
      * @param query Search text.
      * @param maxBudget Max price.
-     * @return Call with list of client requests.
+     * @param limit Page size.
+     * @param cursor Cursor returned with the previous page, or null for the first one.
+     * @param stream Receives the requests of the page as they are parsed, or null.
+     * @return Call with a page of client requests.
      */
     @GET("/requests/client")
-    Call<List<ApiModels.RequestResponse>> getClientRequests(
-            @Header("Authorization") String token,
+    Call<ApiModels.Page<ApiModels.RequestResponse>> getClientRequestsPage(
             @Query("status") String status,
             @Query("query") String query,
-            @Query("budget") double maxBudget
+            @Query("budget") double maxBudget,
+            @Query("limit") int limit,
+            @Query("cursor") String cursor,
+            @Tag ListStream<ApiModels.RequestResponse> stream
     );
 
     /**
      * Adds a service request.
      *
-     * @param token Bearer token.
+     * @param idempotencyKey Key chosen by the app for this request; sending it again with the
+     *                       same key does not create a second request.
      * @param request Request data.
      * @return Call with result.
      */
     @POST("/request")
     Call<ApiModels.ApiResponse> addRequest(
-            @Header("Authorization") String token,
+            @Header("Idempotency-Key") String idempotencyKey,
             @Body ApiModels.ServiceRequestRequest request);
 
     /**
      * Updates an request's info (any field is optional)
      *
-     * @param token Bearer token.
      * @param requestId ID to update.
      * @param body Fields to change.
      * @return Call with result.
      */
     @PATCH("/request/{requestId}")
     Call<ApiModels.ApiResponse> updateRequest(
-            @Header("Authorization") String token,
             @Path("requestId") int requestId,
             @Body Map<String, Object> body
     );
@@ -281,25 +326,21 @@ public interface ApiInterface {
     /**
      * Removes a request.
      *
-     * @param token Bearer token.
      * @param requestId Request ID.
      * @return Call with result.
      */
     @DELETE("/request/{requestId}")
     Call<ApiModels.ApiResponse> removeRequest(
-            @Header("Authorization") String token,
             @Path("requestId") int requestId);
 
     /**
      * Accepts or rejects a request.
      *
-     * @param token Bearer token.
      * @param response Decision data.
      * @return Call with result.
      */
     @PATCH("/request/decision")
     Call<ApiModels.ApiResponse> handleRequestDecision(
-            @Header("Authorization") String token,
             @Body ApiModels.RequestDecision response
     );
 
@@ -307,44 +348,44 @@ public interface ApiInterface {
     /**
      * Gets full details of a service by ID.
      *
-     * @param token Bearer token.
      * @param id Service ID.
      * @return Call with service info.
      */
     @GET("/service/{id}")
     Call<ApiModels.ServiceResponse> getServiceById(
-            @Header("Authorization") String token,
             @Path("id") int id);
 
     /**
-     * Gets services by a specific provider, with filters.
+     * Gets one page of the services of a specific provider, with filters.
      *
-     * @param token Bearer token.
      * @param providerId Provider user ID.
      * @param status Optional status filter.
      * @param query Optional search.
      * @param minBudget Optional budget filter.
-     * @return Call with list of services.
+     * @param limit Page size.
+     * @param cursor Cursor returned with the previous page, or null for the first one.
+     * @param stream Receives the services of the page as they are parsed, or null.
+     * @return Call with a page of services.
      */
     @GET("/services/provider/{providerId}")
-    Call<List<ApiModels.ServiceResponse>> getServicesByProvider(
-            @Header("Authorization") String token,
+    Call<ApiModels.Page<ApiModels.ServiceResponse>> getServicesByProviderPage(
             @Path("providerId") int providerId,
             @Query("status") String status,
             @Query("query") String query,
-            @Query("budget") double minBudget
+            @Query("budget") double minBudget,
+            @Query("limit") int limit,
+            @Query("cursor") String cursor,
+            @Tag ListStream<ApiModels.ServiceResponse> stream
     );
 
     /**
      * Updates the status of a service
      *
-     * @param token Bearer token.
      * @param request Status update data.
      * @return Call with result.
      */
     @PATCH("/service/status")
     Call<ApiModels.ApiResponse> updateServiceStatus(
-            @Header("Authorization") String token,
             @Body ApiModels.ServiceStatusUpdateRequest request
     );
 }
@@ -5,69 +5,138 @@ import android.content.Context;
 import androidx.annotation.NonNull;
 
 import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
-import okhttp3.MediaType;
 import okhttp3.MultipartBody;
 import okhttp3.RequestBody;
 import retrofit2.Call;
 import retrofit2.Callback;
 import retrofit2.Response;
 import okhttp3.OkHttpClient;
-import okhttp3.logging.HttpLoggingInterceptor;
 import retrofit2.*;
 import retrofit2.converter.gson.GsonConverterFactory;
 
+import gabrielLopes.project2425.DevPackage.QuickFixApp.BuildConfig;
 import gabrielLopes.project2425.DevPackage.QuickFixApp.Utils.SharedPrefHelper;
 
 
 /**
  * Central helper for calling all QuickFix API endpoints using Retrofit.
  * Handles authentication, Retrofit setup, and API execution.
+ * <p>
+ * Changes to requests, services and provider roles go through a durable {@link MutationQueue}:
+ * they show up in loaded data right away and are sent in order, even after the app was offline.
  */
 public class ApiManager {
 
     private static final String BASE_URL = "https://quickfix-api.vercel.app/";
     private static ApiInterface apiInterface;
     private static Context appContext;
+    private static final SingleFlight singleFlight = new SingleFlight();
+    private static final OfflineFirstLoader offlineLoader = new OfflineFirstLoader(singleFlight);
+    private static final MutationQueue mutationQueue = new MutationQueue();
+    private static final long LIST_RESULT_TTL_MS = 60_000;
+    private static final int LIST_RESULT_MAX_ENTRIES = 8;
+    private static final LocalFilterEngine<ApiModels.RequestResponse> requestsEngine =
+            new LocalFilterEngine<>(LIST_RESULT_TTL_MS, LIST_RESULT_MAX_ENTRIES, ListFilters.RequestFilter.INDEXER);
+    private static final LocalFilterEngine<ApiModels.ServiceProviderResponse> providersEngine =
+            new LocalFilterEngine<>(LIST_RESULT_TTL_MS, LIST_RESULT_MAX_ENTRIES, ListFilters.ProviderFilter.INDEXER);
+    private static final int PAGE_SIZE = 20;
+    private static final int PREFETCH_DISTANCE = 10;
+    private static final AvatarUrlCache avatarUrls = new AvatarUrlCache(256, 30 * 60 * 1000L);
+    private static final ResumableUploader pictureUploader = new ResumableUploader();
+    private static final AuthInterceptor authInterceptor = new AuthInterceptor();
+    private static final NetworkTimings networkTimings = new NetworkTimings();
+
+    static {
+        HttpCacheHandler.addMutationListener(() -> {
+            invalidateLocalLists();
+            offlineLoader.markAllStale();
+        });
+        // Lists kept in memory already contain the pending changes: rebuild them when those change
+        mutationQueue.setOnChangeListener(ApiManager::invalidateLocalLists);
+        offlineLoader.setOverlay(mutationQueue::applyPending);
+    }
 
     /**
      * Initializes the API manager with application context.
-     * Needed to access SharedPreferences.
+     * Needed to access SharedPreferences, the offline store and the pending mutations.
      *
      * @param context Application context used to access SharedPreferences.
      */
     public static void initialize(Context context) {
         appContext = context.getApplicationContext();
+        if (authInterceptor.getToken() == null)
+            authInterceptor.setToken(SharedPrefHelper.getAuthToken(appContext));
+        offlineLoader.attach(appContext);
+        mutationQueue.attach(appContext);
+        // A picture whose upload was interrupted by the process dying is finished silently
+        pictureUploader.attach(appContext, uploadListener(null));
     }
 
     /**
-     * Retrieves the saved JWT token for authenticated requests.
+     * Retrieves the JWT token of the logged-in user, kept in memory.
+     * Calls do not need it: {@link AuthInterceptor} adds it to every request.
      */
     public static String getAuthToken() {
-        return SharedPrefHelper.getAuthToken(appContext);
+        return authInterceptor.getToken();
+    }
+
+    /**
+     * @return true if a user is logged in and their session is not about to expire.
+     */
+    public static boolean hasValidSession() {
+        return authInterceptor.hasFreshToken();
+    }
+
+    /**
+     * Sets the action that sends the user to the login screen when the session is about to
+     * expire or was refused by the backend. Called once, however many calls were affected.
+     *
+     * @param listener Action run on the main thread.
+     */
+    public static void setReauthListener(AuthInterceptor.ReauthListener listener) {
+        authInterceptor.setReauthListener(listener);
     }
 
     /**
      * Returns a Retrofit instance of the API interface.
      * Initializes it if not already created.
+     * <p>
+     * GET endpoints go through the disk cache of {@link HttpCacheHandler} once the
+     * application context is known. Every call is timed by {@link NetworkTimings}, and logged
+     * as set by the build type (see {@link BoundedLoggingInterceptor}). Pages of lists are parsed
+     * row by row (see {@link ListStream}).
      */
     public static ApiInterface getApiService() {
         if (apiInterface == null) {
-            HttpLoggingInterceptor logging = new HttpLoggingInterceptor();
-            logging.setLevel(HttpLoggingInterceptor.Level.BODY);
+            BoundedLoggingInterceptor logging = new BoundedLoggingInterceptor(
+                    BoundedLoggingInterceptor.levelOf(BuildConfig.HTTP_LOG_LEVEL),
+                    BuildConfig.HTTP_LOG_MAX_BODY_BYTES, BuildConfig.HTTP_LOG_SAMPLE_RATE);
 
             OkHttpClient client = new OkHttpClient.Builder()
+                    .addInterceptor(ListStream.interceptor())
+                    .addInterceptor(authInterceptor)
                     .addInterceptor(logging)
+                    .eventListenerFactory(networkTimings.eventListenerFactory())
                     .build();
 
-            Retrofit retrofit = new Retrofit.Builder()
+            Retrofit.Builder builder = new Retrofit.Builder()
                     .baseUrl(BASE_URL)
-                    .addConverterFactory(GsonConverterFactory.create())
-                    .client(client)
-                    .build();
+                    .addConverterFactory(networkTimings.converterFactory(ApiInterface.class))
+                    .addConverterFactory(ListStream.converterFactory(ApiGson.get(), networkTimings))
+                    .addConverterFactory(GsonConverterFactory.create(ApiGson.get()));
+
+            if (appContext != null)
+                builder.callFactory(HttpCacheHandler.createCallFactory(client, appContext.getCacheDir()));
+            else
+                builder.client(client);
+
+            Retrofit retrofit = builder.build();
 
             apiInterface = retrofit.create(ApiInterface.class);
         }
@@ -77,6 +146,8 @@ public class ApiManager {
     /**
      * Logs in the user with the given credentials.
      * On success, saves token and user ID, then triggers callback.
+     * Changes held back by the expired session are then sent, with the new token.
+     * If another user logs in, the data and pending changes of the previous one are dropped.
      *
      *  * @param username User's username.
      *  * @param password User's password.
@@ -88,8 +159,16 @@ public class ApiManager {
             @Override
             public void onResponse(Call<ApiModels.LoginResponse> call, Response<ApiModels.LoginResponse> response) {
                 if (response.isSuccessful() && response.body() != null) {
-                    SharedPrefHelper.saveAuthToken(appContext, response.body().token);
-                    SharedPrefHelper.saveUserId(appContext, response.body().userId);
+                    String token = response.body().token;
+                    int userId = response.body().userId;
+                    int previousUserId = SharedPrefHelper.getUserId(appContext);
+                    if (previousUserId != -1 && previousUserId != userId)
+                        clearCache();
+                    SharedPrefHelper.saveSession(appContext, token, userId);
+                    authInterceptor.setToken(token);
+                    // Changes and uploads held back by the expired session can go now
+                    mutationQueue.retryNow();
+                    pictureUploader.resume();
                     callback.onSuccess(response.body().token, response.body().userId);
 
                 } else {
@@ -104,6 +183,109 @@ public class ApiManager {
         });
     }
 
+    /**
+     * Returns the HTTP cache counters (hits, misses, revalidations) of every GET endpoint.
+     *
+     * @return Map of ApiInterface method name to its cache statistics.
+     */
+    public static Map<String, HttpCacheHandler.EndpointStats> getCacheStats() {
+        return HttpCacheHandler.getStats();
+    }
+
+    /**
+     * Returns where the time of the calls of every endpoint goes: DNS, connect, TLS, time to
+     * first byte, download, Gson conversion, and the size of the responses.
+     * Calls answered by the HTTP cache only record their total and conversion time.
+     *
+     * @return Map of ApiInterface method name to its recent timings.
+     */
+    public static Map<String, NetworkTimings.EndpointTimings> getNetworkTimings() {
+        return networkTimings.getTimings();
+    }
+
+    /**
+     * Writes the network timings of every endpoint, with their raw values, to a JSON file.
+     * Does disk I/O: do not call from the main thread.
+     *
+     * @param file Destination file, replaced if it exists.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void exportNetworkTimings(File file) throws IOException {
+        networkTimings.export(file);
+    }
+
+    /**
+     * Returns how many GET calls were answered by joining an identical call already in flight.
+     *
+     * @return Number of duplicate requests absorbed by the single-flight layer.
+     */
+    public static long getCoalescedRequestCount() {
+        return singleFlight.getAbsorbedCount();
+    }
+
+    /**
+     * Returns how list queries were answered by the in-memory result caches:
+     * identical query, subsumed by a broader cached query, or network.
+     *
+     * @return Map with the counters of "requests" and "providers".
+     */
+    public static Map<String, LocalFilterEngine.Stats> getListResultStats() {
+        Map<String, LocalFilterEngine.Stats> result = new HashMap<>();
+        result.put("requests", requestsEngine.getStats());
+        result.put("providers", providersEngine.getStats());
+        return result;
+    }
+
+    /**
+     * Removes all cached API responses. Called on logout.
+     */
+    public static void clearCache() {
+        HttpCacheHandler.clear();
+        mutationQueue.clear();
+        invalidateLocalLists();
+        avatarUrls.clear();
+        offlineLoader.clear();
+        pictureUploader.clear();
+        authInterceptor.setToken(null);
+    }
+
+    /**
+     * Returns the state of the outgoing mutation queue: pending depth, outcomes and
+     * how long mutations took to reach the backend.
+     *
+     * @return Snapshot of the queue counters.
+     */
+    public static MutationQueue.Stats getMutationQueueStats() {
+        return mutationQueue.getStats();
+    }
+
+    /**
+     * Registers an action run when the backend rejects a change already shown locally,
+     * so visible lists can reload and drop it.
+     *
+     * @param listener Action run on the main thread.
+     */
+    public static void addRollbackListener(Runnable listener) {
+        mutationQueue.addRejectionListener(listener);
+    }
+
+    /**
+     * Removes an action registered with {@link #addRollbackListener(Runnable)}.
+     *
+     * @param listener Action to remove.
+     */
+    public static void removeRollbackListener(Runnable listener) {
+        mutationQueue.removeRejectionListener(listener);
+    }
+
+    /**
+     * Drops the in-memory request and provider sets used for local filtering.
+     */
+    private static void invalidateLocalLists() {
+        requestsEngine.invalidate();
+        providersEngine.invalidate();
+    }
+
     /** ---------------------------------------------------------------------------------------------------------------------
      *                                              USER
      * ----------------------------------------------------------------------------------------------------------------------
@@ -113,10 +295,11 @@ public class ApiManager {
      * Retrieves the current user's profile info using their token.
      *
      * @param callback Callback with the profile data or error.
+     * @return Handle to cancel the call (see {@link RequestScope}).
      */
-    public static void getUser(ProfileCallback callback) {
-        getApiService().getUser(getAuthToken())
-                .enqueue(new Callback<ApiModels.UserProfileResponse>() {
+    public static ApiCall getUser(ProfileCallback callback) {
+        return offlineLoader.enqueue(LocalStore.EntityType.USER, "getUser", getApiService().getUser(),
+                new Callback<ApiModels.UserProfileResponse>() {
                     @Override
                     public void onResponse(Call<ApiModels.UserProfileResponse> call, Response<ApiModels.UserProfileResponse> response) {
                         if (response.isSuccessful() && response.body() != null) {
@@ -139,9 +322,10 @@ public class ApiManager {
      *
      * @param userId ID of the user to retrieve.
      * @param callback Callback with the profile or error.
+     * @return Handle to cancel the call (see {@link RequestScope}).
      */
-    public static void getClientInfo(int userId, ProfileCallback callback) {
-        getApiService().getUserById(getAuthToken(), userId).enqueue(new Callback<ApiModels.UserProfileResponse>() {
+    public static ApiCall getClientInfo(int userId, ProfileCallback callback) {
+        return offlineLoader.enqueue(LocalStore.EntityType.USER, "getUserById:" + userId, getApiService().getUserById(userId), new Callback<ApiModels.UserProfileResponse>() {
             @Override
             public void onResponse(Call<ApiModels.UserProfileResponse> call, Response<ApiModels.UserProfileResponse> response) {
                 if (response.isSuccessful() && response.body() != null) {
@@ -189,7 +373,7 @@ public class ApiManager {
      * @param callback Callback with result.
      */
     public static void updateUser(ApiModels.UpdateUserRequest request, UserProfileUpdateCallback callback) {
-        getApiService().updateUser(getAuthToken(), request)
+        getApiService().updateUser(request)
                 .enqueue(new Callback<ApiModels.ApiResponse>() {
                     @Override
                     public void onResponse(Call<ApiModels.ApiResponse> call, Response<ApiModels.ApiResponse> response) {
@@ -213,7 +397,7 @@ public class ApiManager {
      * @param callback Callback with result.
      */
     public static void removeUserAccount(UserActionCallback callback) {
-        getApiService().removeUserAccount(getAuthToken()).enqueue(new Callback<ApiModels.ApiResponse>() {
+        getApiService().removeUserAccount().enqueue(new Callback<ApiModels.ApiResponse>() {
             @Override
             public void onResponse(Call<ApiModels.ApiResponse> call, Response<ApiModels.ApiResponse> response) {
                 if (response.isSuccessful() && response.body() != null) {
@@ -235,16 +419,28 @@ public class ApiManager {
      * ----------------------------------------------------------------------------------------------------------------------
      * */
     /**
-     * Retrieves the profile picture of the specified user.
-     *
+     * Retrieves the profile picture URL of the specified user.
+     * <p>
+     * Answered from memory when the URL was looked up recently, otherwise disk-first like other
+     * reads; concurrent lookups for the same user share one request. A user without a picture
+     * gets an empty URL.
+     * </p>
      * @param userId ID of the user.
      * @param callback Callback with image URL or error.
+     * @return Handle to cancel the call (see {@link RequestScope}).
      */
-    public static void getProfilePicture(int userId, ProfilePictureCallback callback) {
-        getApiService().getProfilePicture(userId).enqueue(new Callback<ApiModels.ProfilePictureResponse>() {
+    public static ApiCall getProfilePicture(int userId, ProfilePictureCallback callback) {
+        String cached = avatarUrls.get(userId);
+        if (cached != null) {
+            callback.onSuccess(cached);
+            return ApiCall.completed();
+        }
+
+        return offlineLoader.enqueue(LocalStore.EntityType.USER, "getProfilePicture:" + userId, getApiService().getProfilePicture(userId), new Callback<ApiModels.ProfilePictureResponse>() {
             @Override
             public void onResponse(Call<ApiModels.ProfilePictureResponse> call, Response<ApiModels.ProfilePictureResponse> response) {
                 if (response.isSuccessful() && response.body() != null) {
+                    avatarUrls.put(userId, response.body().profilePic);
                     callback.onSuccess(response.body().profilePic);
                 } else {
                     callback.onFailure(getErrorMessage(response));
@@ -260,63 +456,119 @@ public class ApiManager {
 
     /**
      * Uploads a profile picture for the current user.
+     * The cached URL of the user is replaced, so the next lookup returns the new picture.
      *
-     * @param imageFile The image file to upload.
-     * @param callback Callback with upload result.
+     * @param image Encoded image (see {@link gabrielLopes.project2425.DevPackage.QuickFixApp.Utils.ImageUploadPipeline}).
+     * @param fileName Name of the uploaded file.
+     * @param callback Callback with the URL of the new picture, or error.
      */
-    public static void uploadProfilePicture(File imageFile, ProfilePictureCallback callback) {
-        RequestBody requestFile = RequestBody.create(MediaType.parse("image/*"), imageFile);
-        MultipartBody.Part body = MultipartBody.Part.createFormData("file", imageFile.getName(), requestFile);
+    public static void uploadProfilePicture(RequestBody image, String fileName, ProfilePictureCallback callback) {
+        MultipartBody.Part body = MultipartBody.Part.createFormData("file", fileName, image);
 
-        getApiService().uploadProfilePicture(getAuthToken(), body)
-                .enqueue(new Callback<ApiModels.ApiResponse>() {
+        getApiService().uploadProfilePicture(body)
+                .enqueue(new Callback<ApiModels.ProfilePictureUploadResponse>() {
                     @Override
-                    public void onResponse(Call<ApiModels.ApiResponse> call, Response<ApiModels.ApiResponse> response) {
+                    public void onResponse(Call<ApiModels.ProfilePictureUploadResponse> call, Response<ApiModels.ProfilePictureUploadResponse> response) {
                         if (response.isSuccessful() && response.body() != null) {
-                            callback.onSuccess(response.body().message);
+                            callback.onSuccess(onProfilePictureStored(response.body()));
                         } else {
                             callback.onFailure(getErrorMessage(response));
                         }
                     }
 
                     @Override
-                    public void onFailure(Call<ApiModels.ApiResponse> call, Throwable t) {
+                    public void onFailure(Call<ApiModels.ProfilePictureUploadResponse> call, Throwable t) {
                         callback.onFailure(t.getMessage());
                     }
                 });
     }
 
+    /**
+     * Uploads a profile picture in chunks that survive dropped connections and process death
+     * (see {@link ResumableUploader}). Meant for pictures too big to send reliably at once.
+     *
+     * @param picture Encoded picture.
+     * @param callback Callback with the URL of the new picture, or error. Runs on a background thread.
+     */
+    public static void uploadProfilePictureResumable(byte[] picture, ProfilePictureCallback callback) {
+        pictureUploader.start(picture, uploadListener(callback));
+    }
+
+    /**
+     * Updates the cached picture URL of the user once the backend stored the upload.
+     *
+     * @param callback Callback of the caller, or null if nobody waits for the result.
+     */
+    private static ResumableUploader.Listener uploadListener(ProfilePictureCallback callback) {
+        return new ResumableUploader.Listener() {
+            @Override
+            public void onComplete(ApiModels.ProfilePictureUploadResponse response) {
+                String url = onProfilePictureStored(response);
+                if (callback != null)
+                    callback.onSuccess(url);
+            }
+
+            @Override
+            public void onFailure(String errorMessage) {
+                if (callback != null)
+                    callback.onFailure(errorMessage);
+            }
+        };
+    }
+
+    /**
+     * Replaces the cached picture URL of the current user with the uploaded one.
+     *
+     * @param response Upload response.
+     * @return URL of the new picture.
+     */
+    private static String onProfilePictureStored(ApiModels.ProfilePictureUploadResponse response) {
+        int userId = SharedPrefHelper.getUserId(appContext);
+        offlineLoader.remove("getProfilePicture:" + userId);
+        if (response.url != null)
+            avatarUrls.put(userId, response.url);
+        else
+            avatarUrls.invalidate(userId);
+        return response.url;
+    }
+
     /** ---------------------------------------------------------------------------------------------------------------------
      *                                              SERVICE PROVIDERS
      * ----------------------------------------------------------------------------------------------------------------------
      * */
 
     /**
-     * Returns a list of providers filtered by role, budget, text query, and distance.
-     *
+     * Returns providers filtered by role, budget, text query, and distance, one page at a time.
+     * <p>
+     * Answered at once from memory when possible. Otherwise pages are fetched as the list is
+     * scrolled (see {@link ListPager#onScrolled(int)}); once the last page arrives the whole
+     * result is kept in memory so narrower filters are answered on the device.
+     * </p>
      * @param serviceType Type of service.
      * @param maxBudget Maximum budget allowed.
      * @param query Text query to filter names or descriptions.
      * @param maxDistance Max distance in kilometers.
-     * @param callback Callback with list or error.
+     * @param listener Receives the providers loaded so far.
+     * @return Started pager, also the handle to cancel it (see {@link RequestScope}).
      */
-    public static void getServiceProviders(String serviceType, int maxBudget, String query,  int maxDistance, ServiceProvidersListCallback callback) {
-        getApiService().getSPs(getAuthToken(), serviceType, maxBudget, query,  maxDistance)
-                .enqueue(new Callback<List<ApiModels.ServiceProviderResponse>>() {
-                    @Override
-                    public void onResponse(Call<List<ApiModels.ServiceProviderResponse>> call, @NonNull Response<List<ApiModels.ServiceProviderResponse>> response) {
-                        if (response.isSuccessful() && response.body() != null) {
-                            callback.onSuccess(response.body());
-                        } else {
-                            callback.onFailure(getErrorMessage(response));
-                        }
-                    }
-
-                    @Override
-                    public void onFailure(Call<List<ApiModels.ServiceProviderResponse>> call, Throwable t) {
-                        callback.onFailure(t.getMessage());
-                    }
-                });
+    public static ListPager<ApiModels.ServiceProviderResponse> pageServiceProviders(String serviceType, int maxBudget, String query, int maxDistance,
+                                                                                  ListPager.Listener<ApiModels.ServiceProviderResponse> listener) {
+        ListFilters.ProviderFilter filter = new ListFilters.ProviderFilter(serviceType, maxBudget, query, maxDistance);
+        long version = providersEngine.beginLoad();
+        return new ListPager<ApiModels.ServiceProviderResponse>(PAGE_SIZE, PREFETCH_DISTANCE, (cursor, pageSize, callback) -> {
+            if (cursor == null) {
+                List<ApiModels.ServiceProviderResponse> cached = providersEngine.query(filter);
+                if (cached != null) {
+                    callback.onPage(cached, null);
+                    return ApiCall.completed();
+                }
+            }
+            String key = "getSPsPage:" + filter.serviceType + ":" + filter.maxBudget + ":" + filter.query + ":" + filter.maxDistance + ":" + pageSize + ":" + cursor;
+            ListStream<ApiModels.ServiceProviderResponse> stream = new ListStream<>();
+            return loadPage(LocalStore.EntityType.PROVIDER, key, stream,
+                    getApiService().getSPsPage(filter.serviceType, filter.maxBudget, filter.query, filter.maxDistance, pageSize, cursor, stream),
+                    callback);
+        }, listener, all -> providersEngine.store(filter, all, version)).start();
     }
 
     /**
@@ -325,10 +577,12 @@ public class ApiManager {
      * @param providerId ID of the provider.
      * @param roleName Name of the role.
      * @param callback Callback with provider details or error.
+     * @return Handle to cancel the call (see {@link RequestScope}).
      */
-    public static void getServiceProviderById(int providerId, String roleName, ServiceProviderCallback callback) {
-        getApiService().getServiceProviderById(getAuthToken(), providerId, roleName)
-                .enqueue(new Callback<ApiModels.ServiceProviderResponse>() {
+    public static ApiCall getServiceProviderById(int providerId, String roleName, ServiceProviderCallback callback) {
+        return offlineLoader.enqueue(LocalStore.EntityType.PROVIDER, "getServiceProviderById:" + providerId + ":" + roleName,
+                getApiService().getServiceProviderById(providerId, roleName),
+                new Callback<ApiModels.ServiceProviderResponse>() {
                     @Override
                     public void onResponse(Call<ApiModels.ServiceProviderResponse> call, Response<ApiModels.ServiceProviderResponse> response) {
                         if (response.isSuccessful() && response.body() != null) {
@@ -349,10 +603,11 @@ public class ApiManager {
      * Retrieves all current's user provider roles.
      *
      * @param callback Callback with list of roles.
+     * @return Handle to cancel the call (see {@link RequestScope}).
      */
-    public static void getProviderRoles(ServiceProviderRolesCallback callback) {
-        Call<List<ApiModels.ServiceProviderResponse>> call = getApiService().getProviderRoles(getAuthToken());
-        call.enqueue(new Callback<List<ApiModels.ServiceProviderResponse>>() {
+    public static ApiCall getProviderRoles(ServiceProviderRolesCallback callback) {
+        Call<List<ApiModels.ServiceProviderResponse>> call = getApiService().getProviderRoles();
+        return offlineLoader.enqueue(LocalStore.EntityType.PROVIDER, "getProviderRoles", call, new Callback<List<ApiModels.ServiceProviderResponse>>() {
             @Override
             public void onResponse(Call<List<ApiModels.ServiceProviderResponse>> call, Response<List<ApiModels.ServiceProviderResponse>> response) {
                 if (response.isSuccessful() && response.body() != null) {
@@ -376,22 +631,8 @@ public class ApiManager {
      * @param callback Callback with result.
      */
     public static void addProviderRoles(ApiModels.ProviderRoleRequest request, ProviderRoleCallback callback) {
-        getApiService().addProviderRole(getAuthToken(), request)
-                .enqueue(new Callback<ApiModels.ApiResponse>() {
-                    @Override
-                    public void onResponse(Call<ApiModels.ApiResponse> call, Response<ApiModels.ApiResponse> response) {
-                        if (response.isSuccessful() && response.body() != null) {
-                            callback.onSuccess("Role added.");
-                        } else {
-                            callback.onFailure(getErrorMessage(response));
-                        }
-                    }
-
-                    @Override
-                    public void onFailure(Call<ApiModels.ApiResponse> call, Throwable t) {
-                        callback.onFailure(t.getMessage());
-                    }
-                });
+        mutationQueue.enqueue(MutationQueue.Kind.ADD_ROLE, MutationQueue.roleKey(request.role), request,
+                roleListener("Role added.", callback));
     }
 
     /**
@@ -401,22 +642,8 @@ public class ApiManager {
      * @param callback Callback with result.
      */
     public static void updateProviderInfo(ApiModels.UpdateProviderRoleRequest request, ProviderRoleCallback callback) {
-        getApiService().updateProviderInfo(getAuthToken(), request)
-                .enqueue(new Callback<ApiModels.ApiResponse>() {
-            @Override
-            public void onResponse(Call<ApiModels.ApiResponse> call, Response<ApiModels.ApiResponse> response) {
-                if (response.isSuccessful()) {
-                    callback.onSuccess("Role updated.");
-                } else {
-                    callback.onFailure(getErrorMessage(response));
-                }
-            }
-
-            @Override
-            public void onFailure(Call<ApiModels.ApiResponse> call, Throwable t) {
-                callback.onFailure(t.getMessage());
-            }
-        });
+        mutationQueue.enqueue(MutationQueue.Kind.UPDATE_ROLE, MutationQueue.roleKey(request.role), request,
+                roleListener("Role updated.", callback));
     }
 
     /**
@@ -426,21 +653,8 @@ public class ApiManager {
      * @param callback Callback with result.
      */
     public static void removeProviderRole(String role, ProviderRoleCallback callback) {
-        getApiService().removeProviderRole(getAuthToken(), role).enqueue(new Callback<ApiModels.ApiResponse>() {
-            @Override
-            public void onResponse(Call<ApiModels.ApiResponse> call, Response<ApiModels.ApiResponse> response) {
-                if (response.isSuccessful() && response.body() != null) {
-                    callback.onSuccess("Role removed");
-                } else {
-                    callback.onFailure(getErrorMessage(response));
-                }
-            }
-
-            @Override
-            public void onFailure(Call<ApiModels.ApiResponse> call, Throwable t) {
-                callback.onFailure(t.getMessage());
-            }
-        });
+        mutationQueue.enqueue(MutationQueue.Kind.REMOVE_ROLE, MutationQueue.roleKey(role), new MutationQueue.RoleRemoval(role),
+                roleListener("Role removed", callback));
     }
 
     /** ---------------------------------------------------------------------------------------------------------------------
@@ -449,58 +663,57 @@ public class ApiManager {
      * */
 
     /**
-     * Retrieves all public service requests filtered by type, budget, query, and distance.
-     *
+     * Returns public service requests filtered by type, budget, query, and distance, one page at a time.
+     * <p>
+     * Answered at once from memory when possible. Otherwise pages are fetched as the list is
+     * scrolled (see {@link ListPager#onScrolled(int)}); once the last page arrives the whole
+     * result is kept in memory so narrower filters are answered on the device.
+     * </p>
      * @param spinner Service type filter.
-     * @param budget Max price.
+     * @param budget Min price.
      * @param query Text query.
      * @param maxDistance Distance in km.
-     * @param callback Callback with list or error.
+     * @param listener Receives the requests loaded so far.
+     * @return Started pager, also the handle to cancel it (see {@link RequestScope}).
      */
-    public static void getRequests(String spinner, int budget, String query,  int maxDistance,RequestsListCallback callback) {
-        String spinnerFilter = spinner.equalsIgnoreCase("Any") ? "" : spinner;
-        getApiService().getRequests(getAuthToken(), spinnerFilter, budget, query,  maxDistance)
-                .enqueue(new Callback<List<ApiModels.RequestResponse>>() {
-                    @Override
-                    public void onResponse(Call<List<ApiModels.RequestResponse>> call, Response<List<ApiModels.RequestResponse>> response) {
-                        if (response.isSuccessful() && response.body() != null) {
-                            callback.onSuccess(response.body());
-                        } else {
-                            callback.onFailure(getErrorMessage(response));
-                        }
-                    }
-                    @Override
-                    public void onFailure(Call<List<ApiModels.RequestResponse>> call, Throwable t) {
-                        callback.onFailure(t.getMessage());
-                    }
-                });
+    public static ListPager<ApiModels.RequestResponse> pageRequests(String spinner, int budget, String query, int maxDistance,
+                                                                  ListPager.Listener<ApiModels.RequestResponse> listener) {
+        ListFilters.RequestFilter filter = new ListFilters.RequestFilter(spinner, budget, query, maxDistance);
+        long version = requestsEngine.beginLoad();
+        return new ListPager<ApiModels.RequestResponse>(PAGE_SIZE, PREFETCH_DISTANCE, (cursor, pageSize, callback) -> {
+            if (cursor == null) {
+                List<ApiModels.RequestResponse> cached = requestsEngine.query(filter);
+                if (cached != null) {
+                    callback.onPage(cached, null);
+                    return ApiCall.completed();
+                }
+            }
+            String key = "getRequestsPage:" + filter.spinner + ":" + filter.budget + ":" + filter.query + ":" + filter.maxDistance + ":" + pageSize + ":" + cursor;
+            ListStream<ApiModels.RequestResponse> stream = new ListStream<>();
+            return loadPage(LocalStore.EntityType.REQUEST, key, stream,
+                    getApiService().getRequestsPage(filter.spinner, filter.budget, filter.query, filter.maxDistance, pageSize, cursor, stream),
+                    callback);
+        }, listener, all -> requestsEngine.store(filter, all, version)).start();
     }
 
     /**
-     * Gets requests created by the current user.
+     * Gets requests created by the current user, one page at a time as the list is scrolled.
      *
      * @param status Status filter.
      * @param query Text query.
      * @param maxBudget Budget limit.
-     * @param callback Callback with result list.
+     * @param listener Receives the requests loaded so far.
+     * @return Started pager, also the handle to cancel it (see {@link RequestScope}).
      */
-    public static void getClientRequests(String status, String query, double maxBudget, RequestsListCallback callback) {
-        getApiService().getClientRequests(getAuthToken(), status, query, maxBudget)
-                .enqueue(new Callback<List<ApiModels.RequestResponse>>() {
-                    @Override
-                    public void onResponse(Call<List<ApiModels.RequestResponse>> call, Response<List<ApiModels.RequestResponse>> response) {
-                        if (response.isSuccessful() && response.body() != null) {
-                            callback.onSuccess(response.body());
-                        } else {
-                            callback.onFailure(getErrorMessage(response));
-                        }
-                    }
-
-                    @Override
-                    public void onFailure(Call<List<ApiModels.RequestResponse>> call, Throwable t) {
-                        callback.onFailure(t.getMessage());
-                    }
-                });
+    public static ListPager<ApiModels.RequestResponse> pageClientRequests(String status, String query, double maxBudget,
+                                                                        ListPager.Listener<ApiModels.RequestResponse> listener) {
+        return new ListPager<ApiModels.RequestResponse>(PAGE_SIZE, PREFETCH_DISTANCE, (cursor, pageSize, callback) -> {
+            String key = "getClientRequestsPage:" + status + ":" + query + ":" + maxBudget + ":" + pageSize + ":" + cursor;
+            ListStream<ApiModels.RequestResponse> stream = new ListStream<>();
+            return loadPage(LocalStore.EntityType.REQUEST, key, stream,
+                    getApiService().getClientRequestsPage(status, query, maxBudget, pageSize, cursor, stream),
+                    callback);
+        }, listener, null).start();
     }
 
     /**
@@ -508,10 +721,11 @@ public class ApiManager {
      *
      * @param requestId ID of the request.
      * @param callback Callback with request details.
+     * @return Handle to cancel the call (see {@link RequestScope}).
      */
-    public static void getRequestById(int requestId, RequestCallback callback) {
-        getApiService().getRequestById(getAuthToken(), requestId)
-                .enqueue(new Callback<ApiModels.RequestResponse>() {
+    public static ApiCall getRequestById(int requestId, RequestCallback callback) {
+        return offlineLoader.enqueue(LocalStore.EntityType.REQUEST, "getRequestById:" + requestId, getApiService().getRequestById(requestId),
+                new Callback<ApiModels.RequestResponse>() {
                     @Override
                     public void onResponse(Call<ApiModels.RequestResponse> call, Response<ApiModels.RequestResponse> response) {
                         if (response.isSuccessful() && response.body() != null) {
@@ -530,27 +744,15 @@ public class ApiManager {
 
     /**
      * Adds a new request.
+     * Every attempt is sent with the same idempotency key, so a retry after a lost response
+     * does not create the request twice.
      *
      * @param request The request data.
      * @param callback Callback with result of creation.
      */
     public static void addRequest(ApiModels.ServiceRequestRequest request, UserActionCallback callback) {
-        getApiService().addRequest(getAuthToken(), request)
-                .enqueue(new Callback<ApiModels.ApiResponse>() {
-                    @Override
-                    public void onResponse(Call<ApiModels.ApiResponse> call, Response<ApiModels.ApiResponse> response) {
-                        if (response.isSuccessful() && response.body() != null) {
-                            callback.onSuccess(response.body().message);
-                        } else {
-                            callback.onFailure(getErrorMessage(response));
-                        }
-                    }
-
-                    @Override
-                    public void onFailure(Call<ApiModels.ApiResponse> call, Throwable t) {
-                        callback.onFailure(t.getMessage());
-                    }
-                });
+        mutationQueue.enqueue(MutationQueue.Kind.ADD_REQUEST, MutationQueue.newRequestKey(), request,
+                actionListener(callback));
     }
 
     /**
@@ -562,23 +764,8 @@ public class ApiManager {
      */
     public static void updateRequest(int requestId, ApiModels.ServiceRequestRequest request, UserActionCallback callback) {
         Map<String, Object> body = getStringObjectMap(request);
-
-        getApiService().updateRequest(getAuthToken(), requestId, body)
-                .enqueue(new Callback<ApiModels.ApiResponse>() {
-                    @Override
-                    public void onResponse(Call<ApiModels.ApiResponse> call, Response<ApiModels.ApiResponse> response) {
-                        if (response.isSuccessful() && response.body() != null) {
-                            callback.onSuccess(response.body().message);
-                        } else {
-                            callback.onFailure(getErrorMessage(response));
-                        }
-                    }
-
-                    @Override
-                    public void onFailure(Call<ApiModels.ApiResponse> call, Throwable t) {
-                        callback.onFailure(t.getMessage());
-                    }
-                });
+        mutationQueue.enqueue(MutationQueue.Kind.UPDATE_REQUEST, "request:" + requestId,
+                new MutationQueue.RequestUpdate(requestId, body), actionListener(callback));
     }
 
     /**
@@ -588,22 +775,8 @@ public class ApiManager {
      * @param callback Callback with result.
      */
     public static void removeRequest(int requestId, UserActionCallback callback) {
-        getApiService().removeRequest(getAuthToken(), requestId)
-                .enqueue(new Callback<ApiModels.ApiResponse>() {
-                    @Override
-                    public void onResponse(Call<ApiModels.ApiResponse> call, Response<ApiModels.ApiResponse> response) {
-                        if (response.isSuccessful() && response.body() != null) {
-                            callback.onSuccess(response.body().message);
-                        } else {
-                            callback.onFailure(getErrorMessage(response));
-                        }
-                    }
-
-                    @Override
-                    public void onFailure(Call<ApiModels.ApiResponse> call, Throwable t) {
-                        callback.onFailure(t.getMessage());
-                    }
-                });
+        mutationQueue.enqueue(MutationQueue.Kind.REMOVE_REQUEST, "request:" + requestId,
+                new MutationQueue.RequestRemoval(requestId), actionListener(callback));
     }
 
     /**
@@ -614,48 +787,9 @@ public class ApiManager {
      * @param callback Callback with decision result.
      */
     public static void handleRequestDecision(int requestId, boolean accept, UserActionCallback callback) {
-        ApiModels.RequestDecision response = new ApiModels.RequestDecision(requestId, accept);
-        getApiService().handleRequestDecision(getAuthToken(), response)
-                .enqueue(new Callback<ApiModels.ApiResponse>() {
-                    @Override
-                    public void onResponse(Call<ApiModels.ApiResponse> call, Response<ApiModels.ApiResponse> response) {
-                        if (response.isSuccessful() && response.body() != null) {
-                            callback.onSuccess(response.body().message);
-                        } else {
-                            callback.onFailure(getErrorMessage(response));
-                        }
-                    }
-
-                    @Override
-                    public void onFailure(Call<ApiModels.ApiResponse> call, Throwable t) {
-                        callback.onFailure(t.getMessage());
-                    }
-                });
-    }
-
-    /**
-     * Checks if the current user is the creator of a given request.
-     *
-     * @param requestId ID of the request.
-     * @param callback Callback returning true if owner, false otherwise.
-     */
-    public static void isRequestCreator(int requestId, RequestCreatorCallback callback) {
-        getApiService().checkOwnership(getAuthToken(), requestId)
-                .enqueue(new Callback<ApiModels.OwnershipResponse>() {
-                    @Override
-                    public void onResponse(Call<ApiModels.OwnershipResponse> call, Response<ApiModels.OwnershipResponse> response) {
-                        if (response.isSuccessful() && response.body() != null) {
-                            callback.onSuccess(response.body().isOwner);
-                        } else {
-                            callback.onFailure(getErrorMessage(response));
-                        }
-                    }
-
-                    @Override
-                    public void onFailure(Call<ApiModels.OwnershipResponse> call, Throwable t) {
-                        callback.onFailure(t.getMessage());
-                    }
-                });
+        ApiModels.RequestDecision decision = new ApiModels.RequestDecision(requestId, accept);
+        mutationQueue.enqueue(MutationQueue.Kind.REQUEST_DECISION, "request:" + requestId, decision,
+                actionListener(callback));
     }
 
     /** ---------------------------------------------------------------------------------------------------------------------
@@ -672,22 +806,8 @@ public class ApiManager {
      */
     public static void updateServiceStatus(int serviceId, String newStatus, UserActionCallback callback) {
         ApiModels.ServiceStatusUpdateRequest body = new ApiModels.ServiceStatusUpdateRequest(serviceId, newStatus);
-        getApiService().updateServiceStatus(getAuthToken(), body)
-                .enqueue(new Callback<ApiModels.ApiResponse>() {
-                    @Override
-                    public void onResponse(Call<ApiModels.ApiResponse> call, Response<ApiModels.ApiResponse> response) {
-                        if (response.isSuccessful() && response.body() != null) {
-                            callback.onSuccess(response.body().message);
-                        } else {
-                            callback.onFailure(getErrorMessage(response));
-                        }
-                    }
-
-                    @Override
-                    public void onFailure(Call<ApiModels.ApiResponse> call, Throwable t) {
-                        callback.onFailure(t.getMessage());
-                    }
-                });
+        mutationQueue.enqueue(MutationQueue.Kind.SERVICE_STATUS, "service:" + serviceId, body,
+                actionListener(callback));
     }
 
     /**
@@ -695,10 +815,11 @@ public class ApiManager {
      *
      * @param serviceId ID of the service.
      * @param callback Callback with service data.
+     * @return Handle to cancel the call (see {@link RequestScope}).
      */
-    public static void getServiceById(int serviceId, ServiceCallback callback) {
-        Call<ApiModels.ServiceResponse> call = getApiService().getServiceById(getAuthToken(), serviceId);
-        call.enqueue(new Callback<ApiModels.ServiceResponse>() {
+    public static ApiCall getServiceById(int serviceId, ServiceCallback callback) {
+        Call<ApiModels.ServiceResponse> call = getApiService().getServiceById(serviceId);
+        return offlineLoader.enqueue(LocalStore.EntityType.SERVICE, "getServiceById:" + serviceId, call, new Callback<ApiModels.ServiceResponse>() {
             @Override
             public void onResponse(Call<ApiModels.ServiceResponse> call, Response<ApiModels.ServiceResponse> response) {
                 if (response.isSuccessful() && response.body() != null) {
@@ -716,31 +837,24 @@ public class ApiManager {
     }
 
     /**
-     * Retrieves all services handled by the specified provider.
+     * Retrieves the services handled by the specified provider, one page at a time as the list is scrolled.
      *
      * @param providerId ID of the provider.
      * @param status Status filter.
      * @param query Search query.
      * @param minBudget Minimum price.
-     * @param callback Callback with list of services.
+     * @param listener Receives the services loaded so far.
+     * @return Started pager, also the handle to cancel it (see {@link RequestScope}).
      */
-    public static void getServicesByProvider(int providerId, String status, String query, double minBudget, ServiceListCallback callback) {
-        getApiService().getServicesByProvider(getAuthToken(), providerId, status, query, minBudget)
-                .enqueue(new Callback<List<ApiModels.ServiceResponse>>() {
-                    @Override
-                    public void onResponse(Call<List<ApiModels.ServiceResponse>> call, Response<List<ApiModels.ServiceResponse>> response) {
-                        if (response.isSuccessful() && response.body() != null) {
-                            callback.onSuccess(response.body());
-                        } else {
-                            callback.onFailure(getErrorMessage(response));
-                        }
-                    }
-
-                    @Override
-                    public void onFailure(Call<List<ApiModels.ServiceResponse>> call, Throwable t) {
-                        callback.onFailure(t.getMessage());
-                    }
-                });
+    public static ListPager<ApiModels.ServiceResponse> pageServicesByProvider(int providerId, String status, String query, double minBudget,
+                                                                            ListPager.Listener<ApiModels.ServiceResponse> listener) {
+        return new ListPager<ApiModels.ServiceResponse>(PAGE_SIZE, PREFETCH_DISTANCE, (cursor, pageSize, callback) -> {
+            String key = "getServicesByProviderPage:" + providerId + ":" + status + ":" + query + ":" + minBudget + ":" + pageSize + ":" + cursor;
+            ListStream<ApiModels.ServiceResponse> stream = new ListStream<>();
+            return loadPage(LocalStore.EntityType.SERVICE, key, stream,
+                    getApiService().getServicesByProviderPage(providerId, status, query, minBudget, pageSize, cursor, stream),
+                    callback);
+        }, listener, null).start();
     }
 
     /** ---------------------------------------------------------------------------------------------------------------------
@@ -755,7 +869,7 @@ public class ApiManager {
      * @param response The failed Retrofit response.
      * @return The extracted error message, or a default one if parsing fails.
      */
-    private static String getErrorMessage(Response<?> response) {
+    static String getErrorMessage(Response<?> response) {
         try {
             if (response.errorBody() != null) {
                 String errorBody = response.errorBody().string();
@@ -768,6 +882,69 @@ public class ApiManager {
         return "Unexpected error.";
     }
 
+    /**
+     * Loads a page disk-first, like {@link OfflineFirstLoader#enqueue}, and hands its rows to
+     * {@link ListPager.PageCallback#onPartial} while they arrive from the network.
+     *
+     * @param type     Entity type of the rows.
+     * @param key      Identifies the call; also the storage key.
+     * @param stream   Stream passed as the tag of {@code call}.
+     * @param call     Call carrying {@code stream}.
+     * @param callback Page callback of the pager.
+     * @param <T>      Row type.
+     * @return Handle to cancel the call.
+     */
+    private static <T> ApiCall loadPage(LocalStore.EntityType type, String key, ListStream<T> stream,
+                                        Call<ApiModels.Page<T>> call, ListPager.PageCallback<T> callback) {
+        long sentAt = System.currentTimeMillis();
+        ApiCall[] handle = new ApiCall[1];
+        stream.setListener(rows -> {
+            if (!handle[0].isCanceled())
+                callback.onPartial(mutationQueue.applyPending(key, rows, sentAt));
+        });
+        Callback<ApiModels.Page<T>> pageCallback = pageCallback(callback);
+        handle[0] = offlineLoader.enqueue(type, key, call, new Callback<ApiModels.Page<T>>() {
+            @Override
+            public void onResponse(Call<ApiModels.Page<T>> call, Response<ApiModels.Page<T>> response) {
+                stream.setListener(null);
+                pageCallback.onResponse(call, response);
+            }
+
+            @Override
+            public void onFailure(Call<ApiModels.Page<T>> call, Throwable t) {
+                stream.setListener(null);
+                pageCallback.onFailure(call, t);
+            }
+        });
+        return handle[0];
+    }
+
+    /**
+     * Adapts the Retrofit callback of a paged endpoint to a {@link ListPager}.
+     *
+     * @param callback Page callback of the pager.
+     * @param <T> Row type.
+     * @return Retrofit callback delivering the page rows and the cursor of the next page.
+     */
+    private static <T> Callback<ApiModels.Page<T>> pageCallback(ListPager.PageCallback<T> callback) {
+        return new Callback<ApiModels.Page<T>>() {
+            @Override
+            public void onResponse(Call<ApiModels.Page<T>> call, Response<ApiModels.Page<T>> response) {
+                ApiModels.Page<T> page = response.body();
+                if (response.isSuccessful() && page != null) {
+                    callback.onPage(page.items != null ? page.items : new ArrayList<>(), page.nextCursor);
+                } else {
+                    callback.onFailure(getErrorMessage(response));
+                }
+            }
+
+            @Override
+            public void onFailure(Call<ApiModels.Page<T>> call, Throwable t) {
+                callback.onFailure(t.getMessage());
+            }
+        };
+    }
+
     /**
      * Converts a ServiceRequestRequest object into a map of non-null fields for partial update.
      * Used in PATCH requests to update only changed fields.
@@ -791,6 +968,61 @@ public class ApiManager {
             body.put("service_deadline", request.deadline);
         return body;
     }
+
+    /**
+     * Adapts a UserActionCallback to the mutation queue, reporting the backend message.
+     */
+    private static MutationQueue.ResultListener actionListener(UserActionCallback callback) {
+        if (callback instanceof OptimisticActionCallback) {
+            OptimisticActionCallback optimistic = (OptimisticActionCallback) callback;
+            return new MutationQueue.OptimisticListener() {
+                @Override
+                public void onQueued(String message) {
+                    optimistic.onQueued(message);
+                }
+
+                @Override
+                public void onSuccess(String message) {
+                    optimistic.onSuccess(message);
+                }
+
+                @Override
+                public void onFailure(String errorMessage) {
+                    optimistic.onFailure(errorMessage);
+                }
+            };
+        }
+        return new MutationQueue.ResultListener() {
+            @Override
+            public void onSuccess(String message) {
+                callback.onSuccess(message);
+            }
+
+            @Override
+            public void onFailure(String errorMessage) {
+                callback.onFailure(errorMessage);
+            }
+        };
+    }
+
+    /**
+     * Adapts a ProviderRoleCallback to the mutation queue.
+     *
+     * @param successMessage Message reported once the backend accepted the change.
+     */
+    private static MutationQueue.ResultListener roleListener(String successMessage, ProviderRoleCallback callback) {
+        return new MutationQueue.ResultListener() {
+            @Override
+            public void onSuccess(String message) {
+                callback.onSuccess(MutationQueue.QUEUED_MESSAGE.equals(message) ? message : successMessage);
+            }
+
+            @Override
+            public void onFailure(String errorMessage) {
+                callback.onFailure(errorMessage);
+            }
+        };
+    }
     // -------------------- CALLBACKS --------------------
     /**
      * Callback for login responses.
@@ -809,6 +1041,21 @@ public class ApiManager {
         void onFailure(String errorMessage);
     }
 
+    /**
+     * Callback for changes the screen already shows before they are confirmed.
+     * <p>
+     * onSuccess and onFailure always report the backend's answer, even when it comes after
+     * the change was saved offline; on failure the screen should undo the change.
+     */
+    public interface OptimisticActionCallback extends UserActionCallback {
+        /**
+         * The change could not be sent yet and was saved; it stays applied meanwhile.
+         *
+         * @param message Message to show to the user.
+         */
+        void onQueued(String message);
+    }
+
     /**
      * Callback used when retrieving the current user's profile.
      */
@@ -842,15 +1089,6 @@ public class ApiManager {
         void onFailure(String error);
     }
 
-    /**
-     * Callback for getting a filtered list of service providers.
-     * Used in provider listings.
-     */
-    public interface ServiceProvidersListCallback {
-        void onSuccess(List<ApiModels.ServiceProviderResponse> providers);
-        void onFailure(String errorMessage);
-    }
-
     /**
      * Callback for getting full details about a specific service provider role.
      */
@@ -868,15 +1106,6 @@ public class ApiManager {
     }
 
     // -------------------- REQUESTS  --------------------
-    /**
-     * Callback for retrieving a filtered list of service requests.
-     * Used in main feed and client profile.
-     */
-    public interface RequestsListCallback {
-        void onSuccess(List<ApiModels.RequestResponse> requests);
-        void onFailure(String errorMessage);
-    }
-
     /**
      * Callback for fetching details about a single service request.
      */
@@ -885,14 +1114,6 @@ public class ApiManager {
         void onFailure(String errorMessage);
     }
 
-    /**
-     * Callback for checking if the current user is the creator of a request.
-     */
-    public interface RequestCreatorCallback {
-        void onSuccess(boolean creator);
-        void onFailure(String errorMessage);
-    }
-
     // -------------------- SERVICE --------------------
     /**
      * Callback for retrieving detailed data about a service.
@@ -901,12 +1122,4 @@ public class ApiManager {
         void onSuccess(ApiModels.ServiceResponse service);
         void onFailure(String errorMessage);
     }
-
-    /**
-     * Callback for retrieving a list of services owned by the provider or requested by the client.
-     */
-    public interface ServiceListCallback {
-        void onSuccess(List<ApiModels.ServiceResponse> services);
-        void onFailure(String errorMessage);
-    }
 }
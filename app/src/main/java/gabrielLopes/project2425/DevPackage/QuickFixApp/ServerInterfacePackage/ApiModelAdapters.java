@@ -0,0 +1,738 @@
+package gabrielLopes.project2425.DevPackage.QuickFixApp.ServerInterfacePackage;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streaming Gson adapters for every class of {@link ApiModels}.
+ * <p>
+ * Gson's default adapter builds each model by reflection: the first use of a class inspects its
+ * fields, and every object read pays reflective field writes. These adapters read and write the
+ * fields directly, under the same JSON names as the {@code @SerializedName} annotations, and
+ * follow Gson's rules: unknown names are skipped, a {@code null} leaves a primitive field at its
+ * default, and null fields are not written.
+ * <p>
+ * {@link ApiGson.Deserialized#afterDeserialize()} is not called here but by {@link ApiGson},
+ * which wraps these adapters. A field added to a model must be added to its adapter.
+ */
+final class ApiModelAdapters {
+
+    private ApiModelAdapters() {}
+
+    private static final Map<Class<?>, TypeAdapter<?>> ADAPTERS = new HashMap<>();
+
+    /**
+     * Gives the adapter of every {@link ApiModels} class, including {@link ApiModels.Page} of any item type.
+     */
+    static final TypeAdapterFactory FACTORY = new TypeAdapterFactory() {
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+            if (type.getRawType() == ApiModels.Page.class)
+                return (TypeAdapter<T>) new PageAdapter<>(gson.getAdapter(TypeToken.get(pageItemType(type.getType()))));
+            return (TypeAdapter<T>) ADAPTERS.get(type.getRawType());
+        }
+    };
+
+    /**
+     * Reads and writes the fields of one model, by JSON name.
+     */
+    private abstract static class ModelAdapter<T> extends TypeAdapter<T> {
+        /** @return A model with every field at its default. */
+        abstract T create();
+
+        /** Reads the value of {@code name} into the model, or skips it if unknown. */
+        abstract void readField(JsonReader in, String name, T value) throws IOException;
+
+        abstract void writeFields(JsonWriter out, T value) throws IOException;
+
+        @Override
+        public T read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            T value = create();
+            in.beginObject();
+            while (in.hasNext())
+                readField(in, in.nextName(), value);
+            in.endObject();
+            return value;
+        }
+
+        @Override
+        public void write(JsonWriter out, T value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            writeFields(out, value);
+            out.endObject();
+        }
+    }
+
+    private static <T> void register(Class<T> type, ModelAdapter<T> adapter) {
+        ADAPTERS.put(type, adapter);
+    }
+
+    // =====================================================================
+    // Users and login
+    // =====================================================================
+
+    static {
+        register(ApiModels.ApiResponse.class, new ModelAdapter<ApiModels.ApiResponse>() {
+            @Override
+            ApiModels.ApiResponse create() {
+                return new ApiModels.ApiResponse();
+            }
+
+            @Override
+            void readField(JsonReader in, String name, ApiModels.ApiResponse value) throws IOException {
+                if (name.equals("message"))
+                    value.message = readString(in);
+                else
+                    in.skipValue();
+            }
+
+            @Override
+            void writeFields(JsonWriter out, ApiModels.ApiResponse value) throws IOException {
+                out.name("message").value(value.message);
+            }
+        });
+
+        register(ApiModels.LoginRequest.class, new ModelAdapter<ApiModels.LoginRequest>() {
+            @Override
+            ApiModels.LoginRequest create() {
+                return new ApiModels.LoginRequest(null, null);
+            }
+
+            @Override
+            void readField(JsonReader in, String name, ApiModels.LoginRequest value) throws IOException {
+                switch (name) {
+                    case "username": value.username = readString(in); break;
+                    case "password": value.password = readString(in); break;
+                    default: in.skipValue();
+                }
+            }
+
+            @Override
+            void writeFields(JsonWriter out, ApiModels.LoginRequest value) throws IOException {
+                out.name("username").value(value.username);
+                out.name("password").value(value.password);
+            }
+        });
+
+        register(ApiModels.LoginResponse.class, new ModelAdapter<ApiModels.LoginResponse>() {
+            @Override
+            ApiModels.LoginResponse create() {
+                return new ApiModels.LoginResponse();
+            }
+
+            @Override
+            void readField(JsonReader in, String name, ApiModels.LoginResponse value) throws IOException {
+                switch (name) {
+                    case "token": value.token = readString(in); break;
+                    case "userId": value.userId = readInt(in, value.userId); break;
+                    default: in.skipValue();
+                }
+            }
+
+            @Override
+            void writeFields(JsonWriter out, ApiModels.LoginResponse value) throws IOException {
+                out.name("token").value(value.token);
+                out.name("userId").value(value.userId);
+            }
+        });
+
+        register(ApiModels.addUserRequest.class, new ModelAdapter<ApiModels.addUserRequest>() {
+            @Override
+            ApiModels.addUserRequest create() {
+                return new ApiModels.addUserRequest(null, null, null, null, null);
+            }
+
+            @Override
+            void readField(JsonReader in, String name, ApiModels.addUserRequest value) throws IOException {
+                switch (name) {
+                    case "user_name": value.name = readString(in); break;
+                    case "user_username": value.username = readString(in); break;
+                    case "user_mail": value.email = readString(in); break;
+                    case "user_location": value.location = readString(in); break;
+                    case "user_password": value.password = readString(in); break;
+                    default: in.skipValue();
+                }
+            }
+
+            @Override
+            void writeFields(JsonWriter out, ApiModels.addUserRequest value) throws IOException {
+                out.name("user_name").value(value.name);
+                out.name("user_username").value(value.username);
+                out.name("user_mail").value(value.email);
+                out.name("user_location").value(value.location);
+                out.name("user_password").value(value.password);
+            }
+        });
+
+        register(ApiModels.UserProfileResponse.class, new ModelAdapter<ApiModels.UserProfileResponse>() {
+            @Override
+            ApiModels.UserProfileResponse create() {
+                return new ApiModels.UserProfileResponse();
+            }
+
+            @Override
+            void readField(JsonReader in, String name, ApiModels.UserProfileResponse value) throws IOException {
+                switch (name) {
+                    case "userId": value.userId = readInt(in, value.userId); break;
+                    case "name": value.name = readString(in); break;
+                    case "username": value.username = readString(in); break;
+                    case "email": value.email = readString(in); break;
+                    case "personal_location": value.location = readString(in); break;
+                    case "rating": value.rating = readDouble(in, value.rating); break;
+                    case "roles": value.roles = readList(in, adapter(ApiModels.ProviderRoleRequest.class)); break;
+                    default: in.skipValue();
+                }
+            }
+
+            @Override
+            void writeFields(JsonWriter out, ApiModels.UserProfileResponse value) throws IOException {
+                out.name("userId").value(value.userId);
+                out.name("name").value(value.name);
+                out.name("username").value(value.username);
+                out.name("email").value(value.email);
+                out.name("personal_location").value(value.location);
+                out.name("rating").value(value.rating);
+                writeList(out.name("roles"), value.roles, adapter(ApiModels.ProviderRoleRequest.class));
+            }
+        });
+
+        register(ApiModels.UpdateUserRequest.class, new ModelAdapter<ApiModels.UpdateUserRequest>() {
+            @Override
+            ApiModels.UpdateUserRequest create() {
+                return new ApiModels.UpdateUserRequest(null, null, null, null);
+            }
+
+            @Override
+            void readField(JsonReader in, String name, ApiModels.UpdateUserRequest value) throws IOException {
+                switch (name) {
+                    case "user_name": value.name = readString(in); break;
+                    case "user_username": value.username = readString(in); break;
+                    case "user_mail": value.email = readString(in); break;
+                    case "user_location": value.location = readString(in); break;
+                    case "user_password": value.password = readString(in); break;
+                    default: in.skipValue();
+                }
+            }
+
+            @Override
+            void writeFields(JsonWriter out, ApiModels.UpdateUserRequest value) throws IOException {
+                out.name("user_name").value(value.name);
+                out.name("user_username").value(value.username);
+                out.name("user_mail").value(value.email);
+                out.name("user_location").value(value.location);
+                out.name("user_password").value(value.password);
+            }
+        });
+    }
+
+    // =====================================================================
+    // Profile pictures
+    // =====================================================================
+
+    static {
+        register(ApiModels.ProfilePictureResponse.class, new ModelAdapter<ApiModels.ProfilePictureResponse>() {
+            @Override
+            ApiModels.ProfilePictureResponse create() {
+                return new ApiModels.ProfilePictureResponse();
+            }
+
+            @Override
+            void readField(JsonReader in, String name, ApiModels.ProfilePictureResponse value) throws IOException {
+                if (name.equals("profilePic"))
+                    value.profilePic = readString(in);
+                else
+                    in.skipValue();
+            }
+
+            @Override
+            void writeFields(JsonWriter out, ApiModels.ProfilePictureResponse value) throws IOException {
+                out.name("profilePic").value(value.profilePic);
+            }
+        });
+
+        register(ApiModels.ProfilePictureUploadResponse.class, new ModelAdapter<ApiModels.ProfilePictureUploadResponse>() {
+            @Override
+            ApiModels.ProfilePictureUploadResponse create() {
+                return new ApiModels.ProfilePictureUploadResponse();
+            }
+
+            @Override
+            void readField(JsonReader in, String name, ApiModels.ProfilePictureUploadResponse value) throws IOException {
+                switch (name) {
+                    case "message": value.message = readString(in); break;
+                    case "url": value.url = readString(in); break;
+                    case "version": value.version = readString(in); break;
+                    default: in.skipValue();
+                }
+            }
+
+            @Override
+            void writeFields(JsonWriter out, ApiModels.ProfilePictureUploadResponse value) throws IOException {
+                out.name("message").value(value.message);
+                out.name("url").value(value.url);
+                out.name("version").value(value.version);
+            }
+        });
+
+        register(ApiModels.UploadSessionRequest.class, new ModelAdapter<ApiModels.UploadSessionRequest>() {
+            @Override
+            ApiModels.UploadSessionRequest create() {
+                return new ApiModels.UploadSessionRequest(0);
+            }
+
+            @Override
+            void readField(JsonReader in, String name, ApiModels.UploadSessionRequest value) throws IOException {
+                if (name.equals("size"))
+                    value.size = readLong(in, value.size);
+                else
+                    in.skipValue();
+            }
+
+            @Override
+            void writeFields(JsonWriter out, ApiModels.UploadSessionRequest value) throws IOException {
+                out.name("size").value(value.size);
+            }
+        });
+
+        register(ApiModels.UploadSession.class, new ModelAdapter<ApiModels.UploadSession>() {
+            @Override
+            ApiModels.UploadSession create() {
+                return new ApiModels.UploadSession();
+            }
+
+            @Override
+            void readField(JsonReader in, String name, ApiModels.UploadSession value) throws IOException {
+                switch (name) {
+                    case "uploadId": value.uploadId = readString(in); break;
+                    case "size": value.size = readLong(in, value.size); break;
+                    case "received": value.received = readLong(in, value.received); break;
+                    case "chunkSize": value.chunkSize = readInt(in, value.chunkSize); break;
+                    default: in.skipValue();
+                }
+            }
+
+            @Override
+            void writeFields(JsonWriter out, ApiModels.UploadSession value) throws IOException {
+                out.name("uploadId").value(value.uploadId);
+                out.name("size").value(value.size);
+                out.name("received").value(value.received);
+                out.name("chunkSize").value(value.chunkSize);
+            }
+        });
+    }
+
+    // =====================================================================
+    // Providers
+    // =====================================================================
+
+    static {
+        register(ApiModels.ServiceProviderResponse.class, new ModelAdapter<ApiModels.ServiceProviderResponse>() {
+            @Override
+            ApiModels.ServiceProviderResponse create() {
+                return new ApiModels.ServiceProviderResponse();
+            }
+
+            @Override
+            void readField(JsonReader in, String name, ApiModels.ServiceProviderResponse value) throws IOException {
+                switch (name) {
+                    case "id": value.id = readInt(in, value.id); break;
+                    case "name": value.name = readString(in); break;
+                    case "role": value.role = readString(in); break;
+                    case "location": value.location = readString(in); break;
+                    case "description": value.description = readString(in); break;
+                    case "rating": value.rating = readDouble(in, value.rating); break;
+                    case "pricePerHour": value.pricePerHour = readDouble(in, value.pricePerHour); break;
+                    case "distanceKm": value.distanceKm = readInt(in, value.distanceKm); break;
+                    default: in.skipValue();
+                }
+            }
+
+            @Override
+            void writeFields(JsonWriter out, ApiModels.ServiceProviderResponse value) throws IOException {
+                out.name("id").value(value.id);
+                out.name("name").value(value.name);
+                out.name("role").value(value.role);
+                out.name("location").value(value.location);
+                out.name("description").value(value.description);
+                out.name("rating").value(value.rating);
+                out.name("pricePerHour").value(value.pricePerHour);
+                out.name("distanceKm").value(value.distanceKm);
+            }
+        });
+
+        register(ApiModels.ProviderRoleRequest.class, new ModelAdapter<ApiModels.ProviderRoleRequest>() {
+            @Override
+            ApiModels.ProviderRoleRequest create() {
+                return new ApiModels.ProviderRoleRequest(null, null, null, null);
+            }
+
+            @Override
+            void readField(JsonReader in, String name, ApiModels.ProviderRoleRequest value) throws IOException {
+                switch (name) {
+                    case "role": value.role = readString(in); break;
+                    case "location": value.location = readString(in); break;
+                    case "description": value.description = readString(in); break;
+                    case "pricePerHour": value.pricePerHour = readBoxedDouble(in); break;
+                    default: in.skipValue();
+                }
+            }
+
+            @Override
+            void writeFields(JsonWriter out, ApiModels.ProviderRoleRequest value) throws IOException {
+                out.name("role").value(value.role);
+                out.name("location").value(value.location);
+                out.name("description").value(value.description);
+                out.name("pricePerHour").value(value.pricePerHour);
+            }
+        });
+
+        register(ApiModels.UpdateProviderRoleRequest.class, new ModelAdapter<ApiModels.UpdateProviderRoleRequest>() {
+            @Override
+            ApiModels.UpdateProviderRoleRequest create() {
+                return new ApiModels.UpdateProviderRoleRequest(null, null, null, 0);
+            }
+
+            @Override
+            void readField(JsonReader in, String name, ApiModels.UpdateProviderRoleRequest value) throws IOException {
+                switch (name) {
+                    case "role": value.role = readString(in); break;
+                    case "pro_location": value.location = readString(in); break;
+                    case "pro_description": value.description = readString(in); break;
+                    case "pro_price_per_hour": value.pricePerHour = readDouble(in, value.pricePerHour); break;
+                    default: in.skipValue();
+                }
+            }
+
+            @Override
+            void writeFields(JsonWriter out, ApiModels.UpdateProviderRoleRequest value) throws IOException {
+                out.name("role").value(value.role);
+                out.name("pro_location").value(value.location);
+                out.name("pro_description").value(value.description);
+                out.name("pro_price_per_hour").value(value.pricePerHour);
+            }
+        });
+    }
+
+    // =====================================================================
+    // Requests and services
+    // =====================================================================
+
+    static {
+        register(ApiModels.ServiceRequestRequest.class, new ModelAdapter<ApiModels.ServiceRequestRequest>() {
+            @Override
+            ApiModels.ServiceRequestRequest create() {
+                return new ApiModels.ServiceRequestRequest(null, null, null, null, null, null);
+            }
+
+            @Override
+            void readField(JsonReader in, String name, ApiModels.ServiceRequestRequest value) throws IOException {
+                switch (name) {
+                    case "service_title": value.title = readString(in); break;
+                    case "service_type": value.type = readString(in); break;
+                    case "service_description": value.description = readString(in); break;
+                    case "service_location": value.location = readString(in); break;
+                    case "service_price": value.price = readBoxedDouble(in); break;
+                    case "service_deadline": value.deadline = readString(in); break;
+                    default: in.skipValue();
+                }
+            }
+
+            @Override
+            void writeFields(JsonWriter out, ApiModels.ServiceRequestRequest value) throws IOException {
+                out.name("service_title").value(value.title);
+                out.name("service_type").value(value.type);
+                out.name("service_description").value(value.description);
+                out.name("service_location").value(value.location);
+                out.name("service_price").value(value.price);
+                out.name("service_deadline").value(value.deadline);
+            }
+        });
+
+        register(ApiModels.RequestResponse.class, new ModelAdapter<ApiModels.RequestResponse>() {
+            @Override
+            ApiModels.RequestResponse create() {
+                return new ApiModels.RequestResponse();
+            }
+
+            @Override
+            void readField(JsonReader in, String name, ApiModels.RequestResponse value) throws IOException {
+                switch (name) {
+                    case "request_id": value.id = readInt(in, value.id); break;
+                    case "service_title": value.title = readString(in); break;
+                    case "service_type": value.type = readString(in); break;
+                    case "service_description": value.description = readString(in); break;
+                    case "service_location": value.location = readString(in); break;
+                    case "service_deadline": value.deadline = readString(in); break;
+                    case "service_price": value.price = readDouble(in, value.price); break;
+                    case "request_status": value.status = readString(in); break;
+                    case "service_isAccepted": value.isAccepted = readBoolean(in, value.isAccepted); break;
+                    case "requester": value.clientID = readBoxedInt(in); break;
+                    case "requested_provider": value.requestedProviderID = readBoxedInt(in); break;
+                    case "distanceKm": value.distanceKm = readInt(in, value.distanceKm); break;
+                    default: in.skipValue();
+                }
+            }
+
+            @Override
+            void writeFields(JsonWriter out, ApiModels.RequestResponse value) throws IOException {
+                out.name("request_id").value(value.id);
+                out.name("service_title").value(value.title);
+                out.name("service_type").value(value.type);
+                out.name("service_description").value(value.description);
+                out.name("service_location").value(value.location);
+                out.name("service_deadline").value(value.deadline);
+                out.name("service_price").value(value.price);
+                out.name("request_status").value(value.status);
+                out.name("service_isAccepted").value(value.isAccepted);
+                out.name("requester").value(value.clientID);
+                out.name("requested_provider").value(value.requestedProviderID);
+                out.name("distanceKm").value(value.distanceKm);
+            }
+        });
+
+        register(ApiModels.RequestDecision.class, new ModelAdapter<ApiModels.RequestDecision>() {
+            @Override
+            ApiModels.RequestDecision create() {
+                return new ApiModels.RequestDecision(0, false);
+            }
+
+            @Override
+            void readField(JsonReader in, String name, ApiModels.RequestDecision value) throws IOException {
+                switch (name) {
+                    case "requestId": value.requestId = readInt(in, value.requestId); break;
+                    case "accept": value.accept = readBoolean(in, value.accept); break;
+                    default: in.skipValue();
+                }
+            }
+
+            @Override
+            void writeFields(JsonWriter out, ApiModels.RequestDecision value) throws IOException {
+                out.name("requestId").value(value.requestId);
+                out.name("accept").value(value.accept);
+            }
+        });
+
+        register(ApiModels.ServiceResponse.class, new ModelAdapter<ApiModels.ServiceResponse>() {
+            @Override
+            ApiModels.ServiceResponse create() {
+                return new ApiModels.ServiceResponse();
+            }
+
+            @Override
+            void readField(JsonReader in, String name, ApiModels.ServiceResponse value) throws IOException {
+                switch (name) {
+                    case "service_id": value.id = readInt(in, value.id); break;
+                    case "service_title": value.title = readString(in); break;
+                    case "service_type": value.type = readString(in); break;
+                    case "service_description": value.description = readString(in); break;
+                    case "service_location": value.location = readString(in); break;
+                    case "service_deadline": value.deadline = readString(in); break;
+                    case "service_price": value.price = readDouble(in, value.price); break;
+                    case "service_status": value.status = readString(in); break;
+                    case "service_provider": value.provider = readInt(in, value.provider); break;
+                    case "service_client": value.client = readInt(in, value.client); break;
+                    case "distanceKm": value.distanceKm = readInt(in, value.distanceKm); break;
+                    default: in.skipValue();
+                }
+            }
+
+            @Override
+            void writeFields(JsonWriter out, ApiModels.ServiceResponse value) throws IOException {
+                out.name("service_id").value(value.id);
+                out.name("service_title").value(value.title);
+                out.name("service_type").value(value.type);
+                out.name("service_description").value(value.description);
+                out.name("service_location").value(value.location);
+                out.name("service_deadline").value(value.deadline);
+                out.name("service_price").value(value.price);
+                out.name("service_status").value(value.status);
+                out.name("service_provider").value(value.provider);
+                out.name("service_client").value(value.client);
+                out.name("distanceKm").value(value.distanceKm);
+            }
+        });
+
+        register(ApiModels.ServiceStatusUpdateRequest.class, new ModelAdapter<ApiModels.ServiceStatusUpdateRequest>() {
+            @Override
+            ApiModels.ServiceStatusUpdateRequest create() {
+                return new ApiModels.ServiceStatusUpdateRequest(0, null);
+            }
+
+            @Override
+            void readField(JsonReader in, String name, ApiModels.ServiceStatusUpdateRequest value) throws IOException {
+                switch (name) {
+                    case "serviceId": value.serviceId = readInt(in, value.serviceId); break;
+                    case "status": value.status = readString(in); break;
+                    default: in.skipValue();
+                }
+            }
+
+            @Override
+            void writeFields(JsonWriter out, ApiModels.ServiceStatusUpdateRequest value) throws IOException {
+                out.name("serviceId").value(value.serviceId);
+                out.name("status").value(value.status);
+            }
+        });
+    }
+
+    /**
+     * Reads and writes a page, its items through the adapter of their type.
+     */
+    private static class PageAdapter<T> extends ModelAdapter<ApiModels.Page<T>> {
+        private final TypeAdapter<T> itemAdapter;
+
+        PageAdapter(TypeAdapter<T> itemAdapter) {
+            this.itemAdapter = itemAdapter;
+        }
+
+        @Override
+        ApiModels.Page<T> create() {
+            return new ApiModels.Page<>();
+        }
+
+        @Override
+        void readField(JsonReader in, String name, ApiModels.Page<T> value) throws IOException {
+            switch (name) {
+                case "items": value.items = readList(in, itemAdapter); break;
+                case "nextCursor": value.nextCursor = readString(in); break;
+                default: in.skipValue();
+            }
+        }
+
+        @Override
+        void writeFields(JsonWriter out, ApiModels.Page<T> value) throws IOException {
+            writeList(out.name("items"), value.items, itemAdapter);
+            out.name("nextCursor").value(value.nextCursor);
+        }
+    }
+
+    private static Type pageItemType(Type pageType) {
+        if (pageType instanceof ParameterizedType)
+            return ((ParameterizedType) pageType).getActualTypeArguments()[0];
+        return Object.class;
+    }
+
+    // =====================================================================
+    // Values, read the way Gson's own adapters read them
+    // =====================================================================
+
+    @SuppressWarnings("unchecked")
+    private static <T> TypeAdapter<T> adapter(Class<T> type) {
+        return (TypeAdapter<T>) ADAPTERS.get(type);
+    }
+
+    static String readString(JsonReader in) throws IOException {
+        JsonToken token = in.peek();
+        if (token == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        if (token == JsonToken.BOOLEAN)
+            return Boolean.toString(in.nextBoolean());
+        return in.nextString();
+    }
+
+    private static int readInt(JsonReader in, int current) throws IOException {
+        Integer value = readBoxedInt(in);
+        return value != null ? value : current;
+    }
+
+    private static Integer readBoxedInt(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        try {
+            return in.nextInt();
+        } catch (NumberFormatException e) {
+            throw new JsonSyntaxException(e);
+        }
+    }
+
+    private static long readLong(JsonReader in, long current) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return current;
+        }
+        try {
+            return in.nextLong();
+        } catch (NumberFormatException e) {
+            throw new JsonSyntaxException(e);
+        }
+    }
+
+    private static double readDouble(JsonReader in, double current) throws IOException {
+        Double value = readBoxedDouble(in);
+        return value != null ? value : current;
+    }
+
+    private static Double readBoxedDouble(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        try {
+            return in.nextDouble();
+        } catch (NumberFormatException e) {
+            throw new JsonSyntaxException(e);
+        }
+    }
+
+    private static boolean readBoolean(JsonReader in, boolean current) throws IOException {
+        JsonToken token = in.peek();
+        if (token == JsonToken.NULL) {
+            in.nextNull();
+            return current;
+        }
+        if (token == JsonToken.STRING)
+            return Boolean.parseBoolean(in.nextString());
+        return in.nextBoolean();
+    }
+
+    private static <T> List<T> readList(JsonReader in, TypeAdapter<T> itemAdapter) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        List<T> list = new ArrayList<>();
+        in.beginArray();
+        while (in.hasNext())
+            list.add(itemAdapter.read(in));
+        in.endArray();
+        return list;
+    }
+
+    private static <T> void writeList(JsonWriter out, List<T> list, TypeAdapter<T> itemAdapter) throws IOException {
+        if (list == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginArray();
+        for (T item : list)
+            itemAdapter.write(out, item);
+        out.endArray();
+    }
+}
@@ -129,6 +129,37 @@ public class ApiModels {
         public String profilePic;
     }
 
+    /**
+     * Returned after uploading a profile picture.
+     * The URL is derived from the picture content, so it also identifies this version of the picture.
+     */
+    public static class ProfilePictureUploadResponse {
+        public String message;
+        public String url;
+        public String version;
+    }
+
+    /**
+     * Opens a resumable profile picture upload of a known size.
+     */
+    public static class UploadSessionRequest {
+        public long size;
+
+        public UploadSessionRequest(long size) {
+            this.size = size;
+        }
+    }
+
+    /**
+     * State of a resumable upload: the client resumes sending at {@code received}.
+     */
+    public static class UploadSession {
+        public String uploadId;
+        public long size;
+        public long received;
+        public int chunkSize;
+    }
+
     /**
      * Represents a single role that a provider offers.
      */
@@ -219,7 +250,7 @@ public class ApiModels {
     /**
      * Full response for a client-created request.
      */
-    public static class RequestResponse {
+    public static class RequestResponse implements ApiGson.Deserialized {
         @SerializedName("request_id")
         public int id;
 
@@ -255,13 +286,26 @@ public class ApiModels {
 
         @SerializedName("distanceKm")
         public int distanceKm;
-    }
 
-    /**
-     * Used to check if the current user owns a specific request/service.
-     */
-    public static class OwnershipResponse {
-        public boolean isOwner;
+        /** Parsed deadline, not serialized. Recomputed if the raw deadline is replaced. */
+        private transient Deadline parsedDeadline;
+
+        /**
+         * @return The deadline parsed from {@link #deadline}, computed once.
+         */
+        public Deadline getDeadline() {
+            Deadline parsed = parsedDeadline;
+            if (parsed == null || !parsed.isParsedFrom(deadline)) {
+                parsed = Deadline.parse(deadline);
+                parsedDeadline = parsed;
+            }
+            return parsed;
+        }
+
+        @Override
+        public void afterDeserialize() {
+            getDeadline();
+        }
     }
 
     /**
@@ -280,7 +324,7 @@ public class ApiModels {
     /**
      * Response for an accepted service (from request).
      */
-    public static class ServiceResponse {
+    public static class ServiceResponse implements ApiGson.Deserialized {
         @SerializedName("service_id")
         public int id;
 
@@ -313,6 +357,35 @@ public class ApiModels {
 
         @SerializedName("distanceKm")
         public int distanceKm;
+
+        /** Parsed deadline, not serialized. Recomputed if the raw deadline is replaced. */
+        private transient Deadline parsedDeadline;
+
+        /**
+         * @return The deadline parsed from {@link #deadline}, computed once.
+         */
+        public Deadline getDeadline() {
+            Deadline parsed = parsedDeadline;
+            if (parsed == null || !parsed.isParsedFrom(deadline)) {
+                parsed = Deadline.parse(deadline);
+                parsedDeadline = parsed;
+            }
+            return parsed;
+        }
+
+        @Override
+        public void afterDeserialize() {
+            getDeadline();
+        }
+    }
+
+    /**
+     * One page of a paged list endpoint.
+     * nextCursor is passed back to get the following page; it is null on the last page.
+     */
+    public static class Page<T> {
+        public List<T> items;
+        public String nextCursor;
     }
 
     public static class ServiceStatusUpdateRequest {
@@ -0,0 +1,207 @@
+package gabrielLopes.project2425.DevPackage.QuickFixApp.ServerInterfacePackage;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Base64;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import retrofit2.Invocation;
+
+/**
+ * Adds the session token to every API call and deals with its expiry before the backend does.
+ * <p>
+ * The token is kept in memory and its expiry is read from the JWT itself (the {@code exp} claim):
+ * <ul>
+ *     <li>A few minutes before the token expires, the user is asked to log in again, while
+ *     the token still works.</li>
+ *     <li>A call made once the token expired is not sent, since the backend would refuse it.
+ *     It is answered locally with a 401 right away instead of holding an OkHttp thread:
+ *     {@link MutationQueue} keeps the changes and sends them once the user logs in again,
+ *     and reads are made again by the screens.</li>
+ *     <li>However many calls find the token expired or get a 401, the user is asked once.</li>
+ * </ul>
+ * Endpoints marked {@link ApiInterface.Public} are sent as they are.
+ */
+public class AuthInterceptor implements Interceptor {
+
+    private static final String TAG = "AuthInterceptor";
+    /** How long before expiry the user is asked to log in again. */
+    private static final long REAUTH_MARGIN_MS = 5 * 60 * 1000L;
+    /** Calls within this time of expiry are treated as expired (clock drift, time on the wire). */
+    private static final long EXPIRY_SKEW_MS = 30_000;
+    /** How long before the user is asked again to log in. */
+    private static final long REAUTH_INTERVAL_MS = 60_000;
+    private static final MediaType JSON = MediaType.parse("application/json");
+    private static final String EXPIRED_BODY = "{\"message\":\"Your session expired. Please log in again.\"}";
+
+    /**
+     * Sends the user to the login screen. Called on the main thread.
+     */
+    public interface ReauthListener {
+        void onReauthRequired();
+    }
+
+    private final Object lock = new Object();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Runnable expiringSoon = () -> {
+        synchronized (lock) {
+            requestReauth();
+        }
+    };
+
+    // Guarded by lock
+    private String token;
+    private long expiresAt = Long.MAX_VALUE;
+    private long reauthRequestedAt = -1;
+
+    private volatile ReauthListener reauthListener;
+
+    /**
+     * @param listener Called when the user must log in again.
+     */
+    public void setReauthListener(ReauthListener listener) {
+        this.reauthListener = listener;
+    }
+
+    /**
+     * Sets the token of the logged-in user.
+     *
+     * @param token JWT, or null once logged out.
+     */
+    public void setToken(String token) {
+        long expiry = expiryOf(token);
+        synchronized (lock) {
+            this.token = token;
+            this.expiresAt = expiry;
+            this.reauthRequestedAt = -1;
+        }
+
+        mainHandler.removeCallbacks(expiringSoon);
+        if (token != null && expiry != Long.MAX_VALUE)
+            mainHandler.postDelayed(expiringSoon, Math.max(0, expiry - REAUTH_MARGIN_MS - System.currentTimeMillis()));
+    }
+
+    /**
+     * @return The token of the logged-in user, or null.
+     */
+    public String getToken() {
+        synchronized (lock) {
+            return token;
+        }
+    }
+
+    /**
+     * @return true if there is a token and it is not about to expire.
+     */
+    public boolean hasFreshToken() {
+        synchronized (lock) {
+            return token != null && System.currentTimeMillis() < expiresAt - REAUTH_MARGIN_MS;
+        }
+    }
+
+    @NonNull
+    @Override
+    public Response intercept(@NonNull Chain chain) throws IOException {
+        Request request = chain.request();
+        if (isPublic(request))
+            return chain.proceed(request);
+
+        String sent = validToken();
+        if (sent == null)
+            return expiredResponse(request);
+
+        Response response = chain.proceed(request.newBuilder().header("Authorization", sent).build());
+        if (response.code() == 401) {
+            synchronized (lock) {
+                // Refused before its expiry (e.g. the backend key changed): answer the next calls locally too
+                if (sent.equals(token)) {
+                    expiresAt = 0;
+                    requestReauth();
+                }
+            }
+        }
+        return response;
+    }
+
+    /**
+     * @return The token if it has not expired; null if there is none or it expired, in which
+     * case the user is asked to log in again.
+     */
+    private String validToken() {
+        synchronized (lock) {
+            if (token != null && System.currentTimeMillis() >= expiresAt - EXPIRY_SKEW_MS) {
+                requestReauth();
+                return null;
+            }
+            return token;
+        }
+    }
+
+    /**
+     * Asks the user to log in again, unless they were asked recently. Must hold the lock.
+     */
+    private void requestReauth() {
+        long now = SystemClock.elapsedRealtime();
+        if (reauthRequestedAt >= 0 && now - reauthRequestedAt < REAUTH_INTERVAL_MS)
+            return;
+        reauthRequestedAt = now;
+        Log.i(TAG, "Session expires at " + expiresAt + ", asking the user to log in again");
+        mainHandler.post(() -> {
+            ReauthListener listener = reauthListener;
+            if (listener != null)
+                listener.onReauthRequired();
+        });
+    }
+
+    /**
+     * @return Answer given locally to a call that cannot be sent without a valid token.
+     */
+    private static Response expiredResponse(Request request) {
+        return new Response.Builder()
+                .request(request)
+                .protocol(Protocol.HTTP_1_1)
+                .code(401)
+                .message("Session expired")
+                .body(ResponseBody.create(JSON, EXPIRED_BODY))
+                .build();
+    }
+
+    private static boolean isPublic(Request request) {
+        Invocation invocation = request.tag(Invocation.class);
+        return invocation != null && invocation.method().isAnnotationPresent(ApiInterface.Public.class);
+    }
+
+    /**
+     * Reads the expiry of a JWT without verifying it (only the backend can).
+     *
+     * @return Expiry in epoch milliseconds, or {@link Long#MAX_VALUE} if it has none or cannot be read.
+     */
+    static long expiryOf(String jwt) {
+        if (jwt == null)
+            return Long.MAX_VALUE;
+        String[] parts = jwt.split("\\.");
+        if (parts.length < 2)
+            return Long.MAX_VALUE;
+        try {
+            byte[] payload = Base64.decode(parts[1], Base64.URL_SAFE | Base64.NO_PADDING | Base64.NO_WRAP);
+            long exp = new JSONObject(new String(payload, StandardCharsets.UTF_8)).optLong("exp", 0);
+            return exp > 0 ? exp * 1000 : Long.MAX_VALUE;
+        } catch (IllegalArgumentException | org.json.JSONException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package gabrielLopes.project2425.DevPackage.QuickFixApp.ServerInterfacePackage;
+
+import android.os.SystemClock;
+import android.util.LruCache;
+
+/**
+ * Memory cache of profile picture URLs by user id.
+ * <p>
+ * Lists bind the same providers over and over while scrolling; this answers those lookups
+ * without a disk read or an API round trip. Entries expire after a time to live, and the entry of
+ * a user is dropped when that user uploads a new picture. A user without a picture is cached as
+ * an empty URL. Behind it, {@link OfflineFirstLoader} keeps the URLs on disk and
+ * {@link SingleFlight} merges concurrent network lookups for the same user.
+ */
+public class AvatarUrlCache {
+
+    private final LruCache<Integer, Entry> entries;
+    private final long ttlMs;
+
+    private static class Entry {
+        final String url;
+        final long storedAt;
+
+        Entry(String url, long storedAt) {
+            this.url = url;
+            this.storedAt = storedAt;
+        }
+    }
+
+    /**
+     * @param maxEntries Number of users kept.
+     * @param ttlMs      How long a URL is trusted without asking the backend.
+     */
+    public AvatarUrlCache(int maxEntries, long ttlMs) {
+        this.entries = new LruCache<>(maxEntries);
+        this.ttlMs = ttlMs;
+    }
+
+    /**
+     * @param userId User id.
+     * @return The cached URL (empty if the user has no picture), or null if unknown or expired.
+     */
+    public String get(int userId) {
+        Entry entry = entries.get(userId);
+        if (entry == null)
+            return null;
+        if (SystemClock.elapsedRealtime() - entry.storedAt > ttlMs) {
+            entries.remove(userId);
+            return null;
+        }
+        return entry.url;
+    }
+
+    /**
+     * @param userId User id.
+     * @param url    Picture URL received from the backend, null or empty if none.
+     */
+    public void put(int userId, String url) {
+        entries.put(userId, new Entry(url != null ? url : "", SystemClock.elapsedRealtime()));
+    }
+
+    /**
+     * Forgets the URL of a user, e.g. after they uploaded a new picture.
+     *
+     * @param userId User id.
+     */
+    public void invalidate(int userId) {
+        entries.remove(userId);
+    }
+
+    /**
+     * Forgets every URL. Called on logout.
+     */
+    public void clear() {
+        entries.evictAll();
+    }
+}
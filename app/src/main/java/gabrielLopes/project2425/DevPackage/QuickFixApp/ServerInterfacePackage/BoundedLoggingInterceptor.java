@@ -0,0 +1,158 @@
+package gabrielLopes.project2425.DevPackage.QuickFixApp.ServerInterfacePackage;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadLocalRandom;
+
+import okhttp3.Headers;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+
+/**
+ * Logs API calls without ever holding a whole body in memory for it.
+ * <p>
+ * Unlike OkHttp's {@code HttpLoggingInterceptor} at {@code BODY}, which reads every response in
+ * full before handing it on:
+ * <ul>
+ *     <li>at most {@code maxBodyBytes} of a response are peeked; the rest streams to Gson as usual;</li>
+ *     <li>a request body is only logged if its length is known and within that limit, so uploads
+ *     are never copied;</li>
+ *     <li>binary bodies (pictures) are never logged;</li>
+ *     <li>only a fraction of the calls is logged, chosen before any work is done;</li>
+ *     <li>the {@code Authorization} header is redacted.</li>
+ * </ul>
+ * At {@link Level#NONE} a call is handed on untouched, without building a single string.
+ */
+public class BoundedLoggingInterceptor implements Interceptor {
+
+    private static final String TAG = "QuickFixHttp";
+    private static final String REDACTED = "<redacted>";
+
+    /**
+     * What is logged of each sampled call.
+     */
+    public enum Level {
+        /** Nothing. */
+        NONE,
+        /** Request line, status, duration and size. */
+        BASIC,
+        /** BASIC and the headers. */
+        HEADERS,
+        /** HEADERS and the start of text bodies. */
+        BODY
+    }
+
+    private final Level level;
+    private final long maxBodyBytes;
+    private final double sampleRate;
+
+    /**
+     * @param level        What is logged.
+     * @param maxBodyBytes Most bytes of a body logged.
+     * @param sampleRate   Fraction of the calls logged, from 0 to 1.
+     */
+    public BoundedLoggingInterceptor(Level level, long maxBodyBytes, double sampleRate) {
+        this.level = level;
+        this.maxBodyBytes = maxBodyBytes;
+        this.sampleRate = sampleRate;
+    }
+
+    /**
+     * @param name Name of a {@link Level}, e.g. from the build configuration.
+     * @return The level, or {@link Level#NONE} if the name is unknown.
+     */
+    public static Level levelOf(String name) {
+        try {
+            return Level.valueOf(name);
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return Level.NONE;
+        }
+    }
+
+    @NonNull
+    @Override
+    public Response intercept(@NonNull Chain chain) throws IOException {
+        Request request = chain.request();
+        if (level == Level.NONE || (sampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= sampleRate))
+            return chain.proceed(request);
+
+        boolean logHeaders = level != Level.BASIC;
+        boolean logBody = level == Level.BODY;
+
+        Log.d(TAG, "--> " + request.method() + " " + request.url());
+        if (logHeaders)
+            logHeaders(request.headers());
+        if (logBody && request.body() != null)
+            logRequestBody(request.body());
+
+        long startNs = System.nanoTime();
+        Response response;
+        try {
+            response = chain.proceed(request);
+        } catch (IOException e) {
+            Log.d(TAG, "<-- HTTP FAILED: " + e);
+            throw e;
+        }
+        long tookMs = (System.nanoTime() - startNs) / 1_000_000;
+
+        ResponseBody body = response.body();
+        long contentLength = body != null ? body.contentLength() : 0;
+        Log.d(TAG, "<-- " + response.code() + " " + response.message() + " " + request.url()
+                + " (" + tookMs + " ms, " + (contentLength >= 0 ? contentLength + " B" : "unknown length") + ")");
+        if (logHeaders)
+            logHeaders(response.headers());
+        if (logBody && body != null)
+            logResponseBody(response, body);
+        return response;
+    }
+
+    private void logHeaders(Headers headers) {
+        for (int i = 0; i < headers.size(); i++) {
+            String name = headers.name(i);
+            Log.d(TAG, name + ": " + ("Authorization".equalsIgnoreCase(name) ? REDACTED : headers.value(i)));
+        }
+    }
+
+    private void logRequestBody(RequestBody body) throws IOException {
+        long length = body.contentLength();
+        if (!isText(body.contentType())) {
+            Log.d(TAG, "(binary " + length + "-byte body omitted)");
+        } else if (length < 0 || length > maxBodyBytes || body.isDuplex() || body.isOneShot()) {
+            Log.d(TAG, "(" + length + "-byte body omitted)");
+        } else {
+            Buffer buffer = new Buffer();
+            body.writeTo(buffer);
+            Log.d(TAG, buffer.readUtf8());
+        }
+    }
+
+    private void logResponseBody(Response response, ResponseBody body) throws IOException {
+        if (!isText(body.contentType())) {
+            Log.d(TAG, "(binary body omitted)");
+            return;
+        }
+        // Reads at most maxBodyBytes ahead; the consumer still gets the whole body
+        byte[] peeked = response.peekBody(maxBodyBytes).bytes();
+        String text = new String(peeked, StandardCharsets.UTF_8);
+        long length = body.contentLength();
+        if (peeked.length == maxBodyBytes && length != maxBodyBytes)
+            text += "… (truncated)";
+        Log.d(TAG, text);
+    }
+
+    private static boolean isText(MediaType type) {
+        if (type == null)
+            return false;
+        String subtype = type.subtype();
+        return type.type().equals("text") || subtype.contains("json") || subtype.contains("x-www-form-urlencoded");
+    }
+}
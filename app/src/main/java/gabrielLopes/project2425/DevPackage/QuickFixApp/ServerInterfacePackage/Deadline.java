@@ -0,0 +1,94 @@
+package gabrielLopes.project2425.DevPackage.QuickFixApp.ServerInterfacePackage;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Deadline of a request or service, parsed once from the backend string.
+ * <p>
+ * The backend sends {@code yyyy-MM-dd}, optionally followed by {@code T} (or a space) and a
+ * time. The parsed value keeps the instant for ordering and the texts shown by the screens,
+ * so binding a row does not parse or allocate anything.
+ * <p>
+ * Instances are immutable and shared freely between threads.
+ */
+public final class Deadline {
+
+    private static final DateTimeFormatter DATE_TEXT = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+    private static final DateTimeFormatter TIME_TEXT = DateTimeFormatter.ofPattern("HH:mm");
+
+    /** Deadline of an item that has none. */
+    public static final Deadline NONE = new Deadline(null, Long.MAX_VALUE, false, "N/A", "", "No deadline", "", "00:00");
+
+    /** Raw string received from the backend. */
+    public final String raw;
+    /** Instant in the device time zone, {@link Long#MAX_VALUE} when missing or invalid (sorted last). */
+    public final long epochMillis;
+    /** True if the raw string could be parsed. */
+    public final boolean valid;
+    /** Date shown in lists, e.g. {@code 31-12-2025}. */
+    public final String dateText;
+    /** Time shown in lists, e.g. {@code 14:30}; empty at midnight. */
+    public final String timeText;
+    /** Date and time on one line, as shown on detail screens. */
+    public final String displayText;
+    /** Date as entered in forms, {@code yyyy-MM-dd}. */
+    public final String inputDate;
+    /** Time as entered in forms, {@code HH:mm}. */
+    public final String inputTime;
+
+    private Deadline(String raw, long epochMillis, boolean valid, String dateText, String timeText,
+                     String displayText, String inputDate, String inputTime) {
+        this.raw = raw;
+        this.epochMillis = epochMillis;
+        this.valid = valid;
+        this.dateText = dateText;
+        this.timeText = timeText;
+        this.displayText = displayText;
+        this.inputDate = inputDate;
+        this.inputTime = inputTime;
+    }
+
+    /**
+     * @param raw Deadline string.
+     * @return true if this deadline was parsed from that exact string (or both are empty).
+     */
+    public boolean isParsedFrom(String raw) {
+        return this.raw == raw || (this == NONE && (raw == null || raw.isEmpty()));
+    }
+
+    /**
+     * Parses a backend deadline. A missing time means midnight.
+     *
+     * @param raw Deadline string, may be null or empty.
+     * @return The parsed deadline; {@link #NONE} if empty, or an invalid one if it cannot be read.
+     */
+    public static Deadline parse(String raw) {
+        if (raw == null || raw.isEmpty())
+            return NONE;
+        try {
+            LocalDate date = LocalDate.parse(raw.length() > 10 ? raw.substring(0, 10) : raw);
+            LocalTime time = LocalTime.MIDNIGHT;
+            if (raw.length() >= 16 && (raw.charAt(10) == 'T' || raw.charAt(10) == ' '))
+                time = LocalTime.parse(raw.substring(11, raw.length() >= 19 ? 19 : 16));
+
+            LocalDateTime dateTime = LocalDateTime.of(date, time);
+            String dateText = DATE_TEXT.format(dateTime);
+            String timeText = time.equals(LocalTime.MIDNIGHT) ? "" : TIME_TEXT.format(dateTime);
+            return new Deadline(raw,
+                    dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(),
+                    true,
+                    dateText,
+                    timeText,
+                    timeText.isEmpty() ? dateText : dateText + " " + timeText,
+                    date.toString(),
+                    TIME_TEXT.format(dateTime));
+        } catch (DateTimeParseException | IndexOutOfBoundsException e) {
+            return new Deadline(raw, Long.MAX_VALUE, false, "Invalid date", "", "Invalid date", raw, "00:00");
+        }
+    }
+}
@@ -0,0 +1,408 @@
+package gabrielLopes.project2425.DevPackage.QuickFixApp.ServerInterfacePackage;
+
+import androidx.annotation.NonNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.Cache;
+import okhttp3.CacheControl;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Interceptor;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import retrofit2.Invocation;
+
+/**
+ * Disk-backed HTTP response cache for the GET endpoints of {@link ApiInterface}.
+ * <p>
+ * Endpoints are grouped into classes (lists, details, profiles). Each class has its own
+ * on-disk cache, size budget, freshness time and stale-while-revalidate window:
+ * <ul>
+ *     <li>Fresh entries are answered from disk without touching the network.</li>
+ *     <li>Stale entries inside the window are answered from disk right away while a
+ *     conditional request (If-None-Match / If-Modified-Since) refreshes them in the background.</li>
+ *     <li>Older entries are revalidated before answering, so a 304 costs one small round trip.</li>
+ * </ul>
+ * Hit, miss and revalidation counts are kept per endpoint.
+ */
+public class HttpCacheHandler {
+
+    private static final String CACHE_DIR = "http_cache";
+    private static final String HEADER_BACKGROUND_REVALIDATION = "X-QuickFix-Revalidate";
+
+    /**
+     * Groups of endpoints that share the same cache budget and freshness rules.
+     */
+    public enum EndpointClass {
+        /** Filtered listings: change often, biggest payloads. */
+        LIST(30, 5 * 60, 8L * 1024 * 1024),
+        /** Single request, service or provider role. */
+        DETAIL(60, 10 * 60, 2L * 1024 * 1024),
+        /** User profiles and profile picture URLs: rarely change. */
+        PROFILE(5 * 60, 24 * 60 * 60, 1024L * 1024),
+        /** Anything that must never be cached (mutations, login). */
+        NONE(0, 0, 0);
+
+        final int maxAgeSeconds;
+        final int staleWhileRevalidateSeconds;
+        final long maxSizeBytes;
+
+        EndpointClass(int maxAgeSeconds, int staleWhileRevalidateSeconds, long maxSizeBytes) {
+            this.maxAgeSeconds = maxAgeSeconds;
+            this.staleWhileRevalidateSeconds = staleWhileRevalidateSeconds;
+            this.maxSizeBytes = maxSizeBytes;
+        }
+    }
+
+    private static final Map<String, EndpointClass> ENDPOINT_CLASSES = new HashMap<>();
+    static {
+        ENDPOINT_CLASSES.put("getRequestsPage", EndpointClass.LIST);
+        ENDPOINT_CLASSES.put("getSPsPage", EndpointClass.LIST);
+        ENDPOINT_CLASSES.put("getClientRequestsPage", EndpointClass.LIST);
+        ENDPOINT_CLASSES.put("getServicesByProviderPage", EndpointClass.LIST);
+        ENDPOINT_CLASSES.put("getProviderRoles", EndpointClass.LIST);
+
+        ENDPOINT_CLASSES.put("getRequestById", EndpointClass.DETAIL);
+        ENDPOINT_CLASSES.put("getServiceById", EndpointClass.DETAIL);
+        ENDPOINT_CLASSES.put("getServiceProviderById", EndpointClass.DETAIL);
+
+        ENDPOINT_CLASSES.put("getUser", EndpointClass.PROFILE);
+        ENDPOINT_CLASSES.put("getUserById", EndpointClass.PROFILE);
+        ENDPOINT_CLASSES.put("getProfilePicture", EndpointClass.PROFILE);
+    }
+
+    /** Mutations that cannot change any cached listing or detail, e.g. each chunk of an upload. */
+    private static final Set<String> NON_INVALIDATING = new HashSet<>(Arrays.asList(
+            "startProfilePictureUpload", "uploadProfilePictureChunk"));
+
+    private static final Map<EndpointClass, Cache> caches = new EnumMap<>(EndpointClass.class);
+    private static final Map<EndpointClass, OkHttpClient> clients = new EnumMap<>(EndpointClass.class);
+    private static final Map<String, EndpointStats> stats = new ConcurrentHashMap<>();
+    private static final Set<String> revalidationsInFlight = Collections.synchronizedSet(new HashSet<>());
+    private static final List<Runnable> mutationListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Builds a call factory that routes every request to the client of its endpoint class.
+     * All clients are derived from the base client, so they share its connection pool,
+     * dispatcher and interceptors.
+     *
+     * @param baseClient Client used for uncached endpoints and as template for the others.
+     * @param cacheRoot  Directory where the per-class caches are stored (usually the app cache dir).
+     * @return Call factory to hand to Retrofit.
+     */
+    public static synchronized Call.Factory createCallFactory(OkHttpClient baseClient, File cacheRoot) {
+        clients.clear();
+        caches.clear();
+
+        OkHttpClient mutationClient = baseClient.newBuilder()
+                .addInterceptor(new MutationInvalidationInterceptor())
+                .build();
+        clients.put(EndpointClass.NONE, mutationClient);
+
+        for (EndpointClass endpointClass : EndpointClass.values()) {
+            if (endpointClass == EndpointClass.NONE)
+                continue;
+
+            Cache cache = new Cache(new File(new File(cacheRoot, CACHE_DIR), endpointClass.name().toLowerCase()),
+                    endpointClass.maxSizeBytes);
+            caches.put(endpointClass, cache);
+            clients.put(endpointClass, baseClient.newBuilder()
+                    .cache(cache)
+                    .addInterceptor(new StaleWhileRevalidateInterceptor(endpointClass))
+                    .addNetworkInterceptor(new FreshnessInterceptor(endpointClass))
+                    .build());
+        }
+
+        return request -> clientFor(request).newCall(request);
+    }
+
+    /**
+     * Returns a snapshot of the cache counters of every endpoint seen so far.
+     *
+     * @return Map of ApiInterface method name to its counters.
+     */
+    public static Map<String, EndpointStats> getStats() {
+        return new HashMap<>(stats);
+    }
+
+    /**
+     * Removes every cached response. Used on logout so no user data stays on disk.
+     */
+    public static synchronized void clear() {
+        for (Cache cache : caches.values()) {
+            try {
+                cache.evictAll();
+            } catch (IOException e) {
+                // cache directory already gone, nothing to clear
+            }
+        }
+    }
+
+    /**
+     * Registers an action to run after every successful mutation, so in-memory copies
+     * of listings can be dropped together with the disk cache. Runs on a network thread.
+     *
+     * @param listener Action to run.
+     */
+    public static void addMutationListener(Runnable listener) {
+        mutationListeners.add(listener);
+    }
+
+    /**
+     * Picks the client for a request based on the ApiInterface method that created it.
+     *
+     * @param request Outgoing request.
+     * @return Client of the request's endpoint class.
+     */
+    private static synchronized OkHttpClient clientFor(Request request) {
+        OkHttpClient client = clients.get(endpointClassOf(request));
+        return client != null ? client : clients.get(EndpointClass.NONE);
+    }
+
+    /**
+     * Resolves the endpoint class of a request. Only GET requests are ever cached.
+     */
+    static EndpointClass endpointClassOf(Request request) {
+        if (!"GET".equals(request.method()))
+            return EndpointClass.NONE;
+        EndpointClass endpointClass = ENDPOINT_CLASSES.get(endpointName(request));
+        return endpointClass != null ? endpointClass : EndpointClass.NONE;
+    }
+
+    /**
+     * Returns the ApiInterface method name that built the request, or its path as fallback.
+     *
+     * @param request Request created by Retrofit.
+     * @return Endpoint name used as key for statistics.
+     */
+    static String endpointName(Request request) {
+        Invocation invocation = request.tag(Invocation.class);
+        if (invocation != null)
+            return invocation.method().getName();
+        return request.url().encodedPath();
+    }
+
+    /**
+     * Returns the counters of an endpoint, creating them on first use.
+     */
+    private static EndpointStats statsFor(String endpoint) {
+        EndpointStats endpointStats = stats.get(endpoint);
+        if (endpointStats == null) {
+            stats.putIfAbsent(endpoint, new EndpointStats());
+            endpointStats = stats.get(endpoint);
+        }
+        return endpointStats;
+    }
+
+    /**
+     * Drops cached listings and details after a successful mutation,
+     * since the backend does not tell which cached URLs it affected.
+     */
+    private static synchronized void invalidateAfterMutation() {
+        for (EndpointClass endpointClass : new EndpointClass[]{EndpointClass.LIST, EndpointClass.DETAIL}) {
+            Cache cache = caches.get(endpointClass);
+            if (cache == null)
+                continue;
+            try {
+                cache.evictAll();
+            } catch (IOException e) {
+                // nothing cached yet
+            }
+        }
+        for (Runnable listener : mutationListeners)
+            listener.run();
+    }
+
+    /**
+     * Hit, miss and revalidation counters for a single endpoint.
+     */
+    public static class EndpointStats {
+        private final AtomicLong hits = new AtomicLong();
+        private final AtomicLong staleHits = new AtomicLong();
+        private final AtomicLong misses = new AtomicLong();
+        private final AtomicLong revalidations = new AtomicLong();
+        private final AtomicLong notModified = new AtomicLong();
+
+        /** Responses answered from disk without a network round trip (fresh or stale). */
+        public long getHits() { return hits.get(); }
+
+        /** Subset of hits that were stale and triggered a background revalidation. */
+        public long getStaleHits() { return staleHits.get(); }
+
+        /** Responses that had no usable cache entry and were downloaded in full. */
+        public long getMisses() { return misses.get(); }
+
+        /** Conditional requests sent for an existing cache entry. */
+        public long getRevalidations() { return revalidations.get(); }
+
+        /** Revalidations answered with 304 Not Modified. */
+        public long getNotModified() { return notModified.get(); }
+
+        /**
+         * Classifies a finished response and updates the counters.
+         */
+        void record(Response response) {
+            boolean fromCache = response.cacheResponse() != null;
+            boolean fromNetwork = response.networkResponse() != null;
+            if (fromCache && !fromNetwork) {
+                hits.incrementAndGet();
+            } else if (fromCache) {
+                revalidations.incrementAndGet();
+                if (response.networkResponse().code() == 304)
+                    notModified.incrementAndGet();
+            } else if (fromNetwork) {
+                misses.incrementAndGet();
+            }
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return "hits=" + getHits() + " (stale " + getStaleHits() + "), misses=" + getMisses()
+                    + ", revalidations=" + getRevalidations() + " (304: " + getNotModified() + ")";
+        }
+    }
+
+    /**
+     * Serves stale entries immediately and refreshes them in the background.
+     * <p>
+     * First asks the cache only (accepting entries up to the stale window). A fresh hit is returned
+     * as is, a stale hit is returned and revalidated asynchronously, and a miss falls through to the
+     * normal cache-then-network path, which sends a conditional request when an old entry exists.
+     */
+    private static class StaleWhileRevalidateInterceptor implements Interceptor {
+        private final EndpointClass endpointClass;
+
+        StaleWhileRevalidateInterceptor(EndpointClass endpointClass) {
+            this.endpointClass = endpointClass;
+        }
+
+        @NonNull
+        @Override
+        public Response intercept(@NonNull Chain chain) throws IOException {
+            Request request = chain.request();
+            EndpointStats endpointStats = statsFor(endpointName(request));
+
+            if (request.header(HEADER_BACKGROUND_REVALIDATION) != null) {
+                Response response = chain.proceed(request.newBuilder()
+                        .removeHeader(HEADER_BACKGROUND_REVALIDATION)
+                        .build());
+                endpointStats.record(response);
+                return response;
+            }
+
+            Response cached = chain.proceed(request.newBuilder()
+                    .cacheControl(new CacheControl.Builder()
+                            .onlyIfCached()
+                            .maxStale(endpointClass.staleWhileRevalidateSeconds, TimeUnit.SECONDS)
+                            .build())
+                    .build());
+
+            if (cached.code() != 504) {
+                endpointStats.record(cached);
+                if (isStale(cached)) {
+                    endpointStats.staleHits.incrementAndGet();
+                    revalidateInBackground(request);
+                }
+                return cached;
+            }
+
+            cached.close();
+            Response response = chain.proceed(request);
+            endpointStats.record(response);
+            return response;
+        }
+
+        /**
+         * OkHttp marks responses served past their max-age with a 110 warning.
+         */
+        private boolean isStale(Response response) {
+            String warning = response.header("Warning");
+            return warning != null && warning.startsWith("110");
+        }
+
+        /**
+         * Sends one conditional request for the given URL so the cache entry is refreshed.
+         * Concurrent stale hits on the same URL share the same revalidation.
+         */
+        private void revalidateInBackground(Request request) {
+            String key = request.url().toString();
+            if (!revalidationsInFlight.add(key))
+                return;
+
+            Request revalidation = request.newBuilder()
+                    .header(HEADER_BACKGROUND_REVALIDATION, "1")
+                    .build();
+            clients.get(endpointClass).newCall(revalidation).enqueue(new Callback() {
+                @Override
+                public void onResponse(@NonNull Call call, @NonNull Response response) {
+                    response.close();
+                    revalidationsInFlight.remove(key);
+                }
+
+                @Override
+                public void onFailure(@NonNull Call call, @NonNull IOException e) {
+                    revalidationsInFlight.remove(key);
+                }
+            });
+        }
+    }
+
+    /**
+     * Gives backend responses the freshness of their endpoint class.
+     * The backend sends ETags but no Cache-Control, so without this OkHttp would
+     * revalidate on every call instead of answering fresh entries from disk.
+     */
+    private static class FreshnessInterceptor implements Interceptor {
+        private final EndpointClass endpointClass;
+
+        FreshnessInterceptor(EndpointClass endpointClass) {
+            this.endpointClass = endpointClass;
+        }
+
+        @NonNull
+        @Override
+        public Response intercept(@NonNull Chain chain) throws IOException {
+            Response response = chain.proceed(chain.request());
+            if (response.header("Cache-Control") != null)
+                return response;
+
+            return response.newBuilder()
+                    .header("Cache-Control", "private, max-age=" + endpointClass.maxAgeSeconds)
+                    .header("Vary", "Authorization")
+                    .removeHeader("Pragma")
+                    .build();
+        }
+    }
+
+    /**
+     * Clears cached listings and details once a mutation reaches the backend successfully.
+     */
+    private static class MutationInvalidationInterceptor implements Interceptor {
+        @NonNull
+        @Override
+        public Response intercept(@NonNull Chain chain) throws IOException {
+            Request request = chain.request();
+            Response response = chain.proceed(request);
+            if (!"GET".equals(request.method()) && response.isSuccessful()
+                    && !NON_INVALIDATING.contains(endpointName(request)))
+                invalidateAfterMutation();
+            return response;
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package gabrielLopes.project2425.DevPackage.QuickFixApp.ServerInterfacePackage;
+
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Client-side versions of the filters applied by the /requests and /providers endpoints.
+ * <p>
+ * Each filter mirrors the backend predicate, so filtering a broader result set on the device
+ * gives the same rows, in the same order, as asking the backend for the narrower one.
+ * Text criteria are substring matches, so a longer query or service type is always narrower
+ * than a shorter one it contains.
+ */
+public class ListFilters {
+
+    /** Budget/distance value used by the screens to mean "no limit". */
+    public static final int NO_LIMIT = 999999999;
+
+    /**
+     * Text extracted once per row so that filtering does not lowercase strings on every pass.
+     *
+     * @param <T> Row type.
+     */
+    public interface RowIndexer<T> {
+        /**
+         * @param row Row to index.
+         * @return Lowercase text the free-text query is matched against.
+         */
+        String searchText(T row);
+
+        /**
+         * @param row Row to index.
+         * @return Lowercase service type or role of the row.
+         */
+        String category(T row);
+    }
+
+    /**
+     * Predicate evaluated against a row and its precomputed text.
+     * Implementations are value objects (equals/hashCode) so they can be used as cache keys.
+     *
+     * @param <T> Row type.
+     */
+    public interface RowFilter<T> {
+        /**
+         * @param row        Row to test.
+         * @param searchText Precomputed lowercase search text of the row.
+         * @param category   Precomputed lowercase type or role of the row.
+         * @return true if the row passes the filter.
+         */
+        boolean matches(T row, String searchText, String category);
+
+        /**
+         * Tells whether every row accepted by another filter is also accepted by this one,
+         * i.e. whether the other filter's result can be computed from this filter's result.
+         *
+         * @param other Possibly narrower filter.
+         * @return true if this filter is at least as broad as the other on every criterion.
+         */
+        boolean subsumes(RowFilter<T> other);
+    }
+
+    /**
+     * Filter of GET /requests: type contains spinner, price at least budget,
+     * query inside title/description/location and distance within range.
+     */
+    public static class RequestFilter implements RowFilter<ApiModels.RequestResponse> {
+        public final String spinner;
+        public final int budget;
+        public final String query;
+        public final int maxDistance;
+
+        public RequestFilter(String spinner, int budget, String query, int maxDistance) {
+            this.spinner = normalize(spinner == null || spinner.equalsIgnoreCase("Any") ? "" : spinner);
+            this.budget = budget;
+            this.query = normalize(query);
+            this.maxDistance = maxDistance;
+        }
+
+        @Override
+        public boolean matches(ApiModels.RequestResponse row, String searchText, String category) {
+            return row.price >= budget
+                    && row.distanceKm <= maxDistance
+                    && (spinner.isEmpty() || category.contains(spinner))
+                    && (query.isEmpty() || searchText.contains(query));
+        }
+
+        @Override
+        public boolean subsumes(RowFilter<ApiModels.RequestResponse> other) {
+            if (!(other instanceof RequestFilter))
+                return false;
+            RequestFilter narrower = (RequestFilter) other;
+            return budget <= narrower.budget
+                    && maxDistance >= narrower.maxDistance
+                    && narrower.spinner.contains(spinner)
+                    && narrower.query.contains(query);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof RequestFilter)) return false;
+            RequestFilter that = (RequestFilter) o;
+            return budget == that.budget && maxDistance == that.maxDistance
+                    && spinner.equals(that.spinner) && query.equals(that.query);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(spinner, budget, query, maxDistance);
+        }
+
+        /**
+         * Indexes a request the way the backend matches it: title, description and location joined by spaces.
+         */
+        public static final RowIndexer<ApiModels.RequestResponse> INDEXER = new RowIndexer<ApiModels.RequestResponse>() {
+            @Override
+            public String searchText(ApiModels.RequestResponse row) {
+                return (nonNull(row.title) + " " + nonNull(row.description) + " " + nonNull(row.location)).toLowerCase(Locale.ROOT);
+            }
+
+            @Override
+            public String category(ApiModels.RequestResponse row) {
+                return nonNull(row.type).toLowerCase(Locale.ROOT);
+            }
+        };
+    }
+
+    /**
+     * Filter of GET /providers: role contains service type, price at most the budget,
+     * query inside name/location/description and distance within range.
+     */
+    public static class ProviderFilter implements RowFilter<ApiModels.ServiceProviderResponse> {
+        public final String serviceType;
+        public final int maxBudget;
+        public final String query;
+        public final int maxDistance;
+
+        public ProviderFilter(String serviceType, int maxBudget, String query, int maxDistance) {
+            this.serviceType = normalize(serviceType == null || serviceType.equalsIgnoreCase("Any") ? "" : serviceType);
+            this.maxBudget = maxBudget;
+            this.query = normalize(query);
+            this.maxDistance = maxDistance;
+        }
+
+        @Override
+        public boolean matches(ApiModels.ServiceProviderResponse row, String searchText, String category) {
+            return row.pricePerHour <= maxBudget
+                    && row.distanceKm <= maxDistance
+                    && (serviceType.isEmpty() || category.contains(serviceType))
+                    && (query.isEmpty() || searchText.contains(query));
+        }
+
+        @Override
+        public boolean subsumes(RowFilter<ApiModels.ServiceProviderResponse> other) {
+            if (!(other instanceof ProviderFilter))
+                return false;
+            ProviderFilter narrower = (ProviderFilter) other;
+            return maxBudget >= narrower.maxBudget
+                    && maxDistance >= narrower.maxDistance
+                    && narrower.serviceType.contains(serviceType)
+                    && narrower.query.contains(query);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof ProviderFilter)) return false;
+            ProviderFilter that = (ProviderFilter) o;
+            return maxBudget == that.maxBudget && maxDistance == that.maxDistance
+                    && serviceType.equals(that.serviceType) && query.equals(that.query);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(serviceType, maxBudget, query, maxDistance);
+        }
+
+        /**
+         * Indexes a provider role. Fields are separated by a line break because the backend
+         * matches each field on its own, so a query must never span two of them.
+         */
+        public static final RowIndexer<ApiModels.ServiceProviderResponse> INDEXER = new RowIndexer<ApiModels.ServiceProviderResponse>() {
+            @Override
+            public String searchText(ApiModels.ServiceProviderResponse row) {
+                return (nonNull(row.name) + "\n" + nonNull(row.location) + "\n" + nonNull(row.description)).toLowerCase(Locale.ROOT);
+            }
+
+            @Override
+            public String category(ApiModels.ServiceProviderResponse row) {
+                return nonNull(row.role).toLowerCase(Locale.ROOT);
+            }
+        };
+    }
+
+    /**
+     * Trims and lowercases a filter value, treating null as empty.
+     */
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String nonNull(String value) {
+        return value == null ? "" : value;
+    }
+}
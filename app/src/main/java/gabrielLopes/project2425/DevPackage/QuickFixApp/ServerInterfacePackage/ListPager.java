@@ -0,0 +1,265 @@
+package gabrielLopes.project2425.DevPackage.QuickFixApp.ServerInterfacePackage;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Paging source for a list endpoint that returns pages linked by cursors.
+ * <p>
+ * The first page is loaded by {@link #start()}. Following pages are loaded when the screen
+ * reports, through {@link #onScrolled(int)}, that the user is within a prefetch distance of the
+ * last loaded row, so the next page is usually there before the end of the list is reached.
+ * Only one page is loaded at a time. While a page arrives, its first rows are shown before the
+ * rest (see {@link ListStream}).
+ * <p>
+ * A page may be delivered twice (stored copy, then a newer network copy; see
+ * {@link OfflineFirstLoader}). The newer copy replaces the page, and if its cursor changed the
+ * pages after it are dropped and loaded again from the new cursor.
+ * <p>
+ * Cancelling the pager (e.g. through {@link RequestScope}) stops every page load.
+ * Must be used from the main thread.
+ *
+ * @param <T> Row type.
+ */
+public class ListPager<T> implements ApiCall {
+
+    /**
+     * Loads one page.
+     *
+     * @param <T> Row type.
+     */
+    public interface PageSource<T> {
+        /**
+         * @param cursor   Cursor of the page, null for the first one.
+         * @param pageSize Number of rows wanted.
+         * @param callback Receives the page, possibly more than once.
+         * @return Handle to cancel the load.
+         */
+        ApiCall load(String cursor, int pageSize, PageCallback<T> callback);
+    }
+
+    /**
+     * Receives one page.
+     *
+     * @param <T> Row type.
+     */
+    public interface PageCallback<T> {
+        void onPage(List<T> items, String nextCursor);
+        void onFailure(String errorMessage);
+
+        /**
+         * Receives the rows of the page parsed so far, while the rest arrives.
+         * {@link #onPage} follows with the whole page.
+         */
+        default void onPartial(List<T> itemsSoFar) {}
+    }
+
+    /**
+     * Receives the rows loaded so far, each time they change, including the first rows of a
+     * page still arriving.
+     *
+     * @param <T> Row type.
+     */
+    public interface Listener<T> {
+        void onItemsChanged(List<T> items, boolean hasMore);
+        void onFailure(String errorMessage);
+    }
+
+    /**
+     * Receives the full result once the last page has been loaded.
+     *
+     * @param <T> Row type.
+     */
+    public interface CompletionListener<T> {
+        void onComplete(List<T> allItems);
+    }
+
+    private final PageSource<T> source;
+    private final int pageSize;
+    private final int prefetchDistance;
+    private final Listener<T> listener;
+    private final CompletionListener<T> completionListener;
+
+    private final List<List<T>> pages = new ArrayList<>();
+    private final List<String> nextCursors = new ArrayList<>();
+    private final List<ApiCall> pageCalls = new ArrayList<>();
+    private boolean loading;
+    private boolean failed;
+    private boolean canceled;
+
+    /**
+     * Creates a pager. Nothing is loaded until {@link #start()}.
+     *
+     * @param pageSize           Rows per page.
+     * @param prefetchDistance   How many rows before the end of the loaded ones the next page is requested.
+     * @param source             Loads the pages.
+     * @param listener           Receives the loaded rows.
+     * @param completionListener Receives the whole result when the last page arrives. May be null.
+     */
+    public ListPager(int pageSize, int prefetchDistance, PageSource<T> source, Listener<T> listener,
+                     CompletionListener<T> completionListener) {
+        this.pageSize = pageSize;
+        this.prefetchDistance = prefetchDistance;
+        this.source = source;
+        this.listener = listener;
+        this.completionListener = completionListener;
+    }
+
+    /**
+     * Loads the first page.
+     *
+     * @return This pager, to be tracked by a {@link RequestScope}.
+     */
+    public ListPager<T> start() {
+        if (pages.isEmpty() && !loading)
+            loadPage(0, null);
+        return this;
+    }
+
+    /**
+     * Reports the last visible row and loads the next page when it comes close to the end.
+     * After a failed page nothing more is loaded until {@link #loadMore()} is called.
+     *
+     * @param lastVisiblePosition Position of the last row on screen.
+     */
+    public void onScrolled(int lastVisiblePosition) {
+        if (!failed && lastVisiblePosition >= size() - prefetchDistance)
+            loadMore();
+    }
+
+    /**
+     * Loads the next page, unless one is already loading or the last page was reached.
+     * Also used to retry after a failure.
+     */
+    public void loadMore() {
+        if (canceled || loading || !hasMore())
+            return;
+        loadPage(pages.size(), pages.isEmpty() ? null : nextCursors.get(nextCursors.size() - 1));
+    }
+
+    /**
+     * @return true if the endpoint has rows after the loaded ones (or nothing was loaded yet).
+     */
+    public boolean hasMore() {
+        return pages.isEmpty() || nextCursors.get(nextCursors.size() - 1) != null;
+    }
+
+    /**
+     * @return true while a page is being loaded for the first time.
+     */
+    public boolean isLoading() {
+        return loading;
+    }
+
+    /**
+     * @return Every row loaded so far, in order.
+     */
+    public List<T> getItems() {
+        List<T> items = new ArrayList<>(size());
+        for (List<T> page : pages)
+            items.addAll(page);
+        return items;
+    }
+
+    @Override
+    public void cancel() {
+        if (canceled)
+            return;
+        canceled = true;
+        for (ApiCall call : pageCalls)
+            call.cancel();
+        pageCalls.clear();
+    }
+
+    @Override
+    public boolean isCanceled() {
+        return canceled;
+    }
+
+    @Override
+    public boolean isActive() {
+        if (canceled)
+            return false;
+        if (loading || hasMore())
+            return true;
+        // A loaded page may still be refreshed from the network
+        for (ApiCall call : pageCalls) {
+            if (call.isActive())
+                return true;
+        }
+        return false;
+    }
+
+    private int size() {
+        int size = 0;
+        for (List<T> page : pages)
+            size += page.size();
+        return size;
+    }
+
+    private void loadPage(int index, String cursor) {
+        loading = true;
+        failed = false;
+        ApiCall call = source.load(cursor, pageSize, new PageCallback<T>() {
+            @Override
+            public void onPage(List<T> items, String nextCursor) {
+                if (!canceled && index <= pages.size())
+                    deliver(index, items, nextCursor);
+            }
+
+            @Override
+            public void onPartial(List<T> itemsSoFar) {
+                // Only while nothing was shown for this page: a stored copy is never replaced by fewer rows
+                if (canceled || !loading || index != pages.size())
+                    return;
+                List<T> items = getItems();
+                items.addAll(itemsSoFar);
+                listener.onItemsChanged(items, true);
+            }
+
+            @Override
+            public void onFailure(String errorMessage) {
+                if (canceled || index != pages.size())
+                    return;
+                loading = false;
+                failed = true;
+                listener.onFailure(errorMessage);
+            }
+        });
+        if (canceled) {
+            call.cancel();
+        } else if (index < pageCalls.size()) {
+            // Retry of a page that failed
+            pageCalls.set(index, call).cancel();
+        } else {
+            pageCalls.add(call);
+        }
+    }
+
+    private void deliver(int index, List<T> items, String nextCursor) {
+        if (index == pages.size()) {
+            loading = false;
+            pages.add(new ArrayList<>(items));
+            nextCursors.add(nextCursor);
+        } else {
+            pages.set(index, new ArrayList<>(items));
+            String previousCursor = nextCursors.get(index);
+            nextCursors.set(index, nextCursor);
+            if (previousCursor == null ? nextCursor != null : !previousCursor.equals(nextCursor)) {
+                // The rows after this page changed: reload them from the new cursor
+                while (pages.size() > index + 1) {
+                    pages.remove(pages.size() - 1);
+                    nextCursors.remove(nextCursors.size() - 1);
+                }
+                for (int i = pageCalls.size() - 1; i > index; i--)
+                    pageCalls.remove(i).cancel();
+                loading = false;
+            }
+        }
+
+        List<T> all = getItems();
+        listener.onItemsChanged(all, hasMore());
+        if (!hasMore() && completionListener != null)
+            completionListener.onComplete(all);
+    }
+}
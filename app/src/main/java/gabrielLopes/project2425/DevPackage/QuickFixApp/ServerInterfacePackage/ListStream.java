@@ -0,0 +1,195 @@
+package gabrielLopes.project2425.DevPackage.QuickFixApp.ServerInterfacePackage;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonIOException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import retrofit2.Converter;
+import retrofit2.Retrofit;
+
+/**
+ * Rows of a page of a list, handed out while the response is still being read.
+ * <p>
+ * The items of {@link ApiModels.Page} bodies are parsed one at a time straight from the response
+ * stream, instead of the body being read whole and then converted. When a call carries a stream
+ * (as its {@code @Tag}), the rows parsed so far are posted to its listener after the first
+ * {@link #FIRST_BATCH} rows, then each time their count doubles, so the first screenful shows
+ * after the first few KB and a large page is copied only a few times. The complete page is still
+ * delivered as the call's result, through the usual callbacks.
+ * <p>
+ * Retrofit converts a response on the thread that ran its interceptors, right after them.
+ * {@link #interceptor()} hands the stream of the call to that thread for the converter to take.
+ * <p>
+ * For every endpoint, the time from sending the request to the first row and to the last row is
+ * recorded in {@link NetworkTimings} ({@link NetworkTimings.Metric#FIRST_ROW},
+ * {@link NetworkTimings.Metric#LAST_ROW}).
+ *
+ * @param <T> Row type.
+ */
+public class ListStream<T> {
+
+    /** Rows parsed before the first snapshot is posted: about a screenful. */
+    static final int FIRST_BATCH = 10;
+
+    private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private static final ThreadLocal<ListStream<?>> converting = new ThreadLocal<>();
+
+    /**
+     * Receives the rows parsed so far, on the main thread.
+     */
+    public interface Listener<T> {
+        void onRows(List<T> rowsSoFar);
+    }
+
+    private volatile Listener<T> listener;
+    private String endpoint;
+    private long sentAtNs;
+
+    /**
+     * @param listener Receives the rows parsed so far, or null to stop receiving them
+     *                 (e.g. once something was shown from elsewhere).
+     */
+    public void setListener(Listener<T> listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Posts a snapshot of the rows parsed so far. Called on the converting thread.
+     */
+    private void publish(List<T> rows) {
+        if (listener == null)
+            return;
+        List<T> snapshot = Collections.unmodifiableList(new ArrayList<>(rows));
+        mainHandler.post(() -> {
+            Listener<T> current = listener;
+            if (current != null)
+                current.onRows(snapshot);
+        });
+    }
+
+    /**
+     * @return Interceptor passing the stream of each call to the thread that converts its
+     * response. Install it first on the base OkHttp client.
+     */
+    public static Interceptor interceptor() {
+        return chain -> {
+            Request request = chain.request();
+            ListStream<?> stream = request.tag(ListStream.class);
+            if (stream != null) {
+                stream.endpoint = HttpCacheHandler.endpointName(request);
+                stream.sentAtNs = System.nanoTime();
+                converting.set(stream);
+            } else {
+                converting.remove();
+            }
+            return chain.proceed(request);
+        };
+    }
+
+    /**
+     * @param gson    Gson used for the rows.
+     * @param timings Where the first and last row times are recorded.
+     * @return Converter factory reading {@code Page} bodies one row at a time. Add it before the Gson factory.
+     */
+    public static Converter.Factory converterFactory(Gson gson, NetworkTimings timings) {
+        return new Converter.Factory() {
+            @Override
+            public Converter<ResponseBody, ?> responseBodyConverter(@NonNull Type type, @NonNull Annotation[] annotations,
+                                                                    @NonNull Retrofit retrofit) {
+                if (!(type instanceof ParameterizedType) || ((ParameterizedType) type).getRawType() != ApiModels.Page.class)
+                    return null;
+                Type rowType = ((ParameterizedType) type).getActualTypeArguments()[0];
+                return new PageConverter<>(gson, gson.getAdapter(TypeToken.get(rowType)), timings);
+            }
+        };
+    }
+
+    /**
+     * Reads a page, its items row by row, publishing them to the stream of the call if it has one.
+     * Reads the same fields as the page adapter of {@link ApiModelAdapters}.
+     */
+    private static class PageConverter<T> implements Converter<ResponseBody, ApiModels.Page<T>> {
+        private final Gson gson;
+        private final TypeAdapter<T> rowAdapter;
+        private final NetworkTimings timings;
+
+        PageConverter(Gson gson, TypeAdapter<T> rowAdapter, NetworkTimings timings) {
+            this.gson = gson;
+            this.rowAdapter = rowAdapter;
+            this.timings = timings;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public ApiModels.Page<T> convert(@NonNull ResponseBody body) throws IOException {
+            ListStream<T> stream = (ListStream<T>) converting.get();
+            converting.remove();
+
+            try (JsonReader reader = gson.newJsonReader(body.charStream())) {
+                if (reader.peek() == JsonToken.NULL) {
+                    reader.nextNull();
+                    return null;
+                }
+                ApiModels.Page<T> page = new ApiModels.Page<>();
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    String name = reader.nextName();
+                    if ("items".equals(name) && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                        page.items = readRows(reader, stream);
+                    } else if ("nextCursor".equals(name)) {
+                        page.nextCursor = ApiModelAdapters.readString(reader);
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+                reader.endObject();
+                if (reader.peek() != JsonToken.END_DOCUMENT)
+                    throw new JsonIOException("JSON document was not fully consumed.");
+                return page;
+            }
+        }
+
+        private List<T> readRows(JsonReader reader, ListStream<T> stream) throws IOException {
+            List<T> rows = new ArrayList<>();
+            int nextSnapshot = FIRST_BATCH;
+            reader.beginArray();
+            while (reader.hasNext()) {
+                rows.add(rowAdapter.read(reader));
+                if (stream != null && rows.size() == 1)
+                    timings.record(stream.endpoint, NetworkTimings.Metric.FIRST_ROW, millisSince(stream.sentAtNs));
+                if (stream != null && rows.size() == nextSnapshot) {
+                    stream.publish(rows);
+                    nextSnapshot *= 2;
+                }
+            }
+            reader.endArray();
+            if (stream != null)
+                timings.record(stream.endpoint, NetworkTimings.Metric.LAST_ROW, millisSince(stream.sentAtNs));
+            return rows;
+        }
+
+        private static long millisSince(long startNs) {
+            return (System.nanoTime() - startNs) / 1_000_000;
+        }
+    }
+}
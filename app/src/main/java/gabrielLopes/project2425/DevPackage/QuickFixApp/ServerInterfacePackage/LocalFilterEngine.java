@@ -0,0 +1,248 @@
+package gabrielLopes.project2425.DevPackage.QuickFixApp.ServerInterfacePackage;
+
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps fetched result sets of a list endpoint in memory, keyed by the filter that produced them,
+ * and answers new filters on the device whenever possible.
+ * <p>
+ * List filters are monotonic: the rows for "maxDistance=20" are a subset of the rows for
+ * "maxDistance=50". A query is therefore answered without a network call when it was cached
+ * as is, or when a cached broader filter subsumes it, in which case the broader rows are
+ * filtered locally.
+ * <p>
+ * The search text and category of every row are lowercased once when a set is stored,
+ * so a filter pass is a single scan with plain comparisons. Sets expire after a fixed
+ * time, only the most recently used ones are kept, and {@link #invalidate()} drops them
+ * all (e.g. after a mutation).
+ * <p>
+ * Thread-safe: sets can be stored from a network thread while the UI filters them.
+ *
+ * @param <T> Row type.
+ */
+public class LocalFilterEngine<T> {
+
+    private final long ttlMs;
+    private final int maxEntries;
+    private final ListFilters.RowIndexer<T> indexer;
+    private final Map<ListFilters.RowFilter<T>, Snapshot<T>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Stats stats = new Stats();
+    private long version;
+
+    /**
+     * Creates an empty engine.
+     *
+     * @param ttlMs      How long a fetched set stays usable, in milliseconds.
+     * @param maxEntries Maximum number of result sets kept at once.
+     * @param indexer    Extracts the text each row is matched against.
+     */
+    public LocalFilterEngine(long ttlMs, int maxEntries, ListFilters.RowIndexer<T> indexer) {
+        this.ttlMs = ttlMs;
+        this.maxEntries = maxEntries;
+        this.indexer = indexer;
+    }
+
+    /**
+     * Answers a filter from memory.
+     * <p>
+     * An exact match is returned as is. Otherwise the smallest cached set whose filter
+     * subsumes the requested one is filtered locally.
+     *
+     * @param filter Filter to answer.
+     * @return Matching rows in backend order, or null if the caller has to fetch them.
+     */
+    public List<T> query(ListFilters.RowFilter<T> filter) {
+        Snapshot<T> exact;
+        Snapshot<T> broader = null;
+        synchronized (this) {
+            pruneExpired();
+            exact = entries.get(filter);
+            if (exact == null) {
+                for (Map.Entry<ListFilters.RowFilter<T>, Snapshot<T>> entry : entries.entrySet()) {
+                    Snapshot<T> candidate = entry.getValue();
+                    if (entry.getKey().subsumes(filter) && (broader == null || candidate.size() < broader.size()))
+                        broader = candidate;
+                }
+            }
+        }
+
+        if (exact != null) {
+            stats.exactHits.incrementAndGet();
+            return new ArrayList<>(exact.rows);
+        }
+        if (broader != null) {
+            stats.subsumedHits.incrementAndGet();
+            return broader.filter(filter);
+        }
+        stats.misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Marks the start of a fetch. Pass the returned version to {@link #store}
+     * so a set fetched before an invalidation is not kept.
+     *
+     * @return Current version of the engine.
+     */
+    public synchronized long beginLoad() {
+        return version;
+    }
+
+    /**
+     * Indexes a freshly fetched set and keeps it under its filter, unless the engine
+     * was invalidated meanwhile.
+     *
+     * @param filter      Filter the backend applied to produce the set.
+     * @param fetched     Rows, in the order the backend returned them.
+     * @param loadVersion Version returned by {@link #beginLoad()} when the fetch started.
+     * @return The indexed set, usable for filtering even if it was not kept.
+     */
+    public Snapshot<T> store(ListFilters.RowFilter<T> filter, List<T> fetched, long loadVersion) {
+        synchronized (this) {
+            // Callers coalesced on the same fetch receive the same list: index it only once
+            Snapshot<T> existing = entries.get(filter);
+            if (existing != null && existing.source == fetched)
+                return existing;
+        }
+
+        Snapshot<T> indexed = new Snapshot<>(fetched, indexer, SystemClock.elapsedRealtime());
+        synchronized (this) {
+            if (loadVersion != version)
+                return indexed;
+            entries.put(filter, indexed);
+            Iterator<ListFilters.RowFilter<T>> eldest = entries.keySet().iterator();
+            while (entries.size() > maxEntries) {
+                eldest.next();
+                eldest.remove();
+            }
+        }
+        return indexed;
+    }
+
+    /**
+     * Drops every stored set, forcing the next callers to fetch again.
+     */
+    public synchronized void invalidate() {
+        version++;
+        entries.clear();
+    }
+
+    /**
+     * @return Hit and miss counters of this engine.
+     */
+    public Stats getStats() {
+        return stats;
+    }
+
+    /**
+     * Removes sets older than the time to live.
+     */
+    private void pruneExpired() {
+        long now = SystemClock.elapsedRealtime();
+        Iterator<Snapshot<T>> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            if (now - iterator.next().loadedAt >= ttlMs)
+                iterator.remove();
+        }
+    }
+
+    /**
+     * Immutable, indexed copy of a fetched set.
+     *
+     * @param <T> Row type.
+     */
+    public static class Snapshot<T> {
+        private final List<T> source;
+        private final List<T> rows;
+        private final String[] searchTexts;
+        private final String[] categories;
+        private final long loadedAt;
+
+        Snapshot(List<T> fetched, ListFilters.RowIndexer<T> indexer, long loadedAt) {
+            int size = fetched.size();
+            this.source = fetched;
+            this.rows = new ArrayList<>(fetched);
+            this.searchTexts = new String[size];
+            this.categories = new String[size];
+            this.loadedAt = loadedAt;
+            for (int i = 0; i < size; i++) {
+                T row = rows.get(i);
+                searchTexts[i] = indexer.searchText(row);
+                categories[i] = indexer.category(row);
+            }
+        }
+
+        /**
+         * @return Number of rows in the set.
+         */
+        public int size() {
+            return rows.size();
+        }
+
+        /**
+         * Returns the rows that pass a filter, keeping their order.
+         *
+         * @param filter Filter to apply.
+         * @return New list with the matching rows.
+         */
+        public List<T> filter(ListFilters.RowFilter<T> filter) {
+            List<T> result = new ArrayList<>();
+            for (int i = 0; i < searchTexts.length; i++) {
+                T row = rows.get(i);
+                if (filter.matches(row, searchTexts[i], categories[i]))
+                    result.add(row);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Counts how queries were answered: from an identical cached query, by filtering
+     * a broader cached one, or by going to the network.
+     */
+    public static class Stats {
+        private final AtomicLong exactHits = new AtomicLong();
+        private final AtomicLong subsumedHits = new AtomicLong();
+        private final AtomicLong misses = new AtomicLong();
+
+        /** Queries answered by an identical cached query. */
+        public long getExactHits() { return exactHits.get(); }
+
+        /** Queries answered by filtering the rows of a broader cached query. */
+        public long getSubsumedHits() { return subsumedHits.get(); }
+
+        /** Queries that needed a network call. */
+        public long getMisses() { return misses.get(); }
+
+        /**
+         * @return Share of queries answered by filtering a broader cached result (0 to 1).
+         */
+        public double getSubsumptionHitRate() {
+            long total = exactHits.get() + subsumedHits.get() + misses.get();
+            return total == 0 ? 0 : (double) subsumedHits.get() / total;
+        }
+
+        /**
+         * @return Share of queries answered without a network call (0 to 1).
+         */
+        public double getHitRate() {
+            long total = exactHits.get() + subsumedHits.get() + misses.get();
+            return total == 0 ? 0 : (double) (exactHits.get() + subsumedHits.get()) / total;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return "exact hits=" + getExactHits() + ", subsumed hits=" + getSubsumedHits() + ", misses=" + getMisses();
+        }
+    }
+}
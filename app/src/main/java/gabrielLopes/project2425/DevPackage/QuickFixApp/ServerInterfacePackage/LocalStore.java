@@ -0,0 +1,344 @@
+package gabrielLopes.project2425.DevPackage.QuickFixApp.ServerInterfacePackage;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SQLite copy of the data last received from the backend, used to show screens without network.
+ * <p>
+ * Every GET result is stored as JSON under the key of the call that produced it, together with
+ * its entity type (which decides how long it counts as fresh) and the time it was fetched.
+ * The total size is bounded: once it is exceeded, the least recently read entries are removed.
+ * <p>
+ * A second table persists the outgoing mutations of {@link MutationQueue} so they survive
+ * process death.
+ * <p>
+ * All methods do disk I/O and must be called off the main thread.
+ */
+public class LocalStore extends SQLiteOpenHelper {
+
+    private static final String DB_NAME = "quickfix_store.db";
+    private static final int DB_VERSION = 2;
+    private static final long MAX_TOTAL_BYTES = 4L * 1024 * 1024;
+
+    private static final String TABLE = "entries";
+    private static final String COL_KEY = "entry_key";
+    private static final String COL_TYPE = "entity_type";
+    private static final String COL_JSON = "json";
+    private static final String COL_BYTES = "bytes";
+    private static final String COL_FETCHED_AT = "fetched_at";
+    private static final String COL_ACCESSED_AT = "accessed_at";
+
+    private static final String MUTATIONS_TABLE = "mutations";
+    private static final String COL_MUTATION_ID = "mutation_id";
+    private static final String COL_KIND = "kind";
+    private static final String COL_ENTITY_KEY = "entity_key";
+    private static final String COL_PAYLOAD = "payload";
+    private static final String COL_ENQUEUED_AT = "enqueued_at";
+    private static final String COL_ATTEMPTS = "attempts";
+
+    private static LocalStore instance;
+
+    /**
+     * Kind of data stored, with how long it is considered fresh.
+     * Lists use the time to live of the entities they contain.
+     */
+    public enum EntityType {
+        /** Service requests: change whenever someone accepts one. */
+        REQUEST(2 * 60 * 1000L),
+        /** Accepted services: status changes during the day. */
+        SERVICE(2 * 60 * 1000L),
+        /** Provider roles: edited rarely. */
+        PROVIDER(10 * 60 * 1000L),
+        /** User profiles: edited rarely. */
+        USER(30 * 60 * 1000L);
+
+        final long ttlMs;
+
+        EntityType(long ttlMs) {
+            this.ttlMs = ttlMs;
+        }
+    }
+
+    /**
+     * A stored result.
+     */
+    public static class Entry {
+        public final String json;
+        public final long fetchedAt;
+        public final EntityType type;
+
+        Entry(String json, long fetchedAt, EntityType type) {
+            this.json = json;
+            this.fetchedAt = fetchedAt;
+            this.type = type;
+        }
+
+        /**
+         * @return true if the entry is younger than the time to live of its type.
+         */
+        public boolean isFresh() {
+            return fetchedAt > 0 && System.currentTimeMillis() - fetchedAt < type.ttlMs;
+        }
+    }
+
+    /**
+     * A pending mutation as persisted on disk.
+     */
+    public static class MutationRow {
+        public final long id;
+        public final String kind;
+        public final String entityKey;
+        public final String payload;
+        public final long enqueuedAt;
+        public final int attempts;
+
+        MutationRow(long id, String kind, String entityKey, String payload, long enqueuedAt, int attempts) {
+            this.id = id;
+            this.kind = kind;
+            this.entityKey = entityKey;
+            this.payload = payload;
+            this.enqueuedAt = enqueuedAt;
+            this.attempts = attempts;
+        }
+    }
+
+    private LocalStore(Context context) {
+        super(context, DB_NAME, null, DB_VERSION);
+    }
+
+    /**
+     * Returns the store, opening it on first use.
+     *
+     * @param context Any context; the application context is kept.
+     * @return Shared store instance.
+     */
+    public static synchronized LocalStore getInstance(Context context) {
+        if (instance == null)
+            instance = new LocalStore(context.getApplicationContext());
+        return instance;
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE + " ("
+                + COL_KEY + " TEXT PRIMARY KEY, "
+                + COL_TYPE + " TEXT NOT NULL, "
+                + COL_JSON + " TEXT NOT NULL, "
+                + COL_BYTES + " INTEGER NOT NULL, "
+                + COL_FETCHED_AT + " INTEGER NOT NULL, "
+                + COL_ACCESSED_AT + " INTEGER NOT NULL)");
+        db.execSQL("CREATE INDEX idx_entries_accessed ON " + TABLE + " (" + COL_ACCESSED_AT + ")");
+        createMutationsTable(db);
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        if (oldVersion < 2) {
+            createMutationsTable(db);
+            return;
+        }
+        // Only cached data lives in the entries table, so it is simply rebuilt
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE);
+        db.execSQL("DROP TABLE IF EXISTS " + MUTATIONS_TABLE);
+        onCreate(db);
+    }
+
+    /**
+     * Creates the table of pending mutations, ordered by their autoincrement id.
+     */
+    private static void createMutationsTable(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + MUTATIONS_TABLE + " ("
+                + COL_MUTATION_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, "
+                + COL_KIND + " TEXT NOT NULL, "
+                + COL_ENTITY_KEY + " TEXT NOT NULL, "
+                + COL_PAYLOAD + " TEXT NOT NULL, "
+                + COL_ENQUEUED_AT + " INTEGER NOT NULL, "
+                + COL_ATTEMPTS + " INTEGER NOT NULL DEFAULT 0)");
+    }
+
+    /**
+     * Reads an entry and marks it as recently used.
+     *
+     * @param key Key of the call that produced it.
+     * @return The entry, or null if nothing is stored.
+     */
+    public Entry get(String key) {
+        SQLiteDatabase db = getWritableDatabase();
+        Entry entry = null;
+        try (Cursor cursor = db.query(TABLE, new String[]{COL_JSON, COL_FETCHED_AT, COL_TYPE},
+                COL_KEY + " = ?", new String[]{key}, null, null, null)) {
+            if (cursor.moveToFirst()) {
+                EntityType type;
+                try {
+                    type = EntityType.valueOf(cursor.getString(2));
+                } catch (IllegalArgumentException e) {
+                    return null;
+                }
+                entry = new Entry(cursor.getString(0), cursor.getLong(1), type);
+            }
+        }
+
+        if (entry != null) {
+            ContentValues values = new ContentValues();
+            values.put(COL_ACCESSED_AT, System.currentTimeMillis());
+            db.update(TABLE, values, COL_KEY + " = ?", new String[]{key});
+        }
+        return entry;
+    }
+
+    /**
+     * Stores or replaces an entry, then trims the store back under its size limit.
+     *
+     * @param key  Key of the call that produced it.
+     * @param type Entity type of the data.
+     * @param json Serialized response body.
+     */
+    public void put(String key, EntityType type, String json) {
+        long now = System.currentTimeMillis();
+        ContentValues values = new ContentValues();
+        values.put(COL_KEY, key);
+        values.put(COL_TYPE, type.name());
+        values.put(COL_JSON, json);
+        values.put(COL_BYTES, json.length() * 2L);
+        values.put(COL_FETCHED_AT, now);
+        values.put(COL_ACCESSED_AT, now);
+
+        SQLiteDatabase db = getWritableDatabase();
+        db.insertWithOnConflict(TABLE, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+        trimToSize(db);
+    }
+
+    /**
+     * Removes a single entry (e.g. the backend answered 404 for it).
+     *
+     * @param key Key of the entry.
+     */
+    public void remove(String key) {
+        getWritableDatabase().delete(TABLE, COL_KEY + " = ?", new String[]{key});
+    }
+
+    /**
+     * Marks every entry as stale so the next read revalidates it, while keeping the data
+     * available offline. Called after mutations.
+     */
+    public void markAllStale() {
+        ContentValues values = new ContentValues();
+        values.put(COL_FETCHED_AT, 0);
+        getWritableDatabase().update(TABLE, values, null, null);
+    }
+
+    /**
+     * Deletes everything. Called on logout.
+     */
+    public void clear() {
+        getWritableDatabase().delete(TABLE, null, null);
+    }
+
+    /**
+     * Persists a new pending mutation.
+     *
+     * @param kind       Mutation kind name.
+     * @param entityKey  Entity the mutation applies to.
+     * @param payload    Serialized request body.
+     * @param enqueuedAt Wall-clock time it was created.
+     * @return Row id, which also gives the replay order.
+     */
+    public long insertMutation(String kind, String entityKey, String payload, long enqueuedAt) {
+        ContentValues values = new ContentValues();
+        values.put(COL_KIND, kind);
+        values.put(COL_ENTITY_KEY, entityKey);
+        values.put(COL_PAYLOAD, payload);
+        values.put(COL_ENQUEUED_AT, enqueuedAt);
+        values.put(COL_ATTEMPTS, 0);
+        return getWritableDatabase().insert(MUTATIONS_TABLE, null, values);
+    }
+
+    /**
+     * Rewrites a pending mutation after it was coalesced with a newer one or retried.
+     *
+     * @param id       Row id of the mutation.
+     * @param kind     Mutation kind name.
+     * @param payload  Serialized request body.
+     * @param attempts Number of failed attempts so far.
+     */
+    public void updateMutation(long id, String kind, String payload, int attempts) {
+        ContentValues values = new ContentValues();
+        values.put(COL_KIND, kind);
+        values.put(COL_PAYLOAD, payload);
+        values.put(COL_ATTEMPTS, attempts);
+        getWritableDatabase().update(MUTATIONS_TABLE, values, COL_MUTATION_ID + " = ?", new String[]{String.valueOf(id)});
+    }
+
+    /**
+     * Removes a mutation once the backend accepted or definitively rejected it.
+     *
+     * @param id Row id of the mutation.
+     */
+    public void deleteMutation(long id) {
+        getWritableDatabase().delete(MUTATIONS_TABLE, COL_MUTATION_ID + " = ?", new String[]{String.valueOf(id)});
+    }
+
+    /**
+     * Loads every pending mutation in replay order.
+     *
+     * @return Stored mutations, oldest first.
+     */
+    public List<MutationRow> loadMutations() {
+        List<MutationRow> rows = new ArrayList<>();
+        try (Cursor cursor = getReadableDatabase().query(MUTATIONS_TABLE,
+                new String[]{COL_MUTATION_ID, COL_KIND, COL_ENTITY_KEY, COL_PAYLOAD, COL_ENQUEUED_AT, COL_ATTEMPTS},
+                null, null, null, null, COL_MUTATION_ID + " ASC")) {
+            while (cursor.moveToNext()) {
+                rows.add(new MutationRow(cursor.getLong(0), cursor.getString(1), cursor.getString(2),
+                        cursor.getString(3), cursor.getLong(4), cursor.getInt(5)));
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Deletes every pending mutation. Called on logout.
+     */
+    public void clearMutations() {
+        getWritableDatabase().delete(MUTATIONS_TABLE, null, null);
+    }
+
+    /**
+     * @return Approximate size of the stored data in bytes.
+     */
+    public long getTotalBytes() {
+        try (Cursor cursor = getReadableDatabase().rawQuery("SELECT SUM(" + COL_BYTES + ") FROM " + TABLE, null)) {
+            return cursor.moveToFirst() ? cursor.getLong(0) : 0;
+        }
+    }
+
+    /**
+     * Removes the least recently read entries until the store fits in {@link #MAX_TOTAL_BYTES}.
+     */
+    private void trimToSize(SQLiteDatabase db) {
+        long total;
+        try (Cursor cursor = db.rawQuery("SELECT SUM(" + COL_BYTES + ") FROM " + TABLE, null)) {
+            total = cursor.moveToFirst() ? cursor.getLong(0) : 0;
+        }
+        if (total <= MAX_TOTAL_BYTES)
+            return;
+
+        List<String> evicted = new ArrayList<>();
+        try (Cursor cursor = db.query(TABLE, new String[]{COL_KEY, COL_BYTES},
+                null, null, null, null, COL_ACCESSED_AT + " ASC")) {
+            while (total > MAX_TOTAL_BYTES && cursor.moveToNext()) {
+                evicted.add(cursor.getString(0));
+                total -= cursor.getLong(1);
+            }
+        }
+        for (String key : evicted)
+            db.delete(TABLE, COL_KEY + " = ?", new String[]{key});
+    }
+}
@@ -0,0 +1,911 @@
+package gabrielLopes.project2425.DevPackage.QuickFixApp.ServerInterfacePackage;
+
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.widget.Toast;
+
+import androidx.annotation.NonNull;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import gabrielLopes.project2425.DevPackage.QuickFixApp.Utils.SharedPrefHelper;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Durable, ordered queue of outgoing mutations (write-behind).
+ * <p>
+ * Every mutation is written to the {@link LocalStore} before it is sent, and the queue is replayed
+ * to the backend one mutation at a time, oldest first:
+ * <ul>
+ *     <li>If the backend answers, the caller gets the real result.</li>
+ *     <li>If the network or the backend is unavailable, the caller is told the change was saved,
+ *     and the queue retries with exponential backoff (also as soon as a network comes back
+ *     and after a process restart).</li>
+ *     <li>A change rejected by the backend (4xx) is dropped and reported.</li>
+ * </ul>
+ * A retry may follow an attempt the backend did apply but whose answer was lost:
+ * <ul>
+ *     <li>Updates, status changes and role removals give the same result when applied twice.</li>
+ *     <li>Requests are created with an idempotency key, so the backend creates them once, and a
+ *     provider accepting a request they already accepted gets the same answer again.</li>
+ *     <li>After an earlier attempt, a 404 on a request removal or a 409 on a new role means that
+ *     attempt went through, and is reported as a success.</li>
+ * </ul>
+ * A new mutation on the same entity as the last queued one is merged into it when possible
+ * (e.g. three status changes of one service become one PATCH).
+ * <p>
+ * Pending changes are applied locally right away: {@link #applyPending(String, Object)}
+ * patches data read from the cache or the network, so screens already show them.
+ * <p>
+ * Must be used from the main thread.
+ */
+public class MutationQueue {
+
+    private static final String TAG = "MutationQueue";
+    private static final long BASE_BACKOFF_MS = 2_000;
+    private static final long MAX_BACKOFF_MS = 5 * 60 * 1000L;
+    private static final long CONFIRMED_OVERLAY_MS = 10 * 60 * 1000L;
+    private static final int MAX_CONFIRMED = 32;
+    private static final String NEW_REQUEST_PREFIX = "new-request:";
+
+    /** Message given to callers whose change could not be sent yet. */
+    public static final String QUEUED_MESSAGE = "You are offline. Your change was saved and will be sent automatically.";
+
+    /**
+     * Kinds of mutation handled by the queue.
+     */
+    public enum Kind {
+        ADD_REQUEST, UPDATE_REQUEST, REMOVE_REQUEST, REQUEST_DECISION,
+        SERVICE_STATUS,
+        ADD_ROLE, UPDATE_ROLE, REMOVE_ROLE
+    }
+
+    /**
+     * Receives the outcome of a mutation.
+     */
+    public interface ResultListener {
+        void onSuccess(String message);
+        void onFailure(String errorMessage);
+    }
+
+    /**
+     * Listener of a change already shown to the user before it is confirmed.
+     * <p>
+     * Unlike a plain {@link ResultListener}, it is told separately when the change could only be
+     * saved, and still receives the final outcome once the backend answers, so the UI can
+     * undo the change if it is rejected.
+     */
+    public interface OptimisticListener extends ResultListener {
+        void onQueued(String message);
+    }
+
+    /** Payload of {@link Kind#UPDATE_REQUEST}. */
+    static class RequestUpdate {
+        int requestId;
+        Map<String, Object> body;
+
+        RequestUpdate(int requestId, Map<String, Object> body) {
+            this.requestId = requestId;
+            this.body = body;
+        }
+    }
+
+    /** Payload of {@link Kind#REMOVE_REQUEST}. */
+    static class RequestRemoval {
+        int requestId;
+
+        RequestRemoval(int requestId) {
+            this.requestId = requestId;
+        }
+    }
+
+    /** Payload of {@link Kind#REMOVE_ROLE}. */
+    static class RoleRemoval {
+        String role;
+
+        RoleRemoval(String role) {
+            this.role = role;
+        }
+    }
+
+    private final Gson gson = ApiGson.get();
+    private final Deque<Mutation> pending = new ArrayDeque<>();
+    private final Deque<Mutation> confirmed = new ArrayDeque<>();
+    private final List<Runnable> rejectionListeners = new ArrayList<>();
+    private final ExecutorService diskExecutor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Random random = new Random();
+    private final Runnable retryRunnable = () -> {
+        backoffScheduled = false;
+        drain();
+    };
+
+    private Context appContext;
+    private LocalStore store;
+    private Runnable onChange;
+    private Mutation inFlight;
+    private boolean backoffScheduled;
+    private boolean offline;
+
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong totalDrainLatencyMs = new AtomicLong();
+    private final AtomicLong maxDrainLatencyMs = new AtomicLong();
+    private final AtomicLong lastDrainLatencyMs = new AtomicLong();
+    private volatile int depth;
+
+    /**
+     * Opens the persisted queue, restores the mutations of a previous run and starts draining.
+     * Also listens for connectivity so a waiting queue is retried as soon as a network appears.
+     *
+     * @param context Any context.
+     */
+    public void attach(Context context) {
+        if (store != null)
+            return;
+        appContext = context.getApplicationContext();
+        store = LocalStore.getInstance(appContext);
+
+        LocalStore localStore = store;
+        diskExecutor.execute(() -> {
+            List<LocalStore.MutationRow> rows = localStore.loadMutations();
+            mainHandler.post(() -> restore(rows));
+        });
+
+        ConnectivityManager connectivity = (ConnectivityManager) appContext.getSystemService(Context.CONNECTIVITY_SERVICE);
+        if (connectivity != null) {
+            connectivity.registerDefaultNetworkCallback(new ConnectivityManager.NetworkCallback() {
+                @Override
+                public void onAvailable(@NonNull Network network) {
+                    mainHandler.post(MutationQueue.this::retryNow);
+                }
+            });
+        }
+    }
+
+    /**
+     * Sets an action run whenever the pending changes are modified, so cached data that
+     * reflects them can be refreshed.
+     *
+     * @param onChange Action to run on the main thread.
+     */
+    public void setOnChangeListener(Runnable onChange) {
+        this.onChange = onChange;
+    }
+
+    /**
+     * Registers an action run when the backend rejects a change, i.e. when a change already
+     * shown locally disappears again.
+     *
+     * @param listener Action to run on the main thread.
+     */
+    public void addRejectionListener(Runnable listener) {
+        rejectionListeners.add(listener);
+    }
+
+    /**
+     * Removes an action registered with {@link #addRejectionListener(Runnable)}.
+     *
+     * @param listener Action to remove.
+     */
+    public void removeRejectionListener(Runnable listener) {
+        rejectionListeners.remove(listener);
+    }
+
+    /**
+     * Queues a mutation and starts sending it if nothing is ahead of it.
+     *
+     * @param kind      Kind of mutation.
+     * @param entityKey Entity it applies to (e.g. "service:12"); used for coalescing and local apply.
+     * @param payload   Request body, serialized to JSON.
+     * @param listener  Receives the outcome. May be null.
+     */
+    public void enqueue(Kind kind, String entityKey, Object payload, ResultListener listener) {
+        String json = gson.toJson(payload);
+        Mutation tail = pending.peekLast();
+        if (tail != null && tail != inFlight && tail.entityKey.equals(entityKey) && coalesce(tail, kind, json)) {
+            coalesced.incrementAndGet();
+            addListener(tail, listener);
+            persistUpdate(tail);
+        } else {
+            Mutation mutation = new Mutation(kind, entityKey, json, System.currentTimeMillis(), 0);
+            pending.addLast(mutation);
+            depth = pending.size();
+            addListener(mutation, listener);
+            persistInsert(mutation);
+        }
+        changed();
+        drain();
+    }
+
+    /**
+     * Drops every pending mutation. Called on logout.
+     */
+    public void clear() {
+        pending.clear();
+        confirmed.clear();
+        depth = 0;
+        mainHandler.removeCallbacks(retryRunnable);
+        backoffScheduled = false;
+        offline = false;
+        if (store != null)
+            diskExecutor.execute(store::clearMutations);
+        changed();
+    }
+
+    /**
+     * Applies the pending mutations to data read from the cache or the backend, so the UI
+     * shows them before they are confirmed. Patched rows are copies; the input is not modified.
+     * <p>
+     * Recently confirmed mutations are applied too when the data was fetched before they were
+     * confirmed, so an older stored copy does not briefly show the previous state.
+     *
+     * @param key       Key of the call that produced the data (see {@link OfflineFirstLoader}).
+     * @param body      Response body.
+     * @param fetchedAt Wall-clock time the data was requested from the backend.
+     * @param <T>       Body type.
+     * @return The body with pending changes applied (the same instance if nothing applies).
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T applyPending(String key, T body, long fetchedAt) {
+        if (body == null)
+            return body;
+        List<Mutation> active = activeMutations(fetchedAt);
+        if (active.isEmpty())
+            return body;
+
+        boolean ownRoles = "getProviderRoles".equals(key);
+        if (body instanceof ApiModels.Page) {
+            ApiModels.Page<Object> page = (ApiModels.Page<Object>) body;
+            List<Object> items = page.items != null ? applyToRows(key, page.items, false, active) : null;
+            if (items == page.items)
+                return body;
+            ApiModels.Page<Object> patched = new ApiModels.Page<>();
+            patched.items = items;
+            patched.nextCursor = page.nextCursor;
+            return (T) patched;
+        }
+        if (!(body instanceof List)) {
+            Object patched = patch(body, ownRoles, active);
+            return patched != null ? (T) patched : body;
+        }
+        return (T) applyToRows(key, (List<Object>) body, ownRoles, active);
+    }
+
+    /**
+     * Applies the active mutations to the rows of a list.
+     *
+     * @return The patched rows, or the same list if nothing changed.
+     */
+    private List<Object> applyToRows(String key, List<Object> rows, boolean ownRoles, List<Mutation> active) {
+        // The public request list (paged or not) only contains pending requests: accepted ones leave it
+        boolean openRequests = key.startsWith("getRequests");
+        List<Object> result = new ArrayList<>(rows.size());
+        boolean changed = false;
+        for (Object row : rows) {
+            Object patched = patch(row, ownRoles, active);
+            if (openRequests && patched != row && patched != null
+                    && !"pending".equalsIgnoreCase(((ApiModels.RequestResponse) patched).status))
+                patched = null;
+            if (patched != row)
+                changed = true;
+            if (patched != null)
+                result.add(patched);
+        }
+        if (ownRoles)
+            changed |= appendAddedRoles(result, active);
+        return changed ? result : rows;
+    }
+
+    /**
+     * Returns the mutations whose effect is not yet in data fetched at the given time:
+     * confirmed ones newer than the data, then every pending one, in order.
+     */
+    private List<Mutation> activeMutations(long fetchedAt) {
+        long now = System.currentTimeMillis();
+        while (!confirmed.isEmpty() && now - confirmed.peekFirst().confirmedAt > CONFIRMED_OVERLAY_MS)
+            confirmed.removeFirst();
+
+        List<Mutation> active = new ArrayList<>();
+        for (Mutation mutation : confirmed) {
+            if (mutation.confirmedAt > fetchedAt)
+                active.add(mutation);
+        }
+        active.addAll(pending);
+        return active;
+    }
+
+    /**
+     * @return Snapshot of the queue counters.
+     */
+    public Stats getStats() {
+        return new Stats(depth, sent.get(), rejected.get(), retries.get(), coalesced.get(),
+                lastDrainLatencyMs.get(), maxDrainLatencyMs.get(),
+                sent.get() == 0 ? 0 : totalDrainLatencyMs.get() / sent.get());
+    }
+
+    /* -------------------------------------------------------------------------------------------
+     *                                        SENDING
+     * ------------------------------------------------------------------------------------------- */
+
+    /**
+     * Sends the oldest mutation unless one is already in flight or the queue is backing off.
+     */
+    private void drain() {
+        if (inFlight != null || backoffScheduled || pending.isEmpty())
+            return;
+
+        Mutation head = pending.peekFirst();
+        Call<ApiModels.ApiResponse> call;
+        try {
+            call = createCall(head);
+        } catch (RuntimeException e) {
+            Log.e(TAG, "Dropping unreadable mutation " + head.kind, e);
+            finish(head, false, "A saved change could not be read and was discarded.");
+            return;
+        }
+
+        inFlight = head;
+        call.enqueue(new Callback<ApiModels.ApiResponse>() {
+            @Override
+            public void onResponse(@NonNull Call<ApiModels.ApiResponse> call, @NonNull Response<ApiModels.ApiResponse> response) {
+                inFlight = null;
+                if (response.isSuccessful()) {
+                    ApiModels.ApiResponse body = response.body();
+                    finish(head, true, body != null ? body.message : null);
+                } else if (isTransient(response.code())) {
+                    retryLater(head);
+                } else if (alreadyApplied(head, response.code())) {
+                    finish(head, true, head.kind == Kind.REMOVE_REQUEST ? "Service request deleted" : "Role added");
+                } else {
+                    finish(head, false, ApiManager.getErrorMessage(response));
+                }
+            }
+
+            @Override
+            public void onFailure(@NonNull Call<ApiModels.ApiResponse> call, @NonNull Throwable t) {
+                inFlight = null;
+                retryLater(head);
+            }
+        });
+    }
+
+    /**
+     * Builds the API call for a mutation.
+     */
+    private Call<ApiModels.ApiResponse> createCall(Mutation mutation) {
+        ApiInterface api = ApiManager.getApiService();
+        switch (mutation.kind) {
+            case ADD_REQUEST:
+                // Same key on every attempt: the backend creates the request once however often it is sent
+                return api.addRequest(idempotencyKey(mutation.entityKey),
+                        gson.fromJson(mutation.payload, ApiModels.ServiceRequestRequest.class));
+            case UPDATE_REQUEST: {
+                RequestUpdate update = gson.fromJson(mutation.payload, RequestUpdate.class);
+                return api.updateRequest(update.requestId, update.body);
+            }
+            case REMOVE_REQUEST:
+                return api.removeRequest(gson.fromJson(mutation.payload, RequestRemoval.class).requestId);
+            case REQUEST_DECISION:
+                return api.handleRequestDecision(gson.fromJson(mutation.payload, ApiModels.RequestDecision.class));
+            case SERVICE_STATUS:
+                return api.updateServiceStatus(gson.fromJson(mutation.payload, ApiModels.ServiceStatusUpdateRequest.class));
+            case ADD_ROLE:
+                return api.addProviderRole(gson.fromJson(mutation.payload, ApiModels.ProviderRoleRequest.class));
+            case UPDATE_ROLE:
+                return api.updateProviderInfo(gson.fromJson(mutation.payload, ApiModels.UpdateProviderRoleRequest.class));
+            case REMOVE_ROLE:
+                return api.removeProviderRole(gson.fromJson(mutation.payload, RoleRemoval.class).role);
+            default:
+                throw new IllegalStateException("Unknown mutation " + mutation.kind);
+        }
+    }
+
+    /**
+     * Timeouts, rate limits and server errors are retried; other errors are final.
+     * An expired session (401) is retried too: the change goes out once the user logs in again.
+     */
+    private static boolean isTransient(int code) {
+        return code >= 500 || code == 401 || code == 408 || code == 429;
+    }
+
+    /**
+     * Tells whether an error only says that an earlier attempt went through, its answer lost:
+     * the request to remove is already gone, or the role to add already exists.
+     */
+    private static boolean alreadyApplied(Mutation mutation, int code) {
+        if (mutation.attempts == 0)
+            return false;
+        return (mutation.kind == Kind.REMOVE_REQUEST && code == 404)
+                || (mutation.kind == Kind.ADD_ROLE && code == 409);
+    }
+
+    /**
+     * Removes a mutation that got a final answer and reports it.
+     */
+    private void finish(Mutation mutation, boolean success, String message) {
+        if (!pending.remove(mutation))
+            return;
+        depth = pending.size();
+        persistDelete(mutation);
+
+        if (success) {
+            sent.incrementAndGet();
+            mutation.confirmedAt = System.currentTimeMillis();
+            confirmed.addLast(mutation);
+            if (confirmed.size() > MAX_CONFIRMED)
+                confirmed.removeFirst();
+            long latency = mutation.confirmedAt - mutation.enqueuedAt;
+            lastDrainLatencyMs.set(latency);
+            totalDrainLatencyMs.addAndGet(latency);
+            if (latency > maxDrainLatencyMs.get())
+                maxDrainLatencyMs.set(latency);
+        } else {
+            rejected.incrementAndGet();
+        }
+        offline = false;
+
+        boolean reported = false;
+        for (ResultListener listener : mutation.listeners) {
+            if (!mutation.queuedNotified || listener instanceof OptimisticListener) {
+                reported = true;
+                if (success)
+                    listener.onSuccess(message);
+                else
+                    listener.onFailure(message);
+            }
+        }
+        // Callers were already told the change was saved: a late rejection must still be visible
+        if (!success && !reported && appContext != null)
+            Toast.makeText(appContext, "A saved change was rejected: " + message, Toast.LENGTH_LONG).show();
+        if (!success) {
+            for (Runnable listener : new ArrayList<>(rejectionListeners))
+                listener.run();
+        }
+
+        changed();
+        drain();
+    }
+
+    /**
+     * Keeps a mutation at the head of the queue and schedules a new attempt with exponential backoff.
+     */
+    private void retryLater(Mutation mutation) {
+        if (!pending.contains(mutation))
+            return;
+        mutation.attempts++;
+        retries.incrementAndGet();
+        persistUpdate(mutation);
+
+        offline = true;
+        for (Mutation waiting : pending)
+            notifyQueued(waiting);
+
+        long delay = Math.min(MAX_BACKOFF_MS, BASE_BACKOFF_MS << Math.min(mutation.attempts - 1, 10));
+        delay += random.nextInt((int) (delay / 5) + 1);
+        backoffScheduled = true;
+        mainHandler.postDelayed(retryRunnable, delay);
+        Log.i(TAG, "Retrying " + mutation.kind + " in " + delay + " ms (attempt " + mutation.attempts + ")");
+    }
+
+    /**
+     * Skips the current backoff wait, e.g. when the device goes back online or the user logged in again.
+     */
+    void retryNow() {
+        if (!backoffScheduled)
+            return;
+        mainHandler.removeCallbacks(retryRunnable);
+        backoffScheduled = false;
+        drain();
+    }
+
+    /**
+     * Tells the callers of a mutation that it was saved but not sent yet. Done once per mutation.
+     */
+    private void notifyQueued(Mutation mutation) {
+        if (mutation.queuedNotified)
+            return;
+        mutation.queuedNotified = true;
+        for (ResultListener listener : mutation.listeners)
+            reportQueued(listener);
+    }
+
+    private void addListener(Mutation mutation, ResultListener listener) {
+        if (listener == null)
+            return;
+        mutation.listeners.add(listener);
+        if (mutation.queuedNotified || offline) {
+            mutation.queuedNotified = true;
+            reportQueued(listener);
+        }
+    }
+
+    private static void reportQueued(ResultListener listener) {
+        if (listener instanceof OptimisticListener)
+            ((OptimisticListener) listener).onQueued(QUEUED_MESSAGE);
+        else
+            listener.onSuccess(QUEUED_MESSAGE);
+    }
+
+    /**
+     * Merges a new mutation into the last queued one on the same entity.
+     *
+     * @return true if merged, false if the new mutation has to be queued on its own.
+     */
+    private boolean coalesce(Mutation tail, Kind kind, String json) {
+        if (tail.kind == kind) {
+            switch (kind) {
+                case SERVICE_STATUS:
+                case REQUEST_DECISION:
+                case UPDATE_ROLE:
+                    tail.setPayload(json);
+                    return true;
+                case UPDATE_REQUEST: {
+                    JsonObject older = gson.fromJson(tail.payload, JsonObject.class);
+                    JsonObject newer = gson.fromJson(json, JsonObject.class);
+                    JsonObject body = older.getAsJsonObject("body");
+                    for (Map.Entry<String, JsonElement> field : newer.getAsJsonObject("body").entrySet())
+                        body.add(field.getKey(), field.getValue());
+                    tail.setPayload(older.toString());
+                    return true;
+                }
+                default:
+                    return false;
+            }
+        }
+        // Removing an entity makes any queued edit of it pointless
+        if ((tail.kind == Kind.UPDATE_REQUEST && kind == Kind.REMOVE_REQUEST)
+                || (tail.kind == Kind.UPDATE_ROLE && kind == Kind.REMOVE_ROLE)) {
+            tail.kind = kind;
+            tail.setPayload(json);
+            return true;
+        }
+        return false;
+    }
+
+    private void restore(List<LocalStore.MutationRow> rows) {
+        List<Mutation> restored = new ArrayList<>();
+        for (LocalStore.MutationRow row : rows) {
+            Kind kind;
+            try {
+                kind = Kind.valueOf(row.kind);
+            } catch (IllegalArgumentException e) {
+                diskExecutor.execute(() -> store.deleteMutation(row.id));
+                continue;
+            }
+            Mutation mutation = new Mutation(kind, row.entityKey, row.payload, row.enqueuedAt, row.attempts);
+            mutation.id = row.id;
+            mutation.queuedNotified = true;
+            restored.add(mutation);
+        }
+        if (restored.isEmpty())
+            return;
+
+        // Mutations restored from disk go before anything queued since startup
+        List<Mutation> newer = new ArrayList<>(pending);
+        pending.clear();
+        pending.addAll(restored);
+        pending.addAll(newer);
+        depth = pending.size();
+        Log.i(TAG, "Restored " + restored.size() + " pending mutation(s)");
+        changed();
+        drain();
+    }
+
+    private void changed() {
+        if (onChange != null)
+            onChange.run();
+    }
+
+    /* -------------------------------------------------------------------------------------------
+     *                                        PERSISTENCE
+     * ------------------------------------------------------------------------------------------- */
+
+    private void persistInsert(Mutation mutation) {
+        if (store == null)
+            return;
+        String kind = mutation.kind.name();
+        String payload = mutation.payload;
+        diskExecutor.execute(() -> mutation.id = store.insertMutation(kind, mutation.entityKey, payload, mutation.enqueuedAt));
+    }
+
+    private void persistUpdate(Mutation mutation) {
+        if (store == null)
+            return;
+        String kind = mutation.kind.name();
+        String payload = mutation.payload;
+        int attempts = mutation.attempts;
+        diskExecutor.execute(() -> store.updateMutation(mutation.id, kind, payload, attempts));
+    }
+
+    private void persistDelete(Mutation mutation) {
+        if (store == null)
+            return;
+        diskExecutor.execute(() -> store.deleteMutation(mutation.id));
+    }
+
+    /* -------------------------------------------------------------------------------------------
+     *                                        LOCAL APPLY
+     * ------------------------------------------------------------------------------------------- */
+
+    /**
+     * Applies the pending mutations to one row.
+     *
+     * @return The row, a patched copy, or null if a pending mutation removes it.
+     */
+    private Object patch(Object row, boolean ownRoles, List<Mutation> active) {
+        if (row instanceof ApiModels.RequestResponse)
+            return patchRequest((ApiModels.RequestResponse) row, active);
+        if (row instanceof ApiModels.ServiceResponse)
+            return patchService((ApiModels.ServiceResponse) row, active);
+        if (ownRoles && row instanceof ApiModels.ServiceProviderResponse)
+            return patchRole((ApiModels.ServiceProviderResponse) row, active);
+        return row;
+    }
+
+    private ApiModels.RequestResponse patchRequest(ApiModels.RequestResponse row, List<Mutation> active) {
+        String key = "request:" + row.id;
+        ApiModels.RequestResponse result = row;
+        for (Mutation mutation : active) {
+            if (!mutation.entityKey.equals(key))
+                continue;
+            switch (mutation.kind) {
+                case REMOVE_REQUEST:
+                    return null;
+                case UPDATE_REQUEST: {
+                    Map<String, Object> body = mutation.parsed(gson, RequestUpdate.class).body;
+                    result = result == row ? copy(row) : result;
+                    if (body.containsKey("service_title")) result.title = String.valueOf(body.get("service_title"));
+                    if (body.containsKey("service_type")) result.type = String.valueOf(body.get("service_type"));
+                    if (body.containsKey("service_description")) result.description = String.valueOf(body.get("service_description"));
+                    if (body.containsKey("service_location")) result.location = String.valueOf(body.get("service_location"));
+                    if (body.containsKey("service_deadline")) result.deadline = String.valueOf(body.get("service_deadline"));
+                    if (body.get("service_price") instanceof Number) result.price = ((Number) body.get("service_price")).doubleValue();
+                    break;
+                }
+                case REQUEST_DECISION: {
+                    boolean accept = mutation.parsed(gson, ApiModels.RequestDecision.class).accept;
+                    result = result == row ? copy(row) : result;
+                    result.status = accept ? "accepted" : "pending";
+                    result.isAccepted = accept;
+                    result.requestedProviderID = accept && appContext != null ? SharedPrefHelper.getUserId(appContext) : null;
+                    break;
+                }
+                default:
+                    break;
+            }
+        }
+        return result;
+    }
+
+    private ApiModels.ServiceResponse patchService(ApiModels.ServiceResponse row, List<Mutation> active) {
+        String key = "service:" + row.id;
+        ApiModels.ServiceResponse result = row;
+        for (Mutation mutation : active) {
+            if (mutation.kind == Kind.SERVICE_STATUS && mutation.entityKey.equals(key)) {
+                result = result == row ? copy(row) : result;
+                result.status = mutation.parsed(gson, ApiModels.ServiceStatusUpdateRequest.class).status;
+            }
+        }
+        return result;
+    }
+
+    private ApiModels.ServiceProviderResponse patchRole(ApiModels.ServiceProviderResponse row, List<Mutation> active) {
+        String key = roleKey(row.role);
+        ApiModels.ServiceProviderResponse result = row;
+        for (Mutation mutation : active) {
+            if (!mutation.entityKey.equals(key))
+                continue;
+            if (mutation.kind == Kind.REMOVE_ROLE)
+                return null;
+            if (mutation.kind == Kind.UPDATE_ROLE) {
+                ApiModels.UpdateProviderRoleRequest update = mutation.parsed(gson, ApiModels.UpdateProviderRoleRequest.class);
+                result = result == row ? copy(row) : result;
+                if (update.location != null) result.location = update.location;
+                if (update.description != null) result.description = update.description;
+                result.pricePerHour = update.pricePerHour;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Adds roles that are queued for creation and not yet returned by the backend.
+     *
+     * @return true if a role was added.
+     */
+    private boolean appendAddedRoles(List<Object> roles, List<Mutation> active) {
+        boolean added = false;
+        for (Mutation mutation : active) {
+            if (mutation.kind != Kind.ADD_ROLE)
+                continue;
+            ApiModels.ProviderRoleRequest request = mutation.parsed(gson, ApiModels.ProviderRoleRequest.class);
+            boolean present = false;
+            for (Object row : roles) {
+                if (row instanceof ApiModels.ServiceProviderResponse
+                        && roleKey(((ApiModels.ServiceProviderResponse) row).role).equals(mutation.entityKey))
+                    present = true;
+            }
+            if (present)
+                continue;
+
+            ApiModels.ServiceProviderResponse role = new ApiModels.ServiceProviderResponse();
+            role.id = appContext != null ? SharedPrefHelper.getUserId(appContext) : -1;
+            role.role = request.role;
+            role.location = request.location;
+            role.description = request.description;
+            role.pricePerHour = request.pricePerHour != null ? request.pricePerHour : 0;
+            roles.add(role);
+            added = true;
+        }
+        return added;
+    }
+
+    /**
+     * Entity key of a request to create. Unique, so creations are never coalesced; it also
+     * carries the idempotency key the request is sent with.
+     *
+     * @return Key used by {@link Kind#ADD_REQUEST}.
+     */
+    static String newRequestKey() {
+        return NEW_REQUEST_PREFIX + UUID.randomUUID();
+    }
+
+    /**
+     * @param entityKey Entity key of an {@link Kind#ADD_REQUEST}.
+     * @return Idempotency key sent with it.
+     */
+    private static String idempotencyKey(String entityKey) {
+        return entityKey.startsWith(NEW_REQUEST_PREFIX) ? entityKey.substring(NEW_REQUEST_PREFIX.length()) : entityKey;
+    }
+
+    /**
+     * Entity key of one of the current user's provider roles.
+     *
+     * @param role Role name.
+     * @return Key used by role mutations.
+     */
+    static String roleKey(String role) {
+        return "role:" + (role == null ? "" : role.toLowerCase());
+    }
+
+    private static ApiModels.RequestResponse copy(ApiModels.RequestResponse row) {
+        ApiModels.RequestResponse copy = new ApiModels.RequestResponse();
+        copy.id = row.id;
+        copy.title = row.title;
+        copy.type = row.type;
+        copy.description = row.description;
+        copy.location = row.location;
+        copy.deadline = row.deadline;
+        copy.price = row.price;
+        copy.status = row.status;
+        copy.isAccepted = row.isAccepted;
+        copy.clientID = row.clientID;
+        copy.requestedProviderID = row.requestedProviderID;
+        copy.distanceKm = row.distanceKm;
+        return copy;
+    }
+
+    private static ApiModels.ServiceResponse copy(ApiModels.ServiceResponse row) {
+        ApiModels.ServiceResponse copy = new ApiModels.ServiceResponse();
+        copy.id = row.id;
+        copy.title = row.title;
+        copy.type = row.type;
+        copy.description = row.description;
+        copy.location = row.location;
+        copy.deadline = row.deadline;
+        copy.price = row.price;
+        copy.status = row.status;
+        copy.provider = row.provider;
+        copy.client = row.client;
+        copy.distanceKm = row.distanceKm;
+        return copy;
+    }
+
+    private static ApiModels.ServiceProviderResponse copy(ApiModels.ServiceProviderResponse row) {
+        ApiModels.ServiceProviderResponse copy = new ApiModels.ServiceProviderResponse();
+        copy.id = row.id;
+        copy.name = row.name;
+        copy.role = row.role;
+        copy.location = row.location;
+        copy.description = row.description;
+        copy.rating = row.rating;
+        copy.pricePerHour = row.pricePerHour;
+        copy.distanceKm = row.distanceKm;
+        return copy;
+    }
+
+    /**
+     * A queued mutation.
+     */
+    private static class Mutation {
+        volatile long id = -1;
+        Kind kind;
+        final String entityKey;
+        String payload;
+        final long enqueuedAt;
+        int attempts;
+        boolean queuedNotified;
+        long confirmedAt;
+        final List<ResultListener> listeners = new ArrayList<>();
+        private Object parsed;
+
+        Mutation(Kind kind, String entityKey, String payload, long enqueuedAt, int attempts) {
+            this.kind = kind;
+            this.entityKey = entityKey;
+            this.payload = payload;
+            this.enqueuedAt = enqueuedAt;
+            this.attempts = attempts;
+        }
+
+        void setPayload(String payload) {
+            this.payload = payload;
+            this.parsed = null;
+        }
+
+        /**
+         * Returns the payload as an object, parsing it only once.
+         */
+        @SuppressWarnings("unchecked")
+        <P> P parsed(Gson gson, Class<P> type) {
+            if (!type.isInstance(parsed))
+                parsed = gson.fromJson(payload, type);
+            return (P) parsed;
+        }
+    }
+
+    /**
+     * Queue counters: pending depth, outcomes and how long mutations took to reach the backend.
+     */
+    public static class Stats {
+        public final int depth;
+        public final long sent;
+        public final long rejected;
+        public final long retries;
+        public final long coalesced;
+        public final long lastDrainLatencyMs;
+        public final long maxDrainLatencyMs;
+        public final long averageDrainLatencyMs;
+
+        Stats(int depth, long sent, long rejected, long retries, long coalesced,
+              long lastDrainLatencyMs, long maxDrainLatencyMs, long averageDrainLatencyMs) {
+            this.depth = depth;
+            this.sent = sent;
+            this.rejected = rejected;
+            this.retries = retries;
+            this.coalesced = coalesced;
+            this.lastDrainLatencyMs = lastDrainLatencyMs;
+            this.maxDrainLatencyMs = maxDrainLatencyMs;
+            this.averageDrainLatencyMs = averageDrainLatencyMs;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return "depth=" + depth + ", sent=" + sent + ", rejected=" + rejected + ", retries=" + retries
+                    + ", coalesced=" + coalesced + ", drain latency last/avg/max=" + lastDrainLatencyMs
+                    + "/" + averageDrainLatencyMs + "/" + maxDrainLatencyMs + " ms";
+        }
+    }
+}
@@ -0,0 +1,365 @@
+package gabrielLopes.project2425.DevPackage.QuickFixApp.ServerInterfacePackage;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.ResponseBody;
+import retrofit2.Converter;
+import retrofit2.Retrofit;
+
+/**
+ * Where the time of every {@link ApiInterface} call goes, per endpoint.
+ * <p>
+ * An OkHttp {@link EventListener} times the phases of each call: DNS lookup, TCP connect, TLS
+ * handshake, time to first byte (from the end of the request to the response headers, i.e. the
+ * backend: cold start, geocoding...), body download and the whole call. A Retrofit converter
+ * wrapper times the Gson conversion. Because Gson reads the body as it parses, the parse time of a
+ * response that is not cached includes reading the rest of it from the network.
+ * <p>
+ * Phases that did not happen (e.g. no DNS lookup on a reused connection) are not recorded.
+ * Each endpoint keeps the last {@link #SAMPLES_PER_METRIC} values of every metric, so memory stays
+ * bounded and percentiles describe recent behavior.
+ */
+public class NetworkTimings {
+
+    /** Values kept per endpoint and metric. */
+    public static final int SAMPLES_PER_METRIC = 256;
+
+    /**
+     * What is measured. Durations are in milliseconds, sizes in bytes.
+     * FIRST_ROW and LAST_ROW are the time from sending a streamed list request to its first and
+     * last row being parsed (see {@link ListStream}).
+     */
+    public enum Metric {
+        DNS, CONNECT, TLS, TTFB, DOWNLOAD, PARSE, TOTAL, RESPONSE_BYTES, FIRST_ROW, LAST_ROW
+    }
+
+    private final Map<String, EndpointTimings> endpoints = new ConcurrentHashMap<>();
+
+    /**
+     * @return Factory creating a listener for every call. Install it on the base OkHttp client.
+     */
+    public EventListener.Factory eventListenerFactory() {
+        return call -> new CallTimer(HttpCacheHandler.endpointName(call.request()));
+    }
+
+    /**
+     * @param apiClass Retrofit interface, used to name the endpoint of each conversion.
+     * @return Converter factory timing the converter that follows it. Add it before the Gson factory.
+     */
+    public Converter.Factory converterFactory(Class<?> apiClass) {
+        return new TimedConverterFactory(apiClass);
+    }
+
+    /**
+     * @return Snapshot of the timings of every endpoint seen so far.
+     */
+    public Map<String, EndpointTimings> getTimings() {
+        return new HashMap<>(endpoints);
+    }
+
+    /**
+     * Drops every recorded value.
+     */
+    public void clear() {
+        endpoints.clear();
+    }
+
+    /**
+     * Writes a summary and the raw values of every endpoint as JSON, for offline analysis.
+     * Does disk I/O: do not call from the main thread.
+     *
+     * @param file Destination file, replaced if it exists.
+     * @throws IOException If the file cannot be written.
+     */
+    public void export(File file) throws IOException {
+        try (Writer out = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8);
+             JsonWriter json = new JsonWriter(out)) {
+            json.setIndent("  ");
+            json.beginObject();
+            json.name("exportedAt").value(System.currentTimeMillis());
+            json.name("endpoints").beginObject();
+            for (Map.Entry<String, EndpointTimings> endpoint : new TreeMap<>(endpoints).entrySet()) {
+                json.name(endpoint.getKey()).beginObject();
+                for (Metric metric : Metric.values()) {
+                    long[] values = endpoint.getValue().values(metric);
+                    if (values.length == 0)
+                        continue;
+                    long[] sorted = values.clone();
+                    Arrays.sort(sorted);
+                    json.name(metric.name()).beginObject();
+                    json.name("count").value(endpoint.getValue().count(metric));
+                    json.name("p50").value(percentile(sorted, 50));
+                    json.name("p90").value(percentile(sorted, 90));
+                    json.name("p99").value(percentile(sorted, 99));
+                    json.name("max").value(sorted[sorted.length - 1]);
+                    json.name("samples").beginArray();
+                    for (long value : values)
+                        json.value(value);
+                    json.endArray();
+                    json.endObject();
+                }
+                json.endObject();
+            }
+            json.endObject();
+            json.endObject();
+        }
+    }
+
+    /**
+     * Adds a value to the metric of an endpoint.
+     */
+    void record(String endpoint, Metric metric, long value) {
+        EndpointTimings timings = endpoints.get(endpoint);
+        if (timings == null) {
+            endpoints.putIfAbsent(endpoint, new EndpointTimings());
+            timings = endpoints.get(endpoint);
+        }
+        timings.record(metric, value);
+    }
+
+    private static long percentile(long[] sorted, int percent) {
+        int index = (int) Math.ceil(percent / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    private static long millisSince(long startNs) {
+        return (System.nanoTime() - startNs) / 1_000_000;
+    }
+
+    /**
+     * Last values of every metric of one endpoint.
+     */
+    public static class EndpointTimings {
+        private final Map<Metric, Samples> samples = new EnumMap<>(Metric.class);
+
+        EndpointTimings() {
+            for (Metric metric : Metric.values())
+                samples.put(metric, new Samples());
+        }
+
+        void record(Metric metric, long value) {
+            samples.get(metric).add(value);
+        }
+
+        /**
+         * @return Number of values recorded since the start, including those no longer kept.
+         */
+        public long count(Metric metric) {
+            return samples.get(metric).count();
+        }
+
+        /**
+         * @return Values kept, oldest first.
+         */
+        public long[] values(Metric metric) {
+            return samples.get(metric).values();
+        }
+
+        /**
+         * @param percent Percentile, from 1 to 100.
+         * @return The percentile of the values kept, or 0 if there are none.
+         */
+        public long percentile(Metric metric, int percent) {
+            long[] values = values(metric);
+            if (values.length == 0)
+                return 0;
+            Arrays.sort(values);
+            return NetworkTimings.percentile(values, percent);
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder();
+            for (Metric metric : Metric.values()) {
+                if (count(metric) == 0)
+                    continue;
+                if (text.length() > 0)
+                    text.append(", ");
+                text.append(metric.name().toLowerCase()).append(" p50=").append(percentile(metric, 50))
+                        .append(" p90=").append(percentile(metric, 90));
+            }
+            return text.toString();
+        }
+    }
+
+    /**
+     * Ring buffer of the last values of a metric.
+     */
+    private static class Samples {
+        private final long[] ring = new long[SAMPLES_PER_METRIC];
+        private long count;
+
+        synchronized void add(long value) {
+            ring[(int) (count % ring.length)] = value;
+            count++;
+        }
+
+        synchronized long count() {
+            return count;
+        }
+
+        synchronized long[] values() {
+            int size = (int) Math.min(count, ring.length);
+            long[] values = new long[size];
+            int start = count > ring.length ? (int) (count % ring.length) : 0;
+            for (int i = 0; i < size; i++)
+                values[i] = ring[(start + i) % ring.length];
+            return values;
+        }
+    }
+
+    /**
+     * Times the phases of one call. OkHttp reports the events of a call one after the other.
+     */
+    private class CallTimer extends EventListener {
+        private final String endpoint;
+        private long callStart;
+        private long dnsStart;
+        private long connectStart;
+        private long secureConnectStart;
+        private long requestEnd;
+        private long responseBodyStart;
+
+        CallTimer(String endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        @Override
+        public void callStart(@NonNull Call call) {
+            callStart = System.nanoTime();
+        }
+
+        @Override
+        public void dnsStart(@NonNull Call call, @NonNull String domainName) {
+            dnsStart = System.nanoTime();
+        }
+
+        @Override
+        public void dnsEnd(@NonNull Call call, @NonNull String domainName, @NonNull List<InetAddress> inetAddressList) {
+            record(endpoint, Metric.DNS, millisSince(dnsStart));
+        }
+
+        @Override
+        public void connectStart(@NonNull Call call, @NonNull InetSocketAddress inetSocketAddress, @NonNull Proxy proxy) {
+            connectStart = System.nanoTime();
+        }
+
+        @Override
+        public void secureConnectStart(@NonNull Call call) {
+            secureConnectStart = System.nanoTime();
+        }
+
+        @Override
+        public void secureConnectEnd(@NonNull Call call, @Nullable Handshake handshake) {
+            record(endpoint, Metric.TLS, millisSince(secureConnectStart));
+        }
+
+        @Override
+        public void connectEnd(@NonNull Call call, @NonNull InetSocketAddress inetSocketAddress,
+                               @NonNull Proxy proxy, @Nullable Protocol protocol) {
+            record(endpoint, Metric.CONNECT, millisSince(connectStart));
+        }
+
+        @Override
+        public void requestHeadersEnd(@NonNull Call call, @NonNull Request request) {
+            requestEnd = System.nanoTime();
+        }
+
+        @Override
+        public void requestBodyEnd(@NonNull Call call, long byteCount) {
+            requestEnd = System.nanoTime();
+        }
+
+        @Override
+        public void responseHeadersStart(@NonNull Call call) {
+            if (requestEnd != 0)
+                record(endpoint, Metric.TTFB, millisSince(requestEnd));
+        }
+
+        @Override
+        public void responseBodyStart(@NonNull Call call) {
+            responseBodyStart = System.nanoTime();
+        }
+
+        @Override
+        public void responseBodyEnd(@NonNull Call call, long byteCount) {
+            record(endpoint, Metric.DOWNLOAD, millisSince(responseBodyStart));
+            record(endpoint, Metric.RESPONSE_BYTES, byteCount);
+        }
+
+        @Override
+        public void callEnd(@NonNull Call call) {
+            record(endpoint, Metric.TOTAL, millisSince(callStart));
+        }
+    }
+
+    /**
+     * Times the response converter of every {@link ApiInterface} method.
+     * <p>
+     * Retrofit does not tell which method a converter is for; the method is found from the
+     * response type and the method annotations, which are unique per method.
+     */
+    private class TimedConverterFactory extends Converter.Factory {
+        private final Map<List<Object>, String> methodNames = new HashMap<>();
+
+        TimedConverterFactory(Class<?> apiClass) {
+            for (Method method : apiClass.getMethods()) {
+                Type returnType = method.getGenericReturnType();
+                if (returnType instanceof ParameterizedType)
+                    methodNames.put(methodKey(((ParameterizedType) returnType).getActualTypeArguments()[0],
+                            method.getAnnotations()), method.getName());
+            }
+        }
+
+        @Override
+        public Converter<ResponseBody, ?> responseBodyConverter(@NonNull Type type, @NonNull Annotation[] annotations,
+                                                                @NonNull Retrofit retrofit) {
+            Converter<ResponseBody, ?> delegate = retrofit.nextResponseBodyConverter(this, type, annotations);
+            String endpoint = methodNames.get(methodKey(type, annotations));
+            if (endpoint == null)
+                return delegate;
+            return body -> {
+                long start = System.nanoTime();
+                try {
+                    return delegate.convert(body);
+                } finally {
+                    record(endpoint, Metric.PARSE, millisSince(start));
+                }
+            };
+        }
+
+        private List<Object> methodKey(Type type, Annotation[] annotations) {
+            return Arrays.asList(type, Arrays.asList(annotations));
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package gabrielLopes.project2425.DevPackage.QuickFixApp.ServerInterfacePackage;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.google.gson.Gson;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Invocation;
+import retrofit2.Response;
+
+/**
+ * Serves GET results from the {@link LocalStore} first and reconciles them with the backend
+ * in the background.
+ * <p>
+ * For every call:
+ * <ul>
+ *     <li>If a stored copy exists, the callback receives it right away.</li>
+ *     <li>If that copy is still fresh for its entity type, no request is sent.</li>
+ *     <li>Otherwise the request is sent. Its result is stored, and delivered again only if it
+ *     differs from the stored copy.</li>
+ *     <li>When the stored copy was shown, network failures and server errors are not reported,
+ *     so the screen keeps working offline. A 404 removes the stored copy and is reported.</li>
+ * </ul>
+ * Without a context (before {@link #attach(Context)}) calls go straight to the network.
+ * <p>
+ * Every delivered body first goes through the overlay, if any, so changes not yet confirmed
+ * by the backend (see {@link MutationQueue}) are visible. The store keeps the backend data.
+ */
+public class OfflineFirstLoader {
+
+    private static final String TAG = "OfflineFirstLoader";
+
+    private final SingleFlight singleFlight;
+    private final Gson gson = ApiGson.get();
+    private final ExecutorService diskExecutor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private volatile LocalStore store;
+    private Overlay overlay;
+
+    /**
+     * Patches a body before it is delivered.
+     */
+    public interface Overlay {
+        /**
+         * @param key       Key of the call that produced the body.
+         * @param body      Body read from the store or the network.
+         * @param fetchedAt Wall-clock time the body was requested from the backend
+         *                  (0 for a stored copy marked stale).
+         * @param <T>       Body type.
+         * @return The body to deliver.
+         */
+        <T> T apply(String key, T body, long fetchedAt);
+    }
+
+    /**
+     * @param singleFlight Coalescing layer used for the network part of each call.
+     */
+    public OfflineFirstLoader(SingleFlight singleFlight) {
+        this.singleFlight = singleFlight;
+    }
+
+    /**
+     * Opens the local store. Until this is called every call goes to the network.
+     *
+     * @param context Any context.
+     */
+    public void attach(Context context) {
+        if (store == null)
+            store = LocalStore.getInstance(context);
+    }
+
+    /**
+     * Sets the overlay applied to every delivered body. Must be called from the main thread.
+     *
+     * @param overlay Overlay, or null for none.
+     */
+    public void setOverlay(Overlay overlay) {
+        this.overlay = overlay;
+    }
+
+    /**
+     * Loads a GET call disk-first.
+     *
+     * @param type     Entity type of the result, which decides its freshness time.
+     * @param key      Identifies the call (method name and arguments); also the storage key.
+     * @param call     Call to execute when the stored copy is missing or stale.
+     * @param callback Callback that receives the stored copy and/or the network result.
+     * @param <T>      Response body type.
+     * @return Handle to cancel the call (see {@link RequestScope}).
+     */
+    public <T> ApiCall enqueue(LocalStore.EntityType type, String key, Call<T> call, Callback<T> callback) {
+        LocalStore localStore = store;
+        Type bodyType = localStore != null ? bodyType(call) : null;
+        if (bodyType == null)
+            return singleFlight.enqueue(key, call, new Reconciler<>(null, type, key, null, null, callback));
+
+        OfflineCall handle = new OfflineCall();
+        diskExecutor.execute(() -> {
+            LocalStore.Entry entry = null;
+            T cached = null;
+            try {
+                entry = localStore.get(key);
+                if (entry != null)
+                    cached = gson.fromJson(entry.json, bodyType);
+            } catch (RuntimeException e) {
+                // unreadable entry: behave as if nothing was stored
+                Log.w(TAG, "Could not read " + key, e);
+                entry = null;
+            }
+
+            final LocalStore.Entry storedEntry = cached != null ? entry : null;
+            final T storedBody = cached;
+            mainHandler.post(() -> {
+                if (handle.canceled)
+                    return;
+                if (storedEntry != null) {
+                    callback.onResponse(call, Response.success(overlay(key, storedBody, storedEntry.fetchedAt)));
+                    if (handle.canceled)
+                        return;
+                    if (storedEntry.isFresh()) {
+                        handle.finished = true;
+                        return;
+                    }
+                }
+                handle.network = singleFlight.enqueue(key, call,
+                        new Reconciler<>(localStore, type, key, storedEntry != null ? storedEntry.json : null, handle, callback));
+            });
+        });
+        return handle;
+    }
+
+    /**
+     * Marks everything stored as stale, keeping it for offline use. Called after mutations.
+     */
+    public void markAllStale() {
+        LocalStore localStore = store;
+        if (localStore != null)
+            diskExecutor.execute(localStore::markAllStale);
+    }
+
+    /**
+     * Deletes the stored copy of one call, so the next load goes to the network.
+     *
+     * @param key Key of the call.
+     */
+    public void remove(String key) {
+        LocalStore localStore = store;
+        if (localStore != null)
+            diskExecutor.execute(() -> localStore.remove(key));
+    }
+
+    /**
+     * Deletes everything stored. Called on logout.
+     */
+    public void clear() {
+        LocalStore localStore = store;
+        if (localStore != null)
+            diskExecutor.execute(localStore::clear);
+    }
+
+    /**
+     * Returns the body type of a Retrofit call, read from its ApiInterface method signature.
+     *
+     * @return Body type, or null if it cannot be determined (the call is then not stored).
+     */
+    private static Type bodyType(Call<?> call) {
+        Invocation invocation = call.request().tag(Invocation.class);
+        if (invocation == null)
+            return null;
+        Type returnType = invocation.method().getGenericReturnType();
+        if (!(returnType instanceof ParameterizedType))
+            return null;
+        return ((ParameterizedType) returnType).getActualTypeArguments()[0];
+    }
+
+    /**
+     * Applies the overlay to a body.
+     */
+    private <T> T overlay(String key, T body, long fetchedAt) {
+        Overlay current = overlay;
+        return current != null ? current.apply(key, body, fetchedAt) : body;
+    }
+
+    /**
+     * Handles the network result of a call whose stored copy was missing or stale.
+     * Without a store (calls made before {@link #attach(Context)}) it only applies the overlay.
+     */
+    private class Reconciler<T> implements Callback<T> {
+        private final LocalStore localStore;
+        private final LocalStore.EntityType type;
+        private final String key;
+        private final String storedJson;
+        private final OfflineCall handle;
+        private final Callback<T> callback;
+
+        Reconciler(LocalStore localStore, LocalStore.EntityType type, String key, String storedJson,
+                   OfflineCall handle, Callback<T> callback) {
+            this.localStore = localStore;
+            this.type = type;
+            this.key = key;
+            this.storedJson = storedJson;
+            this.handle = handle;
+            this.callback = callback;
+        }
+
+        private Response<T> withOverlay(Response<T> response) {
+            T body = response.body();
+            T applied = overlay(key, body, response.raw().sentRequestAtMillis());
+            return applied == body ? response : Response.success(applied, response.raw());
+        }
+
+        @Override
+        public void onResponse(@NonNull Call<T> call, @NonNull Response<T> response) {
+            if (response.isSuccessful() && response.body() != null) {
+                T body = response.body();
+                if (storedJson == null) {
+                    if (handle != null)
+                        handle.finished = true;
+                    callback.onResponse(call, withOverlay(response));
+                }
+                if (localStore == null)
+                    return;
+                diskExecutor.execute(() -> {
+                    String json = gson.toJson(body);
+                    localStore.put(key, type, json);
+                    if (storedJson != null) {
+                        boolean changed = !json.equals(storedJson);
+                        mainHandler.post(() -> {
+                            handle.finished = true;
+                            if (changed && !handle.canceled)
+                                callback.onResponse(call, withOverlay(response));
+                        });
+                    }
+                });
+                return;
+            }
+
+            if (response.code() == 404 && localStore != null)
+                diskExecutor.execute(() -> localStore.remove(key));
+
+            if (handle != null)
+                handle.finished = true;
+            if (storedJson == null || response.code() < 500)
+                callback.onResponse(call, response);
+        }
+
+        @Override
+        public void onFailure(@NonNull Call<T> call, @NonNull Throwable t) {
+            if (handle != null)
+                handle.finished = true;
+            if (storedJson == null)
+                callback.onFailure(call, t);
+            else
+                Log.i(TAG, "Offline, keeping stored copy of " + key);
+        }
+    }
+
+    /**
+     * Handle covering both the disk read and the network call.
+     */
+    private static class OfflineCall implements ApiCall {
+        volatile boolean canceled;
+        volatile boolean finished;
+        volatile ApiCall network;
+
+        @Override
+        public void cancel() {
+            if (canceled || finished)
+                return;
+            canceled = true;
+            ApiCall current = network;
+            if (current != null)
+                current.cancel();
+        }
+
+        @Override
+        public boolean isCanceled() {
+            return canceled;
+        }
+
+        @Override
+        public boolean isActive() {
+            return !canceled && !finished;
+        }
+    }
+}
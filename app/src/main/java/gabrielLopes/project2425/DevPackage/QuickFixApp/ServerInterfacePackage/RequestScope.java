@@ -0,0 +1,131 @@
+package gabrielLopes.project2425.DevPackage.QuickFixApp.ServerInterfacePackage;
+
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleEventObserver;
+import androidx.lifecycle.LifecycleOwner;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Groups the API calls started by a screen so they can be cancelled together.
+ * <p>
+ * A scope bound to an Activity cancels everything it tracks when the Activity is destroyed.
+ * Calls can also be tracked under a named slot (e.g. "list"): starting a new call in the same
+ * slot cancels the previous one, so an older response can never overwrite a newer one.
+ * <p>
+ * Must be used from the main thread.
+ */
+public class RequestScope {
+
+    private static final Map<LifecycleOwner, RequestScope> scopes = new WeakHashMap<>();
+
+    private final Map<String, ApiCall> slots = new HashMap<>();
+    private final List<ApiCall> calls = new ArrayList<>();
+    private boolean closed;
+
+    /**
+     * Creates a standalone scope (scope token) that is cancelled manually with {@link #cancelAll()}.
+     */
+    public RequestScope() {
+    }
+
+    /**
+     * Returns the scope bound to a lifecycle owner (usually an Activity), creating it on first use.
+     * The scope cancels all of its calls when the owner is destroyed.
+     *
+     * @param owner Activity or other lifecycle owner.
+     * @return The owner's scope.
+     */
+    public static RequestScope of(LifecycleOwner owner) {
+        RequestScope scope = scopes.get(owner);
+        if (scope != null)
+            return scope;
+
+        RequestScope newScope = new RequestScope();
+        if (owner.getLifecycle().getCurrentState() == Lifecycle.State.DESTROYED) {
+            newScope.closed = true;
+            return newScope;
+        }
+
+        scopes.put(owner, newScope);
+        owner.getLifecycle().addObserver((LifecycleEventObserver) (source, event) -> {
+            if (event == Lifecycle.Event.ON_DESTROY) {
+                scopes.remove(source);
+                newScope.cancelAll();
+                newScope.closed = true;
+            }
+        });
+        return newScope;
+    }
+
+    /**
+     * Tracks a call so it is cancelled with the scope.
+     *
+     * @param call Call returned by ApiManager.
+     * @return The same call, for chaining.
+     */
+    public ApiCall track(ApiCall call) {
+        if (call == null)
+            return null;
+        if (closed) {
+            call.cancel();
+            return call;
+        }
+        pruneFinished();
+        calls.add(call);
+        return call;
+    }
+
+    /**
+     * Tracks a call under a slot, cancelling the call that previously occupied it.
+     * Used when a newer request supersedes an older one (e.g. reloading a list with new filters).
+     *
+     * @param slot Name of the slot.
+     * @param call Call returned by ApiManager.
+     * @return The same call, for chaining.
+     */
+    public ApiCall replace(String slot, ApiCall call) {
+        cancel(slot);
+        if (call != null && !closed)
+            slots.put(slot, call);
+        return track(call);
+    }
+
+    /**
+     * Cancels the call currently in a slot, if any.
+     *
+     * @param slot Name of the slot.
+     */
+    public void cancel(String slot) {
+        ApiCall previous = slots.remove(slot);
+        if (previous != null)
+            previous.cancel();
+    }
+
+    /**
+     * Cancels every tracked call. The scope stays usable for new calls unless it belongs
+     * to a destroyed lifecycle owner.
+     */
+    public void cancelAll() {
+        for (ApiCall call : calls)
+            call.cancel();
+        calls.clear();
+        slots.clear();
+    }
+
+    /**
+     * Drops calls whose callback already ran or that were cancelled.
+     */
+    private void pruneFinished() {
+        Iterator<ApiCall> iterator = calls.iterator();
+        while (iterator.hasNext()) {
+            if (!iterator.next().isActive())
+                iterator.remove();
+        }
+    }
+}
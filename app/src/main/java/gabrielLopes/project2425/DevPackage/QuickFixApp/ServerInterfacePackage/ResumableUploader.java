@@ -0,0 +1,320 @@
+package gabrielLopes.project2425.DevPackage.QuickFixApp.ServerInterfacePackage;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import retrofit2.Response;
+
+/**
+ * Sends profile pictures in chunks, so a dropped connection does not restart the transfer.
+ * <p>
+ * The picture is first saved to app storage and the upload session to preferences. Chunks are
+ * then sent one at a time on a background thread:
+ * <ul>
+ *     <li>A chunk that fails is retried with exponential backoff. After an error the backend is
+ *     asked how much it received, and the upload resumes from there, not from zero.</li>
+ *     <li>After too many failures the upload is paused, not dropped. It resumes when a network
+ *     appears or at the next start of the app, even if the process was killed.</li>
+ *     <li>A picture rejected by the backend (4xx) is dropped and reported.</li>
+ * </ul>
+ * Only one picture is uploaded at a time: starting a new upload abandons the previous one.
+ */
+public class ResumableUploader {
+
+    private static final String TAG = "ResumableUpload";
+    private static final String PREFS_NAME = "ResumableUpload";
+    private static final String KEY_UPLOAD_ID = "uploadId";
+    private static final String KEY_SIZE = "size";
+    private static final String KEY_RECEIVED = "received";
+    private static final String PENDING_FILE = "pending_profile_picture.jpg";
+    private static final int DEFAULT_CHUNK_SIZE = 256 * 1024;
+    private static final int MAX_ATTEMPTS = 6;
+    private static final long BASE_BACKOFF_MS = 1_000;
+    private static final long MAX_BACKOFF_MS = 30_000;
+    private static final MediaType OCTET_STREAM = MediaType.parse("application/octet-stream");
+
+    /**
+     * Receives the outcome of an upload, on the upload thread.
+     */
+    public interface Listener {
+        void onComplete(ApiModels.ProfilePictureUploadResponse response);
+        void onFailure(String errorMessage);
+    }
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final AtomicBoolean resumeScheduled = new AtomicBoolean();
+    private final Random random = new Random();
+    private final ApiInterface api;
+
+    private Context appContext;
+    private Listener resumeListener;
+    private volatile int generation;
+
+    /**
+     * Creates an uploader sending to the backend of {@link ApiManager}.
+     */
+    public ResumableUploader() {
+        this(null);
+    }
+
+    /**
+     * @param api API to send to, or null for the one of {@link ApiManager}.
+     */
+    ResumableUploader(ApiInterface api) {
+        this.api = api;
+    }
+
+    /**
+     * Upload rejected by the backend.
+     */
+    private static class RejectedException extends Exception {
+        final int code;
+
+        RejectedException(int code, String message) {
+            super(message);
+            this.code = code;
+        }
+    }
+
+    /**
+     * Resumes an upload left unfinished by a previous run, and again whenever a network appears.
+     *
+     * @param context        Any context.
+     * @param resumeListener Receives the outcome of resumed uploads.
+     */
+    public void attach(Context context, Listener resumeListener) {
+        if (appContext != null)
+            return;
+        appContext = context.getApplicationContext();
+        this.resumeListener = resumeListener;
+        resume();
+
+        ConnectivityManager connectivity = (ConnectivityManager) appContext.getSystemService(Context.CONNECTIVITY_SERVICE);
+        if (connectivity != null) {
+            connectivity.registerDefaultNetworkCallback(new ConnectivityManager.NetworkCallback() {
+                @Override
+                public void onAvailable(@NonNull Network network) {
+                    resume();
+                }
+            });
+        }
+    }
+
+    /**
+     * Saves a picture and starts uploading it, abandoning any upload in progress.
+     * Fails through the listener if {@link #attach(Context, Listener)} was not called.
+     *
+     * @param picture  Encoded picture.
+     * @param listener Receives the outcome.
+     */
+    public void start(byte[] picture, Listener listener) {
+        int upload = ++generation;
+        executor.execute(() -> {
+            if (upload != generation)
+                return;
+            if (appContext == null) {
+                listener.onFailure("Upload is not available yet");
+                return;
+            }
+            try {
+                save(picture);
+            } catch (IOException e) {
+                listener.onFailure("Failed to save picture");
+                return;
+            }
+            run(upload, listener);
+        });
+    }
+
+    /**
+     * Abandons the current upload and deletes its saved picture. Called on logout.
+     */
+    public void clear() {
+        generation++;
+        if (appContext != null)
+            executor.execute(this::discard);
+    }
+
+    /**
+     * Continues a saved upload, if any and if none is running.
+     */
+    void resume() {
+        if (appContext == null || !resumeScheduled.compareAndSet(false, true))
+            return;
+        executor.execute(() -> {
+            resumeScheduled.set(false);
+            if (prefs().getLong(KEY_SIZE, 0) > 0)
+                run(generation, resumeListener);
+        });
+    }
+
+    /**
+     * Sends the saved picture until it is stored, rejected, paused or abandoned.
+     */
+    private void run(int upload, Listener listener) {
+        SharedPreferences prefs = prefs();
+        File file = pendingFile();
+        long size = prefs.getLong(KEY_SIZE, 0);
+        if (size <= 0 || file.length() != size) {
+            discard();
+            return;
+        }
+
+        ApiInterface api = this.api != null ? this.api : ApiManager.getApiService();
+        String uploadId = prefs.getString(KEY_UPLOAD_ID, null);
+        // Unknown until the backend tells, for a resumed upload or after a failed chunk
+        long received = -1;
+        int chunkSize = DEFAULT_CHUNK_SIZE;
+        int attempts = 0;
+        int chunks = 0;
+        int retries = 0;
+        long startedAt = SystemClock.elapsedRealtime();
+
+        try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+            while (upload == generation) {
+                try {
+                    if (uploadId == null) {
+                        ApiModels.UploadSession session = body(api.startProfilePictureUpload(
+                                new ApiModels.UploadSessionRequest(size)).execute());
+                        uploadId = session.uploadId;
+                        chunkSize = session.chunkSize > 0 ? session.chunkSize : DEFAULT_CHUNK_SIZE;
+                        received = 0;
+                        prefs.edit().putString(KEY_UPLOAD_ID, uploadId).putLong(KEY_RECEIVED, 0).apply();
+                    } else if (received < 0) {
+                        Response<ApiModels.UploadSession> response = api.getProfilePictureUpload(uploadId).execute();
+                        if (response.code() == 404) {
+                            // Session expired on the backend: start over
+                            uploadId = null;
+                            continue;
+                        }
+                        ApiModels.UploadSession session = body(response);
+                        chunkSize = session.chunkSize > 0 ? session.chunkSize : DEFAULT_CHUNK_SIZE;
+                        received = session.received;
+                    } else if (received < size) {
+                        byte[] chunk = new byte[(int) Math.min(chunkSize, size - received)];
+                        in.seek(received);
+                        in.readFully(chunk);
+                        Response<ApiModels.UploadSession> response = api.uploadProfilePictureChunk(uploadId,
+                                received, RequestBody.create(OCTET_STREAM, chunk)).execute();
+                        if (response.code() == 404) {
+                            uploadId = null;
+                            continue;
+                        }
+                        // 409: the backend is elsewhere, e.g. it stored a chunk whose answer was lost
+                        received = response.code() == 409 ? conflictState(response) : body(response).received;
+                        chunks++;
+                        prefs.edit().putLong(KEY_RECEIVED, received).apply();
+                    } else {
+                        Response<ApiModels.ProfilePictureUploadResponse> response =
+                                api.completeProfilePictureUpload(uploadId).execute();
+                        if (response.code() == 404) {
+                            uploadId = null;
+                            continue;
+                        }
+                        if (response.code() == 409) {
+                            received = conflictState(response);
+                            continue;
+                        }
+                        ApiModels.ProfilePictureUploadResponse result = body(response);
+                        discard();
+                        Log.i(TAG, "Uploaded " + size + " B in " + chunks + " chunks, " + retries + " retries, "
+                                + (SystemClock.elapsedRealtime() - startedAt) + " ms");
+                        listener.onComplete(result);
+                        return;
+                    }
+                    attempts = 0;
+                } catch (IOException e) {
+                    if (++attempts >= MAX_ATTEMPTS) {
+                        // Keep the upload: it resumes on the next network change or app start
+                        listener.onFailure("Upload paused, it will resume when the connection is back.");
+                        return;
+                    }
+                    retries++;
+                    received = -1;
+                    SystemClock.sleep(backoffMs(attempts));
+                }
+            }
+        } catch (RejectedException e) {
+            // An expired login keeps the upload for after the next login
+            if (e.code != 401)
+                discard();
+            listener.onFailure(e.getMessage());
+        } catch (IOException e) {
+            discard();
+            listener.onFailure("Failed to read picture");
+        }
+    }
+
+    /**
+     * @return The body of a successful response.
+     * @throws IOException       On a server error, worth retrying.
+     * @throws RejectedException If the backend refused the request.
+     */
+    private static <T> T body(Response<T> response) throws IOException, RejectedException {
+        if (response.isSuccessful() && response.body() != null)
+            return response.body();
+        if (response.code() >= 500)
+            throw new IOException("Server error " + response.code());
+        throw new RejectedException(response.code(), ApiManager.getErrorMessage(response));
+    }
+
+    /**
+     * @return Bytes received according to the upload state sent with a 409.
+     */
+    private static long conflictState(Response<?> response) throws IOException {
+        if (response.errorBody() == null)
+            throw new IOException("Empty conflict response");
+        ApiModels.UploadSession session = ApiGson.get().fromJson(response.errorBody().charStream(), ApiModels.UploadSession.class);
+        if (session == null)
+            throw new IOException("Empty conflict response");
+        return session.received;
+    }
+
+    private long backoffMs(int attempts) {
+        long backoff = Math.min(MAX_BACKOFF_MS, BASE_BACKOFF_MS << (attempts - 1));
+        return backoff / 2 + (long) (random.nextDouble() * backoff / 2);
+    }
+
+    private void save(byte[] picture) throws IOException {
+        File file = pendingFile();
+        File partial = new File(file.getPath() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(partial)) {
+            out.write(picture);
+            out.getFD().sync();
+        }
+        if (!partial.renameTo(file))
+            throw new IOException("Cannot save " + file);
+        prefs().edit().clear().putLong(KEY_SIZE, picture.length).commit();
+    }
+
+    private void discard() {
+        prefs().edit().clear().commit();
+        //noinspection ResultOfMethodCallIgnored
+        pendingFile().delete();
+    }
+
+    private File pendingFile() {
+        return new File(appContext.getFilesDir(), PENDING_FILE);
+    }
+
+    private SharedPreferences prefs() {
+        return appContext.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+}
@@ -0,0 +1,201 @@
+package gabrielLopes.project2425.DevPackage.QuickFixApp.ServerInterfacePackage;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Coalesces identical API calls that are in flight at the same time.
+ * <p>
+ * The first caller for a key has its Call executed. Callers arriving with the same key
+ * before it finishes do not hit the network: their callbacks are attached to the running
+ * call and all of them receive its result.
+ * <p>
+ * Every caller gets its own {@link ApiCall} handle. Cancelling it detaches only that caller;
+ * the network call itself is cancelled once nobody is waiting for it anymore.
+ */
+public class SingleFlight {
+
+    private final Map<String, Flight> inFlight = new HashMap<>();
+    private final AtomicLong absorbed = new AtomicLong();
+
+    /**
+     * Enqueues a call unless an identical one is already running, in which case
+     * the callback joins the running call instead.
+     *
+     * @param key      Identifies the call (method name and arguments).
+     * @param call     Call to execute if no identical call is in flight. Discarded otherwise.
+     * @param callback Callback that receives the shared result.
+     * @param <T>      Response body type.
+     * @return Handle that detaches this caller when cancelled.
+     */
+    public <T> ApiCall enqueue(String key, Call<T> call, Callback<T> callback) {
+        Flight flight;
+        Subscription<T> subscription;
+        synchronized (inFlight) {
+            flight = inFlight.get(key);
+            if (flight != null) {
+                subscription = new Subscription<>(flight, callback);
+                flight.waiters.add(subscription);
+                absorbed.incrementAndGet();
+                return subscription;
+            }
+            flight = new Flight(key, call);
+            subscription = new Subscription<>(flight, callback);
+            flight.waiters.add(subscription);
+            inFlight.put(key, flight);
+        }
+
+        final Flight current = flight;
+        call.enqueue(new Callback<T>() {
+            @Override
+            public void onResponse(@NonNull Call<T> call, @NonNull Response<T> response) {
+                List<Subscription<T>> waiters = complete(current);
+                if (response.isSuccessful() || waiters.size() <= 1) {
+                    for (Subscription<T> waiter : waiters)
+                        waiter.deliver(call, response);
+                    return;
+                }
+
+                // An error body can only be read once, so every waiter gets its own copy
+                MediaType contentType = response.errorBody() != null ? response.errorBody().contentType() : null;
+                byte[] errorBytes = readErrorBody(response);
+                for (Subscription<T> waiter : waiters) {
+                    ResponseBody copy = ResponseBody.create(contentType, errorBytes);
+                    waiter.deliver(call, Response.error(copy, response.raw()));
+                }
+            }
+
+            @Override
+            public void onFailure(@NonNull Call<T> call, @NonNull Throwable t) {
+                for (Subscription<T> waiter : complete(current))
+                    waiter.fail(call, t);
+            }
+        });
+        return subscription;
+    }
+
+    /**
+     * Returns how many calls were answered by joining an identical call instead of hitting the network.
+     *
+     * @return Number of duplicate requests absorbed since startup.
+     */
+    public long getAbsorbedCount() {
+        return absorbed.get();
+    }
+
+    /**
+     * Removes a finished flight and returns the callers still waiting on it.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> List<Subscription<T>> complete(Flight flight) {
+        synchronized (inFlight) {
+            if (inFlight.get(flight.key) == flight)
+                inFlight.remove(flight.key);
+            List<Subscription<T>> result = new ArrayList<>();
+            for (Subscription<?> waiter : flight.waiters) {
+                if (!waiter.isCanceled())
+                    result.add((Subscription<T>) waiter);
+            }
+            flight.waiters.clear();
+            return result;
+        }
+    }
+
+    /**
+     * Detaches a caller, cancelling the network call if it was the last one waiting.
+     */
+    private void detach(Subscription<?> subscription) {
+        synchronized (inFlight) {
+            Flight flight = subscription.flight;
+            if (!flight.waiters.remove(subscription) || !flight.waiters.isEmpty())
+                return;
+            if (inFlight.get(flight.key) == flight)
+                inFlight.remove(flight.key);
+        }
+        subscription.flight.call.cancel();
+    }
+
+    /**
+     * Reads the whole error body of a failed response, or an empty array if there is none.
+     */
+    private static byte[] readErrorBody(Response<?> response) {
+        try (ResponseBody errorBody = response.errorBody()) {
+            return errorBody != null ? errorBody.bytes() : new byte[0];
+        } catch (IOException e) {
+            return new byte[0];
+        }
+    }
+
+    /**
+     * A running network call and the callers waiting for it.
+     */
+    private static class Flight {
+        final String key;
+        final Call<?> call;
+        final List<Subscription<?>> waiters = new ArrayList<>();
+
+        Flight(String key, Call<?> call) {
+            this.key = key;
+            this.call = call;
+        }
+    }
+
+    /**
+     * One caller waiting on a flight.
+     */
+    private class Subscription<T> implements ApiCall {
+        final Flight flight;
+        final Callback<T> callback;
+        private volatile boolean canceled;
+        private volatile boolean delivered;
+
+        Subscription(Flight flight, Callback<T> callback) {
+            this.flight = flight;
+            this.callback = callback;
+        }
+
+        void deliver(Call<T> call, Response<T> response) {
+            if (canceled)
+                return;
+            delivered = true;
+            callback.onResponse(call, response);
+        }
+
+        void fail(Call<T> call, Throwable t) {
+            if (canceled)
+                return;
+            delivered = true;
+            callback.onFailure(call, t);
+        }
+
+        @Override
+        public void cancel() {
+            if (canceled || delivered)
+                return;
+            canceled = true;
+            detach(this);
+        }
+
+        @Override
+        public boolean isCanceled() {
+            return canceled;
+        }
+
+        @Override
+        public boolean isActive() {
+            return !canceled && !delivered;
+        }
+    }
+}
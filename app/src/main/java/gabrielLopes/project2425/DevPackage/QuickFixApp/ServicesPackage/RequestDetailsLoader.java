@@ -0,0 +1,239 @@
+package gabrielLopes.project2425.DevPackage.QuickFixApp.ServicesPackage;
+
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import gabrielLopes.project2425.DevPackage.QuickFixApp.ServerInterfacePackage.ApiManager;
+import gabrielLopes.project2425.DevPackage.QuickFixApp.ServerInterfacePackage.ApiModels;
+import gabrielLopes.project2425.DevPackage.QuickFixApp.ServerInterfacePackage.RequestScope;
+
+/**
+ * Loads everything the details screen of a request shows, with as few round trips in a row as possible.
+ * <p>
+ * The request and the profiles it refers to are fetched at the same time:
+ * <ul>
+ *     <li>The list row the user tapped already names the requester and the provider, so their
+ *     profiles are fetched together with the request, not after it.</li>
+ *     <li>Ownership is decided on the device, from the requester of the request and the logged-in
+ *     user, instead of asking the backend.</li>
+ *     <li>If the request turns out to name other users than the row did, their profiles are
+ *     fetched as soon as it arrives.</li>
+ * </ul>
+ * The screen is rendered once the request and every profile it needs are in, whether they
+ * loaded or failed. Later updates of any part (e.g. the network copy after a stored one)
+ * render it again. The time until the first complete render is recorded in {@link #getStats()}.
+ * <p>
+ * Must be used from the main thread.
+ */
+public class RequestDetailsLoader {
+
+    private static final Stats stats = new Stats();
+
+    /**
+     * Receives the details, on the main thread.
+     */
+    public interface Listener {
+        /** Called when every part is in, and again whenever a part changes. */
+        void onLoaded(Details details);
+        void onFailure(String errorMessage);
+    }
+
+    /**
+     * Everything the details screen shows.
+     */
+    public static class Details {
+        public final ApiModels.RequestResponse request;
+        /** Whether the logged-in user created the request. */
+        public final boolean owner;
+        /** Profile of the requester, shown to other users; null for the owner or if it failed to load. */
+        public final ApiModels.UserProfileResponse client;
+        /** Profile of the provider who accepted the request, shown to its owner; null otherwise. */
+        public final ApiModels.UserProfileResponse provider;
+
+        Details(ApiModels.RequestResponse request, boolean owner,
+                ApiModels.UserProfileResponse client, ApiModels.UserProfileResponse provider) {
+            this.request = request;
+            this.owner = owner;
+            this.client = client;
+            this.provider = provider;
+        }
+    }
+
+    private final RequestScope scope;
+    private final int requestId;
+    private final int userId;
+    private final Listener listener;
+    private final long startedAt = SystemClock.elapsedRealtime();
+
+    private ApiModels.RequestResponse request;
+    private final Set<Integer> requestedProfiles = new HashSet<>();
+    /** Profiles that finished loading; a null value is one that failed. */
+    private final Map<Integer, ApiModels.UserProfileResponse> profiles = new HashMap<>();
+    private boolean rendered;
+
+    /**
+     * @param scope     Scope of the screen; the calls are tracked in it.
+     * @param requestId Request to load.
+     * @param userId    Logged-in user.
+     * @param listener  Receives the details.
+     */
+    public RequestDetailsLoader(RequestScope scope, int requestId, int userId, Listener listener) {
+        this.scope = scope;
+        this.requestId = requestId;
+        this.userId = userId;
+        this.listener = listener;
+    }
+
+    /**
+     * Starts every load at once.
+     *
+     * @param clientHint   Requester named by the list row, or -1 if unknown.
+     * @param providerHint Provider named by the list row, or -1 if unknown.
+     */
+    public void start(int clientHint, int providerHint) {
+        scope.replace("details", ApiManager.getRequestById(requestId, new ApiManager.RequestCallback() {
+            @Override
+            public void onSuccess(ApiModels.RequestResponse loaded) {
+                request = loaded;
+                for (int id : neededProfiles(loaded))
+                    fetchProfile(id);
+                deliverIfComplete();
+            }
+
+            @Override
+            public void onFailure(String errorMessage) {
+                listener.onFailure(errorMessage);
+            }
+        }));
+
+        // Only the owner sees the provider, and only others see the requester
+        if (clientHint > 0 && clientHint != userId)
+            fetchProfile(clientHint);
+        else if (clientHint > 0 && providerHint > 0)
+            fetchProfile(providerHint);
+    }
+
+    /**
+     * @return Users whose profile the screen shows for this request.
+     */
+    private List<Integer> neededProfiles(ApiModels.RequestResponse request) {
+        List<Integer> ids = new ArrayList<>();
+        if (!isOwner(request)) {
+            if (request.clientID != null && request.clientID > 0)
+                ids.add(request.clientID);
+        } else if (isAccepted(request) && request.requestedProviderID != null) {
+            ids.add(request.requestedProviderID);
+        }
+        return ids;
+    }
+
+    private boolean isOwner(ApiModels.RequestResponse request) {
+        return request.clientID != null && request.clientID == userId;
+    }
+
+    private static boolean isAccepted(ApiModels.RequestResponse request) {
+        return "accepted".equalsIgnoreCase(request.status);
+    }
+
+    private void fetchProfile(int id) {
+        if (!requestedProfiles.add(id))
+            return;
+        scope.track(ApiManager.getClientInfo(id, new ApiManager.ProfileCallback() {
+            @Override
+            public void onSuccess(ApiModels.UserProfileResponse user) {
+                profiles.put(id, user);
+                deliverIfComplete();
+            }
+
+            @Override
+            public void onFailure(String message) {
+                if (!profiles.containsKey(id))
+                    profiles.put(id, null);
+                deliverIfComplete();
+            }
+        }));
+    }
+
+    /**
+     * Hands the details to the listener once the request and the profiles it needs are in.
+     */
+    private void deliverIfComplete() {
+        if (request == null)
+            return;
+        List<Integer> needed = neededProfiles(request);
+        for (int id : needed) {
+            if (!profiles.containsKey(id))
+                return;
+        }
+
+        boolean owner = isOwner(request);
+        ApiModels.UserProfileResponse profile = needed.isEmpty() ? null : profiles.get(needed.get(0));
+        Details details = new Details(request, owner, owner ? null : profile, owner ? profile : null);
+
+        if (!rendered) {
+            rendered = true;
+            stats.record(SystemClock.elapsedRealtime() - startedAt, requestedProfiles.size() + 1);
+        }
+        listener.onLoaded(details);
+    }
+
+    /**
+     * @return Counters of every details screen loaded.
+     */
+    public static Stats getStats() {
+        return stats;
+    }
+
+    /**
+     * Time until the details screen could first be fully rendered.
+     */
+    public static class Stats {
+        private final AtomicLong screens = new AtomicLong();
+        private final AtomicLong calls = new AtomicLong();
+        private final AtomicLong totalCompleteMs = new AtomicLong();
+        private final AtomicLong maxCompleteMs = new AtomicLong();
+
+        private void record(long elapsed, int callCount) {
+            screens.incrementAndGet();
+            calls.addAndGet(callCount);
+            totalCompleteMs.addAndGet(elapsed);
+            if (elapsed > maxCompleteMs.get())
+                maxCompleteMs.set(elapsed);
+        }
+
+        /** Screens fully loaded. */
+        public long getScreens() { return screens.get(); }
+
+        /** Average delay until the screen was complete, in milliseconds. */
+        public long getAverageCompleteMs() {
+            long n = screens.get();
+            return n == 0 ? 0 : totalCompleteMs.get() / n;
+        }
+
+        /** Longest delay until the screen was complete, in milliseconds. */
+        public long getMaxCompleteMs() { return maxCompleteMs.get(); }
+
+        /** Calls started per screen, on average. */
+        public double getAverageCalls() {
+            long n = screens.get();
+            return n == 0 ? 0 : (double) calls.get() / n;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return "screens=" + getScreens() + ", complete avg/max=" + getAverageCompleteMs() + "/"
+                    + getMaxCompleteMs() + " ms, calls avg=" + String.format(Locale.ROOT, "%.1f", getAverageCalls());
+        }
+    }
+}
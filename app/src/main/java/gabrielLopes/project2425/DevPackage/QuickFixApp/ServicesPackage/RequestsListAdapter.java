@@ -1,127 +1,88 @@
 package gabrielLopes.project2425.DevPackage.QuickFixApp.ServicesPackage;
 
-import android.content.Context;
-import android.view.LayoutInflater;
 import android.view.View;
-import android.view.ViewGroup;
-import android.widget.ArrayAdapter;
-import android.widget.ImageView;
 import android.widget.TextView;
 
-import java.text.SimpleDateFormat;
-import java.util.Date;
-import java.util.List;
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+
+import java.util.Objects;
 
 import gabrielLopes.project2425.DevPackage.QuickFixApp.R;
 import gabrielLopes.project2425.DevPackage.QuickFixApp.ServerInterfacePackage.ApiModels;
+import gabrielLopes.project2425.DevPackage.QuickFixApp.ServerInterfacePackage.Deadline;
+import gabrielLopes.project2425.DevPackage.QuickFixApp.Utils.DiffingListAdapter;
+import gabrielLopes.project2425.DevPackage.QuickFixApp.Utils.RowHolder;
 
 /**
  * Adapter for displaying a list of client-created service requests.
  */
-public class RequestsListAdapter extends ArrayAdapter<ApiModels.RequestResponse> {
-
-    private final Context context;
-    private final List<ApiModels.RequestResponse> serviceRequests;
+public class RequestsListAdapter extends DiffingListAdapter<ApiModels.RequestResponse, RequestsListAdapter.ViewHolder> {
 
     /**
-     * Creates an adapter to display service requests.
-     *
-     * @param context         The context used to inflate views.
-     * @param serviceRequests The list of requests to display.
+     * Requests are the same row when their id matches; the row changes when a displayed field does.
      */
-    public RequestsListAdapter(Context context, List<ApiModels.RequestResponse> serviceRequests) {
-        super(context, R.layout.request_item_layout, serviceRequests);
-        this.context = context;
-        this.serviceRequests = serviceRequests;
-    }
-
-
-    /**
-     * Builds and returns a list item view for a request.
-     *
-     * @param position     Index of the request in the list.
-     * @param convertView  Recycled view or null.
-     * @param parent       Parent view group.
-     * @return A view with populated request data.
-     */
-    @Override
-    public View getView(int position, View convertView, ViewGroup parent) {
-        ApiModels.RequestResponse request = serviceRequests.get(position);
-
-        if (convertView == null) {
-            LayoutInflater inflater = LayoutInflater.from(context);
-            convertView = inflater.inflate(R.layout.request_item_layout, parent, false);
+    private static final DiffUtil.ItemCallback<ApiModels.RequestResponse> DIFF = new DiffUtil.ItemCallback<ApiModels.RequestResponse>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull ApiModels.RequestResponse oldItem, @NonNull ApiModels.RequestResponse newItem) {
+            return oldItem.id == newItem.id;
         }
 
-        // UI references
-        TextView serviceTitle = convertView.findViewById(R.id.serviceTitle);
-        ImageView locationIcon = convertView.findViewById(R.id.locationIcon);
-        TextView serviceLocation = convertView.findViewById(R.id.serviceLocation);
-        ImageView dateIcon = convertView.findViewById(R.id.dateIcon);
-        TextView serviceDate = convertView.findViewById(R.id.serviceDate);
-        TextView serviceTime = convertView.findViewById(R.id.serviceTime);
-        TextView requestType = convertView.findViewById(R.id.requestType);
-        TextView requestBudget = convertView.findViewById(R.id.requestBudget);
-
-        // Set content
-        serviceTitle.setText(request.title);
-
-        serviceLocation.setText(request.distanceKm + " km ");
-
-        locationIcon.setImageResource(R.drawable.ic_location);
-        dateIcon.setImageResource(R.drawable.ic_calendar);
-
-
-        if (request.deadline != null && !request.deadline.isEmpty()) {
-            String[] formatted = formatDeadline(request.deadline);
-            serviceDate.setText(formatted[0]);
-            serviceTime.setText(formatted[1]);
-        } else {
-            serviceDate.setText("N/A");
-            serviceTime.setText("");
+        @Override
+        public boolean areContentsTheSame(@NonNull ApiModels.RequestResponse oldItem, @NonNull ApiModels.RequestResponse newItem) {
+            return Objects.equals(oldItem.title, newItem.title)
+                    && oldItem.distanceKm == newItem.distanceKm
+                    && Objects.equals(oldItem.deadline, newItem.deadline)
+                    && Objects.equals(oldItem.type, newItem.type)
+                    && oldItem.price == newItem.price;
         }
+    };
 
-        requestType.setText(request.type);
-        requestBudget.setText(request.price == 0 ? "Free" : request.price + "€");
+    /**
+     * Creates an adapter to display service requests. Rows are given with {@link #submitList}.
+     */
+    public RequestsListAdapter() {
+        super(R.layout.request_item_layout, DIFF);
+    }
 
-        return convertView;
+    @Override
+    protected ViewHolder createHolder(View itemView) {
+        return new ViewHolder(itemView);
     }
 
     /**
-     * Converts a raw deadline string to readable date and time.
-     *
-     * @param rawDateTime The raw datetime string (ISO format).
-     * @return Array with formatted [date, time].
+     * Views of a request row, looked up once per inflated row.
+     * The location and calendar icons come from the layout and are never set again.
      */
-    private static String[] formatDeadline(String rawDateTime) {
-        if (rawDateTime == null || rawDateTime.isEmpty()) {
-            return new String[]{"N/A", ""};
+    static class ViewHolder extends RowHolder<ApiModels.RequestResponse> {
+        private final TextView serviceTitle;
+        private final TextView serviceLocation;
+        private final TextView serviceDate;
+        private final TextView serviceTime;
+        private final TextView requestType;
+        private final TextView requestBudget;
+
+        ViewHolder(View itemView) {
+            super(itemView);
+            serviceTitle = itemView.findViewById(R.id.serviceTitle);
+            serviceLocation = itemView.findViewById(R.id.serviceLocation);
+            serviceDate = itemView.findViewById(R.id.serviceDate);
+            serviceTime = itemView.findViewById(R.id.serviceTime);
+            requestType = itemView.findViewById(R.id.requestType);
+            requestBudget = itemView.findViewById(R.id.requestBudget);
         }
 
-        try {
-            // Normalize input and fallback to default time if missing
-            String normalized = rawDateTime.replace("T", " ");
-            if (!normalized.matches(".*\\d{2}:\\d{2}:\\d{2}$")) {
-                normalized += " 00:00:00";
-            }
-
-            // Parse and format
-            SimpleDateFormat inputFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
-            Date parsedDate = inputFormat.parse(normalized);
-
-            SimpleDateFormat dateFormat = new SimpleDateFormat("dd-MM-yyyy");
-            SimpleDateFormat timeFormat = new SimpleDateFormat("HH:mm");
-
-            String dateStr = dateFormat.format(parsedDate);
-            String timeStr = timeFormat.format(parsedDate);
+        @Override
+        protected void onBind(ApiModels.RequestResponse request) {
+            setText(serviceTitle, request.title);
+            setText(serviceLocation, request.distanceKm + " km ");
 
-            // Hide midnight time
-            if ("00:00".equals(timeStr))
-                timeStr = "";
+            Deadline deadline = request.getDeadline();
+            setText(serviceDate, deadline.dateText);
+            setText(serviceTime, deadline.timeText);
 
-            return new String[]{dateStr, timeStr};
-        } catch (Exception e) {
-            return new String[]{"Invalid date", ""};
+            setText(requestType, request.type);
+            setText(requestBudget, request.price == 0 ? "Free" : request.price + "€");
         }
     }
 }
@@ -12,14 +12,14 @@ import androidx.constraintlayout.widget.ConstraintLayout;
 
 import android.content.res.ColorStateList;
 import android.util.TypedValue;
-import java.text.SimpleDateFormat;
-import java.util.Date;
 import java.util.Locale;
 
 import android.widget.LinearLayout;
 import gabrielLopes.project2425.DevPackage.QuickFixApp.R;
 import gabrielLopes.project2425.DevPackage.QuickFixApp.ServerInterfacePackage.ApiManager;
 import gabrielLopes.project2425.DevPackage.QuickFixApp.ServerInterfacePackage.ApiModels;
+import gabrielLopes.project2425.DevPackage.QuickFixApp.ServerInterfacePackage.RequestScope;
+import gabrielLopes.project2425.DevPackage.QuickFixApp.Utils.OptimisticUpdate;
 import gabrielLopes.project2425.DevPackage.QuickFixApp.Utils.SharedPrefHelper;
 import gabrielLopes.project2425.DevPackage.QuickFixApp.navBar.NavBarHandler;
 import gabrielLopes.project2425.DevPackage.QuickFixApp.navBar.ModifyRequestActivity;
@@ -33,6 +33,10 @@ import gabrielLopes.project2425.DevPackage.QuickFixApp.ProviderPackage.ProviderD
 public class ServiceDetailsActivity extends AppCompatActivity {
     private Button acceptButton;
     private boolean isAccepted = false;
+    private String serviceStatus;
+    /** Acceptance and status as loaded or last confirmed by the backend: what an undone change goes back to. */
+    private boolean confirmedAccepted;
+    private String confirmedStatus;
     private int itemId;
     private boolean isRequest;
     private TextView titleTextView, locationTextView, serviceDateTextView, priceTextView,
@@ -40,6 +44,9 @@ public class ServiceDetailsActivity extends AppCompatActivity {
             providerNameTextView, providerNoteTextView;
 
     private Button editButton, removeButton;
+    private RequestScope requestScope;
+    /** Request on screen, once loaded. */
+    private ApiModels.RequestResponse currentRequest;
 
     /**
      * Initializes the layout and loads request or service details based on intent extras.
@@ -64,14 +71,13 @@ public class ServiceDetailsActivity extends AppCompatActivity {
 
         super.onCreate(savedInstanceState);
         setContentView(R.layout.service_details_layout);
+        requestScope = RequestScope.of(this);
 
         initializeViews();
         NavBarHandler.setup(this, SharedPrefHelper.getUserId(this));
 
         getDetails();
-        if (isRequest)
-            checkOwnership();
-        else
+        if (!isRequest)
             hideRequestControls();
     }
 
@@ -115,10 +121,13 @@ public class ServiceDetailsActivity extends AppCompatActivity {
 
     /**
      * Loads either service or request data from the API based on mode.
+     * <p>
+     * A request is loaded together with the profiles it shows (see {@link RequestDetailsLoader}),
+     * using the users named by the list row that opened the screen.
      */
     private void getDetails() {
         if (!isRequest) {
-            ApiManager.getServiceById(itemId, new ApiManager.ServiceCallback() {
+            requestScope.replace("details", ApiManager.getServiceById(itemId, new ApiManager.ServiceCallback() {
                 @Override
                 public void onSuccess(ApiModels.ServiceResponse service) {
                     runOnUiThread(() -> getServiceData(service));
@@ -128,57 +137,58 @@ public class ServiceDetailsActivity extends AppCompatActivity {
                 public void onFailure(String errorMessage) {
                     showToast(errorMessage);
                 }
-            });
+            }));
         } else {
-            ApiManager.getRequestById(itemId, new ApiManager.RequestCallback() {
+            new RequestDetailsLoader(requestScope, itemId, SharedPrefHelper.getUserId(this), new RequestDetailsLoader.Listener() {
                 @Override
-                public void onSuccess(ApiModels.RequestResponse request) {
-                    runOnUiThread(() -> getRequestData(request));
+                public void onLoaded(RequestDetailsLoader.Details details) {
+                    getRequestData(details);
                 }
+
                 @Override
                 public void onFailure(String errorMessage) {
                     showToast(errorMessage);
                 }
-            });
+            }).start(getIntent().getIntExtra("client_id", -1), getIntent().getIntExtra("provider_id", -1));
         }
     }
 
     /**
      * Displays the content of a request, including client info and request metadata.
+     * The owner gets the edit controls and the provider who accepted it instead.
      *
-     * @param request The request response from the API.
+     * @param details The request and the profiles it shows.
      */
-    private void getRequestData(ApiModels.RequestResponse request) {
+    private void getRequestData(RequestDetailsLoader.Details details) {
+        ApiModels.RequestResponse request = details.request;
+        currentRequest = request;
         titleTextView.setText(request.title);
 
         locationTextView.setText(request.location + " ("+request.distanceKm + " km)");
 
-        serviceDateTextView.setText(formatDate(request.deadline));
+        serviceDateTextView.setText(request.getDeadline().displayText);
         priceTextView.setText(String.format("%.2f €", request.price));
         typeTextView.setText(request.type);
         descriptionTextView.setText(request.description);
 
-        if (request.clientID != null&& request.clientID > 0) {
-            ApiManager.getClientInfo(request.clientID, new ApiManager.ProfileCallback() {
-                @Override
-                public void onSuccess(ApiModels.UserProfileResponse user) {
-                    runOnUiThread(() -> {
-                        usernameTextView.setText(user.name != null ? user.name : "Unknown");
-                        ratingTextView.setText(String.format("%.1f", user.rating));
-                    });
-                }
+        Integer providerId = request.requestedProviderID;
+        isAccepted = "accepted".equalsIgnoreCase(request.status)
+                && providerId != null && providerId == SharedPrefHelper.getUserId(this);
+        confirmedAccepted = isAccepted;
+        updateAcceptButtonUI();
 
-                @Override
-                public void onFailure(String message) {
-                    runOnUiThread(() -> {
-                        usernameTextView.setText("Unknown");
-                        ratingTextView.setText("-");
-                    });
-                }
-            });
+        LinearLayout requesterInfo = findViewById(R.id.requester_info);
+        if (details.owner) {
+            editButton.setVisibility(View.VISIBLE);
+            removeButton.setVisibility(View.VISIBLE);
+            acceptButton.setVisibility(View.GONE);
+            requesterInfo.setVisibility(View.GONE);
+            displayStatusAndProviderInfo(request, details.provider);
         } else {
-            usernameTextView.setText("Unknown");
-            ratingTextView.setText("-");
+            hideRequestControls();
+            ApiModels.UserProfileResponse client = details.client;
+            usernameTextView.setText(client != null && client.name != null ? client.name : "Unknown");
+            ratingTextView.setText(client != null ? String.format("%.1f", client.rating) : "-");
         }
         ConstraintLayout root = findViewById(R.id.rootContent);
         root.setVisibility(View.VISIBLE);
@@ -194,14 +204,14 @@ public class ServiceDetailsActivity extends AppCompatActivity {
         acceptButton.setText("Update status");
         acceptButton.setBackgroundTintList(getColorFromAttr(androidx.appcompat.R.attr.colorPrimary));
         locationTextView.setText(service.location + " ("+service.distanceKm + " km)");
-        serviceDateTextView.setText(formatDate(service.deadline));
+        serviceDateTextView.setText(service.getDeadline().displayText);
         priceTextView.setText(String.format("%.2f €/h", service.price));
         typeTextView.setText(service.type);
         descriptionTextView.setText(service.description);
-        statusTextView.setText(service.status.toUpperCase());
-        statusTextView.setVisibility(View.VISIBLE);
+        confirmedStatus = service.status;
+        showServiceStatus(service.status);
 
-        ApiManager.getClientInfo(service.client, new ApiManager.ProfileCallback() {
+        requestScope.replace("client", ApiManager.getClientInfo(service.client, new ApiManager.ProfileCallback() {
             @Override
             public void onSuccess(ApiModels.UserProfileResponse user) {
                 runOnUiThread(() -> {
@@ -217,7 +227,7 @@ public class ServiceDetailsActivity extends AppCompatActivity {
                     ratingTextView.setText("-");
                 });
             }
-        });
+        }));
         ConstraintLayout root = findViewById(R.id.rootContent);
         root.setVisibility(View.VISIBLE);
     }
@@ -267,6 +277,8 @@ public class ServiceDetailsActivity extends AppCompatActivity {
 
     /**
      * Toggles acceptance state and sends accept/cancel decision to the API.
+     * <p>
+     * The new state is shown right away and undone if the backend rejects the decision.
      */
     private void acceptButtonLogic() {
         boolean decision = !isAccepted;
@@ -276,19 +288,38 @@ public class ServiceDetailsActivity extends AppCompatActivity {
                         ? "Are you sure you want to accept this request?"
                         : "Cancel response to this request?")
                 .setPositiveButton("Yes", (dialog, which) -> {
-                    ApiManager.handleRequestDecision(itemId, decision, new ApiManager.UserActionCallback() {
+                    OptimisticUpdate update = OptimisticUpdate.begin("request_decision");
+                    isAccepted = decision;
+                    updateAcceptButtonUI();
+                    update.shown(acceptButton);
+
+                    ApiManager.handleRequestDecision(itemId, decision, new ApiManager.OptimisticActionCallback() {
+                        @Override
+                        public void onQueued(String message) {
+                            runOnUiThread(() -> showToast(message));
+                        }
+
                         @Override
                         public void onSuccess(String message) {
+                            update.confirmed();
                             runOnUiThread(() -> {
-                                isAccepted = decision;
-                                updateAcceptButtonUI();
+                                confirmedAccepted = decision;
                                 showToast(message);
                             });
                         }
 
                         @Override
                         public void onFailure(String error) {
-                            runOnUiThread(() -> showToast(error));
+                            update.rolledBack();
+                            runOnUiThread(() -> {
+                                // Only undo if no later change replaced this one on screen. A later
+                                // change merged with this one fails too, so go back to the backend's state.
+                                if (isAccepted == decision) {
+                                    isAccepted = confirmedAccepted;
+                                    updateAcceptButtonUI();
+                                }
+                                showToast("Change undone: " + error);
+                            });
                         }
                     });
                 })
@@ -309,33 +340,6 @@ public class ServiceDetailsActivity extends AppCompatActivity {
         }
     }
 
-    /**
-     * Checks if the current user is the request owner and updates the UI accordingly.
-     */
-    private void checkOwnership() {
-        LinearLayout requesterInfo = findViewById(R.id.requester_info);
-        ApiManager.isRequestCreator(itemId, new ApiManager.RequestCreatorCallback() {
-            @Override
-            public void onSuccess(boolean ownsIt) {
-                runOnUiThread(() -> {
-                    if (ownsIt) {
-                        editButton.setVisibility(View.VISIBLE);
-                        removeButton.setVisibility(View.VISIBLE);
-                        acceptButton.setVisibility(View.GONE);
-                        requesterInfo.setVisibility(View.GONE);
-                        displayStatusAndProviderInfo();
-                    } else
-                        hideRequestControls();
-                });
-            }
-
-            @Override
-            public void onFailure(String errorMessage) {
-                showToast("Ownership check failed.");
-            }
-        });
-    }
-
     /**
      * Hides edit and remove buttons for users who don't own the request.
      */
@@ -345,29 +349,46 @@ public class ServiceDetailsActivity extends AppCompatActivity {
     }
 
     /**
-     * Opens a dialog to update the status of a service
+     * Opens a dialog to update the status of a service.
+     * <p>
+     * The new status is shown right away and undone if the backend rejects it.
      */
     private void showStatusUpdateDialog() {
-        String[] serviceStatus = getResources().getStringArray(R.array.service_status);
+        String[] statuses = getResources().getStringArray(R.array.service_status);
 
         AlertDialog.Builder builder = new AlertDialog.Builder(this);
         builder.setTitle("Update Service Status");
 
-        builder.setItems(serviceStatus, (dialog, which) -> {
-            String selectedStatus = serviceStatus[which];
+        builder.setItems(statuses, (dialog, which) -> {
+            String selectedStatus = statuses[which];
+            OptimisticUpdate update = OptimisticUpdate.begin("service_status");
+            showServiceStatus(selectedStatus);
+            update.shown(statusTextView);
+
+            ApiManager.updateServiceStatus(itemId, selectedStatus, new ApiManager.OptimisticActionCallback() {
+                @Override
+                public void onQueued(String message) {
+                    runOnUiThread(() -> showToast(message));
+                }
 
-            ApiManager.updateServiceStatus(itemId, selectedStatus, new ApiManager.UserActionCallback() {
                 @Override
                 public void onSuccess(String message) {
+                    update.confirmed();
                     runOnUiThread(() -> {
+                        confirmedStatus = selectedStatus;
                         showToast("Status updated to: " + selectedStatus);
-                        titleTextView.setText(titleTextView.getText().toString().split(" \\(")[0] + " (" + selectedStatus + ")");
                     });
                 }
 
                 @Override
                 public void onFailure(String errorMessage) {
-                    runOnUiThread(() -> showToast(errorMessage));
+                    update.rolledBack();
+                    runOnUiThread(() -> {
+                        // Only undo if no later change replaced this one on screen
+                        if (selectedStatus.equals(serviceStatus))
+                            showServiceStatus(confirmedStatus);
+                        showToast("Status change undone: " + errorMessage);
+                    });
                 }
             });
         });
@@ -376,82 +397,74 @@ public class ServiceDetailsActivity extends AppCompatActivity {
         builder.show();
     }
 
+    /**
+     * Displays the current status of a service.
+     *
+     * @param status Status to show; nothing is shown if null.
+     */
+    private void showServiceStatus(String status) {
+        serviceStatus = status;
+        if (status == null)
+            return;
+        statusTextView.setText(status.toUpperCase());
+        statusTextView.setVisibility(View.VISIBLE);
+    }
+
     /**
      * Shows request status and provider details if the request has been accepted.
+     *
+     * @param request  The request on screen.
+     * @param provider Profile of the provider who accepted it, or null if none or it failed to load.
      */
-    private void displayStatusAndProviderInfo() {
-        ApiManager.getRequestById(itemId, new ApiManager.RequestCallback() {
-            @Override
-            public void onSuccess(ApiModels.RequestResponse request) {
-                runOnUiThread(() -> {
-                    statusTextView.setText("Status: \n" + request.status.toUpperCase(Locale.ROOT));
-                    statusTextView.setVisibility(View.VISIBLE);
-
-                    if ("accepted".equalsIgnoreCase(request.status) && request.requestedProviderID != null) {
-                        ApiManager.getClientInfo(request.requestedProviderID, new ApiManager.ProfileCallback() {
-                            @Override
-                            public void onSuccess(ApiModels.UserProfileResponse user) {
-                                providerNameTextView.setText("By: \n" + (user.name != null ? user.name : "Unknown"));
-                                providerNameTextView.setVisibility(View.VISIBLE);
-
-                                // Search through user's roles to find the correct one (matching service_type)
-                                String matchingNote = null;
-                                if (user.roles != null) {
-                                    for (ApiModels.ProviderRoleRequest role : user.roles) {
-                                        if (role.role != null && role.role.equalsIgnoreCase(request.type)) {
-                                            matchingNote = role.description;
-                                            break;
-                                        }
-                                    }
-                                }
+    private void displayStatusAndProviderInfo(ApiModels.RequestResponse request, ApiModels.UserProfileResponse provider) {
+        statusTextView.setText("Status: \n" + request.status.toUpperCase(Locale.ROOT));
+        statusTextView.setVisibility(View.VISIBLE);
 
-                                if (matchingNote != null && !matchingNote.trim().isEmpty()) {
-                                    providerNoteTextView.setText("Note: " + matchingNote);
-                                    providerNoteTextView.setVisibility(View.VISIBLE);
-                                } else {
-                                    providerNoteTextView.setVisibility(View.GONE);
-                                }
-                            }
-
-                            @Override
-                            public void onFailure(String message) {
-                                providerNameTextView.setText("Provider: Unknown");
-                                providerNoteTextView.setVisibility(View.GONE);
-                                providerNameTextView.setVisibility(View.VISIBLE);
-                            }
-                        });
-                    }
-                });
-            }
+        if (!"accepted".equalsIgnoreCase(request.status) || request.requestedProviderID == null) {
+            providerNameTextView.setVisibility(View.GONE);
+            providerNoteTextView.setVisibility(View.GONE);
+            return;
+        }
+        if (provider == null) {
+            providerNameTextView.setText("Provider: Unknown");
+            providerNoteTextView.setVisibility(View.GONE);
+            providerNameTextView.setVisibility(View.VISIBLE);
+            return;
+        }
 
-            @Override
-            public void onFailure(String errorMessage) {
-                showToast("Could not load request details.");
+        providerNameTextView.setText("By: \n" + (provider.name != null ? provider.name : "Unknown"));
+        providerNameTextView.setVisibility(View.VISIBLE);
+
+        // Search through user's roles to find the correct one (matching service_type)
+        String matchingNote = null;
+        if (provider.roles != null) {
+            for (ApiModels.ProviderRoleRequest role : provider.roles) {
+                if (role.role != null && role.role.equalsIgnoreCase(request.type)) {
+                    matchingNote = role.description;
+                    break;
+                }
             }
-        });
+        }
+
+        if (matchingNote != null && !matchingNote.trim().isEmpty()) {
+            providerNoteTextView.setText("Note: " + matchingNote);
+            providerNoteTextView.setVisibility(View.VISIBLE);
+        } else {
+            providerNoteTextView.setVisibility(View.GONE);
+        }
     }
 
     /**
-     * Opens ProviderDetailsActivity with the selected provider’s ID.
+     * Opens ProviderDetailsActivity with the ID of the provider of the request on screen.
      */
     private void openProviderDetails() {
-        ApiManager.getRequestById(itemId, new ApiManager.RequestCallback() {
-            @Override
-            public void onSuccess(ApiModels.RequestResponse request) {
-                if (request.requestedProviderID != null) {
-                    Intent intent = new Intent(ServiceDetailsActivity.this, ProviderDetailsActivity.class);
-                    intent.putExtra("SERVICE_RESPONSE_ID", request.requestedProviderID);
-                    startActivity(intent);
-                } else {
-                    showToast("Provider info not available.");
-                }
-            }
-
-            @Override
-            public void onFailure(String errorMessage) {
-                showToast("Failed to get provider.");
-            }
-        });
+        if (currentRequest != null && currentRequest.requestedProviderID != null) {
+            Intent intent = new Intent(ServiceDetailsActivity.this, ProviderDetailsActivity.class);
+            intent.putExtra("SERVICE_RESPONSE_ID", currentRequest.requestedProviderID);
+            startActivity(intent);
+        } else {
+            showToast("Provider info not available.");
+        }
     }
 
     /**
@@ -465,40 +478,6 @@ public class ServiceDetailsActivity extends AppCompatActivity {
 
     }
 
-    /**
-     * Formats a raw ISO 8601 datetime into a human-readable string.
-     *
-     * @param rawDateTime The original deadline string.
-     * @return Formatted date and optional time.
-     */
-    private String formatDate(String rawDateTime) {
-        if (rawDateTime == null || rawDateTime.isEmpty())
-            return "No deadline";
-        try {
-            String normalized = rawDateTime.replace("T", " ");
-            if (!normalized.matches(".*\\d{2}:\\d{2}:\\d{2}$"))
-                normalized += " 00:00:00";
-
-            SimpleDateFormat inputFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
-            Date parsed = inputFormat.parse(normalized);
-
-            SimpleDateFormat dateFormat = new SimpleDateFormat("dd-MM-yyyy");
-            SimpleDateFormat timeFormat = new SimpleDateFormat("HH:mm");
-
-            String date = dateFormat.format(parsed);
-            String time = timeFormat.format(parsed);
-
-            // If time is exactly midnight, skip it
-            if ("00:00".equals(time)) {
-                return date;
-            }
-
-            return date + " " + time;
-        } catch (Exception e) {
-            return "Invalid date";
-        }
-    }
-
     /**
      /**
      * Returns a color from the current theme using its attribute ID.
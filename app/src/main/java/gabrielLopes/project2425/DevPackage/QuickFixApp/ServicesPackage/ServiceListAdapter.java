@@ -1,157 +1,121 @@
 package gabrielLopes.project2425.DevPackage.QuickFixApp.ServicesPackage;
 
-import android.content.Context;
-import android.view.LayoutInflater;
 import android.view.View;
-import android.view.ViewGroup;
-import android.widget.ArrayAdapter;
 import android.widget.ImageView;
 import android.widget.TextView;
 import java.util.Locale;
 
-import java.text.SimpleDateFormat;
-import java.util.Date;
-import java.util.List;
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+
+import java.util.Objects;
 
 import gabrielLopes.project2425.DevPackage.QuickFixApp.R;
 import gabrielLopes.project2425.DevPackage.QuickFixApp.ServerInterfacePackage.ApiModels;
+import gabrielLopes.project2425.DevPackage.QuickFixApp.ServerInterfacePackage.Deadline;
+import gabrielLopes.project2425.DevPackage.QuickFixApp.Utils.DiffingListAdapter;
+import gabrielLopes.project2425.DevPackage.QuickFixApp.Utils.RowHolder;
 
 /**
  * Adapter that displays a list of accepted services.
  */
 
-public class ServiceListAdapter extends ArrayAdapter<ApiModels.ServiceResponse> {
-
-    private final Context context;
-    private final List<ApiModels.ServiceResponse> services;
-
-    /**
-     * Creates a new adapter to display a list of services.
-     *
-     * @param context  The context used to inflate the layout.
-     * @param services The list of confirmed services to display.
-     */
-    public ServiceListAdapter(Context context, List<ApiModels.ServiceResponse> services) {
-        super(context, R.layout.service_item_layout, services);
-        this.context = context;
-        this.services = services;
-    }
+public class ServiceListAdapter extends DiffingListAdapter<ApiModels.ServiceResponse, ServiceListAdapter.ViewHolder> {
 
     /**
-     * Returns the list item view for a service at the given position.
-     * Populates all fields such as title, location, type, price, and deadline.
-     *
-     * @param position     The position of the item in the list.
-     * @param convertView  The recycled view to reuse, or null to inflate a new one.
-     * @param parent       The parent view group.
-     * @return The populated view for the current service.
+     * Services are the same row when their id matches; the row changes when a displayed field does.
      */
-    @Override
-    public View getView(int position, View convertView, ViewGroup parent) {
-        ApiModels.ServiceResponse service = services.get(position);
-
-        if (convertView == null) {
-            LayoutInflater inflater = LayoutInflater.from(context);
-            convertView = inflater.inflate(R.layout.service_item_layout, parent, false);
+    private static final DiffUtil.ItemCallback<ApiModels.ServiceResponse> DIFF = new DiffUtil.ItemCallback<ApiModels.ServiceResponse>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull ApiModels.ServiceResponse oldItem, @NonNull ApiModels.ServiceResponse newItem) {
+            return oldItem.id == newItem.id;
         }
 
-        TextView serviceTitle = convertView.findViewById(R.id.serviceTitle);
-        ImageView serviceStatusIcon = convertView.findViewById(R.id.serviceStatusIcon);
-        ImageView locationIcon = convertView.findViewById(R.id.locationIcon);
-        TextView serviceLocation = convertView.findViewById(R.id.serviceLocation);
-        ImageView dateIcon = convertView.findViewById(R.id.dateIcon);
-        TextView serviceDate = convertView.findViewById(R.id.serviceDate);
-        TextView serviceTime = convertView.findViewById(R.id.serviceTime);
-        TextView serviceType = convertView.findViewById(R.id.requestType);
-        TextView serviceBudget = convertView.findViewById(R.id.requestBudget);
-
-        serviceTitle.setText(service.title);
-        setStatusIcon(serviceStatusIcon, service.status);
-
-        serviceLocation.setText(service.distanceKm + " km ");
-
-        locationIcon.setImageResource(R.drawable.ic_location);
-        dateIcon.setImageResource(R.drawable.ic_calendar);
-
-        if (service.deadline != null && !service.deadline.isEmpty()) {
-            String[] formatted = formatDeadline(service.deadline);
-            serviceDate.setText(formatted[0]);
-            serviceTime.setText(formatted[1]);
-        } else {
-            serviceDate.setText("N/A");
-            serviceTime.setText("");
+        @Override
+        public boolean areContentsTheSame(@NonNull ApiModels.ServiceResponse oldItem, @NonNull ApiModels.ServiceResponse newItem) {
+            return Objects.equals(oldItem.title, newItem.title)
+                    && Objects.equals(oldItem.status, newItem.status)
+                    && oldItem.distanceKm == newItem.distanceKm
+                    && Objects.equals(oldItem.deadline, newItem.deadline)
+                    && Objects.equals(oldItem.type, newItem.type)
+                    && oldItem.price == newItem.price;
         }
+    };
 
-        serviceType.setText(service.type);
-        serviceBudget.setText(service.price == 0 ? "Free" : service.price + "€");
+    /**
+     * Creates a new adapter to display a list of services. Rows are given with {@link #submitList}.
+     */
+    public ServiceListAdapter() {
+        super(R.layout.service_item_layout, DIFF);
+    }
 
-        return convertView;
+    @Override
+    protected ViewHolder createHolder(View itemView) {
+        return new ViewHolder(itemView);
     }
 
     /**
-     * Converts a raw ISO 8601 datetime string into a date and time string.
-     *
-     * @param rawDateTime The raw deadline string from the backend.
-     * @return A string array with [date, time].
+     * Views of a service row, looked up once per inflated row.
+     * The location and calendar icons come from the layout and are never set again.
      */
-    private static String[] formatDeadline(String rawDateTime) {
-        if (rawDateTime == null || rawDateTime.isEmpty()) {
-            return new String[]{"N/A", ""};
+    static class ViewHolder extends RowHolder<ApiModels.ServiceResponse> {
+        private final TextView serviceTitle;
+        private final ImageView serviceStatusIcon;
+        private final TextView serviceLocation;
+        private final TextView serviceDate;
+        private final TextView serviceTime;
+        private final TextView serviceType;
+        private final TextView serviceBudget;
+        private int statusIconId = R.drawable.ic_status_pending; // set by the layout
+
+        ViewHolder(View itemView) {
+            super(itemView);
+            serviceTitle = itemView.findViewById(R.id.serviceTitle);
+            serviceStatusIcon = itemView.findViewById(R.id.serviceStatusIcon);
+            serviceLocation = itemView.findViewById(R.id.serviceLocation);
+            serviceDate = itemView.findViewById(R.id.serviceDate);
+            serviceTime = itemView.findViewById(R.id.serviceTime);
+            serviceType = itemView.findViewById(R.id.requestType);
+            serviceBudget = itemView.findViewById(R.id.requestBudget);
         }
 
-        try {
-            String normalized = rawDateTime.replace("T", " ");
-            if (!normalized.matches(".*\\d{2}:\\d{2}:\\d{2}$")) {
-                normalized += " 00:00:00";
-            }
+        @Override
+        protected void onBind(ApiModels.ServiceResponse service) {
+            setText(serviceTitle, service.title);
+            statusIconId = setImageResource(serviceStatusIcon, statusIconId, statusIcon(service.status));
+            setText(serviceLocation, service.distanceKm + " km ");
 
-            SimpleDateFormat inputFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
-            Date parsedDate = inputFormat.parse(normalized);
+            Deadline deadline = service.getDeadline();
+            setText(serviceDate, deadline.dateText);
+            setText(serviceTime, deadline.timeText);
 
-            SimpleDateFormat dateFormat = new SimpleDateFormat("dd-MM-yyyy");
-            SimpleDateFormat timeFormat = new SimpleDateFormat("HH:mm");
-
-            String dateStr = dateFormat.format(parsedDate);
-            String timeStr = timeFormat.format(parsedDate);
-
-            if ("00:00".equals(timeStr)) timeStr = "";
-
-            return new String[]{dateStr, timeStr};
-        } catch (Exception e) {
-            return new String[]{"Invalid date", ""};
+            setText(serviceType, service.type);
+            setText(serviceBudget, service.price == 0 ? "Free" : service.price + "€");
         }
     }
 
     /**
-     * Sets the correct icon based on the service status.
+     * Returns the icon matching a service status.
      *
-     * @param iconView The ImageView to update.
-     * @param status   The current service status.
+     * @param status The current service status.
+     * @return Drawable resource id of the icon.
      */
-    private void setStatusIcon(ImageView iconView, String status) {
-        if (status == null) {
-            iconView.setImageResource(R.drawable.ic_status_pending);
-            return;
-        }
+    private static int statusIcon(String status) {
+        if (status == null)
+            return R.drawable.ic_status_pending;
         switch (status.toLowerCase(Locale.ROOT)) {
             case "accepted":
-                iconView.setImageResource(R.drawable.ic_status_accepted);
-                break;
+                return R.drawable.ic_status_accepted;
             case "started":
-                iconView.setImageResource(R.drawable.ic_status_started);
-                break;
+                return R.drawable.ic_status_started;
             case "finished":
-                iconView.setImageResource(R.drawable.ic_status_finished);
-                break;
+                return R.drawable.ic_status_finished;
             case "closed":
-                iconView.setImageResource(R.drawable.ic_status_closed);
-                break;
+                return R.drawable.ic_status_closed;
             case "cancelled":
-                iconView.setImageResource(R.drawable.ic_status_cancelled);
-                break;
+                return R.drawable.ic_status_cancelled;
             default:
-                iconView.setImageResource(R.drawable.ic_status_pending);
-                break;
+                return R.drawable.ic_status_pending;
         }
     }
 }
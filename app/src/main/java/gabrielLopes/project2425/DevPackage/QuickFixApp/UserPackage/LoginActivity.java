@@ -1,5 +1,6 @@
 package gabrielLopes.project2425.DevPackage.QuickFixApp.UserPackage;
 
+import android.content.Context;
 import android.content.Intent;
 import android.os.Bundle;
 import android.widget.Button;
@@ -16,9 +17,28 @@ import gabrielLopes.project2425.DevPackage.QuickFixApp.navBar.MainActivity;
 /**
  * Handles the login screen where users enter credentials.
  * Redirects to MainActivity if already authenticated.
+ * Also shown on top of the app when the session expires, to log in again without losing the current screen.
  */
 
 public class LoginActivity extends AppCompatActivity {
+
+    private static final String EXTRA_REAUTH = "REAUTH";
+
+    private boolean reauth;
+
+    /**
+     * Shows the login screen on top of the current one because the session is expiring.
+     * Once logged in again, the user returns where they were.
+     *
+     * @param context Any context.
+     */
+    public static void startReauth(Context context) {
+        Intent intent = new Intent(context, LoginActivity.class);
+        intent.putExtra(EXTRA_REAUTH, true);
+        intent.addFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_SINGLE_TOP);
+        context.startActivity(intent);
+    }
+
     /**
      * Sets up the login screen, checks if user is already authenticated,
      * and wires up login and registration actions.
@@ -30,13 +50,10 @@ public class LoginActivity extends AppCompatActivity {
         SharedPrefHelper.applySavedTheme(this);
         super.onCreate(savedInstanceState);
 
-        // Initialize ApiManager
-        ApiManager.initialize(this);
-
-        // Check if the user is already logged in
-        String token = ApiManager.getAuthToken();
+        // Check if the user is already logged in, with a session that is not about to expire
+        reauth = getIntent().getBooleanExtra(EXTRA_REAUTH, false);
         int userId = SharedPrefHelper.getUserId(this);
-        if (token != null && userId != -1) {
+        if (!reauth && ApiManager.hasValidSession() && userId != -1) {
             openMainActivity(userId);  // Redirect to MainActivity if logged in
             return;
         }
@@ -75,14 +92,16 @@ public class LoginActivity extends AppCompatActivity {
      * @param password Entered password
      */
     protected void login(String username, String password) {
+        int previousUserId = SharedPrefHelper.getUserId(this);
         ApiManager.login(username, password, new ApiManager.LoginCallback() {
             @Override
             public void onSuccess(String token, int userId) {
                 runOnUiThread(() -> {
-                    // Save credentials only if login is successful
-                    SharedPrefHelper.saveUserId(LoginActivity.this, userId);
-                    SharedPrefHelper.saveAuthToken(LoginActivity.this, token);
-                    openMainActivity(userId);
+                    // Credentials were already saved by ApiManager
+                    if (reauth && userId == previousUserId)
+                        finish();  // Back to the screen that was open
+                    else
+                        openMainActivity(userId);
                 });
             }
 
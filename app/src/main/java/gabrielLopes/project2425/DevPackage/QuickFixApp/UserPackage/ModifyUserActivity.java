@@ -10,6 +10,7 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.app.AppCompatDelegate;
 
 import gabrielLopes.project2425.DevPackage.QuickFixApp.ServerInterfacePackage.ApiManager;
+import gabrielLopes.project2425.DevPackage.QuickFixApp.ServerInterfacePackage.RequestScope;
 import gabrielLopes.project2425.DevPackage.QuickFixApp.R;
 import gabrielLopes.project2425.DevPackage.QuickFixApp.ServerInterfacePackage.ApiModels;
 import gabrielLopes.project2425.DevPackage.QuickFixApp.Utils.SharedPrefHelper;
@@ -87,7 +88,7 @@ public class ModifyUserActivity extends AppCompatActivity {
      * Loads current user data from the API and fills the input fields for editing.
      */
     private void loadUserData() {
-        ApiManager.getUser(new ApiManager.ProfileCallback() {
+        RequestScope.of(this).track(ApiManager.getUser(new ApiManager.ProfileCallback() {
             @Override
             public void onSuccess(ApiModels.UserProfileResponse user) {
                 runOnUiThread(() -> {
@@ -104,7 +105,7 @@ public class ModifyUserActivity extends AppCompatActivity {
             public void onFailure(String message) {
                 runOnUiThread(() -> showToast("Failed to load user: " + message));
             }
-        });
+        }));
     }
 
     /**
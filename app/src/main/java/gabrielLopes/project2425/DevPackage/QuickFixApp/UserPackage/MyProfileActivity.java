@@ -18,6 +18,7 @@ import androidx.constraintlayout.widget.ConstraintLayout;
 import gabrielLopes.project2425.DevPackage.QuickFixApp.R;
 import gabrielLopes.project2425.DevPackage.QuickFixApp.ServerInterfacePackage.ApiManager;
 import gabrielLopes.project2425.DevPackage.QuickFixApp.ServerInterfacePackage.ApiModels;
+import gabrielLopes.project2425.DevPackage.QuickFixApp.ServerInterfacePackage.RequestScope;
 import gabrielLopes.project2425.DevPackage.QuickFixApp.Utils.ProfilePicHandler;
 import gabrielLopes.project2425.DevPackage.QuickFixApp.Utils.SharedPrefHelper;
 import gabrielLopes.project2425.DevPackage.QuickFixApp.navBar.NavBarHandler;
@@ -90,7 +91,7 @@ public class MyProfileActivity extends AppCompatActivity {
      * Calls the API to get the current user's profile and updates the UI.
      */
     private void loadUserProfile() {
-        ApiManager.getUser(new ApiManager.ProfileCallback() {
+        RequestScope.of(this).replace("profile", ApiManager.getUser(new ApiManager.ProfileCallback() {
             @Override
             public void onSuccess(ApiModels.UserProfileResponse user) {
                 currentUser = user;
@@ -111,7 +112,7 @@ public class MyProfileActivity extends AppCompatActivity {
             public void onFailure(String message) {
                 runOnUiThread(() -> Toast.makeText(MyProfileActivity.this, "Failed to load profile: " + message, Toast.LENGTH_SHORT).show());
             }
-        });
+        }));
     }
 
     /**
@@ -149,6 +150,7 @@ public class MyProfileActivity extends AppCompatActivity {
             public void onSuccess(String message) {
                 Toast.makeText(MyProfileActivity.this, "Account will be removed.", Toast.LENGTH_SHORT).show();
                 SharedPrefHelper.clearUserData(MyProfileActivity.this);
+                ApiManager.clearCache();
                 Intent intent = new Intent(MyProfileActivity.this, LoginActivity.class);
                 intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
                 startActivity(intent);
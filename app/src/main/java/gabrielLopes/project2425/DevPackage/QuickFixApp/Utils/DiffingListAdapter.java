@@ -0,0 +1,128 @@
+package gabrielLopes.project2425.DevPackage.QuickFixApp.Utils;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.AsyncListDiffer;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.List;
+
+/**
+ * RecyclerView adapter that updates its rows incrementally.
+ * <p>
+ * Each new list given to {@link #submitList(List)} is compared with the one shown on a
+ * background thread. Only rows that were inserted, removed, moved or whose content changed are
+ * then animated and rebound; the others are left untouched.
+ * <p>
+ * Lists must not be modified after being submitted: submit a new list for every change.
+ *
+ * @param <T> Type of the items.
+ * @param <H> Holder of a row.
+ */
+public abstract class DiffingListAdapter<T, H extends RowHolder<T>> extends RecyclerView.Adapter<H> {
+
+    /**
+     * Receives clicks on a row.
+     *
+     * @param <T> Type of the items.
+     */
+    public interface OnItemClickListener<T> {
+        void onItemClick(T item);
+    }
+
+    private final AsyncListDiffer<T> differ;
+    private final int layoutId;
+    private OnItemClickListener<T> onItemClickListener;
+
+    /**
+     * @param layoutId     Layout of a row.
+     * @param itemCallback Tells which items are the same entity and whether their displayed content changed.
+     */
+    protected DiffingListAdapter(int layoutId, DiffUtil.ItemCallback<T> itemCallback) {
+        this.layoutId = layoutId;
+        this.differ = new AsyncListDiffer<>(this, itemCallback);
+    }
+
+    /**
+     * Creates the holder of a newly inflated row.
+     *
+     * @param itemView Inflated row.
+     * @return Holder of the row.
+     */
+    protected abstract H createHolder(View itemView);
+
+    /**
+     * Shows a new list. The difference with the current one is computed in the background.
+     *
+     * @param items New items, or null to show nothing.
+     */
+    public void submitList(List<T> items) {
+        differ.submitList(items);
+    }
+
+    /**
+     * Shows a new list and runs an action once it is displayed.
+     *
+     * @param items          New items, or null to show nothing.
+     * @param commitCallback Called after the list is applied.
+     */
+    public void submitList(List<T> items, Runnable commitCallback) {
+        differ.submitList(items, commitCallback);
+    }
+
+    /**
+     * @return The list currently shown (read only).
+     */
+    public List<T> getCurrentList() {
+        return differ.getCurrentList();
+    }
+
+    /**
+     * @param position Row position.
+     * @return Item shown at that position.
+     */
+    public T getItem(int position) {
+        return differ.getCurrentList().get(position);
+    }
+
+    /**
+     * Sets the listener notified when a row is clicked.
+     *
+     * @param listener Listener, or null for none.
+     */
+    public void setOnItemClickListener(OnItemClickListener<T> listener) {
+        this.onItemClickListener = listener;
+    }
+
+    @Override
+    public int getItemCount() {
+        return differ.getCurrentList().size();
+    }
+
+    @NonNull
+    @Override
+    public H onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View row = LayoutInflater.from(parent.getContext()).inflate(layoutId, parent, false);
+        H holder = createHolder(row);
+        row.setOnClickListener(v -> {
+            int position = holder.getBindingAdapterPosition();
+            if (position != RecyclerView.NO_POSITION && onItemClickListener != null)
+                onItemClickListener.onItemClick(getItem(position));
+        });
+        return holder;
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull H holder, int position) {
+        holder.bind(getItem(position));
+    }
+
+    @Override
+    public void onViewRecycled(@NonNull H holder) {
+        holder.onRecycled();
+    }
+}
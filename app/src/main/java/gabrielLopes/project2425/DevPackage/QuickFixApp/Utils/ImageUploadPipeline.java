@@ -0,0 +1,228 @@
+package gabrielLopes.project2425.DevPackage.QuickFixApp.Utils;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Matrix;
+import android.media.ExifInterface;
+import android.net.Uri;
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.Buffer;
+import okio.ByteString;
+
+/**
+ * Turns a picked photo into a small JPEG ready to upload, off the main thread.
+ * <p>
+ * The photo is read straight from its content URI, never copied to a file:
+ * <ol>
+ *     <li>its size is read without decoding it;</li>
+ *     <li>it is decoded with the largest power-of-two sampling that still leaves it larger than
+ *     the maximum dimension, so a 12 MP photo never lives in memory at full resolution;</li>
+ *     <li>it is scaled down to the maximum dimension and turned upright from its EXIF orientation;</li>
+ *     <li>it is encoded as JPEG at the configured quality into memory. Re-encoding drops every
+ *     metadata field of the original (location, camera, date...).</li>
+ * </ol>
+ * Images are prepared one at a time on a single background thread.
+ */
+public class ImageUploadPipeline {
+
+    /** Longest side of uploaded pictures, in pixels. */
+    public static final int DEFAULT_MAX_DIMENSION = 1024;
+    /** JPEG quality of uploaded pictures, from 0 to 100. */
+    public static final int DEFAULT_QUALITY = 85;
+
+    private static final MediaType JPEG = MediaType.parse("image/jpeg");
+    private static final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    private final int maxDimension;
+    private final int quality;
+
+    /**
+     * Receives the prepared image, on the background thread.
+     */
+    public interface Callback {
+        void onReady(PreparedImage image);
+        void onFailure(String errorMessage);
+    }
+
+    /**
+     * @param maxDimension Longest side of the result, in pixels.
+     * @param quality      JPEG quality, from 0 to 100.
+     */
+    public ImageUploadPipeline(int maxDimension, int quality) {
+        this.maxDimension = maxDimension;
+        this.quality = quality;
+    }
+
+    /**
+     * Prepares an image in the background.
+     *
+     * @param context  Any context; only its content resolver is kept.
+     * @param uri      Content URI of the picked image.
+     * @param callback Called on the background thread with the result.
+     */
+    public void prepare(Context context, Uri uri, Callback callback) {
+        ContentResolver resolver = context.getApplicationContext().getContentResolver();
+        long startedAt = SystemClock.elapsedRealtime();
+        executor.execute(() -> {
+            PreparedImage image;
+            try {
+                image = encode(resolver, uri, startedAt);
+            } catch (IOException | RuntimeException | OutOfMemoryError e) {
+                callback.onFailure("Failed to process image");
+                return;
+            }
+            callback.onReady(image);
+        });
+    }
+
+    private PreparedImage encode(ContentResolver resolver, Uri uri, long startedAt) throws IOException {
+        BitmapFactory.Options bounds = new BitmapFactory.Options();
+        bounds.inJustDecodeBounds = true;
+        try (InputStream in = open(resolver, uri)) {
+            BitmapFactory.decodeStream(in, null, bounds);
+        }
+        if (bounds.outWidth <= 0 || bounds.outHeight <= 0)
+            throw new IOException("Not an image: " + uri);
+
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inSampleSize = sampleSize(bounds.outWidth, bounds.outHeight, maxDimension);
+        Bitmap decoded;
+        try (InputStream in = open(resolver, uri)) {
+            decoded = BitmapFactory.decodeStream(in, null, options);
+        }
+        if (decoded == null)
+            throw new IOException("Could not decode " + uri);
+
+        Bitmap upright = scaleAndRotate(decoded, maxDimension, readRotation(resolver, uri));
+        int width = upright.getWidth();
+        int height = upright.getHeight();
+        Buffer jpeg = new Buffer();
+        try {
+            upright.compress(Bitmap.CompressFormat.JPEG, quality, jpeg.outputStream());
+        } finally {
+            if (upright != decoded)
+                upright.recycle();
+            decoded.recycle();
+        }
+        return new PreparedImage(jpeg.readByteString(), bounds.outWidth, bounds.outHeight,
+                width, height, startedAt);
+    }
+
+    /**
+     * @return The largest power of two that keeps the longest side at least {@code maxDimension}.
+     */
+    private static int sampleSize(int width, int height, int maxDimension) {
+        int longest = Math.max(width, height);
+        int sample = 1;
+        while (longest / (sample * 2) >= maxDimension)
+            sample *= 2;
+        return sample;
+    }
+
+    /**
+     * @return The bitmap scaled down to {@code maxDimension} and rotated, or the same bitmap if
+     * nothing had to change.
+     */
+    private static Bitmap scaleAndRotate(Bitmap bitmap, int maxDimension, int degrees) {
+        float scale = Math.min(1f, (float) maxDimension / Math.max(bitmap.getWidth(), bitmap.getHeight()));
+        if (scale == 1f && degrees == 0)
+            return bitmap;
+        Matrix matrix = new Matrix();
+        matrix.postScale(scale, scale);
+        matrix.postRotate(degrees);
+        return Bitmap.createBitmap(bitmap, 0, 0, bitmap.getWidth(), bitmap.getHeight(), matrix, true);
+    }
+
+    /**
+     * @return Clockwise rotation stored in the EXIF data of the image, 0 if none or unreadable.
+     */
+    private static int readRotation(ContentResolver resolver, Uri uri) {
+        try (InputStream in = open(resolver, uri)) {
+            int orientation = new ExifInterface(in).getAttributeInt(
+                    ExifInterface.TAG_ORIENTATION, ExifInterface.ORIENTATION_NORMAL);
+            switch (orientation) {
+                case ExifInterface.ORIENTATION_ROTATE_90:
+                    return 90;
+                case ExifInterface.ORIENTATION_ROTATE_180:
+                    return 180;
+                case ExifInterface.ORIENTATION_ROTATE_270:
+                    return 270;
+                default:
+                    return 0;
+            }
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static InputStream open(ContentResolver resolver, Uri uri) throws IOException {
+        InputStream in = resolver.openInputStream(uri);
+        if (in == null)
+            throw new FileNotFoundException("Cannot open " + uri);
+        return in;
+    }
+
+    /**
+     * A picture encoded and ready to upload, with what it cost to get there.
+     */
+    public static class PreparedImage {
+        private final ByteString bytes;
+        private final int sourceWidth;
+        private final int sourceHeight;
+        private final int width;
+        private final int height;
+        private final long startedAt;
+
+        PreparedImage(ByteString bytes, int sourceWidth, int sourceHeight, int width, int height, long startedAt) {
+            this.bytes = bytes;
+            this.sourceWidth = sourceWidth;
+            this.sourceHeight = sourceHeight;
+            this.width = width;
+            this.height = height;
+            this.startedAt = startedAt;
+        }
+
+        /**
+         * @return Body of the upload. It can be written several times, e.g. when OkHttp retries.
+         */
+        public RequestBody toRequestBody() {
+            return RequestBody.create(JPEG, bytes);
+        }
+
+        /**
+         * @return Encoded picture, e.g. to save it for a resumable upload.
+         */
+        public byte[] toByteArray() {
+            return bytes.toByteArray();
+        }
+
+        /** File name sent with the upload. */
+        public String getFileName() { return "profile.jpg"; }
+
+        /** Bytes sent to the backend. */
+        public long getByteCount() { return bytes.size(); }
+
+        /** Time since the image was picked, in milliseconds. */
+        public long getElapsedMs() { return SystemClock.elapsedRealtime() - startedAt; }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return sourceWidth + "x" + sourceHeight + " -> " + width + "x" + height + ", "
+                    + getByteCount() / 1024 + " KB, " + getElapsedMs() + " ms";
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package gabrielLopes.project2425.DevPackage.QuickFixApp.Utils;
+
+import android.os.SystemClock;
+import android.util.Log;
+import android.view.View;
+import android.view.ViewTreeObserver;
+
+import androidx.annotation.NonNull;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import gabrielLopes.project2425.DevPackage.QuickFixApp.BuildConfig;
+
+/**
+ * Measures a change shown to the user before the backend confirms it.
+ * <p>
+ * Records two delays from the moment the user confirmed the action: until the new state was
+ * drawn on screen (time to feedback) and until the backend accepted it (time to confirmation).
+ * Rejected changes are counted as rollbacks. Counters are shared by all screens.
+ */
+public class OptimisticUpdate {
+
+    private static final String TAG = "OptimisticUpdate";
+    private static final Stats stats = new Stats();
+
+    private final String name;
+    private final long startedAt = SystemClock.elapsedRealtime();
+    private boolean settled;
+
+    private OptimisticUpdate(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Starts measuring a change. Call it as soon as the user confirms the action.
+     *
+     * @param name Name of the action, used in debug logs.
+     * @return Measurement to complete with {@link #shown(View)} and {@link #confirmed()} or {@link #rolledBack()}.
+     */
+    public static OptimisticUpdate begin(String name) {
+        return new OptimisticUpdate(name);
+    }
+
+    /**
+     * Records the time to feedback when the next frame containing the view is drawn.
+     *
+     * @param view View that displays the new state.
+     */
+    public void shown(View view) {
+        ViewTreeObserver observer = view.getViewTreeObserver();
+        observer.addOnPreDrawListener(new ViewTreeObserver.OnPreDrawListener() {
+            @Override
+            public boolean onPreDraw() {
+                view.getViewTreeObserver().removeOnPreDrawListener(this);
+                long elapsed = SystemClock.elapsedRealtime() - startedAt;
+                stats.record(stats.feedbackCount, stats.totalFeedbackMs, stats.maxFeedbackMs, elapsed);
+                if (BuildConfig.DEBUG)
+                    Log.d(TAG, name + " shown after " + elapsed + " ms");
+                return true;
+            }
+        });
+        view.invalidate();
+    }
+
+    /**
+     * Records the time to confirmation. Only the first outcome of a measurement counts.
+     */
+    public void confirmed() {
+        if (settled)
+            return;
+        settled = true;
+        long elapsed = SystemClock.elapsedRealtime() - startedAt;
+        stats.record(stats.confirmationCount, stats.totalConfirmationMs, stats.maxConfirmationMs, elapsed);
+        if (BuildConfig.DEBUG)
+            Log.d(TAG, name + " confirmed after " + elapsed + " ms");
+    }
+
+    /**
+     * Records that the backend rejected the change and the screen undid it.
+     */
+    public void rolledBack() {
+        if (settled)
+            return;
+        settled = true;
+        stats.rollbacks.incrementAndGet();
+        if (BuildConfig.DEBUG)
+            Log.d(TAG, name + " rolled back after " + (SystemClock.elapsedRealtime() - startedAt) + " ms");
+    }
+
+    /**
+     * @return Counters of every measured change.
+     */
+    public static Stats getStats() {
+        return stats;
+    }
+
+    /**
+     * Time to feedback versus time to confirmation, over all optimistic changes.
+     */
+    public static class Stats {
+        private final AtomicLong feedbackCount = new AtomicLong();
+        private final AtomicLong totalFeedbackMs = new AtomicLong();
+        private final AtomicLong maxFeedbackMs = new AtomicLong();
+        private final AtomicLong confirmationCount = new AtomicLong();
+        private final AtomicLong totalConfirmationMs = new AtomicLong();
+        private final AtomicLong maxConfirmationMs = new AtomicLong();
+        private final AtomicLong rollbacks = new AtomicLong();
+
+        private void record(AtomicLong count, AtomicLong total, AtomicLong max, long elapsed) {
+            count.incrementAndGet();
+            total.addAndGet(elapsed);
+            if (elapsed > max.get())
+                max.set(elapsed);
+        }
+
+        /** Average delay until the new state was drawn, in milliseconds. */
+        public long getAverageFeedbackMs() { return average(totalFeedbackMs, feedbackCount); }
+
+        /** Longest delay until the new state was drawn, in milliseconds. */
+        public long getMaxFeedbackMs() { return maxFeedbackMs.get(); }
+
+        /** Average delay until the backend accepted the change, in milliseconds. */
+        public long getAverageConfirmationMs() { return average(totalConfirmationMs, confirmationCount); }
+
+        /** Longest delay until the backend accepted the change, in milliseconds. */
+        public long getMaxConfirmationMs() { return maxConfirmationMs.get(); }
+
+        /** Changes undone because the backend rejected them. */
+        public long getRollbacks() { return rollbacks.get(); }
+
+        private static long average(AtomicLong total, AtomicLong count) {
+            long n = count.get();
+            return n == 0 ? 0 : total.get() / n;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return "feedback avg/max=" + getAverageFeedbackMs() + "/" + getMaxFeedbackMs()
+                    + " ms, confirmation avg/max=" + getAverageConfirmationMs() + "/" + getMaxConfirmationMs()
+                    + " ms, rollbacks=" + getRollbacks();
+        }
+    }
+}
@@ -2,6 +2,7 @@ package gabrielLopes.project2425.DevPackage.QuickFixApp.Utils;
 
 import android.app.Activity;
 import android.content.Context;
+import android.graphics.drawable.Drawable;
 import android.provider.MediaStore;
 import android.widget.ImageView;
 import android.content.Intent;
@@ -9,25 +10,36 @@ import android.net.Uri;
 import android.widget.Toast;
 import androidx.activity.result.ActivityResultLauncher;
 import androidx.activity.result.ActivityResult;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.lifecycle.LifecycleOwner;
 
-import java.io.File;
-import java.io.FileOutputStream;
-import java.io.IOException;
 import com.bumptech.glide.Glide;
-import com.bumptech.glide.signature.ObjectKey;
+import com.bumptech.glide.load.DataSource;
+import com.bumptech.glide.load.DecodeFormat;
+import com.bumptech.glide.load.engine.GlideException;
+import com.bumptech.glide.request.RequestListener;
+import com.bumptech.glide.request.target.Target;
 
-import java.io.InputStream;
-import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicLong;
 
 import gabrielLopes.project2425.DevPackage.QuickFixApp.R;
+import gabrielLopes.project2425.DevPackage.QuickFixApp.ServerInterfacePackage.ApiCall;
 import gabrielLopes.project2425.DevPackage.QuickFixApp.ServerInterfacePackage.ApiManager;
+import gabrielLopes.project2425.DevPackage.QuickFixApp.ServerInterfacePackage.RequestScope;
 
 /**
  * Utility class for handling profile picture selection, upload, and loading.
  */
 public class ProfilePicHandler {
 
+    /** Pictures above this size are sent in resumable chunks rather than in one request. */
+    private static final int RESUMABLE_UPLOAD_THRESHOLD = 256 * 1024;
+    private static final CacheStats cacheStats = new CacheStats();
+    private static final ImageUploadPipeline uploadPipeline = new ImageUploadPipeline(
+            ImageUploadPipeline.DEFAULT_MAX_DIMENSION, ImageUploadPipeline.DEFAULT_QUALITY);
+
     /**
      * Callback interface for profile picture upload result.
      */
@@ -40,27 +52,21 @@ public class ProfilePicHandler {
      * Downloads and loads a user's profile picture into an ImageView using Glide.
      * <p>
      * Glide prevents UI lag and avoids memory leaks by handling image decoding and recycling internally.
+     * The URL lookup is cancelled if the activity is destroyed before it returns.
      * </p>
      * @param activity The current activity context.
      * @param userId ID of the user whose picture should be loaded.
      * @param imageView ImageView to update.
+     * @return Handle to cancel the URL lookup, e.g. when a list row is reused for another user.
      */
-    public static void getProfilePicture(Activity activity, int userId, ImageView imageView) {
-        ApiManager.getProfilePicture(userId, new ApiManager.ProfilePictureCallback() {
+    public static ApiCall getProfilePicture(Activity activity, int userId, ImageView imageView) {
+        ApiCall call = ApiManager.getProfilePicture(userId, new ApiManager.ProfilePictureCallback() {
             @Override
             public void onSuccess(String imageUrl) {
                 Context context = activity instanceof AppCompatActivity
                         ? (AppCompatActivity) activity
                         : activity.getApplicationContext();
-
-                Glide.with(context).clear(imageView);
-                imageView.setImageDrawable(null);
-
-                Glide.with(context)
-                        .load(imageUrl)
-                        .signature(new ObjectKey(System.currentTimeMillis()))  // Forces cache refresh
-                        .error(R.drawable.ic_user)
-                        .into(imageView);
+                load(context, imageUrl, imageView);
             }
 
             @Override
@@ -68,12 +74,63 @@ public class ProfilePicHandler {
                 activity.runOnUiThread(() -> imageView.setImageResource(R.drawable.ic_user));
             }
         });
+
+        if (activity instanceof LifecycleOwner)
+            RequestScope.of((LifecycleOwner) activity).track(call);
+        return call;
+    }
+
+    /**
+     * Loads a picture URL into an ImageView, or the default icon if the user has none.
+     * <p>
+     * Picture URLs are derived from the picture content by the backend, so a URL never shows
+     * another image: Glide keys its memory and disk caches on it and a picture is downloaded
+     * once, until the user uploads a new one (which gets a new URL).
+     * </p>
+     * <p>
+     * Avatars are small opaque thumbnails, so they are decoded at the size of the view in RGB_565,
+     * half the memory of ARGB_8888. Glide still uses ARGB_8888 for images with transparency.
+     * </p>
+     */
+    private static void load(Context context, String imageUrl, ImageView imageView) {
+        if (imageUrl == null || imageUrl.isEmpty()) {
+            Glide.with(context).clear(imageView);
+            imageView.setImageResource(R.drawable.ic_user);
+            return;
+        }
+        Glide.with(context)
+                .load(imageUrl)
+                .format(DecodeFormat.PREFER_RGB_565)
+                .error(R.drawable.ic_user)
+                .listener(cacheStats)
+                .into(imageView);
+    }
+
+    /**
+     * @return Where avatars were loaded from: memory cache, disk cache or network.
+     */
+    public static CacheStats getCacheStats() {
+        return cacheStats;
+    }
+
+    /**
+     * Stops any picture load into an ImageView and empties it.
+     *
+     * @param activity  The current activity.
+     * @param imageView ImageView to clear.
+     */
+    public static void clear(Activity activity, ImageView imageView) {
+        Glide.with(activity).clear(imageView);
+        imageView.setImageDrawable(null);
     }
 
     /**
      * Uploads a selected image URI to the server as the new profile picture.
      * <p>
-     * Glide ensures smooth image transitions, handles disk and memory caching, and avoids unnecessary reloads.
+     * The photo is downscaled and re-encoded in the background before being sent (see
+     * {@link ImageUploadPipeline}), so the main thread never touches its bytes and a camera
+     * photo goes over the network as a few hundred KB. Larger results are sent in chunks that
+     * resume after a dropped connection.
      * </p>
      * @param activity The current activity.
      * @param imageUri The URI of the selected image.
@@ -81,38 +138,41 @@ public class ProfilePicHandler {
      * @param callback Optional callback to notify success/failure.
      */
     public static void uploadProfilePicture(Activity activity, Uri imageUri, ImageView profileImageView, UploadCallback callback) {
-        try {
-            File imageFile = createTempFileFromUri(activity, imageUri);
-            ApiManager.uploadProfilePicture(imageFile, new ApiManager.ProfilePictureCallback() {
-                @Override
-                public void onSuccess(String imageUrl) {
-                    activity.runOnUiThread(() -> {
-                        Glide.with(activity).clear(profileImageView);
-                        profileImageView.setImageDrawable(null);
-
-                        Glide.with(activity)
-                                .load(imageUrl)
-                                .signature(new ObjectKey(System.currentTimeMillis()))  // Forces cache refresh
-                                .error(R.drawable.ic_user)
-                                .into(profileImageView);
-
-
-                        if (callback != null) callback.onUploadSuccess();
-                    });
-                }
-
-                @Override
-                public void onFailure(String errorMessage) {
-                    activity.runOnUiThread(() -> {
-                        Toast.makeText(activity, errorMessage, Toast.LENGTH_LONG).show();
-                        if (callback != null) callback.onUploadFailure(errorMessage);
-                    });
-                }
-            });
-        } catch (IOException e) {
-            Toast.makeText(activity, "Failed to process image", Toast.LENGTH_SHORT).show();
-            if (callback != null) callback.onUploadFailure("File conversion failed.");
-        }
+        uploadPipeline.prepare(activity, imageUri, new ImageUploadPipeline.Callback() {
+            @Override
+            public void onReady(ImageUploadPipeline.PreparedImage image) {
+                ApiManager.ProfilePictureCallback uploadCallback = new ApiManager.ProfilePictureCallback() {
+                    @Override
+                    public void onSuccess(String imageUrl) {
+                        activity.runOnUiThread(() -> {
+                            load(activity, imageUrl, profileImageView);
+                            if (callback != null) callback.onUploadSuccess();
+                        });
+                    }
+
+                    @Override
+                    public void onFailure(String errorMessage) {
+                        showUploadFailure(activity, errorMessage, callback);
+                    }
+                };
+                if (image.getByteCount() > RESUMABLE_UPLOAD_THRESHOLD)
+                    ApiManager.uploadProfilePictureResumable(image.toByteArray(), uploadCallback);
+                else
+                    ApiManager.uploadProfilePicture(image.toRequestBody(), image.getFileName(), uploadCallback);
+            }
+
+            @Override
+            public void onFailure(String errorMessage) {
+                showUploadFailure(activity, errorMessage, callback);
+            }
+        });
+    }
+
+    private static void showUploadFailure(Activity activity, String errorMessage, UploadCallback callback) {
+        activity.runOnUiThread(() -> {
+            Toast.makeText(activity, errorMessage, Toast.LENGTH_LONG).show();
+            if (callback != null) callback.onUploadFailure(errorMessage);
+        });
     }
 
     /**
@@ -147,26 +207,61 @@ public class ProfilePicHandler {
     }
 
     /**
-     * Converts a content URI to a temporary File in the cache directory.
-     *
-     * @param context The context for accessing content resolver and cache.
-     * @param uri The URI of the image to convert.
-     * @return A temporary File object created from the image URI.
-     * @throws IOException If reading or writing the file fails.
+     * Counts where avatar images came from, to check that the Glide caches are effective.
      */
-    public static File createTempFileFromUri(Context context, Uri uri) throws IOException {
-        InputStream inputStream = context.getContentResolver().openInputStream(uri);
-        String fileName = "temp_profile_pic.jpg";
-        File tempFile = new File(context.getCacheDir(), fileName);
-
-        try (OutputStream outputStream = new FileOutputStream(tempFile)) {
-            byte[] buffer = new byte[4 * 1024];
-            int read;
-            while ((read = inputStream.read(buffer)) != -1) {
-                outputStream.write(buffer, 0, read);
+    public static class CacheStats implements RequestListener<Drawable> {
+        private final AtomicLong memoryHits = new AtomicLong();
+        private final AtomicLong diskHits = new AtomicLong();
+        private final AtomicLong downloads = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+
+        @Override
+        public boolean onLoadFailed(@Nullable GlideException e, Object model, @NonNull Target<Drawable> target, boolean isFirstResource) {
+            failures.incrementAndGet();
+            return false;
+        }
+
+        @Override
+        public boolean onResourceReady(@NonNull Drawable resource, @NonNull Object model, Target<Drawable> target,
+                                       @NonNull DataSource dataSource, boolean isFirstResource) {
+            switch (dataSource) {
+                case MEMORY_CACHE:
+                    memoryHits.incrementAndGet();
+                    break;
+                case REMOTE:
+                    downloads.incrementAndGet();
+                    break;
+                default:
+                    diskHits.incrementAndGet();
+                    break;
             }
-            outputStream.flush();
+            return false;
+        }
+
+        /** Avatars shown from decoded images kept in memory. */
+        public long getMemoryHits() { return memoryHits.get(); }
+
+        /** Avatars decoded from the disk cache. */
+        public long getDiskHits() { return diskHits.get(); }
+
+        /** Avatars downloaded from the network. */
+        public long getDownloads() { return downloads.get(); }
+
+        /** Avatars that could not be loaded. */
+        public long getFailures() { return failures.get(); }
+
+        /** Share of loaded avatars that did not need a download, from 0 to 1. */
+        public double getHitRate() {
+            long hits = memoryHits.get() + diskHits.get();
+            long total = hits + downloads.get();
+            return total == 0 ? 0 : (double) hits / total;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return "memory=" + getMemoryHits() + ", disk=" + getDiskHits() + ", downloads=" + getDownloads()
+                    + ", failures=" + getFailures() + ", hit rate=" + Math.round(getHitRate() * 100) + "%";
         }
-        return tempFile;
     }
-}
\ No newline at end of file
+}
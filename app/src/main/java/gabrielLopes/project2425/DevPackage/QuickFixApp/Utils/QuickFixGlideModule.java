@@ -0,0 +1,78 @@
+package gabrielLopes.project2425.DevPackage.QuickFixApp.Utils;
+
+import android.app.ActivityManager;
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.bumptech.glide.GlideBuilder;
+import com.bumptech.glide.annotation.GlideModule;
+import com.bumptech.glide.load.engine.bitmap_recycle.LruBitmapPool;
+import com.bumptech.glide.load.engine.cache.InternalCacheDiskCacheFactory;
+import com.bumptech.glide.load.engine.cache.LruResourceCache;
+import com.bumptech.glide.load.engine.cache.MemorySizeCalculator;
+import com.bumptech.glide.load.resource.bitmap.DownsampleStrategy;
+import com.bumptech.glide.module.AppGlideModule;
+import com.bumptech.glide.request.RequestOptions;
+
+import gabrielLopes.project2425.DevPackage.QuickFixApp.BuildConfig;
+
+/**
+ * Glide configuration of the app, sized from the memory class of the device.
+ * <p>
+ * Glide keeps one memory cache and one bitmap pool for the whole process: every screen loading
+ * avatars draws from and returns bitmaps to the same pool, so a row recycled in a list frees its
+ * bitmap for the next row or the next screen instead of allocating a new one.
+ * <p>
+ * Low RAM devices and devices with a small heap keep about one screen of images in memory and a
+ * smaller disk cache; the others keep a few screens so scrolling back does not decode again.
+ * Images are never decoded larger than the view that shows them.
+ */
+@GlideModule
+public final class QuickFixGlideModule extends AppGlideModule {
+
+    private static final String TAG = "QuickFixGlide";
+    private static final String DISK_CACHE_DIR = "avatars";
+
+    /** Heap below which a device is treated as low memory, in MB. */
+    private static final int SMALL_HEAP_MB = 128;
+    private static final long SMALL_DISK_CACHE_BYTES = 32L * 1024 * 1024;
+    private static final long DISK_CACHE_BYTES = 128L * 1024 * 1024;
+
+    @Override
+    public void applyOptions(@NonNull Context context, @NonNull GlideBuilder builder) {
+        ActivityManager activityManager = (ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
+        boolean lowMemory = activityManager == null
+                || activityManager.isLowRamDevice()
+                || activityManager.getMemoryClass() < SMALL_HEAP_MB;
+
+        MemorySizeCalculator calculator = new MemorySizeCalculator.Builder(context)
+                .setMemoryCacheScreens(lowMemory ? 1 : 2)
+                .setBitmapPoolScreens(lowMemory ? 1 : 3)
+                .setMaxSizeMultiplier(lowMemory ? 0.25f : 0.4f)
+                .setLowMemoryMaxSizeMultiplier(0.25f)
+                .build();
+        long diskCacheBytes = lowMemory ? SMALL_DISK_CACHE_BYTES : DISK_CACHE_BYTES;
+
+        builder.setMemoryCache(new LruResourceCache(calculator.getMemoryCacheSize()))
+                .setBitmapPool(new LruBitmapPool(calculator.getBitmapPoolSize()))
+                .setDiskCache(new InternalCacheDiskCacheFactory(context, DISK_CACHE_DIR, diskCacheBytes))
+                .setDefaultRequestOptions(new RequestOptions().downsample(DownsampleStrategy.AT_MOST))
+                .setLogLevel(Log.ERROR);
+
+        if (BuildConfig.DEBUG) {
+            Log.d(TAG, "memory cache=" + calculator.getMemoryCacheSize() + " B, bitmap pool="
+                    + calculator.getBitmapPoolSize() + " B, disk cache=" + diskCacheBytes + " B, low memory=" + lowMemory);
+        }
+    }
+
+    /**
+     * No library registers its own module through the manifest; skipping the scan speeds up
+     * Glide's first use.
+     */
+    @Override
+    public boolean isManifestParsingEnabled() {
+        return false;
+    }
+}
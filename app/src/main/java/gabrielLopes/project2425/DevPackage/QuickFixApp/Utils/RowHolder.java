@@ -0,0 +1,131 @@
+package gabrielLopes.project2425.DevPackage.QuickFixApp.Utils;
+
+import android.os.SystemClock;
+import android.text.TextUtils;
+import android.view.View;
+import android.widget.ImageView;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Holds the views of one list row so they are looked up once, when the row is inflated.
+ * <p>
+ * Subclasses resolve their views in the constructor and fill them in {@link #onBind(Object)}.
+ * Static content (icons defined in the layout) is never set again. The setters below skip views
+ * whose value did not change, so rebinding the same data does not invalidate or relayout the row.
+ * <p>
+ * Inflations, binds and bind time are counted for every row type, see {@link #getStats()}.
+ *
+ * @param <T> Type of the item shown in the row.
+ */
+public abstract class RowHolder<T> extends RecyclerView.ViewHolder {
+
+    private static final Stats stats = new Stats();
+
+    /**
+     * @param itemView Inflated row.
+     */
+    protected RowHolder(View itemView) {
+        super(itemView);
+        stats.inflations.incrementAndGet();
+    }
+
+    /**
+     * Fills the row with an item and records how long it took.
+     *
+     * @param item Item to show.
+     */
+    public final void bind(T item) {
+        long start = SystemClock.elapsedRealtimeNanos();
+        onBind(item);
+        stats.binds.incrementAndGet();
+        stats.totalBindNs.addAndGet(SystemClock.elapsedRealtimeNanos() - start);
+    }
+
+    /**
+     * Fills the row with an item.
+     *
+     * @param item Item to show.
+     */
+    protected abstract void onBind(T item);
+
+    /**
+     * Called when the row scrolled out and waits in the pool for a new item.
+     * Subclasses release what the row holds that is expensive to keep, e.g. a loaded image.
+     */
+    protected void onRecycled() {}
+
+    /**
+     * Sets the text of a view unless it already shows it.
+     *
+     * @param view View to update.
+     * @param text Text to show.
+     */
+    protected static void setText(TextView view, CharSequence text) {
+        if (TextUtils.equals(view.getText(), text)) {
+            stats.skippedUpdates.incrementAndGet();
+            return;
+        }
+        view.setText(text);
+    }
+
+    /**
+     * Sets the drawable of an image unless it already shows it.
+     *
+     * @param view       View to update.
+     * @param current    Drawable the view currently shows (0 if unknown).
+     * @param drawableId Drawable to show.
+     * @return The drawable now shown, to be passed as {@code current} next time.
+     */
+    protected static int setImageResource(ImageView view, int current, int drawableId) {
+        if (current == drawableId) {
+            stats.skippedUpdates.incrementAndGet();
+            return current;
+        }
+        view.setImageResource(drawableId);
+        return drawableId;
+    }
+
+    /**
+     * @return Counters shared by every row type.
+     */
+    public static Stats getStats() {
+        return stats;
+    }
+
+    /**
+     * Row inflations versus binds, and time spent binding.
+     */
+    public static class Stats {
+        private final AtomicLong inflations = new AtomicLong();
+        private final AtomicLong binds = new AtomicLong();
+        private final AtomicLong totalBindNs = new AtomicLong();
+        private final AtomicLong skippedUpdates = new AtomicLong();
+
+        /** Rows inflated, each with its one-time view lookup. */
+        public long getInflations() { return inflations.get(); }
+
+        /** Rows filled with an item. */
+        public long getBinds() { return binds.get(); }
+
+        /** Average time to fill a row, in microseconds. */
+        public long getAverageBindMicros() {
+            long n = binds.get();
+            return n == 0 ? 0 : totalBindNs.get() / n / 1000;
+        }
+
+        /** View updates skipped because the view already showed the value. */
+        public long getSkippedUpdates() { return skippedUpdates.get(); }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return "inflations=" + getInflations() + ", binds=" + getBinds()
+                    + ", avg bind=" + getAverageBindMicros() + " us, skipped updates=" + getSkippedUpdates();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package gabrielLopes.project2425.DevPackage.QuickFixApp.Utils;
+
+import android.os.Handler;
+import android.os.Looper;
+
+/**
+ * Delays an action until the user stops typing for a given window.
+ * <p>
+ * Every call to {@link #submit(Runnable)} restarts the window, so a burst of keystrokes
+ * results in a single run. Actions always run on the main thread.
+ */
+public class SearchDebouncer {
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final long windowMs;
+    private Runnable pending;
+
+    /**
+     * Creates a debouncer.
+     *
+     * @param windowMs Quiet time (in milliseconds) required before the action runs.
+     */
+    public SearchDebouncer(long windowMs) {
+        this.windowMs = windowMs;
+    }
+
+    /**
+     * Schedules an action, replacing any action still waiting for its window to end.
+     *
+     * @param action Action to run once input settles.
+     */
+    public void submit(Runnable action) {
+        cancel();
+        pending = () -> {
+            pending = null;
+            action.run();
+        };
+        handler.postDelayed(pending, windowMs);
+    }
+
+    /**
+     * Drops the waiting action without running it.
+     */
+    public void cancel() {
+        if (pending != null) {
+            handler.removeCallbacks(pending);
+            pending = null;
+        }
+    }
+}
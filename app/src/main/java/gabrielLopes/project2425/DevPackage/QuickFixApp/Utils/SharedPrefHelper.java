@@ -5,8 +5,20 @@ import android.content.SharedPreferences;
 
 import androidx.appcompat.app.AppCompatDelegate;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 /**
  * Handles saving and retrieving local preferences like user info, filters, and theme mode.
+ * <p>
+ * Preferences are read from disk once, on a background thread started by {@link #preload(Context)},
+ * into an in-memory snapshot. Getters answer from the snapshot, so reading the session on every
+ * API call or the theme in every activity never touches the disk. Setters update the snapshot
+ * right away and persist in the background; changes made close together are written in a single
+ * commit.
  */
 public class SharedPrefHelper {
 
@@ -27,6 +39,78 @@ public class SharedPrefHelper {
     private static final String FILTER_BUDGET_PROVIDER = "FILTER_BUDGET_PROVIDER";
     private static final String FILTER_DISTANCE_PROVIDER = "FILTER_DISTANCE_PROVIDER";
 
+    private static final String MODE_REQUESTS = "REQUESTS";
+    private static final Filters DEFAULT_REQUEST_FILTERS = new Filters("", "", 0, 50);
+    private static final Filters DEFAULT_PROVIDER_FILTERS = new Filters("", "", 999999, 50);
+
+    /** Loads the snapshot, then writes changes in order. */
+    private static final ExecutorService diskExecutor = Executors.newSingleThreadExecutor();
+    private static final Object lock = new Object();
+    private static final CountDownLatch loaded = new CountDownLatch(1);
+    private static SharedPreferences prefs;
+
+    // Snapshot, guarded by lock
+    private static String authToken;
+    private static int userId = -1;
+    private static int themeMode = AppCompatDelegate.MODE_NIGHT_NO;
+    private static Filters requestFilters = DEFAULT_REQUEST_FILTERS;
+    private static Filters providerFilters = DEFAULT_PROVIDER_FILTERS;
+
+    // Changes not written yet, guarded by lock
+    private static final Map<String, Object> pendingWrites = new HashMap<>();
+    private static boolean pendingClear;
+    private static boolean flushScheduled;
+
+    /**
+     * Filter settings of one list mode.
+     */
+    public static final class Filters {
+        public final String spinner;
+        public final String query;
+        public final int budget;
+        public final double distance;
+
+        Filters(String spinner, String query, int budget, double distance) {
+            this.spinner = spinner;
+            this.query = query;
+            this.budget = budget;
+            this.distance = distance;
+        }
+    }
+
+    /**
+     * Starts reading the preferences in the background. Called once when the process starts;
+     * any getter used before the read completes waits for it.
+     *
+     * @param context Any context.
+     */
+    public static void preload(Context context) {
+        synchronized (lock) {
+            if (prefs != null)
+                return;
+            prefs = context.getApplicationContext().getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
+        }
+        diskExecutor.execute(SharedPrefHelper::load);
+    }
+
+    /**
+     * Stores the session of a user who just logged in, in a single write.
+     *
+     * @param context Application context.
+     * @param token Auth token to save.
+     * @param userId ID to save.
+     */
+    public static void saveSession(Context context, String token, int userId) {
+        if (!ready(context)) return;
+        synchronized (lock) {
+            authToken = token;
+            SharedPrefHelper.userId = userId;
+            pendingWrites.put(KEY_AUTH_TOKEN, token);
+            pendingWrites.put(KEY_USER_ID, userId);
+            scheduleFlush();
+        }
+    }
+
     /**
      * Stores the authentication token in shared preferences.
      *
@@ -34,9 +118,11 @@ public class SharedPrefHelper {
      * @param token Auth token to save.
      */
     public static void saveAuthToken(Context context, String token) {
-        if (context == null) return;
-        SharedPreferences prefs = context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
-        prefs.edit().putString(KEY_AUTH_TOKEN, token).apply();
+        if (!ready(context)) return;
+        synchronized (lock) {
+            authToken = token;
+            write(KEY_AUTH_TOKEN, token);
+        }
     }
 
     /**
@@ -46,9 +132,10 @@ public class SharedPrefHelper {
      * @return Saved auth token or null.
      */
     public static String getAuthToken(Context context) {
-        if (context == null) return null;
-        SharedPreferences prefs = context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
-        return prefs.getString(KEY_AUTH_TOKEN, null);
+        if (!ready(context)) return null;
+        synchronized (lock) {
+            return authToken;
+        }
     }
 
     /**
@@ -58,9 +145,11 @@ public class SharedPrefHelper {
      * @param userId ID to save.
      */
     public static void saveUserId(Context context, int userId) {
-        if (context == null) return;
-        SharedPreferences prefs = context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
-        prefs.edit().putInt(KEY_USER_ID, userId).apply();
+        if (!ready(context)) return;
+        synchronized (lock) {
+            SharedPrefHelper.userId = userId;
+            write(KEY_USER_ID, userId);
+        }
     }
 
     /**
@@ -70,9 +159,10 @@ public class SharedPrefHelper {
      * @return User ID or -1 if not found.
      */
     public static int getUserId(Context context) {
-        if (context == null) return -1;
-        SharedPreferences prefs = context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
-        return prefs.getInt(KEY_USER_ID, -1);
+        if (!ready(context)) return -1;
+        synchronized (lock) {
+            return userId;
+        }
     }
 
     /**
@@ -81,9 +171,17 @@ public class SharedPrefHelper {
      * @param context Application context.
      */
     public static void clearUserData(Context context) {
-        if (context == null) return;
-        SharedPreferences prefs = context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
-        prefs.edit().clear().apply();
+        if (!ready(context)) return;
+        synchronized (lock) {
+            authToken = null;
+            userId = -1;
+            themeMode = AppCompatDelegate.MODE_NIGHT_NO;
+            requestFilters = DEFAULT_REQUEST_FILTERS;
+            providerFilters = DEFAULT_PROVIDER_FILTERS;
+            pendingWrites.clear();
+            pendingClear = true;
+            scheduleFlush();
+        }
     }
 
     /**
@@ -97,63 +195,39 @@ public class SharedPrefHelper {
      * @param distance Max distance.
      */
     public static void saveFilters(Context context, String mode, String spinner, String query, int budget, double distance) {
-        if (context == null) return;
-        SharedPreferences prefs = context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
-        SharedPreferences.Editor editor = prefs.edit();
-
-        if (mode.equals("REQUESTS")) {
-            editor.putString(FILTER_SPINNER_REQUEST, spinner);
-            editor.putString(FILTER_QUERY_REQUEST, query);
-            editor.putInt(FILTER_BUDGET_REQUEST, budget);
-            editor.putFloat(FILTER_DISTANCE_REQUEST, (float) distance);
-        } else {
-            editor.putString(FILTER_SPINNER_PROVIDER, spinner);
-            editor.putString(FILTER_QUERY_PROVIDER, query);
-            editor.putInt(FILTER_BUDGET_PROVIDER, budget);
-            editor.putFloat(FILTER_DISTANCE_PROVIDER, (float) distance);
+        if (!ready(context)) return;
+        Filters filters = new Filters(spinner, query, budget, distance);
+        synchronized (lock) {
+            if (mode.equals(MODE_REQUESTS)) {
+                requestFilters = filters;
+                write(FILTER_SPINNER_REQUEST, spinner);
+                write(FILTER_QUERY_REQUEST, query);
+                write(FILTER_BUDGET_REQUEST, budget);
+                write(FILTER_DISTANCE_REQUEST, (float) distance);
+            } else {
+                providerFilters = filters;
+                write(FILTER_SPINNER_PROVIDER, spinner);
+                write(FILTER_QUERY_PROVIDER, query);
+                write(FILTER_BUDGET_PROVIDER, budget);
+                write(FILTER_DISTANCE_PROVIDER, (float) distance);
+            }
         }
-
-        editor.apply();
-    }
-
-    /**
-     * Gets the saved spinner filter based on mode.
-     */
-    public static String getFilterSpinner(Context context, String mode) {
-        SharedPreferences prefs = context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
-        return mode.equals("REQUESTS")
-                ? prefs.getString(FILTER_SPINNER_REQUEST, "")
-                : prefs.getString(FILTER_SPINNER_PROVIDER, "");
     }
 
     /**
-     * Gets the saved query filter based on mode.
-     */
-    public static String getFilterQuery(Context context, String mode) {
-        SharedPreferences prefs = context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
-        return mode.equals("REQUESTS")
-                ? prefs.getString(FILTER_QUERY_REQUEST, "")
-                : prefs.getString(FILTER_QUERY_PROVIDER, "");
-    }
-
-    /**
-     * Gets the saved budget filter based on mode.
-     */
-    public static int getFilterBudget(Context context, String mode) {
-        SharedPreferences prefs = context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
-        return mode.equals("REQUESTS")
-                ? prefs.getInt(FILTER_BUDGET_REQUEST, 0)
-                : prefs.getInt(FILTER_BUDGET_PROVIDER, 999999);
-    }
-
-    /**
-     * Gets the saved distance filter based on mode.
+     * Gets the saved filters based on mode.
+     *
+     * @param context Application context.
+     * @param mode "REQUESTS" or "PROVIDERS"
+     * @return Saved filters, or the defaults of the mode.
      */
-    public static double getFilterDistance(Context context, String mode) {
-        SharedPreferences prefs = context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
-        return mode.equals("REQUESTS")
-                ? prefs.getFloat(FILTER_DISTANCE_REQUEST, 50f)
-                : prefs.getFloat(FILTER_DISTANCE_PROVIDER, 50f);
+    public static Filters getFilters(Context context, String mode) {
+        boolean requests = mode.equals(MODE_REQUESTS);
+        if (!ready(context))
+            return requests ? DEFAULT_REQUEST_FILTERS : DEFAULT_PROVIDER_FILTERS;
+        synchronized (lock) {
+            return requests ? requestFilters : providerFilters;
+        }
     }
 
     /**
@@ -163,8 +237,11 @@ public class SharedPrefHelper {
      * @param mode Theme mode constant.
      */
     public static void saveThemeMode(Context context, int mode) {
-        SharedPreferences prefs = context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
-        prefs.edit().putInt(KEY_THEME_MODE, mode).apply();
+        if (!ready(context)) return;
+        synchronized (lock) {
+            themeMode = mode;
+            write(KEY_THEME_MODE, mode);
+        }
     }
 
     /**
@@ -174,8 +251,10 @@ public class SharedPrefHelper {
      * @return Saved mode or default mode.
      */
     public static int getThemeMode(Context context) {
-        SharedPreferences prefs = context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
-        return prefs.getInt(KEY_THEME_MODE, AppCompatDelegate.MODE_NIGHT_NO);
+        if (!ready(context)) return AppCompatDelegate.MODE_NIGHT_NO;
+        synchronized (lock) {
+            return themeMode;
+        }
     }
 
     /**
@@ -187,4 +266,103 @@ public class SharedPrefHelper {
         int savedMode = getThemeMode(context);
         AppCompatDelegate.setDefaultNightMode(savedMode);
     }
+
+    /**
+     * Makes sure the snapshot is loaded, waiting for the background read if it is still running.
+     *
+     * @return false if there is no context to load from.
+     */
+    private static boolean ready(Context context) {
+        if (loaded.getCount() == 0)
+            return true;
+        if (context == null)
+            return false;
+        preload(context);
+        try {
+            loaded.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Reads every preference into the snapshot. Runs on the disk thread.
+     */
+    private static void load() {
+        Map<String, ?> all = prefs.getAll();
+        synchronized (lock) {
+            authToken = (String) all.get(KEY_AUTH_TOKEN);
+            userId = intOf(all.get(KEY_USER_ID), -1);
+            themeMode = intOf(all.get(KEY_THEME_MODE), AppCompatDelegate.MODE_NIGHT_NO);
+            requestFilters = filtersOf(all, DEFAULT_REQUEST_FILTERS, FILTER_SPINNER_REQUEST,
+                    FILTER_QUERY_REQUEST, FILTER_BUDGET_REQUEST, FILTER_DISTANCE_REQUEST);
+            providerFilters = filtersOf(all, DEFAULT_PROVIDER_FILTERS, FILTER_SPINNER_PROVIDER,
+                    FILTER_QUERY_PROVIDER, FILTER_BUDGET_PROVIDER, FILTER_DISTANCE_PROVIDER);
+        }
+        loaded.countDown();
+    }
+
+    private static Filters filtersOf(Map<String, ?> all, Filters defaults,
+                                     String spinnerKey, String queryKey, String budgetKey, String distanceKey) {
+        Object spinner = all.get(spinnerKey);
+        Object query = all.get(queryKey);
+        Object distance = all.get(distanceKey);
+        return new Filters(
+                spinner instanceof String ? (String) spinner : defaults.spinner,
+                query instanceof String ? (String) query : defaults.query,
+                intOf(all.get(budgetKey), defaults.budget),
+                distance instanceof Float ? (Float) distance : defaults.distance);
+    }
+
+    private static int intOf(Object value, int defaultValue) {
+        return value instanceof Integer ? (Integer) value : defaultValue;
+    }
+
+    /**
+     * Records a change to persist with the next batch. Must hold the lock.
+     */
+    private static void write(String key, Object value) {
+        pendingWrites.put(key, value);
+        scheduleFlush();
+    }
+
+    private static void scheduleFlush() {
+        if (flushScheduled)
+            return;
+        flushScheduled = true;
+        diskExecutor.execute(SharedPrefHelper::flush);
+    }
+
+    /**
+     * Writes every change recorded since the last flush in one commit. Runs on the disk thread.
+     */
+    private static void flush() {
+        Map<String, Object> writes;
+        boolean clear;
+        synchronized (lock) {
+            writes = new HashMap<>(pendingWrites);
+            clear = pendingClear;
+            pendingWrites.clear();
+            pendingClear = false;
+            flushScheduled = false;
+        }
+
+        SharedPreferences.Editor editor = prefs.edit();
+        if (clear)
+            editor.clear();
+        for (Map.Entry<String, Object> entry : writes.entrySet()) {
+            Object value = entry.getValue();
+            if (value == null)
+                editor.remove(entry.getKey());
+            else if (value instanceof String)
+                editor.putString(entry.getKey(), (String) value);
+            else if (value instanceof Integer)
+                editor.putInt(entry.getKey(), (Integer) value);
+            else if (value instanceof Float)
+                editor.putFloat(entry.getKey(), (Float) value);
+        }
+        editor.commit();
+    }
 }
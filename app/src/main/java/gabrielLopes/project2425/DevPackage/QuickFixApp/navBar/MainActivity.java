@@ -3,17 +3,21 @@ package gabrielLopes.project2425.DevPackage.QuickFixApp.navBar;
 import android.content.Intent;
 import android.content.SharedPreferences;
 import android.os.Bundle;
+import android.text.Editable;
+import android.text.TextWatcher;
 import android.view.View;
 import android.widget.AdapterView;
 import android.widget.ArrayAdapter;
 import android.widget.EditText;
-import android.widget.ListView;
 import android.widget.Spinner;
 import android.widget.TextView;
 import android.widget.Toast;
 import android.widget.ImageView;
 import androidx.annotation.Nullable;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.recyclerview.widget.DividerItemDecoration;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -23,9 +27,12 @@ import gabrielLopes.project2425.DevPackage.QuickFixApp.ProviderPackage.Providers
 import gabrielLopes.project2425.DevPackage.QuickFixApp.ProviderPackage.ProviderDetailsActivity;
 import gabrielLopes.project2425.DevPackage.QuickFixApp.R;
 import gabrielLopes.project2425.DevPackage.QuickFixApp.ServerInterfacePackage.ApiModels;
+import gabrielLopes.project2425.DevPackage.QuickFixApp.ServerInterfacePackage.ListPager;
+import gabrielLopes.project2425.DevPackage.QuickFixApp.ServerInterfacePackage.RequestScope;
 import gabrielLopes.project2425.DevPackage.QuickFixApp.ServicesPackage.RequestsListAdapter;
 import gabrielLopes.project2425.DevPackage.QuickFixApp.ServicesPackage.ServiceDetailsActivity;
 import gabrielLopes.project2425.DevPackage.QuickFixApp.UserPackage.LoginActivity;
+import gabrielLopes.project2425.DevPackage.QuickFixApp.Utils.SearchDebouncer;
 import gabrielLopes.project2425.DevPackage.QuickFixApp.Utils.SharedPrefHelper;
 
 /**
@@ -33,6 +40,8 @@ import gabrielLopes.project2425.DevPackage.QuickFixApp.Utils.SharedPrefHelper;
  * depending on the mode.
  * <p>
  * Supports filters, search, distance-based sorting, and switching views through the bottom nav.
+ * The list is filtered as the user types: text filters are debounced, and only the response
+ * for the latest filters is ever shown.
  */
 public class MainActivity extends AppCompatActivity {
 
@@ -42,6 +51,7 @@ public class MainActivity extends AppCompatActivity {
     private static final String KEY_PROVIDER_BUDGET = "providerBudgetFilter";
     private static final String KEY_SEARCH_QUERY = "searchQuery";
     private static final String KEY_FILTER_DISTANCE = "distanceFilter";
+    private static final String LIST_SLOT = "list";
 
     private EditText searchInput;
     private TextView resetFiltersBtn;
@@ -49,14 +59,18 @@ public class MainActivity extends AppCompatActivity {
     private EditText budgetInput;
     private EditText distanceInput;
     private ImageView searchIcon;
-    private ListView listView;
-    private List<ApiModels.RequestResponse> requestsList = new ArrayList<>();
-    private List<ApiModels.ServiceProviderResponse> serviceProvidersList = new ArrayList<>();
+    private RecyclerView listView;
+    private LinearLayoutManager listLayoutManager;
     private RequestsListAdapter requestsListAdapter;
     private ProvidersListAdapter providersListAdapter;
 
     private int userId;
     private String viewMode;
+    private RequestScope requestScope;
+    private SearchDebouncer searchDebouncer;
+    private int queryGeneration;
+    private String lastFilterKey;
+    private ListPager<?> currentPager;
 
     /**
      * Initializes the activity, checks login state, loads filters and sets up UI based on view mode.
@@ -86,6 +100,8 @@ public class MainActivity extends AppCompatActivity {
             return;
         }
 
+        requestScope = RequestScope.of(this);
+        searchDebouncer = new SearchDebouncer(getResources().getInteger(R.integer.search_debounce_ms));
         initializeViews();
         setupMainActivity();
         NavBarHandler.setup(this, userId);
@@ -103,6 +119,9 @@ public class MainActivity extends AppCompatActivity {
         budgetInput = findViewById(R.id.budgetInput);
         distanceInput = findViewById(R.id.distanceInput);
         listView = findViewById(R.id.listView);
+        listLayoutManager = new LinearLayoutManager(this);
+        listView.setLayoutManager(listLayoutManager);
+        listView.addItemDecoration(new DividerItemDecoration(this, DividerItemDecoration.VERTICAL));
     }
 
     /**
@@ -112,12 +131,27 @@ public class MainActivity extends AppCompatActivity {
     private void setupMainActivity() {
         if (viewMode.equals(NavBarHandler.SHOW_REQUESTS)) {
             NavBarHandler.highlightSelected(this, R.id.nav_home);
-            requestsListAdapter = new RequestsListAdapter(this, requestsList);
+            requestsListAdapter = new RequestsListAdapter();
+            requestsListAdapter.setOnItemClickListener(request -> {
+                Intent intent = new Intent(MainActivity.this, ServiceDetailsActivity.class);
+                intent.putExtra("request_id", request.id);
+                intent.putExtra("is_request", true);
+                // Lets the details screen fetch the profiles it shows together with the request
+                intent.putExtra("client_id", request.clientID != null ? request.clientID : -1);
+                intent.putExtra("provider_id", request.requestedProviderID != null ? request.requestedProviderID : -1);
+                startActivityForResult(intent, 2);
+            });
             listView.setAdapter(requestsListAdapter);
             budgetInput.setHint("Min. budget (€)");
         } else {
             NavBarHandler.highlightSelected(this, R.id.nav_hire);
-            providersListAdapter = new ProvidersListAdapter(this, serviceProvidersList);
+            providersListAdapter = new ProvidersListAdapter(this);
+            providersListAdapter.setOnItemClickListener(provider -> {
+                Intent intent = new Intent(MainActivity.this, ProviderDetailsActivity.class);
+                intent.putExtra("SERVICE_RESPONSE_ID", provider.id);
+                intent.putExtra("SERVICE_ROLE", provider.role);
+                startActivityForResult(intent, 2);
+            });
             listView.setAdapter(providersListAdapter);
             budgetInput.setHint("Max budget (€)");
         }
@@ -174,20 +208,19 @@ public class MainActivity extends AppCompatActivity {
             return true;
         });
 
-        listView.setOnItemClickListener((parent, view, position, id) -> {
-            Intent intent;
-            if (viewMode.equals(NavBarHandler.SHOW_REQUESTS)) {
-                ApiModels.RequestResponse request = requestsList.get(position);
-                intent = new Intent(MainActivity.this, ServiceDetailsActivity.class);
-                intent.putExtra("request_id", request.id);
-                intent.putExtra("is_request", true);
-            } else {
-                ApiModels.ServiceProviderResponse provider = serviceProvidersList.get(position);
-                intent = new Intent(MainActivity.this, ProviderDetailsActivity.class);
-                intent.putExtra("SERVICE_RESPONSE_ID", provider.id);
-                intent.putExtra("SERVICE_ROLE", provider.role);
+        TextWatcher filterWatcher = new FilterTextWatcher();
+        searchInput.addTextChangedListener(filterWatcher);
+        budgetInput.addTextChangedListener(filterWatcher);
+        distanceInput.addTextChangedListener(filterWatcher);
+
+        listView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(RecyclerView recyclerView, int dx, int dy) {
+                // Also called after each layout, so a first page shorter than the screen still loads the next one
+                int lastVisible = listLayoutManager.findLastVisibleItemPosition();
+                if (currentPager != null && lastVisible != RecyclerView.NO_POSITION)
+                    currentPager.onScrolled(lastVisible);
             }
-            startActivityForResult(intent, 2);
         });
 
         getData();
@@ -196,8 +229,28 @@ public class MainActivity extends AppCompatActivity {
     /**
      * Gets data from the API based on current filters and view mode,
      * and updates the list view with results.
+     * A new load cancels the previous one, so only the latest filters reach the list.
      */
     private void getData() {
+        getData(false);
+    }
+
+    /**
+     * Gets data from the API based on current filters and view mode.
+     * <p>
+     * Filtering runs on the device against a list kept in memory by {@link ApiManager},
+     * so most filter changes are answered without a network call. Otherwise the list is loaded
+     * one page at a time, the next page being requested while the user scrolls towards the end.
+     * </p>
+     * <p>
+     * Any pending debounced search is dropped, the previous call is cancelled and every load
+     * gets a new generation number: a response is only applied if its generation is still the latest.
+     * </p>
+     * @param skipIfUnchanged If true, nothing is loaded when the filters match the last load.
+     */
+    private void getData(boolean skipIfUnchanged) {
+        searchDebouncer.cancel();
+
         String spinner = "";
         String searchQuery = searchInput.getText().toString().trim();
         int budget;
@@ -238,35 +291,44 @@ public class MainActivity extends AppCompatActivity {
             }
         }
 
+        String filterKey = viewMode + ":" + spinner + ":" + budget + ":" + searchQuery + ":" + maxDistance;
+        if (skipIfUnchanged && filterKey.equals(lastFilterKey))
+            return;
+        lastFilterKey = filterKey;
+        final int generation = ++queryGeneration;
+
         if (viewMode.equals(NavBarHandler.SHOW_REQUESTS)) {
-            ApiManager.getRequests(spinner, budget, searchQuery, maxDistance, new ApiManager.RequestsListCallback() {
+            currentPager = ApiManager.pageRequests(spinner, budget, searchQuery, maxDistance, new ListPager.Listener<ApiModels.RequestResponse>() {
                 @Override
-                public void onSuccess(List<ApiModels.RequestResponse> requests) {
-                    requestsList.clear();
-                    requestsList.addAll(requests);
-                    requestsListAdapter.notifyDataSetChanged();
+                public void onItemsChanged(List<ApiModels.RequestResponse> requests, boolean hasMore) {
+                    if (generation != queryGeneration)
+                        return;
+                    requestsListAdapter.submitList(requests);
                 }
 
                 @Override
                 public void onFailure(String errorMessage) {
-                    showToast(errorMessage);
+                    if (generation == queryGeneration)
+                        showToast(errorMessage);
                 }
             });
         } else {
-            ApiManager.getServiceProviders(spinner, budget, searchQuery,  maxDistance, new ApiManager.ServiceProvidersListCallback() {
+            currentPager = ApiManager.pageServiceProviders(spinner, budget, searchQuery, maxDistance, new ListPager.Listener<ApiModels.ServiceProviderResponse>() {
                 @Override
-                public void onSuccess(List<ApiModels.ServiceProviderResponse> providers) {
-                    serviceProvidersList.clear();
-                    serviceProvidersList.addAll(providers);
-                    providersListAdapter.notifyDataSetChanged();
+                public void onItemsChanged(List<ApiModels.ServiceProviderResponse> providers, boolean hasMore) {
+                    if (generation != queryGeneration)
+                        return;
+                    providersListAdapter.submitList(providers);
                 }
 
                 @Override
                 public void onFailure(String errorMessage) {
-                    showToast(errorMessage);
+                    if (generation == queryGeneration)
+                        showToast(errorMessage);
                 }
             });
         }
+        requestScope.replace(LIST_SLOT, currentPager);
     }
 
     /**
@@ -283,6 +345,25 @@ public class MainActivity extends AppCompatActivity {
         public void onNothingSelected(AdapterView<?> parent) {}
     }
 
+    /**
+     * Watches the text filters and reloads the list once the user stops typing.
+     */
+    private class FilterTextWatcher implements TextWatcher {
+        @Override
+        public void beforeTextChanged(CharSequence s, int start, int count, int after) {}
+
+        @Override
+        public void onTextChanged(CharSequence s, int start, int before, int count) {}
+
+        @Override
+        public void afterTextChanged(Editable s) {
+            searchDebouncer.submit(() -> {
+                saveFilters();
+                getData(true);
+            });
+        }
+    }
+
     /**
      * Saves the current filter values into SharedPreferences.
      */
@@ -313,10 +394,11 @@ public class MainActivity extends AppCompatActivity {
      * Restores previously saved filter values from SharedPreferences and updates UI accordingly.
      */
     private void restoreFilters() {
-        String savedSpinner = SharedPrefHelper.getFilterSpinner(this, viewMode);
-        String savedQuery = SharedPrefHelper.getFilterQuery(this, viewMode);
-        int savedBudget = SharedPrefHelper.getFilterBudget(this, viewMode);
-        double savedDistance = SharedPrefHelper.getFilterDistance(this, viewMode);
+        SharedPrefHelper.Filters saved = SharedPrefHelper.getFilters(this, viewMode);
+        String savedSpinner = saved.spinner;
+        String savedQuery = saved.query;
+        int savedBudget = saved.budget;
+        double savedDistance = saved.distance;
 
         if (!savedSpinner.isEmpty())
             setSpinnerSelection(spinner, savedSpinner);
@@ -410,6 +492,16 @@ public class MainActivity extends AppCompatActivity {
         }
     }
 
+    /**
+     * Drops any pending debounced search when the activity is destroyed.
+     */
+    @Override
+    protected void onDestroy() {
+        if (searchDebouncer != null)
+            searchDebouncer.cancel();
+        super.onDestroy();
+    }
+
     /**
      * Shows a short Toast message on the screen.
      *
@@ -8,6 +8,8 @@ import androidx.appcompat.app.AppCompatActivity;
 import gabrielLopes.project2425.DevPackage.QuickFixApp.R;
 import gabrielLopes.project2425.DevPackage.QuickFixApp.ServerInterfacePackage.ApiManager;
 import gabrielLopes.project2425.DevPackage.QuickFixApp.ServerInterfacePackage.ApiModels;
+import gabrielLopes.project2425.DevPackage.QuickFixApp.ServerInterfacePackage.Deadline;
+import gabrielLopes.project2425.DevPackage.QuickFixApp.ServerInterfacePackage.RequestScope;
 import gabrielLopes.project2425.DevPackage.QuickFixApp.Utils.SharedPrefHelper;
 
 import java.util.Calendar;
@@ -82,7 +84,7 @@ public class ModifyRequestActivity extends AppCompatActivity {
      * @param id The ID of the request to get and edit.
      */
     private void getAndPopulateRequest(int id) {
-        ApiManager.getRequestById(id, new ApiManager.RequestCallback() {
+        RequestScope.of(this).track(ApiManager.getRequestById(id, new ApiManager.RequestCallback() {
             @Override
             public void onSuccess(ApiModels.RequestResponse request) {
                 titleText.setText(request.title);
@@ -90,14 +92,9 @@ public class ModifyRequestActivity extends AppCompatActivity {
                 priceText.setText(String.valueOf(request.price));
                 descriptionText.setText(request.description);
 
-                String[] parts = request.deadline.split("T");
-                if (parts.length >= 2) {
-                    deadlineText.setText(parts[0]);
-                    deadlineTimeText.setText(parts[1].substring(0, 5));
-                } else {
-                    deadlineText.setText(request.deadline);
-                    deadlineTimeText.setText("00:00");
-                }
+                Deadline deadline = request.getDeadline();
+                deadlineText.setText(deadline.inputDate);
+                deadlineTimeText.setText(deadline.inputTime);
 
                 setupTypeSpinner(request.type);
             }
@@ -107,7 +104,7 @@ public class ModifyRequestActivity extends AppCompatActivity {
                 showToast(errorMessage);
                 finish();
             }
-        });
+        }));
     }
 
     /**
@@ -5,12 +5,17 @@ import android.os.Bundle;
 import android.view.View;
 import android.widget.*;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.recyclerview.widget.DividerItemDecoration;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 import gabrielLopes.project2425.DevPackage.QuickFixApp.R;
 import gabrielLopes.project2425.DevPackage.QuickFixApp.ServerInterfacePackage.ApiManager;
 import gabrielLopes.project2425.DevPackage.QuickFixApp.ServerInterfacePackage.ApiModels;
+import gabrielLopes.project2425.DevPackage.QuickFixApp.ServerInterfacePackage.ListPager;
+import gabrielLopes.project2425.DevPackage.QuickFixApp.ServerInterfacePackage.RequestScope;
 import gabrielLopes.project2425.DevPackage.QuickFixApp.ServicesPackage.ServiceDetailsActivity;
 import gabrielLopes.project2425.DevPackage.QuickFixApp.ServicesPackage.ServiceListAdapter;
 import gabrielLopes.project2425.DevPackage.QuickFixApp.ServicesPackage.RequestsListAdapter;
@@ -22,17 +27,21 @@ import gabrielLopes.project2425.DevPackage.QuickFixApp.Utils.SharedPrefHelper;
  */
 public class MyServicesAndRequestsActivity extends AppCompatActivity {
 
+    private static final String LIST_SLOT = "list";
+
     private Button tabRequests, tabServices;
     private Spinner statusSpinner;
     private EditText budgetInput, searchInput;
     private ImageView searchIcon;
-    private ListView listView;
+    private RecyclerView listView;
+    private LinearLayoutManager listLayoutManager;
 
     private boolean isShowingRequests = true;
     private int userId;
+    private RequestScope requestScope;
+    private ListPager<?> currentPager;
+    private final Runnable rollbackListener = this::loadData;
 
-    private final List<ApiModels.RequestResponse> requestsList = new ArrayList<>();
-    private final List<ApiModels.ServiceResponse> servicesList = new ArrayList<>();
     private RequestsListAdapter requestsAdapter;
     private ServiceListAdapter servicesAdapter;
 
@@ -51,6 +60,7 @@ public class MyServicesAndRequestsActivity extends AppCompatActivity {
         userId = SharedPrefHelper.getUserId(this);
         if (userId == -1)
             finish();
+        requestScope = RequestScope.of(this);
 
         initializeViews();
         setupListeners();
@@ -74,7 +84,11 @@ public class MyServicesAndRequestsActivity extends AppCompatActivity {
         tabRequests.setBackgroundResource(R.drawable.tab_selected);
         tabServices.setBackgroundResource(R.drawable.tab_unselected);
 
-        requestsAdapter = new RequestsListAdapter(this, requestsList);
+        listLayoutManager = new LinearLayoutManager(this);
+        listView.setLayoutManager(listLayoutManager);
+        listView.addItemDecoration(new DividerItemDecoration(this, DividerItemDecoration.VERTICAL));
+        requestsAdapter = new RequestsListAdapter();
+        servicesAdapter = new ServiceListAdapter();
         listView.setAdapter(requestsAdapter);
 
         if (isShowingRequests) {
@@ -127,20 +141,29 @@ public class MyServicesAndRequestsActivity extends AppCompatActivity {
             public void onNothingSelected(AdapterView<?> parent) {}
         });
 
-        listView.setOnItemClickListener((parent, view, position, id) -> {
-            if (isShowingRequests) {
-                ApiModels.RequestResponse request = requestsList.get(position);
-                Intent intent = new Intent(MyServicesAndRequestsActivity.this, ServiceDetailsActivity.class);
-                intent.putExtra("request_id", request.id);
-                intent.putExtra("is_request", true);
-                startActivity(intent);
-
-            } else {
-                ApiModels.ServiceResponse service = servicesList.get(position);
-                Intent intent = new Intent(MyServicesAndRequestsActivity.this, ServiceDetailsActivity.class);
-                intent.putExtra("service_id", service.id);
-                intent.putExtra("is_request", false);
-                startActivity(intent);
+        requestsAdapter.setOnItemClickListener(request -> {
+            Intent intent = new Intent(MyServicesAndRequestsActivity.this, ServiceDetailsActivity.class);
+            intent.putExtra("request_id", request.id);
+            intent.putExtra("is_request", true);
+            // Lets the details screen fetch the profiles it shows together with the request
+            intent.putExtra("client_id", request.clientID != null ? request.clientID : -1);
+            intent.putExtra("provider_id", request.requestedProviderID != null ? request.requestedProviderID : -1);
+            startActivity(intent);
+        });
+
+        servicesAdapter.setOnItemClickListener(service -> {
+            Intent intent = new Intent(MyServicesAndRequestsActivity.this, ServiceDetailsActivity.class);
+            intent.putExtra("service_id", service.id);
+            intent.putExtra("is_request", false);
+            startActivity(intent);
+        });
+
+        listView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(RecyclerView recyclerView, int dx, int dy) {
+                int lastVisible = listLayoutManager.findLastVisibleItemPosition();
+                if (currentPager != null && lastVisible != RecyclerView.NO_POSITION)
+                    currentPager.onScrolled(lastVisible);
             }
         });
     }
@@ -179,16 +202,15 @@ public class MyServicesAndRequestsActivity extends AppCompatActivity {
     }
 
     /**
-     * Loads and filters the requests created by the user.
+     * Loads and filters the requests created by the user, one page at a time as the list is scrolled.
      *
      * @param budget          The maximum price filter for requests.
      * @param selectedStatus  The status filter (Pending, Accepted, etc.).
      * @param query           A free-text search query.
      */
     private void loadRequests(double budget, String selectedStatus, String query) {
-        requestsList.clear();
-        requestsAdapter.notifyDataSetChanged();
-        listView.setAdapter(requestsAdapter);
+        if (listView.getAdapter() != requestsAdapter)
+            listView.setAdapter(requestsAdapter);
 
         String statusParam;
         if (selectedStatus.equalsIgnoreCase("any"))
@@ -196,14 +218,11 @@ public class MyServicesAndRequestsActivity extends AppCompatActivity {
         else
             statusParam = selectedStatus;
 
-        ApiManager.getClientRequests(statusParam, query, budget, new ApiManager.RequestsListCallback() {
+        currentPager = ApiManager.pageClientRequests(statusParam, query, budget, new ListPager.Listener<ApiModels.RequestResponse>() {
             @Override
-            public void onSuccess(List<ApiModels.RequestResponse> serviceRequests) {
+            public void onItemsChanged(List<ApiModels.RequestResponse> serviceRequests, boolean hasMore) {
                 runOnUiThread(() -> {
-                    requestsList.clear();
-                    requestsList.addAll(serviceRequests);
-                    requestsAdapter.notifyDataSetChanged();
-                    listView.setAdapter(requestsAdapter);
+                    requestsAdapter.submitList(serviceRequests);
                 });
             }
 
@@ -212,19 +231,19 @@ public class MyServicesAndRequestsActivity extends AppCompatActivity {
                 runOnUiThread(() -> showToast("Failed to load requests: " + message));
             }
         });
+        requestScope.replace(LIST_SLOT, currentPager);
     }
 
     /**
-     * Loads and filters services the user has accepted as a provider.
+     * Loads and filters services the user has accepted as a provider, one page at a time as the list is scrolled.
      *
      * @param budget          The minimum price filter for services.
      * @param selectedStatus  The status filter (Pending, Started, etc.).
      * @param query           A free-text search query.
      */
     private void loadServices(double budget, String selectedStatus, String query) {
-        servicesList.clear();
-        servicesAdapter = new ServiceListAdapter(MyServicesAndRequestsActivity.this, servicesList);
-        listView.setAdapter(servicesAdapter);
+        if (listView.getAdapter() != servicesAdapter)
+            listView.setAdapter(servicesAdapter);
 
         String statusParam;
         if (selectedStatus.equalsIgnoreCase("any"))
@@ -232,14 +251,17 @@ public class MyServicesAndRequestsActivity extends AppCompatActivity {
         else
             statusParam = selectedStatus;
 
-        ApiManager.getServicesByProvider(userId, statusParam, query, budget, new ApiManager.ServiceListCallback() {
+        currentPager = ApiManager.pageServicesByProvider(userId, statusParam, query, budget, new ListPager.Listener<ApiModels.ServiceResponse>() {
             @Override
-            public void onSuccess(List<ApiModels.ServiceResponse> services) {
+            public void onItemsChanged(List<ApiModels.ServiceResponse> services, boolean hasMore) {
                 runOnUiThread(() -> {
-                    servicesList.clear();
-                    servicesList.addAll(services);
-                    servicesAdapter.notifyDataSetChanged();
-                    listView.setAdapter(servicesAdapter);
+                    // Status changes not yet confirmed are already applied: keep the filter consistent with them
+                    List<ApiModels.ServiceResponse> shown = new ArrayList<>(services.size());
+                    for (ApiModels.ServiceResponse service : services) {
+                        if (statusParam == null || statusParam.equalsIgnoreCase(service.status))
+                            shown.add(service);
+                    }
+                    servicesAdapter.submitList(shown);
                 });
             }
 
@@ -248,17 +270,29 @@ public class MyServicesAndRequestsActivity extends AppCompatActivity {
                 runOnUiThread(() -> showToast("Failed to load services: " + errorMessage));
             }
         });
+        requestScope.replace(LIST_SLOT, currentPager);
     }
 
     /**
      * Reloads data when returning to this activity to ensure updates are reflected.
+     * While visible, also reloads when a change shown before confirmation is rejected.
      */
     @Override
     protected void onResume() {
         super.onResume();
+        ApiManager.addRollbackListener(rollbackListener);
         loadData();
     }
 
+    /**
+     * Stops listening for rejected changes while the activity is in the background.
+     */
+    @Override
+    protected void onPause() {
+        super.onPause();
+        ApiManager.removeRollbackListener(rollbackListener);
+    }
+
     /**
      * Displays a short Toast message to the user.
      *
@@ -16,6 +16,7 @@ import java.util.List;
 import gabrielLopes.project2425.DevPackage.QuickFixApp.R;
 import gabrielLopes.project2425.DevPackage.QuickFixApp.ServerInterfacePackage.ApiManager;
 import gabrielLopes.project2425.DevPackage.QuickFixApp.ServerInterfacePackage.ApiModels;
+import gabrielLopes.project2425.DevPackage.QuickFixApp.ServerInterfacePackage.RequestScope;
 import gabrielLopes.project2425.DevPackage.QuickFixApp.ProviderPackage.MyProviderRolesActivity;
 import gabrielLopes.project2425.DevPackage.QuickFixApp.UserPackage.LoginActivity;
 import gabrielLopes.project2425.DevPackage.QuickFixApp.UserPackage.MyProfileActivity;
@@ -106,6 +107,7 @@ public class SettingsActivity extends AppCompatActivity {
                     break;
                 case "Logout":
                     SharedPrefHelper.clearUserData(this);
+                    ApiManager.clearCache();
                     Intent logoutIntent = new Intent(SettingsActivity.this, LoginActivity.class);
                     logoutIntent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
                     startActivity(logoutIntent);
@@ -144,7 +146,7 @@ public class SettingsActivity extends AppCompatActivity {
 
     private void getUserName() {
         usernameTextView = findViewById(R.id.usernameTextView);
-        ApiManager.getUser(new ApiManager.ProfileCallback() {
+        RequestScope.of(this).track(ApiManager.getUser(new ApiManager.ProfileCallback() {
             @Override
             public void onSuccess(ApiModels.UserProfileResponse profile) {
                 if (profile.name != null)
@@ -157,7 +159,7 @@ public class SettingsActivity extends AppCompatActivity {
             public void onFailure(String message) {
                 showToast("Failed to load profile: " + message);
             }
-        });
+        }));
     }
 
     /**
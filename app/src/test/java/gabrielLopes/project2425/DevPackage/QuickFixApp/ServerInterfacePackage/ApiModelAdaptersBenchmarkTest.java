@@ -0,0 +1,108 @@
+package gabrielLopes.project2425.DevPackage.QuickFixApp.ServerInterfacePackage;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+
+import org.junit.Test;
+
+import java.lang.reflect.Type;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Compares the streaming adapters of {@link ApiModelAdapters} with Gson's reflective adapter on
+ * a large {@code /requests} payload: the first parse of a fresh Gson (adapter setup included)
+ * and the steady state once warmed up.
+ * <p>
+ * Timings depend on the machine, so the bounds are loose: they catch the adapters becoming
+ * clearly slower than reflection, not small changes. The measured times are in the messages.
+ */
+public class ApiModelAdaptersBenchmarkTest {
+
+    private static final int ITEMS = 5_000;
+    private static final int WARMUP_RUNS = 20;
+    private static final int MEASURED_RUNS = 50;
+    /** How much slower than reflection the adapters may be before the benchmark fails. */
+    private static final double TOLERANCE = 1.5;
+    private static final Type REQUEST_LIST = new TypeToken<List<ApiModels.RequestResponse>>() {}.getType();
+
+    @Test
+    public void firstParseIsNotSlowerThanReflection() {
+        String json = requestsPayload(ITEMS);
+        // Loads the JSON reader classes, so neither first call pays for them
+        new Gson().fromJson(json, Object.class);
+
+        long reflective = time(new Gson(), json);
+        long adapters = time(freshAdapterGson(), json);
+
+        assertFaster("first parse of " + ITEMS + " requests", reflective, adapters);
+    }
+
+    @Test
+    public void steadyStateIsNotSlowerThanReflection() {
+        String json = requestsPayload(ITEMS);
+        Gson reflectiveGson = new Gson();
+        Gson adapterGson = freshAdapterGson();
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            time(reflectiveGson, json);
+            time(adapterGson, json);
+        }
+
+        long reflective = 0;
+        long adapters = 0;
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            reflective += time(reflectiveGson, json);
+            adapters += time(adapterGson, json);
+        }
+
+        assertFaster("steady-state parse of " + ITEMS + " requests", reflective / MEASURED_RUNS, adapters / MEASURED_RUNS);
+    }
+
+    private static void assertFaster(String what, long reflectiveNs, long adaptersNs) {
+        String timings = what + ": reflection " + reflectiveNs / 1000 + " us, adapters " + adaptersNs / 1000 + " us";
+        assertTrue(timings, adaptersNs <= reflectiveNs * TOLERANCE);
+    }
+
+    /**
+     * @return A Gson with the model adapters and no adapter created yet.
+     */
+    private static Gson freshAdapterGson() {
+        return new GsonBuilder().registerTypeAdapterFactory(ApiModelAdapters.FACTORY).create();
+    }
+
+    private static long time(Gson gson, String json) {
+        long start = System.nanoTime();
+        List<ApiModels.RequestResponse> requests = gson.fromJson(json, REQUEST_LIST);
+        long elapsed = System.nanoTime() - start;
+        assertEquals(ITEMS, requests.size());
+        return elapsed;
+    }
+
+    /**
+     * @return A {@code /requests} response of {@code count} requests, shaped like the backend's.
+     */
+    private static String requestsPayload(int count) {
+        String[] types = {"Plumbing", "Electrical", "Cleaning", "Gardening"};
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < count; i++) {
+            if (i > 0)
+                json.append(',');
+            json.append("{\"request_id\":").append(i)
+                    .append(",\"service_title\":\"Request ").append(i).append('"')
+                    .append(",\"service_type\":\"").append(types[i % types.length]).append('"')
+                    .append(",\"service_description\":\"Needs someone to look at it, ideally this week. Ref ").append(i).append('"')
+                    .append(",\"service_location\":\"Rua ").append(i % 200).append(", Coimbra\"")
+                    .append(",\"service_deadline\":\"2025-0").append(1 + i % 9).append("-1").append(i % 10).append('"')
+                    .append(",\"service_price\":").append(20 + i % 300).append(".5")
+                    .append(",\"request_status\":\"").append(i % 3 == 0 ? "accepted" : "pending").append('"')
+                    .append(",\"service_isAccepted\":").append(i % 3 == 0)
+                    .append(",\"requester\":").append(1000 + i % 50)
+                    .append(",\"requested_provider\":").append(i % 4 == 0 ? "null" : String.valueOf(i % 70))
+                    .append(",\"distanceKm\":").append(i % 120)
+                    .append('}');
+        }
+        return json.append(']').toString();
+    }
+}
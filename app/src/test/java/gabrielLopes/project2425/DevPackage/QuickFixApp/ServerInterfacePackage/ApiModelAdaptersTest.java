@@ -0,0 +1,156 @@
+package gabrielLopes.project2425.DevPackage.QuickFixApp.ServerInterfacePackage;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the streaming adapters of {@link ApiModelAdapters} read and write every
+ * {@link ApiModels} class exactly like Gson's reflective adapter, with every field set and with
+ * every field at its default.
+ */
+public class ApiModelAdaptersTest {
+
+    /** Gson without the model adapters: the reference behavior. */
+    private static final Gson REFLECTIVE = new Gson();
+
+    private static final Type REQUEST_PAGE = new TypeToken<ApiModels.Page<ApiModels.RequestResponse>>() {}.getType();
+
+    @Test
+    public void everyModelHasAnAdapter() {
+        for (Class<?> model : models())
+            assertNotNull(model.getSimpleName(), ApiModelAdapters.FACTORY.create(ApiGson.get(), TypeToken.get(model)));
+    }
+
+    @Test
+    public void everyModelWritesLikeReflection() throws Exception {
+        for (Class<?> model : models()) {
+            Object populated = populated(model, 1);
+            assertEquals(model.getSimpleName(), REFLECTIVE.toJson(populated), ApiGson.get().toJson(populated));
+
+            Object empty = REFLECTIVE.fromJson("{}", model);
+            assertEquals(model.getSimpleName(), REFLECTIVE.toJson(empty), ApiGson.get().toJson(empty));
+        }
+    }
+
+    @Test
+    public void everyModelReadsLikeReflection() throws Exception {
+        for (Class<?> model : models()) {
+            String json = REFLECTIVE.toJson(populated(model, 1));
+            // Unknown names are skipped, whatever their value
+            String withExtras = "{\"unknown\":{\"a\":[1,null]}," + json.substring(1, json.length() - 1) + ",\"other\":null}";
+            assertReadsLikeReflection(model, withExtras);
+            assertReadsLikeReflection(model, "{}");
+            assertReadsLikeReflection(model, "null");
+        }
+    }
+
+    @Test
+    public void pagesOfEveryModelReadLikeReflection() throws Exception {
+        for (Class<?> model : models()) {
+            Type pageType = TypeToken.getParameterized(ApiModels.Page.class, model).getType();
+            ApiModels.Page<Object> page = new ApiModels.Page<>();
+            page.items = new ArrayList<>();
+            page.items.add(populated(model, 1));
+            page.items.add(populated(model, 2));
+            page.nextCursor = "cursor";
+
+            String json = REFLECTIVE.toJson(page, pageType);
+            assertEquals(model.getSimpleName(), json, ApiGson.get().toJson(page, pageType));
+            assertEquals(model.getSimpleName(), json,
+                    REFLECTIVE.toJson(ApiGson.get().fromJson(json, pageType), pageType));
+        }
+    }
+
+    @Test
+    public void pagesUseTheItemAdapter() {
+        String json = "{\"items\":[{\"request_id\":0,\"service_deadline\":\"2025-06-01\"},{\"request_id\":1},"
+                + "{\"request_id\":2}],\"nextCursor\":\"abc\",\"extra\":[1,2]}";
+        ApiModels.Page<ApiModels.RequestResponse> page = ApiGson.get().fromJson(json, REQUEST_PAGE);
+
+        assertEquals("abc", page.nextCursor);
+        assertEquals(3, page.items.size());
+        assertEquals(2, page.items.get(2).id);
+        // Completed by ApiGson after being read
+        assertNotNull(page.items.get(0).getDeadline());
+    }
+
+    @Test
+    public void nullsKeepPrimitiveDefaults() {
+        ApiModels.RequestResponse request = ApiGson.get().fromJson(
+                "{\"request_id\":null,\"service_price\":\"12.5\",\"requester\":null,\"service_isAccepted\":\"true\"}",
+                ApiModels.RequestResponse.class);
+
+        assertEquals(0, request.id);
+        assertEquals(12.5, request.price, 0);
+        assertNull(request.clientID);
+        assertTrue(request.isAccepted);
+    }
+
+    private static void assertReadsLikeReflection(Class<?> model, String json) {
+        assertEquals(model.getSimpleName() + " from " + json,
+                REFLECTIVE.toJson(REFLECTIVE.fromJson(json, model)),
+                REFLECTIVE.toJson(ApiGson.get().fromJson(json, model)));
+    }
+
+    /**
+     * @return Every model class, except the generic {@link ApiModels.Page}.
+     */
+    private static List<Class<?>> models() {
+        List<Class<?>> models = new ArrayList<>();
+        for (Class<?> model : ApiModels.class.getDeclaredClasses()) {
+            if (model != ApiModels.Page.class)
+                models.add(model);
+        }
+        assertFalse(models.isEmpty());
+        return models;
+    }
+
+    /**
+     * @return A model with every serialized field set to a value derived from {@code seed}.
+     */
+    private static Object populated(Class<?> model, int seed) throws Exception {
+        // Gson creates models without a no-argument constructor too
+        Object value = REFLECTIVE.fromJson("{}", model);
+        for (Field field : model.getDeclaredFields()) {
+            int modifiers = field.getModifiers();
+            if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isSynthetic())
+                continue;
+            field.setAccessible(true);
+            field.set(value, sample(field, seed));
+        }
+        return value;
+    }
+
+    private static Object sample(Field field, int seed) throws Exception {
+        Class<?> type = field.getType();
+        if (type == String.class)
+            return field.getName() + " " + seed;
+        if (type == int.class || type == Integer.class)
+            return 10 + seed;
+        if (type == long.class || type == Long.class)
+            return 100L + seed;
+        if (type == double.class || type == Double.class)
+            return seed + 0.5;
+        if (type == boolean.class || type == Boolean.class)
+            return true;
+        if (type == List.class) {
+            Type item = ((ParameterizedType) field.getGenericType()).getActualTypeArguments()[0];
+            List<Object> list = new ArrayList<>();
+            list.add(populated((Class<?>) item, seed));
+            list.add(populated((Class<?>) item, seed + 1));
+            return list;
+        }
+        throw new AssertionError("No sample for " + field);
+    }
+}
@@ -0,0 +1,250 @@
+package gabrielLopes.project2425.DevPackage.QuickFixApp.ServerInterfacePackage;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okhttp3.mockwebserver.SocketPolicy;
+import retrofit2.Retrofit;
+import retrofit2.converter.gson.GsonConverterFactory;
+
+import static org.junit.Assert.*;
+
+/**
+ * Runs {@link ResumableUploader} against a fake backend speaking the chunked upload protocol of
+ * {@code /profilePicture/uploads}: chunks accepted only at the expected offset (409 with the
+ * current state otherwise), status to resume from, and a "complete" that can be repeated.
+ * Responses can be dropped after the backend applied the request, like a lost connection.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class ResumableUploaderTest {
+
+    private static final int CHUNK_SIZE = 4;
+    private static final byte[] PICTURE = "0123456789".getBytes();
+
+    private MockWebServer server;
+    private FakeUploadBackend backend;
+    private ResumableUploader uploader;
+
+    @Before
+    public void setUp() throws IOException {
+        backend = new FakeUploadBackend();
+        server = new MockWebServer();
+        server.setDispatcher(backend);
+        server.start();
+
+        // No transparent retry by OkHttp: the uploader's own recovery is what is tested
+        OkHttpClient client = new OkHttpClient.Builder().retryOnConnectionFailure(false).build();
+        ApiInterface api = new Retrofit.Builder()
+                .baseUrl(server.url("/"))
+                .client(client)
+                .addConverterFactory(GsonConverterFactory.create(ApiGson.get()))
+                .build()
+                .create(ApiInterface.class);
+        uploader = new ResumableUploader(api);
+        uploader.attach(RuntimeEnvironment.getApplication(), null);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    public void sendsEveryChunkOnceAndCompletes() throws Exception {
+        Result result = upload();
+
+        assertEquals("https://cdn/pic.png", result.response.url);
+        assertArrayEquals(PICTURE, backend.stored.toByteArray());
+        assertEquals(Arrays.asList(0L, 4L, 8L), backend.chunkOffsets);
+        assertEquals(1, backend.starts);
+        assertEquals(1, backend.completes);
+    }
+
+    @Test
+    public void resumesFromBackendOffsetAfterLostChunkResponse() throws Exception {
+        backend.dropResponses.add("PUT 4");
+
+        Result result = upload();
+
+        assertNotNull(result.response);
+        assertArrayEquals(PICTURE, backend.stored.toByteArray());
+        // The chunk at 4 was stored before its answer was lost: it is not sent again
+        assertEquals(Arrays.asList(0L, 4L, 8L), backend.chunkOffsets);
+        assertEquals(1, backend.statusRequests);
+        assertEquals(1, backend.starts);
+    }
+
+    @Test
+    public void movesToBackendOffsetOnConflict() throws Exception {
+        // The backend already holds the first chunk, e.g. from an attempt whose answer was lost
+        backend.preloaded = CHUNK_SIZE;
+
+        Result result = upload();
+
+        assertNotNull(result.response);
+        assertArrayEquals(PICTURE, backend.stored.toByteArray());
+        // The chunk at 0 is refused, the client continues from 4
+        assertEquals(Arrays.asList(4L, 8L), backend.chunkOffsets);
+        assertEquals(1, backend.conflicts);
+    }
+
+    @Test
+    public void lostCompleteResponseDoesNotRestartUpload() throws Exception {
+        backend.dropResponses.add("COMPLETE");
+
+        Result result = upload();
+
+        assertEquals("https://cdn/pic.png", result.response.url);
+        assertEquals(1, backend.starts);
+        assertEquals(2, backend.completes);
+        assertEquals(Arrays.asList(0L, 4L, 8L), backend.chunkOffsets);
+    }
+
+    @Test
+    public void restartsWhenBackendForgotUpload() throws Exception {
+        backend.dropResponses.add("PUT 4");
+        backend.forgetOnDrop = true;
+
+        Result result = upload();
+
+        assertNotNull(result.response);
+        assertArrayEquals(PICTURE, backend.stored.toByteArray());
+        assertEquals(2, backend.starts);
+    }
+
+    @Test
+    public void failsThroughListenerWhenNotAttached() throws Exception {
+        Result result = new Result();
+        new ResumableUploader(null).start(PICTURE, result);
+
+        assertTrue("Upload did not finish", result.done.await(30, TimeUnit.SECONDS));
+        assertNotNull(result.error);
+        assertEquals(0, backend.starts);
+    }
+
+    private Result upload() throws InterruptedException {
+        Result result = new Result();
+        uploader.start(PICTURE, result);
+        assertTrue("Upload did not finish", result.done.await(30, TimeUnit.SECONDS));
+        assertNull(result.error, result.error);
+        return result;
+    }
+
+    private static class Result implements ResumableUploader.Listener {
+        final CountDownLatch done = new CountDownLatch(1);
+        ApiModels.ProfilePictureUploadResponse response;
+        String error;
+
+        @Override
+        public void onComplete(ApiModels.ProfilePictureUploadResponse response) {
+            this.response = response;
+            done.countDown();
+        }
+
+        @Override
+        public void onFailure(String errorMessage) {
+            error = errorMessage;
+            done.countDown();
+        }
+    }
+
+    /**
+     * Backend of a single upload. Requests are handled one at a time by MockWebServer.
+     */
+    private static class FakeUploadBackend extends Dispatcher {
+        /** Requests ("PUT offset", "COMPLETE") whose answer is lost once, after being applied. */
+        final Set<String> dropResponses = new HashSet<>();
+        /** Also forgets the upload when an answer is lost, like an expired session. */
+        boolean forgetOnDrop;
+        /** Bytes the backend holds before the first chunk arrives. */
+        int preloaded;
+
+        final List<Long> chunkOffsets = new ArrayList<>();
+        ByteArrayOutputStream stored = new ByteArrayOutputStream();
+        int starts;
+        int statusRequests;
+        int conflicts;
+        int completes;
+
+        private String uploadId;
+        private long size;
+        private boolean completed;
+
+        @Override
+        public MockResponse dispatch(RecordedRequest request) {
+            String path = request.getRequestUrl().encodedPath();
+            String method = request.getMethod();
+
+            if ("POST".equals(method) && path.equals("/profilePicture/uploads")) {
+                starts++;
+                ApiModels.UploadSessionRequest body = ApiGson.get().fromJson(
+                        request.getBody().readUtf8(), ApiModels.UploadSessionRequest.class);
+                uploadId = "upload" + starts;
+                size = body.size;
+                completed = false;
+                stored = new ByteArrayOutputStream();
+                stored.write(PICTURE, 0, preloaded);
+                return status(201);
+            }
+            if (uploadId == null || !path.startsWith("/profilePicture/uploads/" + uploadId))
+                return new MockResponse().setResponseCode(404).setBody("{\"message\":\"Upload not found\"}");
+
+            if ("GET".equals(method)) {
+                statusRequests++;
+                return status(200);
+            }
+            if ("PUT".equals(method)) {
+                long offset = Long.parseLong(request.getRequestUrl().queryParameter("offset"));
+                byte[] chunk = request.getBody().readByteArray();
+                if (completed || offset != stored.size() || offset + chunk.length > size) {
+                    conflicts++;
+                    return status(409);
+                }
+                chunkOffsets.add(offset);
+                stored.write(chunk, 0, chunk.length);
+                return answer("PUT " + offset, status(200));
+            }
+            if ("POST".equals(method) && path.endsWith("/complete")) {
+                completes++;
+                if (stored.size() != size)
+                    return status(409);
+                completed = true;
+                return answer("COMPLETE", new MockResponse().setResponseCode(200).setBody(
+                        "{\"message\":\"Profile picture updated\",\"url\":\"https://cdn/pic.png\",\"version\":\"v1\"}"));
+            }
+            return new MockResponse().setResponseCode(405);
+        }
+
+        private MockResponse answer(String request, MockResponse response) {
+            if (!dropResponses.remove(request))
+                return response;
+            if (forgetOnDrop)
+                uploadId = null;
+            return new MockResponse().setSocketPolicy(SocketPolicy.DISCONNECT_AFTER_REQUEST);
+        }
+
+        private MockResponse status(int code) {
+            return new MockResponse().setResponseCode(code).setBody("{\"uploadId\":\"" + uploadId + "\",\"size\":" + size
+                    + ",\"received\":" + stored.size() + ",\"chunkSize\":" + CHUNK_SIZE + "}");
+        }
+    }
+}